@@ -0,0 +1,81 @@
+package com.microservices.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A cached upstream response. Hop-by-hop and length headers are dropped, they are recomputed when served.
+ *
+ * @param revalidate whether the upstream must confirm the entry with a conditional request before it is served
+ * @param expiresAt  epoch millis after which the entry is stale
+ */
+public record CachedResponse(int status, Map<String, List<String>> headers, byte[] body, String etag,
+                             boolean revalidate, long expiresAt) {
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.ETAG.toLowerCase(),
+            "keep-alive", HttpHeaders.UPGRADE.toLowerCase());
+
+    /**
+     * Captures a response, keeping the upstream ETag or deriving a strong one from the body.
+     */
+    public static CachedResponse of(int status, HttpHeaders headers, byte[] body, boolean revalidate,
+                                    long expiresAt) {
+        Map<String, List<String>> kept = new LinkedHashMap<>();
+        headers.forEach((name, values) -> {
+            if (!EXCLUDED_HEADERS.contains(name.toLowerCase())) {
+                kept.put(name, List.copyOf(values));
+            }
+        });
+        String etag = headers.getETag() != null ? headers.getETag() : strongEtag(body);
+        return new CachedResponse(status, kept, body, etag, revalidate, expiresAt);
+    }
+
+    /**
+     * The same response, confirmed by the upstream to still be current.
+     */
+    public CachedResponse renewed(long expiresAt) {
+        return new CachedResponse(status, headers, body, etag, revalidate, expiresAt);
+    }
+
+    public long remainingMillis(long now) {
+        return expiresAt - now;
+    }
+
+    /**
+     * Weak comparison as required for {@code If-None-Match}: {@code W/"x"} matches {@code "x"}.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String tag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaqueTag(trimmed).equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String strongEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
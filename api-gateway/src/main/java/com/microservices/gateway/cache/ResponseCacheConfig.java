@@ -0,0 +1,31 @@
+package com.microservices.gateway.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * Wires the response cache for the routes listed under {@code app.response-cache.routes}.
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCacheStore responseCacheStore(ResponseCacheProperties properties,
+                                                 ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+                                                 ObjectMapper objectMapper,
+                                                 MeterRegistry meterRegistry) {
+        return new ResponseCacheStore(properties, redisTemplate.getIfAvailable(), objectMapper, meterRegistry);
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCacheProperties properties, ResponseCacheStore store,
+                                                   MeterRegistry meterRegistry) {
+        return new ResponseCacheFilter(properties, store, meterRegistry);
+    }
+}
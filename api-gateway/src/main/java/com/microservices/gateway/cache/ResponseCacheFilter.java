@@ -0,0 +1,329 @@
+package com.microservices.gateway.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Serves GET requests on the configured routes from {@link ResponseCacheStore}.
+ * <p>
+ * Concurrent misses for the same URL are collapsed: the first request goes upstream and the others wait for its
+ * response instead of being proxied too. Every cached response carries an ETag, and a matching
+ * {@code If-None-Match} is answered with 304 without a body.
+ * <p>
+ * Responses are keyed by the {@code Accept} and {@code Accept-Encoding} the caller sent as well, and a response that
+ * varies by any other header is not cached. A response the upstream marks {@code no-cache}, or that carries its own
+ * ETag, is kept only to be revalidated: each request asks the upstream with the cached ETag and is served the cached
+ * body on a 304. A caller sending {@code no-cache} skips the cache and refreshes it. Any other method on a cached
+ * route evicts the route's entries once it completes, so that writes through the gateway are seen at once.
+ * <p>
+ * Runs after {@code JwtAuthenticationFilter}, so invalid tokens are still rejected, but before the rate limiter,
+ * because a hit never reaches a backend.
+ */
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+    /**
+     * Must run before {@link NettyWriteResponseFilter} for the upstream body to be written through the decorator
+     * that captures it.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final Set<HttpMethod> READS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS,
+            HttpMethod.TRACE);
+    // The request headers that are part of the key, so a response may vary by them
+    private static final Set<String> KEYED_HEADERS = Set.of(HttpHeaders.ACCEPT.toLowerCase(),
+            HttpHeaders.ACCEPT_ENCODING.toLowerCase());
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])(s-maxage|max-age)\\s*=\\s*\"?(\\d+)");
+
+    private final ResponseCacheProperties properties;
+    private final ResponseCacheStore store;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, ResponseCacheStore store,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        ResponseCacheProperties.Route config = route != null ? properties.routeFor(route.getId()) : null;
+        if (!properties.isEnabled() || config == null) {
+            return chain.filter(exchange);
+        }
+        String routeId = route.getId();
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (!READS.contains(method)) {
+            return chain.filter(exchange).doFinally(signal -> store.evictRoute(routeId));
+        }
+        if (method != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(routeId, exchange.getRequest());
+        if (isNoCache(exchange.getRequest().getHeaders())) {
+            record(routeId, "bypass");
+            return chain.filter(capturing(exchange, routeId, key, config, Sinks.one(), null));
+        }
+        CachedResponse cached = store.getLocal(key);
+        if (cached != null && !cached.revalidate()) {
+            return serve(exchange, cached, routeId, "hit");
+        }
+        if (cached != null) {
+            record(routeId, "revalidated");
+            return chain.filter(capturing(exchange, routeId, key, config, Sinks.one(), cached));
+        }
+
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, sink);
+        if (leader != null) {
+            return leader.asMono()
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(shared -> shared.isPresent()
+                            ? serve(exchange, shared.get(), routeId, "collapsed")
+                            : bypass(exchange, chain, routeId));
+        }
+
+        return store.getRemote(key)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(remote -> {
+                    if (remote.isPresent() && !remote.get().revalidate()) {
+                        sink.tryEmitValue(remote.get());
+                        return serve(exchange, remote.get(), routeId, "hit");
+                    }
+                    record(routeId, remote.isPresent() ? "revalidated" : "miss");
+                    return chain.filter(capturing(exchange, routeId, key, config, sink, remote.orElse(null)));
+                })
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    // Releases the waiting requests if the response turned out not to be cacheable
+                    sink.tryEmitEmpty();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> bypass(ServerWebExchange exchange, GatewayFilterChain chain, String routeId) {
+        record(routeId, "miss");
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached, String routeId, String result) {
+        record(routeId, result);
+        return write(exchange.getResponse(), cached, exchange.getRequest().getHeaders().getFirst(
+                HttpHeaders.IF_NONE_MATCH), routeId, "HIT");
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, CachedResponse cached, String ifNoneMatch, String routeId,
+                             String cacheStatus) {
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach(headers::put);
+        headers.setETag(cached.etag());
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+
+        if (cached.matches(ifNoneMatch)) {
+            return notModified(response, routeId);
+        }
+
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private Mono<Void> notModified(ServerHttpResponse response, String routeId) {
+        meterRegistry.counter("gateway.response-cache.not-modified", "route", routeId).increment();
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        return response.setComplete();
+    }
+
+    /**
+     * Forwards the request and stores the response as it is written back. The upstream request carries no validators
+     * of the caller, only the ETag of the entry to revalidate if there is one, and a 304 to that is answered from the
+     * entry.
+     *
+     * @param stale the entry the upstream is asked to confirm, or {@code null}
+     */
+    private ServerWebExchange capturing(ServerWebExchange exchange, String routeId, String key,
+                                        ResponseCacheProperties.Route config, Sinks.One<CachedResponse> sink,
+                                        CachedResponse stale) {
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                    if (stale != null) {
+                        headers.setIfNoneMatch(stale.etag());
+                    }
+                })
+                .build();
+        long maxBodySize = properties.getMaxBodySize().toBytes();
+
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (stale != null && getStatusCode() != null
+                        && getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                    CachedResponse renewed = stale.renewed(expiresAt(config, getHeaders()));
+                    store.put(key, renewed);
+                    sink.tryEmitValue(renewed);
+                    return Flux.from(body)
+                            .doOnNext(DataBufferUtils::release)
+                            .then(Mono.defer(() -> write(getDelegate(), renewed, ifNoneMatch, routeId,
+                                    "REVALIDATED")));
+                }
+                if (!isCacheable(getStatusCode(), getHeaders())) {
+                    return super.writeWith(body);
+                }
+
+                return DataBufferUtils.join(body)
+                        .map(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+                            return bytes;
+                        })
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(bytes -> {
+                            if (bytes.length > maxBodySize) {
+                                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                            }
+
+                            CachedResponse cached = CachedResponse.of(getStatusCode().value(), getHeaders(), bytes,
+                                    mustRevalidate(getHeaders()), expiresAt(config, getHeaders()));
+                            store.put(key, cached);
+                            sink.tryEmitValue(cached);
+
+                            getHeaders().setETag(cached.etag());
+                            getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                            if (cached.matches(ifNoneMatch)) {
+                                return notModified(getDelegate(), routeId);
+                            }
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+        };
+
+        return exchange.mutate().request(request).response(response).build();
+    }
+
+    private static boolean isCacheable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            String directives = cacheControl.toLowerCase();
+            if (directives.contains("no-store") || directives.contains("private")) {
+                return false;
+            }
+        }
+        for (String vary : headers.getVary()) {
+            if (!KEYED_HEADERS.contains(vary.toLowerCase())) {
+                return false;
+            }
+        }
+        // Without a validator of its own, an entry that must be revalidated could never be confirmed
+        return !mustRevalidate(headers) || headers.getETag() != null;
+    }
+
+    /**
+     * Whether the response may only be served after the upstream confirmed it: marked {@code no-cache} or
+     * {@code max-age=0}, or carrying an ETag, which means the upstream can tell cheaply when it changed.
+     */
+    private static boolean mustRevalidate(HttpHeaders headers) {
+        if (headers.getETag() != null) {
+            return true;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && (cacheControl.toLowerCase().contains("no-cache")
+                || maxAge(cacheControl).map(Duration::isZero).orElse(false));
+    }
+
+    /**
+     * The route's TTL, cut to the response's {@code s-maxage} or {@code max-age} when shorter. An entry that is
+     * revalidated anyway keeps the route's TTL.
+     */
+    private static long expiresAt(ResponseCacheProperties.Route config, HttpHeaders headers) {
+        Duration ttl = config.getTtl();
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            Duration maxAge = maxAge(cacheControl).orElse(ttl);
+            if (!maxAge.isZero() && maxAge.compareTo(ttl) < 0) {
+                ttl = maxAge;
+            }
+        }
+        return System.currentTimeMillis() + ttl.toMillis();
+    }
+
+    private static Optional<Duration> maxAge(String cacheControl) {
+        Matcher matcher = MAX_AGE.matcher(cacheControl.toLowerCase());
+        Duration maxAge = null;
+        while (matcher.find()) {
+            Duration value = Duration.ofSeconds(Long.parseLong(matcher.group(2)));
+            // s-maxage is meant for shared caches like this one and wins over max-age
+            if (maxAge == null || matcher.group(1).equals("s-maxage")) {
+                maxAge = value;
+            }
+        }
+        return Optional.ofNullable(maxAge);
+    }
+
+    private static boolean isNoCache(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.toLowerCase().contains("no-cache")
+                || "no-cache".equalsIgnoreCase(headers.getPragma());
+    }
+
+    /**
+     * Route id first, for {@link ResponseCacheStore#evictRoute(String)}, then the URL and the request headers
+     * responses may vary by. Encodings other than gzip are not distinguished, the upstream only compresses with it.
+     */
+    private static String cacheKey(String routeId, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getURI().getRawPath();
+        HttpHeaders headers = request.getHeaders();
+        String accept = String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT)).replace(" ", "");
+        String acceptEncoding = String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)).toLowerCase();
+        return routeId + ":" + (query != null ? path + "?" + query : path)
+                + "|" + accept + "|" + (acceptEncoding.contains("gzip") ? "gzip" : "identity");
+    }
+
+    private void record(String routeId, String result) {
+        meterRegistry.counter("gateway.response-cache.requests", "route", routeId, "result", result).increment();
+    }
+}
@@ -0,0 +1,62 @@
+package com.microservices.gateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the gateway response cache. Only GET requests to the route ids listed in {@link #routes} are cached,
+ * so those routes must serve the same response to every caller.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+
+    private Map<String, Route> routes = new HashMap<>();
+
+    /**
+     * Total size of the response bodies kept in memory.
+     */
+    private DataSize localMaxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Larger responses are passed through without being cached.
+     */
+    private DataSize maxBodySize = DataSize.ofKilobytes(512);
+
+    private Redis redis = new Redis();
+
+    public Route routeFor(String routeId) {
+        return routes.get(routeId);
+    }
+
+    @Data
+    public static class Route {
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Redis {
+        /**
+         * Shares cached responses between gateway instances. The in-memory tier is always checked first.
+         */
+        private boolean enabled = false;
+
+        private String keyPrefix = "gateway:response-cache:";
+
+        /**
+         * Maximum time to wait for Redis before treating a lookup as a miss.
+         */
+        private Duration timeout = Duration.ofMillis(50);
+
+        /**
+         * How long to skip Redis after it failed before trying it again.
+         */
+        private Duration retryInterval = Duration.ofSeconds(5);
+    }
+}
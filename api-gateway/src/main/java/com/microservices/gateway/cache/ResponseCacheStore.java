@@ -0,0 +1,213 @@
+package com.microservices.gateway.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier store for cached responses: a size-bounded in-memory tier in front of an optional Redis tier shared by
+ * all gateway instances.
+ * <p>
+ * Entries expire at their own {@link CachedResponse#expiresAt()} in both tiers. Redis is best effort: lookups that
+ * fail or exceed the timeout count as misses, and Redis is then skipped for the retry interval.
+ * <p>
+ * Keys start with the route id, so that {@link #evictRoute(String)} can drop a route's entries after a write to it.
+ * The eviction is announced on a Redis channel for the other gateway instances to drop theirs from memory too.
+ * <p>
+ * Redis is not used at all while the cache is disabled, and the gateway starts without it either way.
+ */
+@Slf4j
+public class ResponseCacheStore implements DisposableBean {
+    private static final Duration MAX_RETRY_INTERVAL = Duration.ofMinutes(1);
+
+    private final Cache<String, CachedResponse> local;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ResponseCacheProperties.Redis redisProperties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong redisRetryAt = new AtomicLong();
+    private Disposable evictions;
+
+    /**
+     * @param redisTemplate {@code null} to use the in-memory tier only
+     */
+    public ResponseCacheStore(ResponseCacheProperties properties, ReactiveStringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(properties.getLocalMaxSize().toBytes())
+                .<String, CachedResponse>weigher((key, response) -> key.length() + response.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, response.remainingMillis(
+                                System.currentTimeMillis())));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, response, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.redisTemplate = properties.isEnabled() && properties.getRedis().isEnabled() ? redisTemplate : null;
+        this.objectMapper = objectMapper;
+        this.redisProperties = properties.getRedis();
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "gateway.response-cache.local");
+    }
+
+    public CachedResponse getLocal(String key) {
+        return local.getIfPresent(key);
+    }
+
+    /**
+     * Looks the key up in Redis and promotes a hit to the in-memory tier. Completes empty on a miss.
+     */
+    public Mono<CachedResponse> getRemote(String key) {
+        if (!redisAvailable()) {
+            return Mono.empty();
+        }
+
+        return redisTemplate.opsForValue().get(redisProperties.getKeyPrefix() + key)
+                .timeout(redisProperties.getTimeout())
+                .mapNotNull(this::deserialize)
+                .filter(response -> response.remainingMillis(System.currentTimeMillis()) > 0)
+                .doOnNext(response -> {
+                    local.put(key, response);
+                    redisResult("hit");
+                })
+                .switchIfEmpty(Mono.fromRunnable(() -> redisResult("miss")))
+                .onErrorResume(this::redisFailed);
+    }
+
+    /**
+     * Stores the response in memory and, without waiting for it, in Redis.
+     */
+    public void put(String key, CachedResponse response) {
+        local.put(key, response);
+        if (!redisAvailable()) {
+            return;
+        }
+
+        Duration ttl = Duration.ofMillis(response.remainingMillis(System.currentTimeMillis()));
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        redisTemplate.opsForValue().set(redisProperties.getKeyPrefix() + key, serialize(response), ttl)
+                .timeout(redisProperties.getTimeout())
+                .onErrorResume(this::redisFailed)
+                .subscribe();
+    }
+
+    /**
+     * Drops the entries of a route from both tiers, and tells the other gateway instances to drop theirs.
+     */
+    public void evictRoute(String routeId) {
+        evictLocal(routeId);
+        if (!redisAvailable()) {
+            return;
+        }
+
+        String pattern = redisProperties.getKeyPrefix() + routeId + ":*";
+        redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(1000).build())
+                .buffer(500)
+                .concatMap(keys -> redisTemplate.unlink(keys.toArray(String[]::new)))
+                .then(redisTemplate.convertAndSend(evictionChannel(), routeId))
+                .onErrorResume(this::redisFailed)
+                .subscribe();
+    }
+
+    /**
+     * Follows the evictions announced by the other gateway instances once the application is ready, resubscribing
+     * with backoff after Redis failures.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void listenForEvictions() {
+        if (redisTemplate == null || evictions != null) {
+            return;
+        }
+        // Deferred so that failing to connect is retried like losing the connection
+        evictions = Flux.defer(() -> redisTemplate.listenToChannel(evictionChannel()))
+                .doOnNext(message -> evictLocal(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, redisProperties.getRetryInterval())
+                        .maxBackoff(MAX_RETRY_INTERVAL)
+                        .doBeforeRetry(signal -> log.warn("Lost the response cache eviction channel: {}",
+                                signal.failure().toString())))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (evictions != null) {
+            evictions.dispose();
+        }
+    }
+
+    private void evictLocal(String routeId) {
+        String prefix = routeId + ":";
+        local.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private String evictionChannel() {
+        return redisProperties.getKeyPrefix() + "evictions";
+    }
+
+    private boolean redisAvailable() {
+        return redisTemplate != null && System.currentTimeMillis() >= redisRetryAt.get();
+    }
+
+    private <T> Mono<T> redisFailed(Throwable ex) {
+        log.warn("Redis response cache unavailable, using the in-memory tier only for {}: {}",
+                redisProperties.getRetryInterval(), ex.toString());
+        redisRetryAt.set(System.currentTimeMillis() + redisProperties.getRetryInterval().toMillis());
+        redisResult("error");
+        return Mono.empty();
+    }
+
+    private void redisResult(String result) {
+        meterRegistry.counter("gateway.response-cache.redis", "result", result).increment();
+    }
+
+    private String serialize(CachedResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cached response", e);
+        }
+    }
+
+    private CachedResponse deserialize(String json) {
+        try {
+            return objectMapper.readValue(json, CachedResponse.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable cached response: {}", e.getOriginalMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.microservices.gateway.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the load of every instance the gateway sends requests to: the number of requests in flight and a moving
+ * average of the response time.
+ * <p>
+ * The average is a peak EWMA: a slower response replaces the average at once, faster ones pull it down gradually
+ * with the {@code decay} time constant. An instance that degrades is therefore avoided right away but has to prove
+ * itself for a while before it gets its full share again.
+ */
+public class InstanceLoadTracker {
+    private final Cache<String, InstanceStats> stats;
+    private final LongSupplier nanoClock;
+    private final long decayNanos;
+    private final long staleAfterNanos;
+    private final long warmUpNanos;
+    private final double warmUpMinWeight;
+    private final long failurePenaltyNanos;
+
+    public InstanceLoadTracker(LatencyAwareLoadBalancerProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    InstanceLoadTracker(LatencyAwareLoadBalancerProperties properties, LongSupplier nanoClock) {
+        this.stats = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxInstances())
+                .build();
+        this.nanoClock = nanoClock;
+        this.decayNanos = properties.getDecay().toNanos();
+        this.staleAfterNanos = properties.getStaleAfter().toNanos();
+        this.warmUpNanos = properties.getWarmUp().toNanos();
+        this.warmUpMinWeight = properties.getWarmUpMinWeight();
+        this.failurePenaltyNanos = properties.getFailurePenalty().toNanos();
+    }
+
+    public long now() {
+        return nanoClock.getAsLong();
+    }
+
+    public void started(ServiceInstance instance) {
+        stats(instance).inFlight.incrementAndGet();
+    }
+
+    /**
+     * Ends a request counted by {@link #started}. A negative {@code elapsedNanos} means the response time is not
+     * known, which only releases the in-flight slot.
+     */
+    public void completed(ServiceInstance instance, long elapsedNanos, boolean failed) {
+        InstanceStats instanceStats = stats(instance);
+        instanceStats.inFlight.updateAndGet(inFlight -> Math.max(0, inFlight - 1));
+        if (elapsedNanos >= 0) {
+            instanceStats.record(failed ? Math.max(elapsedNanos, failurePenaltyNanos) : elapsedNanos, now());
+        }
+    }
+
+    public Load load(ServiceInstance instance) {
+        InstanceStats instanceStats = stats(instance);
+        long now = now();
+        double age = now - instanceStats.firstSeenAt;
+        double weight = warmUpNanos <= 0 || age >= warmUpNanos
+                ? 1.0
+                : warmUpMinWeight + (1.0 - warmUpMinWeight) * age / warmUpNanos;
+        return new Load(instanceStats.latency(now), instanceStats.inFlight.get(), weight);
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        String key = instance.getServiceId() + '/' + instance.getHost() + ':' + instance.getPort();
+        return stats.get(key, ignored -> new InstanceStats(now()));
+    }
+
+    /**
+     * @param latencyNanos moving average of the response time, or {@code NaN} while there is no recent sample
+     * @param weight       share of the normal traffic the instance should get, below 1 while it warms up
+     */
+    public record Load(double latencyNanos, int inFlight, double weight) {
+        public boolean hasLatency() {
+            return !Double.isNaN(latencyNanos);
+        }
+    }
+
+    private final class InstanceStats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final long firstSeenAt;
+        private double latencyNanos = Double.NaN;
+        private long sampledAt;
+
+        private InstanceStats(long firstSeenAt) {
+            this.firstSeenAt = firstSeenAt;
+        }
+
+        private synchronized void record(long elapsedNanos, long now) {
+            if (isStale(now) || elapsedNanos > latencyNanos) {
+                latencyNanos = elapsedNanos;
+            } else {
+                double keep = decayNanos > 0 ? Math.exp(-(double) (now - sampledAt) / decayNanos) : 0;
+                latencyNanos = latencyNanos * keep + elapsedNanos * (1.0 - keep);
+            }
+            sampledAt = now;
+        }
+
+        private synchronized double latency(long now) {
+            return isStale(now) ? Double.NaN : latencyNanos;
+        }
+
+        private boolean isStale(long now) {
+            return Double.isNaN(latencyNanos) || now - sampledAt > staleAfterNanos;
+        }
+    }
+}
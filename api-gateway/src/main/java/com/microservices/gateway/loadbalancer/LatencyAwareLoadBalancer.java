@@ -0,0 +1,99 @@
+package com.microservices.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an instance by the power of two choices: two random instances are compared and the one with the lower
+ * expected wait, i.e. moving average latency times requests in flight, gets the request. Comparing only two keeps
+ * every gateway from piling onto the single best instance while still steering away from slow ones.
+ * <p>
+ * Instances in the gateway's own zone are preferred as long as there is one. Instances that were seen only recently
+ * look proportionally more expensive while they warm up.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    static final String ZONE_METADATA_KEY = "zone";
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceListSuppliers;
+    private final InstanceLoadTracker tracker;
+    private final String zone;
+
+    public LatencyAwareLoadBalancer(String serviceId,
+                                    ObjectProvider<ServiceInstanceListSupplier> instanceListSuppliers,
+                                    InstanceLoadTracker tracker, String zone) {
+        this.serviceId = serviceId;
+        this.instanceListSuppliers = instanceListSuppliers;
+        this.tracker = tracker;
+        this.zone = zone;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceListSuppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        List<ServiceInstance> candidates = sameZone(instances);
+        if (candidates.isEmpty()) {
+            log.warn("No instances available for service {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(cheaper(a, b));
+    }
+
+    private ServiceInstance cheaper(ServiceInstance a, ServiceInstance b) {
+        InstanceLoadTracker.Load loadA = tracker.load(a);
+        InstanceLoadTracker.Load loadB = tracker.load(b);
+        // An instance without a recent sample is assumed to be as fast as the other one, so it gets probed
+        double latencyA = loadA.hasLatency() ? loadA.latencyNanos() : loadB.hasLatency() ? loadB.latencyNanos() : 1;
+        double latencyB = loadB.hasLatency() ? loadB.latencyNanos() : latencyA;
+        double costA = latencyA * (loadA.inFlight() + 1) / loadA.weight();
+        double costB = latencyB * (loadB.inFlight() + 1) / loadB.weight();
+        return costB < costA ? b : a;
+    }
+
+    private List<ServiceInstance> sameZone(List<ServiceInstance> instances) {
+        if (!StringUtils.hasText(zone)) {
+            return instances;
+        }
+        List<ServiceInstance> local = instances.stream()
+                .filter(instance -> zone.equalsIgnoreCase(instance.getMetadata().get(ZONE_METADATA_KEY)))
+                .toList();
+        return local.isEmpty() ? instances : local;
+    }
+}
@@ -0,0 +1,26 @@
+package com.microservices.gateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.config.LoadBalancerZoneConfig;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer configuration, registered for every service by {@link LoadBalancerConfig}. Spring Cloud
+ * LoadBalancer creates it in each service's own context, so it must not be picked up by component scanning and is
+ * therefore not a {@code @Configuration}.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory clientFactory,
+                                                             InstanceLoadTracker instanceLoadTracker,
+                                                             LoadBalancerZoneConfig zoneConfig) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(serviceId,
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                instanceLoadTracker, zoneConfig.getZone());
+    }
+}
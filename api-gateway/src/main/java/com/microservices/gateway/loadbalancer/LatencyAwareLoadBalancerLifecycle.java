@@ -0,0 +1,69 @@
+package com.microservices.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * Feeds the {@link InstanceLoadTracker} from the lifecycle callbacks the load-balanced clients make around every
+ * request: the gateway's routing filter, {@code HedgedRequest} and load-balanced Feign clients alike.
+ * <p>
+ * 5xx responses count as failures. A discarded request, such as the losing attempt of a hedged request, records the
+ * time it was in flight, which is a lower bound of that instance's latency.
+ */
+public class LatencyAwareLoadBalancerLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+    private final InstanceLoadTracker tracker;
+
+    public LatencyAwareLoadBalancerLifecycle(InstanceLoadTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timedContext) {
+            timedContext.setRequestStartTime(tracker.now());
+        }
+        tracker.started(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+
+        Request<Object> lbRequest = completionContext.getLoadBalancerRequest();
+        long elapsed = -1;
+        if (lbRequest != null && lbRequest.getContext() instanceof TimedRequestContext timedContext
+                && timedContext.getRequestStartTime() != 0) {
+            elapsed = tracker.now() - timedContext.getRequestStartTime();
+        }
+        tracker.completed(lbResponse.getServer(), elapsed, isFailure(completionContext));
+    }
+
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData responseData
+                && responseData.getHttpStatus() != null
+                && responseData.getHttpStatus().is5xxServerError();
+    }
+}
@@ -0,0 +1,50 @@
+package com.microservices.gateway.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the latency-aware load balancer that picks instances of {@code lb://} routes.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.load-balancer")
+public class LatencyAwareLoadBalancerProperties {
+    /**
+     * Falls back to Spring Cloud LoadBalancer's round robin when disabled.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How quickly old latency samples lose weight in the moving average.
+     */
+    private Duration decay = Duration.ofSeconds(10);
+
+    /**
+     * Latency of an instance that got no requests for this long is forgotten, so a recovered instance is tried again.
+     */
+    private Duration staleAfter = Duration.ofSeconds(30);
+
+    /**
+     * Newly seen instances get a growing share of the traffic over this period.
+     */
+    private Duration warmUp = Duration.ofSeconds(30);
+
+    /**
+     * Share of its normal traffic an instance gets right after it appeared.
+     */
+    private double warmUpMinWeight = 0.1;
+
+    /**
+     * Latency recorded for a failed request, so an instance that fails fast does not look like the fastest one.
+     */
+    private Duration failurePenalty = Duration.ofSeconds(1);
+
+    /**
+     * Statistics of instances not chosen for this long are dropped.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private long maxInstances = 10_000;
+}
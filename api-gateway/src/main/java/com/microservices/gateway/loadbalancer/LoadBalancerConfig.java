@@ -0,0 +1,27 @@
+package com.microservices.gateway.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces round robin with the {@link LatencyAwareLoadBalancer} for every {@code lb://} service.
+ */
+@Configuration
+@EnableConfigurationProperties(LatencyAwareLoadBalancerProperties.class)
+@ConditionalOnProperty(prefix = "app.load-balancer", name = "enabled", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceLoadTracker instanceLoadTracker(LatencyAwareLoadBalancerProperties properties) {
+        return new InstanceLoadTracker(properties);
+    }
+
+    @Bean
+    public LatencyAwareLoadBalancerLifecycle latencyAwareLoadBalancerLifecycle(InstanceLoadTracker tracker) {
+        return new LatencyAwareLoadBalancerLifecycle(tracker);
+    }
+}
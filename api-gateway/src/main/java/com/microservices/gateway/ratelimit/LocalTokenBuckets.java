@@ -0,0 +1,65 @@
+package com.microservices.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process token buckets used while Redis is unreachable.
+ * <p>
+ * Each bucket is refilled and consumed with a compare-and-set loop, so concurrent requests for the same key never
+ * block each other. Buckets that have not been touched for the idle timeout are evicted.
+ */
+public class LocalTokenBuckets {
+    private final Cache<String, TokenBucket> buckets;
+
+    public LocalTokenBuckets(Duration idleTimeout, long maxKeys) {
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    /**
+     * Takes the requested tokens from the bucket of {@code key} if enough are available.
+     *
+     * @return the number of tokens left, or {@code -1} if the request was denied
+     */
+    public long tryConsume(String key, RateLimitProperties.Bucket config) {
+        TokenBucket bucket = buckets.get(key, ignored -> new TokenBucket(config.getBurstCapacity()));
+        return bucket.tryConsume(config.getReplenishRate(), config.getBurstCapacity(), config.getRequestedTokens());
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private static final class TokenBucket {
+        private final AtomicReference<State> state;
+
+        private TokenBucket(int capacity) {
+            this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+        }
+
+        private long tryConsume(int replenishRate, int capacity, int requested) {
+            while (true) {
+                State current = state.get();
+                long now = System.nanoTime();
+                double elapsedSeconds = (now - current.refilledAt()) / 1_000_000_000.0;
+                double available = Math.min(capacity, current.tokens() + elapsedSeconds * replenishRate);
+                boolean allowed = available >= requested;
+                State next = new State(allowed ? available - requested : available, now);
+
+                if (state.compareAndSet(current, next)) {
+                    return allowed ? (long) next.tokens() : -1;
+                }
+            }
+        }
+    }
+
+    private record State(double tokens, long refilledAt) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.microservices.gateway.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token bucket settings for the gateway rate limiter. {@link #routes} overrides the default bucket per route id.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /**
+     * Default bucket applied to routes without an override.
+     */
+    private Bucket defaults = new Bucket();
+
+    private Map<String, Bucket> routes = new HashMap<>();
+
+    /**
+     * Maximum time to wait for Redis before falling back to the in-process buckets.
+     */
+    private Duration redisTimeout = Duration.ofMillis(100);
+
+    /**
+     * How long to keep using the in-process buckets after Redis failed before trying Redis again.
+     */
+    private Duration redisRetryInterval = Duration.ofSeconds(5);
+
+    /**
+     * In-process buckets not used for this long are evicted.
+     */
+    private Duration localIdleTimeout = Duration.ofMinutes(10);
+
+    private long localMaxKeys = 100_000;
+
+    public Bucket bucketFor(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    @Data
+    public static class Bucket {
+        /**
+         * Tokens added per second.
+         */
+        private int replenishRate = 20;
+
+        /**
+         * Maximum number of tokens, i.e. the largest burst allowed.
+         */
+        private int burstCapacity = 40;
+
+        private int requestedTokens = 1;
+    }
+}
@@ -0,0 +1,53 @@
+package com.microservices.gateway.ratelimit;
+
+import com.microservices.gateway.security.JwtAuthenticationFilter;
+import com.microservices.gateway.security.VerifiedIdentity;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Wires the rate limiter used by the {@code RequestRateLimiter} default filter: one bucket per user for
+ * authenticated requests and one per client IP for anonymous ones.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimiterConfig {
+
+    @Bean
+    @Primary
+    public TokenBucketRateLimiter tokenBucketRateLimiter(
+            ReactiveStringRedisTemplate redisTemplate,
+            @Qualifier("redisRequestRateLimiterScript") RedisScript<List<Long>> redisRequestRateLimiterScript,
+            RateLimitProperties properties) {
+        LocalTokenBuckets localBuckets =
+                new LocalTokenBuckets(properties.getLocalIdleTimeout(), properties.getLocalMaxKeys());
+        return new TokenBucketRateLimiter(redisTemplate, redisRequestRateLimiterScript, properties, localBuckets);
+    }
+
+    @Bean
+    @Primary
+    public KeyResolver userOrIpKeyResolver() {
+        return exchange -> {
+            VerifiedIdentity identity = exchange.getAttribute(JwtAuthenticationFilter.IDENTITY_ATTRIBUTE);
+            if (identity != null) {
+                return Mono.just("user:" + (identity.userId() != null ? identity.userId() : identity.email()));
+            }
+
+            InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+            String ip = remoteAddress != null && remoteAddress.getAddress() != null
+                    ? remoteAddress.getAddress().getHostAddress()
+                    : "unknown";
+            return Mono.just("ip:" + ip);
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.microservices.gateway.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket rate limiter backed by Redis, with an in-process fallback.
+ * <p>
+ * Each check is a single atomic round trip running the gateway's {@code request_rate_limiter.lua} script, so
+ * every gateway instance shares the same buckets. If Redis errors or does not answer within the configured
+ * timeout, the check is answered from {@link LocalTokenBuckets} instead, and Redis is skipped for the retry
+ * interval so that an outage does not add the timeout to every request.
+ */
+@Slf4j
+public class TokenBucketRateLimiter implements RateLimiter<RateLimitProperties.Bucket> {
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> script;
+    private final RateLimitProperties properties;
+    private final LocalTokenBuckets localBuckets;
+    private final AtomicLong redisRetryAt = new AtomicLong();
+
+    public TokenBucketRateLimiter(ReactiveStringRedisTemplate redisTemplate, RedisScript<List<Long>> script,
+                                  RateLimitProperties properties, LocalTokenBuckets localBuckets) {
+        this.redisTemplate = redisTemplate;
+        this.script = script;
+        this.properties = properties;
+        this.localBuckets = localBuckets;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        if (!properties.isEnabled()) {
+            return Mono.just(new Response(true, Map.of()));
+        }
+
+        RateLimitProperties.Bucket bucket = properties.bucketFor(routeId);
+        String key = routeId + ":" + id;
+        if (System.currentTimeMillis() < redisRetryAt.get()) {
+            return Mono.just(allowLocally(key, bucket));
+        }
+
+        // Braces make both keys hash to the same slot on a Redis cluster
+        List<String> keys = List.of("request_rate_limiter.{" + key + "}.tokens",
+                "request_rate_limiter.{" + key + "}.timestamp");
+        List<String> args = List.of(String.valueOf(bucket.getReplenishRate()),
+                String.valueOf(bucket.getBurstCapacity()), "", String.valueOf(bucket.getRequestedTokens()));
+
+        return redisTemplate.execute(script, keys, args)
+                .reduce(new ArrayList<Long>(), (results, result) -> {
+                    results.addAll(result);
+                    return results;
+                })
+                .timeout(properties.getRedisTimeout())
+                .map(results -> new Response(results.get(0) == 1L, headers(bucket, results.get(1))))
+                .onErrorResume(ex -> {
+                    log.warn("Redis rate limiter unavailable, using in-process buckets for {}: {}",
+                            properties.getRedisRetryInterval(), ex.toString());
+                    redisRetryAt.set(System.currentTimeMillis() + properties.getRedisRetryInterval().toMillis());
+                    return Mono.just(allowLocally(key, bucket));
+                });
+    }
+
+    @Override
+    public Map<String, RateLimitProperties.Bucket> getConfig() {
+        return properties.getRoutes();
+    }
+
+    @Override
+    public Class<RateLimitProperties.Bucket> getConfigClass() {
+        return RateLimitProperties.Bucket.class;
+    }
+
+    @Override
+    public RateLimitProperties.Bucket newConfig() {
+        return new RateLimitProperties.Bucket();
+    }
+
+    private Response allowLocally(String key, RateLimitProperties.Bucket bucket) {
+        long remaining = localBuckets.tryConsume(key, bucket);
+        return new Response(remaining >= 0, headers(bucket, Math.max(remaining, 0)));
+    }
+
+    private static Map<String, String> headers(RateLimitProperties.Bucket bucket, long remaining) {
+        return Map.of(
+                RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining),
+                RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(bucket.getReplenishRate()),
+                RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(bucket.getBurstCapacity()),
+                RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(bucket.getRequestedTokens()));
+    }
+}
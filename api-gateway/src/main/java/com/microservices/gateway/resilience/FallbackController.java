@@ -0,0 +1,57 @@
+package com.microservices.gateway.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Target of the {@code CircuitBreaker} route filters' {@code fallbackUri}. Answers 503 when the circuit is open or
+ * the bulkhead is full, so clients can back off, and 504 when the backend did not answer in time.
+ */
+@Slf4j
+@RestController
+public class FallbackController {
+    public static final String PATH = "/fallback";
+
+    @RequestMapping(PATH)
+    public ResponseEntity<Map<String, String>> fallback(ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        HttpStatusCode status = statusFor(cause);
+        log.warn("Route {} failed with {}: {}", routeId(exchange), status.value(),
+                cause != null ? cause.toString() : "unknown error");
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.body(Map.of("message", status.value() == HttpStatus.GATEWAY_TIMEOUT.value()
+                ? "Service did not respond in time, please try again"
+                : "Service is temporarily unavailable, please try again later"));
+    }
+
+    private static HttpStatusCode statusFor(Throwable cause) {
+        if (cause instanceof ResponseStatusException statusException) {
+            return statusException.getStatusCode();
+        }
+        // Open circuit, full bulkhead and connection failures all mean the backend cannot take the request now
+        return cause instanceof TimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE;
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+}
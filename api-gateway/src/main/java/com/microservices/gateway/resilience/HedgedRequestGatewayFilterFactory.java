@@ -0,0 +1,322 @@
+package com.microservices.gateway.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import lombok.Data;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.DelegatingServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+/**
+ * Sends GET requests on a load-balanced route to a second instance when the first one is slow.
+ * <p>
+ * The request goes to the instance chosen by the load balancer. If no response arrived after {@link Config#delay},
+ * or the first attempt already failed, the same request is sent to another instance and whichever answers first
+ * wins; the other attempt is cancelled. Hedges are limited by a budget: every request earns
+ * {@link Config#budget} of a hedge, up to ten hedges saved, so a service that is slow everywhere gets at most that
+ * fraction of extra load.
+ * <p>
+ * Both attempts are reported to the load balancer lifecycle like regular routed requests, so the load balancer
+ * sees their latency and in-flight counts. Hedged responses are buffered, so streaming, upgrade and non-GET
+ * requests are passed on to the regular routing filters untouched.
+ */
+@Component
+public class HedgedRequestGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<HedgedRequestGatewayFilterFactory.Config> {
+    /**
+     * Just before the load balancer filter, once the {@code lb://} request URL is final.
+     */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    private static final long MILLI_TOKENS_PER_HEDGE = 1000;
+    private static final long MAX_SAVED_MILLI_TOKENS = 10 * MILLI_TOKENS_PER_HEDGE;
+    private static final int HEDGE_CHOICE_ATTEMPTS = 3;
+
+    private final LoadBalancerClientFactory clientFactory;
+    private final HttpClient httpClient;
+    private final HttpClientProperties httpClientProperties;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final MeterRegistry meterRegistry;
+
+    public HedgedRequestGatewayFilterFactory(LoadBalancerClientFactory clientFactory, HttpClient httpClient,
+                                             HttpClientProperties httpClientProperties,
+                                             ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                             MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.clientFactory = clientFactory;
+        this.httpClient = httpClient;
+        this.httpClientProperties = httpClientProperties;
+        this.headersFilters = headersFilters;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AtomicLong budget = new AtomicLong(MAX_SAVED_MILLI_TOKENS);
+        long earnedPerRequest = Math.round(config.getBudget() * MILLI_TOKENS_PER_HEDGE);
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+            if (url == null || !"lb".equals(url.getScheme()) || !isHedgeable(exchange)) {
+                return chain.filter(exchange);
+            }
+
+            budget.accumulateAndGet(earnedPerRequest, (saved, earned) -> Math.min(saved + earned,
+                    MAX_SAVED_MILLI_TOKENS));
+            ReactorServiceInstanceLoadBalancer loadBalancer =
+                    clientFactory.getInstance(url.getHost(), ReactorServiceInstanceLoadBalancer.class);
+            if (loadBalancer == null) {
+                return chain.filter(exchange);
+            }
+
+            DefaultRequest<RequestDataContext> lbRequest =
+                    new DefaultRequest<>(new RequestDataContext(new RequestData(exchange.getRequest())));
+            return loadBalancer.choose(lbRequest)
+                    .filter(Response::hasServer)
+                    .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Unable to find instance for " + url.getHost())))
+                    .flatMap(primary -> hedged(exchange, url, config, budget, primary.getServer(),
+                            Mono.defer(() -> loadBalancer.choose(lbRequest)), lifecycles(url.getHost())));
+        }, ORDER);
+    }
+
+    private Mono<Void> hedged(ServerWebExchange exchange, URI url, Config config, AtomicLong budget,
+                              ServiceInstance primary, Mono<Response<ServiceInstance>> secondChoice,
+                              Set<LoadBalancerLifecycle> lifecycles) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route.getId();
+        HttpClient client = httpClient(route);
+        Duration responseTimeout = responseTimeout(route);
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(), exchange);
+        headers.remove(HttpHeaders.HOST);
+        RequestData requestData = new RequestData(exchange.getRequest());
+        setAlreadyRouted(exchange);
+
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+        Mono<BufferedResponse> first = send(client, primary, url, headers, responseTimeout, "primary", requestData,
+                lifecycles)
+                .doOnError(ex -> primaryFailed.tryEmitEmpty());
+
+        Mono<BufferedResponse> hedge = Mono.firstWithSignal(Mono.delay(config.getDelay()).then(),
+                        primaryFailed.asMono())
+                // Other requests move the load balancer on too, so it may hand out the slow instance again
+                .thenMany(secondChoice.repeat(HEDGE_CHOICE_ATTEMPTS - 1))
+                .filter(second -> second.hasServer() && !sameInstance(primary, second.getServer()))
+                .next()
+                .filter(second -> tryTakeHedge(budget))
+                .flatMap(second -> {
+                    meterRegistry.counter("gateway.hedging.sent", "route", routeId).increment();
+                    return send(client, second.getServer(), url, headers, responseTimeout, "hedge", requestData,
+                            lifecycles);
+                });
+
+        // The attempts never read the inbound request, which the server needs consumed before it counts as done
+        return exchange.getRequest().getBody()
+                .doOnNext(DataBufferUtils::release)
+                .then(Mono.firstWithValue(first, hedge))
+                .onErrorResume(ex -> failedResponse(ex, responseTimeout))
+                .flatMap(winner -> {
+                    meterRegistry.counter("gateway.hedging.requests", "route", routeId, "winner", winner.attempt())
+                            .increment();
+                    return write(exchange, winner);
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<BufferedResponse> send(HttpClient client, ServiceInstance instance, URI url, HttpHeaders headers,
+                                        Duration responseTimeout, String attempt, RequestData requestData,
+                                        Set<LoadBalancerLifecycle> lifecycles) {
+        String scheme = instance.isSecure() ? "https" : "http";
+        URI requestUrl = LoadBalancerUriTools.reconstructURI(new DelegatingServiceInstance(instance, scheme), url);
+        DefaultRequest<RequestDataContext> lbRequest = new DefaultRequest<>(new RequestDataContext(requestData));
+        Response<ServiceInstance> lbResponse = new DefaultResponse(instance);
+        return Mono.defer(() -> {
+                    lifecycles.forEach(lifecycle -> lifecycle.onStartRequest(lbRequest, lbResponse));
+                    return sendOnce(client, requestUrl, headers, responseTimeout, attempt);
+                })
+                .doOnSuccess(response -> lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+                        new CompletionContext<>(CompletionContext.Status.SUCCESS, lbRequest, lbResponse,
+                                responseData(response, requestData)))))
+                .doOnError(ex -> lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+                        new CompletionContext<>(CompletionContext.Status.FAILED, ex, lbRequest, lbResponse))))
+                .doOnCancel(() -> lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+                        new CompletionContext<>(CompletionContext.Status.DISCARD, lbRequest, lbResponse))))
+                .flatMap(response -> response.status() >= 500
+                        ? Mono.error(new UpstreamFailure(response))
+                        : Mono.just(response));
+    }
+
+    private Mono<BufferedResponse> sendOnce(HttpClient client, URI requestUrl, HttpHeaders headers,
+                                            Duration responseTimeout, String attempt) {
+        return client.headers(nettyHeaders -> headers.forEach(nettyHeaders::set))
+                .get()
+                .uri(requestUrl)
+                .responseSingle((response, body) -> body.asByteArray()
+                        .defaultIfEmpty(new byte[0])
+                        .map(bytes -> {
+                            HttpHeaders responseHeaders = new HttpHeaders();
+                            response.responseHeaders().forEach(entry ->
+                                    responseHeaders.add(entry.getKey(), entry.getValue()));
+                            return new BufferedResponse(response.status().code(), responseHeaders, bytes, attempt);
+                        }))
+                .timeout(responseTimeout);
+    }
+
+    private Set<LoadBalancerLifecycle> lifecycles(String serviceId) {
+        return LoadBalancerLifecycleValidator.getSupportedLifecycleProcessors(
+                clientFactory.getInstances(serviceId, LoadBalancerLifecycle.class),
+                RequestDataContext.class, ResponseData.class, ServiceInstance.class);
+    }
+
+    private static ResponseData responseData(BufferedResponse response, RequestData requestData) {
+        return new ResponseData(HttpStatusCode.valueOf(response.status()), response.headers(),
+                new LinkedMultiValueMap<>(), requestData);
+    }
+
+    /**
+     * When every attempt failed, answers with an upstream 5xx response if there was one, and otherwise fails the
+     * way the regular routing filter does.
+     */
+    private static Mono<BufferedResponse> failedResponse(Throwable ex, Duration responseTimeout) {
+        // All attempts failing surfaces as one error carrying the individual failures
+        List<Throwable> failures = new ArrayList<>(Exceptions.unwrapMultiple(ex.getCause()));
+        failures.addAll(List.of(ex.getSuppressed()));
+        failures.add(ex);
+        for (Throwable failure : failures) {
+            if (failure instanceof UpstreamFailure upstreamFailure) {
+                return Mono.just(upstreamFailure.response);
+            }
+        }
+        for (Throwable failure : failures) {
+            if (failure instanceof TimeoutException) {
+                return Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                        "Response took longer than timeout: " + responseTimeout, failure));
+            }
+        }
+        return Mono.error(failures.get(0));
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, BufferedResponse upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = HttpHeadersFilter.filter(headersFilters.getIfAvailable(), upstream.headers(), exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().setContentLength(upstream.body().length);
+        response.setStatusCode(HttpStatusCode.valueOf(upstream.status()));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(upstream.body())));
+    }
+
+    private static boolean tryTakeHedge(AtomicLong budget) {
+        long saved;
+        do {
+            saved = budget.get();
+            if (saved < MILLI_TOKENS_PER_HEDGE) {
+                return false;
+            }
+        } while (!budget.compareAndSet(saved, saved - MILLI_TOKENS_PER_HEDGE));
+        return true;
+    }
+
+    private static boolean isHedgeable(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        return exchange.getRequest().getMethod() == HttpMethod.GET
+                && !headers.containsKey(HttpHeaders.UPGRADE)
+                && headers.getContentLength() <= 0
+                && headers.getAccept().stream().noneMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype);
+    }
+
+    private static boolean sameInstance(ServiceInstance first, ServiceInstance second) {
+        return first.getHost().equals(second.getHost()) && first.getPort() == second.getPort();
+    }
+
+    private HttpClient httpClient(Route route) {
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+        return connectTimeout != null
+                ? httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()))
+                : httpClient;
+    }
+
+    private Duration responseTimeout(Route route) {
+        Object responseTimeout = route.getMetadata().get(RESPONSE_TIMEOUT_ATTR);
+        if (responseTimeout != null) {
+            return Duration.ofMillis(Long.parseLong(responseTimeout.toString()));
+        }
+        return httpClientProperties.getResponseTimeout() != null
+                ? httpClientProperties.getResponseTimeout()
+                : Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Config {
+        /**
+         * How long to wait for the first instance before asking another one.
+         */
+        private Duration delay = Duration.ofMillis(100);
+
+        /**
+         * Hedges earned per request, i.e. the largest fraction of requests that may be hedged.
+         */
+        private double budget = 0.5;
+    }
+
+    private record BufferedResponse(int status, HttpHeaders headers, byte[] body, String attempt) {
+    }
+
+    private static final class UpstreamFailure extends RuntimeException {
+        private final BufferedResponse response;
+
+        private UpstreamFailure(BufferedResponse response) {
+            super("Upstream answered " + response.status(), null, false, false);
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.microservices.gateway.security;
+
+import com.microservices.identity.IdentityHeaders;
+import com.microservices.identity.IdentitySignature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Verifies the bearer token of every routed request once, at the edge.
+ * <p>
+ * Requests with an invalid or expired token are rejected with 401 before they reach load balancing. Verified
+ * requests are forwarded with the caller's identity in the {@code X-User-*} headers, signed with the secret the
+ * services share with the gateway, so that a service can tell them from headers a client sent it directly. Any
+ * client-supplied values are always stripped. Requests without a token, and requests to public paths, are forwarded
+ * anonymously and left to the downstream service to authorize.
+ */
+@Slf4j
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+    public static final String USER_ID_HEADER = IdentityHeaders.USER_ID;
+    public static final String USER_EMAIL_HEADER = IdentityHeaders.USER_EMAIL;
+    public static final String USER_ROLES_HEADER = IdentityHeaders.USER_ROLES;
+    public static final String IDENTITY_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".identity";
+    public static final int ORDER = -100;
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final byte[] UNAUTHORIZED_BODY =
+            "{\"message\":\"Unauthorized: Invalid or expired token\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final JwtVerifier jwtVerifier;
+    private final IdentitySignature identitySignature;
+    private final List<PathPattern> publicPaths;
+
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier,
+                                   @Value("${app.security.identity-secret}") String identitySecret,
+                                   @Value("${app.security.public-paths:/api/v1/auth/**}") List<String> publicPaths) {
+        this.jwtVerifier = jwtVerifier;
+        this.identitySignature = new IdentitySignature(identitySecret);
+        this.publicPaths = publicPaths.stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (isPublic(request) || authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return chain.filter(exchange.mutate().request(withIdentity(request, null)).build());
+        }
+
+        Optional<VerifiedIdentity> identity = jwtVerifier.verify(authorization.substring(BEARER_PREFIX.length()));
+        if (identity.isEmpty()) {
+            log.warn("Rejected request with invalid token: {} {}", request.getMethod(), request.getPath());
+            return unauthorized(exchange.getResponse());
+        }
+
+        exchange.getAttributes().put(IDENTITY_ATTRIBUTE, identity.get());
+        return chain.filter(exchange.mutate().request(withIdentity(request, identity.get())).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private boolean isPublic(ServerHttpRequest request) {
+        return publicPaths.stream().anyMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()));
+    }
+
+    private ServerHttpRequest withIdentity(ServerHttpRequest request, VerifiedIdentity identity) {
+        return request.mutate()
+                .headers(headers -> {
+                    IdentityHeaders.ALL.forEach(headers::remove);
+                    if (identity == null) {
+                        return;
+                    }
+                    String userId = identity.userId() != null ? identity.userId().toString() : null;
+                    String roles = identity.role() != null ? "ROLE_" + identity.role() : null;
+                    long expiresAt = identity.expiresAt().getEpochSecond();
+                    if (userId != null) {
+                        headers.set(USER_ID_HEADER, userId);
+                    }
+                    headers.set(USER_EMAIL_HEADER, identity.email());
+                    if (roles != null) {
+                        headers.set(USER_ROLES_HEADER, roles);
+                    }
+                    headers.set(IdentityHeaders.EXPIRES, String.valueOf(expiresAt));
+                    headers.set(IdentityHeaders.SIGNATURE,
+                            identitySignature.sign(userId, identity.email(), roles, expiresAt));
+                })
+                .build();
+    }
+
+    private static Mono<Void> unauthorized(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(UNAUTHORIZED_BODY);
+        return response.writeWith(Mono.just(body));
+    }
+}
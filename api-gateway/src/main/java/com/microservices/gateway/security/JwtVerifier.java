@@ -0,0 +1,133 @@
+package com.microservices.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Verifies access tokens issued by user-service with the shared HS512 key.
+ * <p>
+ * Verified identities are cached by the SHA-256 digest of the token until the token expires, or for at most
+ * {@code app.security.token-cache.max-ttl}, so a client re-sending the same bearer token pays for the HMAC check
+ * once in a while. Cached or not, tokens issued before their user was invalidated are rejected, see
+ * {@link TokenInvalidations}.
+ */
+@Slf4j
+@Component
+public class JwtVerifier {
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    });
+
+    private final JwtParser jwtParser;
+    private final Cache<String, VerifiedIdentity> verifiedTokens;
+    private final TokenInvalidations invalidations;
+
+    public JwtVerifier(@Value("${app.jwt.secret}") String jwtSecret,
+                       @Value("${app.security.token-cache.max-size:50000}") long cacheMaxSize,
+                       @Value("${app.security.token-cache.max-ttl:30s}") Duration cacheMaxTtl,
+                       TokenInvalidations invalidations) {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiry(cacheMaxTtl))
+                .build();
+        this.invalidations = invalidations;
+    }
+
+    /**
+     * Returns the identity carried by the token, or an empty result if the token is malformed, forged, expired or
+     * issued before its user was invalidated.
+     */
+    public Optional<VerifiedIdentity> verify(String token) {
+        String digest = digest(token);
+        VerifiedIdentity cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return notInvalidated(cached);
+        }
+
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null) {
+                log.warn("Rejecting JWT without expiration");
+                return Optional.empty();
+            }
+
+            Number userId = claims.get(CLAIM_USER_ID, Number.class);
+            VerifiedIdentity identity = new VerifiedIdentity(
+                    userId != null ? userId.longValue() : null,
+                    claims.getSubject(),
+                    claims.get(CLAIM_ROLE, String.class),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration().toInstant());
+            verifiedTokens.put(digest, identity);
+            return notInvalidated(identity);
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.debug("Rejected JWT: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<VerifiedIdentity> notInvalidated(VerifiedIdentity identity) {
+        if (invalidations.isIssuedBeforeInvalidation(identity)) {
+            log.debug("Rejected JWT issued before {} was invalidated", identity.email());
+            return Optional.empty();
+        }
+        return Optional.of(identity);
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedIdentity> {
+        private final long maxTtlNanos;
+
+        UntilTokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedIdentity identity, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), identity.expiresAt());
+            return remaining.isNegative() ? 0 : Math.min(remaining.toNanos(), maxTtlNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedIdentity identity, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, identity, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedIdentity identity, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
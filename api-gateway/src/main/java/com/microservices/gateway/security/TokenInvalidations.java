@@ -0,0 +1,135 @@
+package com.microservices.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Users invalidated by user-service after a change to their role or credentials. Tokens issued before the
+ * invalidation are no longer accepted, whether or not they are cached.
+ * <p>
+ * user-service stores each invalidation in Redis for one token lifetime and announces it on a channel. The channel
+ * is followed once the application is ready, and the stored invalidations are loaded each time the subscription is
+ * established, so the ones announced while the gateway was not listening are not missed. Redis is best effort: the
+ * gateway starts and keeps serving without it, resubscribing with backoff.
+ * <p>
+ * Invalidations are kept in epoch seconds, the precision of the tokens' {@code iat} claim, and are only bounded by
+ * time, since dropping one early would make the tokens it covers trusted again.
+ */
+@Slf4j
+@Component
+public class TokenInvalidations implements DisposableBean {
+    // Must match user-service
+    static final String KEY_PREFIX = "auth:invalidated:";
+    static final String CHANNEL = "auth:invalidations";
+
+    private static final Duration MAX_RETRY_INTERVAL = Duration.ofMinutes(1);
+
+    private final Cache<String, Long> invalidatedAt;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration retryInterval;
+    private Disposable subscription;
+
+    @Autowired
+    public TokenInvalidations(ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+                              @Value("${app.security.invalidations.enabled:true}") boolean enabled,
+                              @Value("${app.security.invalidations.ttl:24h}") Duration ttl,
+                              @Value("${app.security.invalidations.retry-interval:1s}") Duration retryInterval) {
+        this.invalidatedAt = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        this.redisTemplate = enabled ? redisTemplate.getIfAvailable() : null;
+        this.retryInterval = retryInterval;
+    }
+
+    /**
+     * Keeps only the invalidations it is told about through {@link #record(String, long)}.
+     */
+    TokenInvalidations(Duration ttl) {
+        this.invalidatedAt = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        this.redisTemplate = null;
+        this.retryInterval = Duration.ZERO;
+    }
+
+    /**
+     * Returns {@code true} if the user was invalidated after the token was issued. A token issued within the same
+     * second as the invalidation counts as issued before it, and so does a token without {@code iat}.
+     */
+    public boolean isIssuedBeforeInvalidation(VerifiedIdentity identity) {
+        Long invalidated = invalidatedAt.getIfPresent(identity.email());
+        return invalidated != null
+                && (identity.issuedAt() == null || identity.issuedAt().getEpochSecond() <= invalidated);
+    }
+
+    void record(String email, long invalidatedAtSeconds) {
+        invalidatedAt.asMap().merge(email, invalidatedAtSeconds, Math::max);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void follow() {
+        if (redisTemplate == null || subscription != null) {
+            return;
+        }
+        // Deferred so that failing to connect is retried like losing the connection
+        subscription = Mono.defer(() -> redisTemplate.listenToChannelLater(CHANNEL))
+                .flatMapMany(messages -> loadStored()
+                        .thenMany(messages.map(ReactiveSubscription.Message::getMessage)))
+                .doOnNext(this::recordAnnounced)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, retryInterval)
+                        .maxBackoff(MAX_RETRY_INTERVAL)
+                        .doBeforeRetry(signal -> log.warn("Lost the token invalidation channel: {}",
+                                signal.failure().toString())))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> loadStored() {
+        return redisTemplate.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build())
+                .flatMap(key -> redisTemplate.opsForValue().get(key)
+                        .doOnNext(value -> recordStored(key.substring(KEY_PREFIX.length()), value)))
+                .then();
+    }
+
+    /**
+     * Records an announcement of the form {@code <epoch seconds>:<email>}.
+     */
+    private void recordAnnounced(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0) {
+            log.warn("Ignoring malformed token invalidation: {}", message);
+            return;
+        }
+        recordStored(message.substring(separator + 1), message.substring(0, separator));
+    }
+
+    private void recordStored(String email, String invalidatedAtSeconds) {
+        try {
+            record(email, Long.parseLong(invalidatedAtSeconds));
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring malformed token invalidation of {}: {}", email, invalidatedAtSeconds);
+        }
+    }
+}
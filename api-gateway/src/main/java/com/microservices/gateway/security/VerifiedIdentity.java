@@ -0,0 +1,15 @@
+package com.microservices.gateway.security;
+
+import java.time.Instant;
+
+/**
+ * Identity extracted from a verified access token, forwarded to downstream services as trusted headers.
+ *
+ * @param userId    user id claim, {@code null} for tokens issued before it was added
+ * @param email     token subject
+ * @param role      role claim without the {@code ROLE_} prefix, may be {@code null}
+ * @param issuedAt  token issue time, {@code null} for tokens without {@code iat}
+ * @param expiresAt token expiry
+ */
+public record VerifiedIdentity(Long userId, String email, String role, Instant issuedAt, Instant expiresAt) {
+}
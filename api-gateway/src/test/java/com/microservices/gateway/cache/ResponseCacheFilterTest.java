@@ -0,0 +1,313 @@
+package com.microservices.gateway.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class ResponseCacheFilterTest {
+    private static final String MENU = "{\"restaurantId\":1,\"items\":[\"pho\",\"banh mi\"]}";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private MeterRegistry meterRegistry;
+    private ResponseCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ResponseCacheProperties();
+        properties.getRoutes().put("restaurant-service", new ResponseCacheProperties.Route());
+    }
+
+    @Test
+    void servesRepeatedGetFromCacheWithEtag() {
+        ResponseCacheFilter filter = filter(store(null));
+
+        MockServerWebExchange first = get("restaurant-service", "/api/v1/restaurants/1/menu");
+        filter.filter(first, upstream(Duration.ZERO)).block();
+        MockServerWebExchange second = get("restaurant-service", "/api/v1/restaurants/1/menu");
+        filter.filter(second, upstream(Duration.ZERO)).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(body(second)).isEqualTo(MENU);
+        assertThat(second.getResponse().getHeaders().getETag())
+                .isNotNull()
+                .isEqualTo(first.getResponse().getHeaders().getETag());
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER))
+                .isEqualTo("HIT");
+        assertThat(meterRegistry.counter("gateway.response-cache.requests",
+                "route", "restaurant-service", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() {
+        ResponseCacheFilter filter = filter(store(null));
+        MockServerWebExchange first = get("restaurant-service", "/api/v1/restaurants/1/menu");
+        filter.filter(first, upstream(Duration.ZERO)).block();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange revalidation = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/v1/restaurants/1/menu").header(HttpHeaders.IF_NONE_MATCH, etag));
+        revalidation.getAttributes().put(GATEWAY_ROUTE_ATTR, route("restaurant-service"));
+        filter.filter(revalidation, upstream(Duration.ZERO)).block();
+
+        assertThat(revalidation.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidation.getResponse().getBodyAsString().block()).isNullOrEmpty();
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void collapsesConcurrentMissesIntoOneUpstreamCall() {
+        ResponseCacheFilter filter = filter(store(null));
+        List<MockServerWebExchange> exchanges = Flux.range(0, 50)
+                .map(i -> get("restaurant-service", "/api/v1/restaurants/2/menu"))
+                .collectList()
+                .block();
+
+        Flux.fromIterable(exchanges)
+                .flatMap(exchange -> filter.filter(exchange, upstream(Duration.ofMillis(100))))
+                .blockLast();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(exchanges).allSatisfy(exchange -> assertThat(body(exchange)).isEqualTo(MENU));
+        assertThat(meterRegistry.counter("gateway.response-cache.requests",
+                "route", "restaurant-service", "result", "collapsed").count()).isEqualTo(49);
+    }
+
+    @Test
+    void passesThroughRoutesWithoutCacheSettings() {
+        ResponseCacheFilter filter = filter(store(null));
+
+        filter.filter(get("order-service", "/api/v1/orders/1"), upstream(Duration.ZERO)).block();
+        filter.filter(get("order-service", "/api/v1/orders/1"), upstream(Duration.ZERO)).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void keepsAResponsePerAcceptedMediaType() {
+        ResponseCacheFilter filter = filter(store(null));
+        GatewayFilterChain upstream = upstream(exchange -> {
+            String accept = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT);
+            exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+            return write(exchange, "application/cbor".equals(accept) ? "cbor" : MENU);
+        });
+
+        MockServerWebExchange cbor = get("restaurant-service", "/api/v1/restaurants/1/menu", HttpHeaders.ACCEPT,
+                "application/cbor");
+        filter.filter(cbor, upstream).block();
+        MockServerWebExchange json = get("restaurant-service", "/api/v1/restaurants/1/menu", HttpHeaders.ACCEPT,
+                "application/json");
+        filter.filter(json, upstream).block();
+        MockServerWebExchange cborAgain = get("restaurant-service", "/api/v1/restaurants/1/menu", HttpHeaders.ACCEPT,
+                "application/cbor");
+        filter.filter(cborAgain, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(body(json)).isEqualTo(MENU);
+        assertThat(body(cborAgain)).isEqualTo("cbor");
+    }
+
+    @Test
+    void doesNotCacheResponsesVaryingByOtherHeaders() {
+        ResponseCacheFilter filter = filter(store(null));
+        GatewayFilterChain upstream = upstream(exchange -> {
+            exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.AUTHORIZATION));
+            return write(exchange, MENU);
+        });
+
+        filter.filter(get("restaurant-service", "/api/v1/restaurants/1"), upstream).block();
+        filter.filter(get("restaurant-service", "/api/v1/restaurants/1"), upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void revalidatesResponsesCarryingTheirOwnEtag() {
+        ResponseCacheFilter filter = filter(store(null));
+        AtomicInteger bodiesSent = new AtomicInteger();
+        GatewayFilterChain upstream = upstream(exchange -> {
+            if ("\"v1\"".equals(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                exchange.getResponse().setStatusCode(HttpStatus.NOT_MODIFIED);
+                return exchange.getResponse().writeWith(Flux.empty());
+            }
+            bodiesSent.incrementAndGet();
+            exchange.getResponse().getHeaders().setETag("\"v1\"");
+            exchange.getResponse().getHeaders().setCacheControl("no-cache");
+            return write(exchange, MENU);
+        });
+
+        filter.filter(get("restaurant-service", "/api/v1/restaurants/1/menu"), upstream).block();
+        MockServerWebExchange second = get("restaurant-service", "/api/v1/restaurants/1/menu");
+        filter.filter(second, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(bodiesSent).hasValue(1);
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(second)).isEqualTo(MENU);
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER))
+                .isEqualTo("REVALIDATED");
+    }
+
+    @Test
+    void refreshesTheEntryWhenTheCallerAsksForNoCache() {
+        ResponseCacheFilter filter = filter(store(null));
+        AtomicInteger version = new AtomicInteger();
+        GatewayFilterChain upstream = upstream(exchange -> write(exchange, "v" + version.incrementAndGet()));
+
+        filter.filter(get("restaurant-service", "/api/v1/restaurants/1"), upstream).block();
+        MockServerWebExchange refresh = get("restaurant-service", "/api/v1/restaurants/1", HttpHeaders.CACHE_CONTROL,
+                "no-cache");
+        filter.filter(refresh, upstream).block();
+        MockServerWebExchange after = get("restaurant-service", "/api/v1/restaurants/1");
+        filter.filter(after, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(body(refresh)).isEqualTo("v2");
+        assertThat(body(after)).isEqualTo("v2");
+    }
+
+    @Test
+    void evictsTheRouteAfterAWriteToIt() {
+        ResponseCacheFilter filter = filter(store(null));
+        AtomicInteger version = new AtomicInteger();
+        GatewayFilterChain upstream = upstream(exchange -> write(exchange, "v" + version.incrementAndGet()));
+
+        filter.filter(get("restaurant-service", "/api/v1/restaurants/1"), upstream).block();
+        MockServerWebExchange update = MockServerWebExchange.from(
+                MockServerHttpRequest.patch("/api/v1/restaurants/1/status").body("{\"status\":\"CLOSED\"}"));
+        update.getAttributes().put(GATEWAY_ROUTE_ATTR, route("restaurant-service"));
+        filter.filter(update, upstream).block();
+        MockServerWebExchange after = get("restaurant-service", "/api/v1/restaurants/1");
+        filter.filter(after, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(3);
+        assertThat(body(after)).isEqualTo("v3");
+    }
+
+    @Test
+    void shortensTheTtlToTheResponseMaxAge() {
+        ResponseCacheFilter filter = filter(store(null));
+        GatewayFilterChain upstream = upstream(exchange -> {
+            exchange.getResponse().getHeaders().setCacheControl("public, max-age=0, s-maxage=0");
+            return write(exchange, MENU);
+        });
+
+        filter.filter(get("restaurant-service", "/api/v1/restaurants/1"), upstream).block();
+        filter.filter(get("restaurant-service", "/api/v1/restaurants/1"), upstream).block();
+
+        // max-age=0 without an ETag to revalidate with is not cached at all
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void sharesCachedResponsesBetweenGatewayInstancesThroughRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        RedisServer redisServer = new RedisServer(port);
+        redisServer.start();
+        LettuceConnectionFactory connectionFactory =
+                new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        try {
+            properties.getRedis().setEnabled(true);
+            properties.getRedis().setTimeout(Duration.ofSeconds(1));
+            ReactiveStringRedisTemplate redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+            ResponseCacheFilter first = filter(store(redisTemplate));
+            ResponseCacheFilter second = filter(store(redisTemplate));
+
+            first.filter(get("restaurant-service", "/api/v1/restaurants/3/menu"), upstream(Duration.ZERO)).block();
+            // The Redis write is not awaited by the request that filled the cache
+            Mono.delay(Duration.ofMillis(200)).block();
+            MockServerWebExchange fromRedis = get("restaurant-service", "/api/v1/restaurants/3/menu");
+            second.filter(fromRedis, upstream(Duration.ZERO)).block();
+
+            assertThat(upstreamCalls).hasValue(1);
+            assertThat(body(fromRedis)).isEqualTo(MENU);
+        } finally {
+            connectionFactory.destroy();
+            redisServer.stop();
+        }
+    }
+
+    private ResponseCacheStore store(ReactiveStringRedisTemplate redisTemplate) {
+        return new ResponseCacheStore(properties, redisTemplate, new ObjectMapper(), meterRegistry);
+    }
+
+    private ResponseCacheFilter filter(ResponseCacheStore store) {
+        return new ResponseCacheFilter(properties, store, meterRegistry);
+    }
+
+    private GatewayFilterChain upstream(Duration latency) {
+        return exchange -> Mono.delay(latency).then(Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            return write(exchange, MENU);
+        }));
+    }
+
+    private GatewayFilterChain upstream(Function<ServerWebExchange, Mono<Void>> handler) {
+        return exchange -> Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            return handler.apply(exchange);
+        });
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, String body) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static MockServerWebExchange get(String routeId, String path, String... headers) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route(routeId));
+        return exchange;
+    }
+
+    private static Route route(String routeId) {
+        return Route.async()
+                .id(routeId)
+                .uri("http://localhost")
+                .predicate(exchange -> true)
+                .build();
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+}
@@ -0,0 +1,172 @@
+package com.microservices.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers.toProvider;
+
+class LatencyAwareLoadBalancerTest {
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancerTest.class);
+    private static final String SERVICE_ID = "ORDER-SERVICE";
+    private static final Duration ARRIVAL_INTERVAL = Duration.ofMillis(2);
+    private static final int REQUESTS = 5_000;
+
+    private final AtomicLong clock = new AtomicLong(1);
+
+    @Test
+    void simulationShowsLowerTailLatencyThanRoundRobinWithOneDegradedInstance() {
+        List<ServiceInstance> instances = List.of(instance("fast-1"), instance("fast-2"), instance("degraded"));
+        Map<String, Duration> latencies = Map.of(
+                "fast-1", Duration.ofMillis(10),
+                "fast-2", Duration.ofMillis(10),
+                "degraded", Duration.ofMillis(300));
+
+        long[] roundRobin = simulate(new RoundRobinLoadBalancer(toProvider(SERVICE_ID,
+                instances.toArray(ServiceInstance[]::new)), SERVICE_ID), null, latencies);
+
+        InstanceLoadTracker tracker = new InstanceLoadTracker(new LatencyAwareLoadBalancerProperties(), clock::get);
+        long[] latencyAware = simulate(balancer(tracker, null, instances),
+                new LatencyAwareLoadBalancerLifecycle(tracker), latencies);
+
+        log.info("{} requests every {} ms, 1 of {} instances at 300 ms: round robin p50={} ms p99={} ms, "
+                        + "latency-aware p50={} ms p99={} ms", REQUESTS, ARRIVAL_INTERVAL.toMillis(), instances.size(),
+                percentile(roundRobin, 50), percentile(roundRobin, 99),
+                percentile(latencyAware, 50), percentile(latencyAware, 99));
+
+        assertThat(percentile(roundRobin, 99)).isEqualTo(300);
+        assertThat(percentile(latencyAware, 99)).isLessThan(percentile(roundRobin, 99) / 10);
+    }
+
+    @Test
+    void prefersInstancesInOwnZone() {
+        InstanceLoadTracker tracker = new InstanceLoadTracker(new LatencyAwareLoadBalancerProperties(), clock::get);
+        LatencyAwareLoadBalancer balancer = balancer(tracker, "zone-a",
+                List.of(instance("a-1", "zone-a"), instance("b-1", "zone-b"), instance("b-2", "zone-b")));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(choose(balancer).getServer().getInstanceId()).isEqualTo("a-1");
+        }
+    }
+
+    @Test
+    void fallsBackToOtherZonesWhenOwnZoneIsEmpty() {
+        InstanceLoadTracker tracker = new InstanceLoadTracker(new LatencyAwareLoadBalancerProperties(), clock::get);
+        LatencyAwareLoadBalancer balancer = balancer(tracker, "zone-c",
+                List.of(instance("a-1", "zone-a"), instance("b-1", "zone-b")));
+
+        assertThat(choose(balancer).hasServer()).isTrue();
+    }
+
+    @Test
+    void newInstanceRampsUpDuringWarmUp() {
+        LatencyAwareLoadBalancerProperties properties = new LatencyAwareLoadBalancerProperties();
+        properties.setWarmUp(Duration.ofSeconds(30));
+        InstanceLoadTracker tracker = new InstanceLoadTracker(properties, clock::get);
+        List<ServiceInstance> established = List.of(instance("old-1"), instance("old-2"));
+        for (int i = 0; i < 10; i++) {
+            choose(balancer(tracker, null, established));
+        }
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        List<ServiceInstance> all = new ArrayList<>(established);
+        all.add(instance("new"));
+        LatencyAwareLoadBalancer balancer = balancer(tracker, null, all);
+        double shareAtStart = share(balancer, "new");
+        clock.addAndGet(properties.getWarmUp().toNanos());
+        double shareAfterWarmUp = share(balancer, "new");
+
+        assertThat(shareAtStart).isLessThan(0.05);
+        assertThat(shareAfterWarmUp).isGreaterThan(0.2);
+    }
+
+    /**
+     * Sends requests at a fixed rate on a simulated clock and returns their sorted latencies in milliseconds.
+     */
+    private long[] simulate(ReactorServiceInstanceLoadBalancer balancer, LatencyAwareLoadBalancerLifecycle lifecycle,
+                            Map<String, Duration> latencies) {
+        PriorityQueue<InFlight> inFlight = new PriorityQueue<>(Comparator.comparingLong(InFlight::finishesAt));
+        long[] results = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            long arrivesAt = clock.get() + ARRIVAL_INTERVAL.toNanos();
+            while (!inFlight.isEmpty() && inFlight.peek().finishesAt() <= arrivesAt) {
+                InFlight done = inFlight.poll();
+                clock.set(done.finishesAt());
+                if (lifecycle != null) {
+                    lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, done.request(),
+                            done.response()));
+                }
+            }
+            clock.set(arrivesAt);
+
+            DefaultRequest<Object> request = new DefaultRequest<>(new DefaultRequestContext());
+            Response<ServiceInstance> response = balancer.choose(request).block();
+            if (lifecycle != null) {
+                lifecycle.onStartRequest(request, response);
+            }
+            Duration latency = latencies.get(response.getServer().getInstanceId());
+            inFlight.add(new InFlight(arrivesAt + latency.toNanos(), request, response));
+            results[i] = latency.toMillis();
+        }
+        Arrays.sort(results);
+        return results;
+    }
+
+    private static double share(LatencyAwareLoadBalancer balancer, String instanceId) {
+        int chosen = 0;
+        int choices = 3_000;
+        for (int i = 0; i < choices; i++) {
+            if (choose(balancer).getServer().getInstanceId().equals(instanceId)) {
+                chosen++;
+            }
+        }
+        return (double) chosen / choices;
+    }
+
+    private static Response<ServiceInstance> choose(LatencyAwareLoadBalancer balancer) {
+        return balancer.choose(new DefaultRequest<>(new DefaultRequestContext())).block();
+    }
+
+    private static LatencyAwareLoadBalancer balancer(InstanceLoadTracker tracker, String zone,
+                                                     List<ServiceInstance> instances) {
+        return new LatencyAwareLoadBalancer(SERVICE_ID, toProvider(SERVICE_ID,
+                instances.toArray(ServiceInstance[]::new)), tracker, zone);
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    private static ServiceInstance instance(String id) {
+        return instance(id, null);
+    }
+
+    private static ServiceInstance instance(String id, String zone) {
+        DefaultServiceInstance instance = new DefaultServiceInstance(id, SERVICE_ID, id, 8080, false);
+        if (zone != null) {
+            instance.getMetadata().put(LatencyAwareLoadBalancer.ZONE_METADATA_KEY, zone);
+        }
+        return instance;
+    }
+
+    private record InFlight(long finishesAt, DefaultRequest<Object> request, Response<ServiceInstance> response) {
+    }
+}
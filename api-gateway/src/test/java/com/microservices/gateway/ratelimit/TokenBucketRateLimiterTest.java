@@ -0,0 +1,158 @@
+package com.microservices.gateway.ratelimit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory redisConnectionFactory;
+    private static LettuceConnectionFactory unreachableConnectionFactory;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port = freePort();
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        redisConnectionFactory = connectionFactory(port);
+        // Connect up front so that the first check does not take long enough for a token to be replenished
+        new ReactiveStringRedisTemplate(redisConnectionFactory).hasKey("warm-up").block();
+        unreachableConnectionFactory = connectionFactory(freePort());
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        redisConnectionFactory.destroy();
+        unreachableConnectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void bucketIsSharedAcrossGatewayInstancesThroughRedis() {
+        RateLimitProperties properties = properties(1, 3);
+        TokenBucketRateLimiter first = limiter(redisConnectionFactory, properties);
+        TokenBucketRateLimiter second = limiter(redisConnectionFactory, properties);
+
+        assertThat(allowed(first, "user:1")).isTrue();
+        assertThat(allowed(second, "user:1")).isTrue();
+        RateLimiter.Response last = first.isAllowed("order-service", "user:1").block();
+        assertThat(last.isAllowed()).isTrue();
+        assertThat(last.getHeaders()).containsEntry(RedisRateLimiter.REMAINING_HEADER, "0");
+
+        assertThat(allowed(second, "user:1")).isFalse();
+        assertThat(allowed(second, "user:2")).isTrue();
+    }
+
+    @Test
+    void routeOverridesDefaultBucket() {
+        RateLimitProperties properties = properties(1, 10);
+        RateLimitProperties.Bucket login = new RateLimitProperties.Bucket();
+        login.setReplenishRate(1);
+        login.setBurstCapacity(1);
+        properties.getRoutes().put("user-service-auth", login);
+        TokenBucketRateLimiter limiter = limiter(redisConnectionFactory, properties);
+
+        assertThat(limiter.isAllowed("user-service-auth", "ip:10.0.0.1").block().isAllowed()).isTrue();
+        assertThat(limiter.isAllowed("user-service-auth", "ip:10.0.0.1").block().isAllowed()).isFalse();
+    }
+
+    @Test
+    void fallsBackToInProcessBucketsWhenRedisIsUnreachable() {
+        TokenBucketRateLimiter limiter = limiter(unreachableConnectionFactory, properties(1, 2));
+
+        assertThat(allowed(limiter, "ip:10.0.0.2")).isTrue();
+        assertThat(allowed(limiter, "ip:10.0.0.2")).isTrue();
+        assertThat(allowed(limiter, "ip:10.0.0.2")).isFalse();
+    }
+
+    @Test
+    void inProcessBucketsNeverOverAdmitUnderContention() throws InterruptedException {
+        LocalTokenBuckets buckets = new LocalTokenBuckets(Duration.ofMinutes(1), 1_000);
+        RateLimitProperties.Bucket config = properties(1, 100).getDefaults();
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 8_000; i++) {
+            executor.execute(() -> {
+                if (buckets.tryConsume("order-service:user:1", config) >= 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Full burst plus at most a few tokens replenished while the test runs
+        assertThat(admitted.get()).isBetween(100, 110);
+    }
+
+    @Test
+    void evictsIdleInProcessBuckets() throws InterruptedException {
+        LocalTokenBuckets buckets = new LocalTokenBuckets(Duration.ofMillis(50), 1_000);
+        buckets.tryConsume("order-service:ip:10.0.0.3", properties(1, 1).getDefaults());
+
+        Thread.sleep(150);
+
+        assertThat(buckets.size()).isZero();
+    }
+
+    private static boolean allowed(TokenBucketRateLimiter limiter, String key) {
+        return limiter.isAllowed("order-service", key).block().isAllowed();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TokenBucketRateLimiter limiter(LettuceConnectionFactory connectionFactory,
+                                                  RateLimitProperties properties) {
+        DefaultRedisScript redisScript = new DefaultRedisScript<>();
+        redisScript.setScriptSource(new ResourceScriptSource(
+                new ClassPathResource("META-INF/scripts/request_rate_limiter.lua")));
+        redisScript.setResultType(List.class);
+
+        return new TokenBucketRateLimiter(new ReactiveStringRedisTemplate(connectionFactory),
+                (RedisScript<List<Long>>) redisScript, properties,
+                new LocalTokenBuckets(properties.getLocalIdleTimeout(), properties.getLocalMaxKeys()));
+    }
+
+    private static RateLimitProperties properties(int replenishRate, int burstCapacity) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getDefaults().setReplenishRate(replenishRate);
+        properties.getDefaults().setBurstCapacity(burstCapacity);
+        properties.setRedisTimeout(Duration.ofSeconds(1));
+        return properties;
+    }
+
+    private static LettuceConnectionFactory connectionFactory(int port) {
+        LettuceConnectionFactory connectionFactory =
+                new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        return connectionFactory;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
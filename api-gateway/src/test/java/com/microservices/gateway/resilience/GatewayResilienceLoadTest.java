@@ -0,0 +1,162 @@
+package com.microservices.gateway.resilience;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the gateway against three stub instances of one service, one of which is degraded, and compares the tail
+ * latency of a plain route with a hedged one.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "app.rate-limit.enabled=false",
+        "app.response-cache.enabled=false",
+        // Round robin keeps sending plain requests to the degraded instance, which is what hedging is compared with
+        "app.load-balancer.enabled=false",
+        "resilience4j.bulkhead.instances.stub-guarded.max-concurrent-calls=2"
+})
+class GatewayResilienceLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(GatewayResilienceLoadTest.class);
+    private static final Duration FAST = Duration.ofMillis(5);
+    private static final Duration DEGRADED = Duration.ofSeconds(1);
+    private static final int REQUESTS = 400;
+    private static final int CONCURRENCY = 16;
+
+    private static final List<DisposableServer> STUBS = List.of(stub(FAST), stub(FAST), stub(DEGRADED));
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        for (int i = 0; i < STUBS.size(); i++) {
+            int stubPort = STUBS.get(i).port();
+            registry.add("spring.cloud.discovery.client.simple.instances.STUB-SERVICE[" + i + "].uri",
+                    () -> "http://localhost:" + stubPort);
+        }
+
+        String routes = "spring.cloud.gateway.routes";
+        registry.add(routes + "[0].id", () -> "stub-plain");
+        registry.add(routes + "[0].uri", () -> "lb://STUB-SERVICE");
+        registry.add(routes + "[0].predicates[0]", () -> "Path=/plain/**");
+        registry.add(routes + "[0].filters[0]", () -> "StripPrefix=1");
+
+        registry.add(routes + "[1].id", () -> "stub-hedged");
+        registry.add(routes + "[1].uri", () -> "lb://STUB-SERVICE");
+        registry.add(routes + "[1].predicates[0]", () -> "Path=/hedged/**");
+        registry.add(routes + "[1].filters[0]", () -> "StripPrefix=1");
+        registry.add(routes + "[1].filters[1].name", () -> "HedgedRequest");
+        registry.add(routes + "[1].filters[1].args.delay", () -> "100ms");
+
+        registry.add(routes + "[2].id", () -> "stub-guarded");
+        registry.add(routes + "[2].uri", () -> "lb://STUB-SERVICE");
+        registry.add(routes + "[2].predicates[0]", () -> "Path=/guarded/**");
+        registry.add(routes + "[2].filters[0]", () -> "StripPrefix=1");
+        registry.add(routes + "[2].filters[1].name", () -> "CircuitBreaker");
+        registry.add(routes + "[2].filters[1].args.name", () -> "stub-guarded");
+        registry.add(routes + "[2].filters[1].args.fallbackUri", () -> "forward:" + FallbackController.PATH);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        STUBS.forEach(DisposableServer::disposeNow);
+    }
+
+    @Test
+    void hedgedRequestsDoNotWaitForTheDegradedInstance() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        run(client, "/hedged/menu", STUBS.size(), 1);
+
+        // One at a time, round robin sends the hedge of a request to the degraded instance on to a fast one
+        long[] hedged = run(client, "/hedged/menu", STUBS.size() * 4, 1);
+
+        assertThat(hedged[hedged.length - 1]).isLessThan(DEGRADED.toMillis());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void hedgingCutsTailLatencyWhenOneInstanceIsDegraded() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        // Warm up connection pools and the load balancer's instance list
+        run(client, "/plain/menu", 30, CONCURRENCY);
+        run(client, "/hedged/menu", 30, CONCURRENCY);
+
+        long[] plain = run(client, "/plain/menu", REQUESTS, CONCURRENCY);
+        long[] hedged = run(client, "/hedged/menu", REQUESTS, CONCURRENCY);
+        log.info("{} requests, {} concurrent, 1 of {} instances at {} ms: plain p50={} ms p99={} ms, "
+                        + "hedged p50={} ms p99={} ms", REQUESTS, CONCURRENCY, STUBS.size(), DEGRADED.toMillis(),
+                percentile(plain, 50), percentile(plain, 99), percentile(hedged, 50), percentile(hedged, 99));
+
+        assertThat(percentile(plain, 99)).isGreaterThanOrEqualTo(DEGRADED.toMillis());
+        assertThat(percentile(hedged, 99)).isLessThan(percentile(plain, 99) / 2);
+    }
+
+    @Test
+    void bulkheadShedsExcessConcurrencyWithServiceUnavailable() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+
+        List<Integer> statuses = Flux.range(0, 10)
+                .flatMap(i -> client.get().uri("/guarded/slow").exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                        assertThat(response.headers().header(HttpHeaders.RETRY_AFTER)).containsExactly("1");
+                    }
+                    return response.releaseBody().thenReturn(response.statusCode().value());
+                }), 10)
+                .collectList()
+                .block();
+
+        assertThat(statuses).filteredOn(status -> status == 200).hasSizeLessThanOrEqualTo(2);
+        assertThat(statuses).filteredOn(status -> status == 503).hasSizeGreaterThanOrEqualTo(8);
+    }
+
+    private static long[] run(WebClient client, String path, int requests, int concurrency) {
+        return Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.get().uri(path).retrieve().toBodilessEntity()
+                            .map(response -> (System.nanoTime() - start) / 1_000_000);
+                }), concurrency)
+                .collectList()
+                .block()
+                .stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    private static DisposableServer stub(Duration latency) {
+        return HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/menu", (request, response) -> Mono.delay(latency)
+                                .then(response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+                                        .sendString(Mono.just("{\"items\":[]}"))
+                                        .then()))
+                        .get("/slow", (request, response) -> Mono.delay(Duration.ofMillis(500))
+                                .then(response.sendString(Mono.just("{}")).then())))
+                .bindNow();
+    }
+}
@@ -0,0 +1,143 @@
+package com.microservices.gateway.security;
+
+import com.microservices.identity.IdentityHeaders;
+import com.microservices.identity.IdentitySignature;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationFilterTest {
+    private static final byte[] KEY = new byte[64];
+    private static final String SECRET = Base64.getEncoder().encodeToString(KEY);
+
+    private final TokenInvalidations invalidations = new TokenInvalidations(Duration.ofHours(24));
+    private final JwtVerifier jwtVerifier = new JwtVerifier(SECRET, 1_000, Duration.ofSeconds(30), invalidations);
+    private final IdentitySignature identitySignature = new IdentitySignature(SECRET);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtVerifier, SECRET,
+            List.of("/api/v1/auth/**"));
+    private final AtomicReference<ServerHttpRequest> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange.getRequest());
+        return Mono.empty();
+    };
+
+    @Test
+    void forwardsVerifiedIdentityAndReplacesSpoofedHeaders() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/orders/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(60_000))
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, "1")
+                .header(JwtAuthenticationFilter.USER_ROLES_HEADER, "ROLE_ADMIN"));
+
+        filter.filter(exchange, chain).block();
+
+        HttpHeaders headers = forwarded.get().getHeaders();
+        assertThat(headers.get(JwtAuthenticationFilter.USER_ID_HEADER)).containsExactly("42");
+        assertThat(headers.get(JwtAuthenticationFilter.USER_EMAIL_HEADER)).containsExactly("user@beefood.com");
+        assertThat(headers.get(JwtAuthenticationFilter.USER_ROLES_HEADER)).containsExactly("ROLE_USER");
+        assertThat((VerifiedIdentity) exchange.getAttribute(JwtAuthenticationFilter.IDENTITY_ATTRIBUTE)).isNotNull();
+        // The services accept the identity only with the gateway's signature
+        assertThat(identitySignature.verify("42", "user@beefood.com", "ROLE_USER",
+                Long.parseLong(headers.getFirst(IdentityHeaders.EXPIRES)),
+                headers.getFirst(IdentityHeaders.SIGNATURE))).isTrue();
+    }
+
+    @Test
+    void rejectsExpiredTokenAtTheEdge() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/orders/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(-60_000)));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(forwarded.get()).isNull();
+    }
+
+    @Test
+    void rejectsForgedToken() {
+        byte[] otherKey = new byte[64];
+        Arrays.fill(otherKey, (byte) 1);
+        String forged = Jwts.builder()
+                .setSubject("admin@beefood.com")
+                .claim(JwtVerifier.CLAIM_ROLE, "ADMIN")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(otherKey), SignatureAlgorithm.HS512)
+                .compact();
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/orders/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + forged));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void forwardsAnonymousRequestsWithoutIdentity() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/api/v1/auth/login")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer garbage")
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, "1"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(forwarded.get().getHeaders().containsKey(JwtAuthenticationFilter.USER_ID_HEADER)).isFalse();
+        assertThat(forwarded.get().getHeaders().containsKey(IdentityHeaders.SIGNATURE)).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    void verifiesRepeatedTokenOnce() {
+        String token = token(60_000);
+
+        VerifiedIdentity first = jwtVerifier.verify(token).orElseThrow();
+        VerifiedIdentity second = jwtVerifier.verify(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void rejectsCachedTokensIssuedBeforeTheUserWasInvalidated() {
+        String token = token(60_000);
+        jwtVerifier.verify(token).orElseThrow();
+
+        invalidations.record("user@beefood.com", Instant.now().getEpochSecond());
+
+        assertThat(jwtVerifier.verify(token)).isEmpty();
+        assertThat(jwtVerifier.verify(token(Instant.now().plusSeconds(2), 60_000))).isPresent();
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static String token(long expiresInMs) {
+        return token(Instant.now(), expiresInMs);
+    }
+
+    private static String token(Instant issuedAt, long expiresInMs) {
+        return Jwts.builder()
+                .setSubject("user@beefood.com")
+                .claim(JwtVerifier.CLAIM_USER_ID, 42L)
+                .claim(JwtVerifier.CLAIM_ROLE, "USER")
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .signWith(Keys.hmacShaKeyFor(KEY), SignatureAlgorithm.HS512)
+                .compact();
+    }
+}
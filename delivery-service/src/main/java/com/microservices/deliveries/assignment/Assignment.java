@@ -0,0 +1,4 @@
+package com.microservices.deliveries.assignment;
+
+public record Assignment(PendingOrder order, Long driverId, double distanceMeters) {
+}
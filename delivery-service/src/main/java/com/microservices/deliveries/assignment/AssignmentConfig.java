@@ -0,0 +1,52 @@
+package com.microservices.deliveries.assignment;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Schedules the {@link DeliveryDispatcher}'s batches and the {@link IdleDriverIndex}'s eviction of drivers gone
+ * offline.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(AssignmentProperties.class)
+public class AssignmentConfig {
+
+    /**
+     * Resolves {@code lb://} service ids against the Eureka registry, so restaurant-service is reached on whichever
+     * instances are up rather than on a fixed address.
+     */
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder() {
+        return RestClient.builder();
+    }
+
+    /**
+     * Retries the record an {@link OrderEventListener} poll failed at, after committing the ones before it, and
+     * sends it to {@code <topic>.DLT} once {@code app.assignment.order-event-retry-timeout} has passed. Orders of
+     * restaurants that restaurant-service does not know go there without retrying.
+     */
+    @Bean
+    public DefaultErrorHandler orderEventErrorHandler(KafkaTemplate<String, String> kafkaTemplate,
+                                                      AssignmentProperties properties) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, ex) -> new TopicPartition(record.topic() + ".DLT", -1));
+        ExponentialBackOff backOff = new ExponentialBackOff(1_000, 2);
+        backOff.setMaxInterval(30_000);
+        backOff.setMaxElapsedTime(properties.getOrderEventRetryTimeout().toMillis());
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(HttpClientErrorException.NotFound.class);
+        return errorHandler;
+    }
+}
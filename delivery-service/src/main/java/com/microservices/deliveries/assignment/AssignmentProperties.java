@@ -0,0 +1,59 @@
+package com.microservices.deliveries.assignment;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for assigning drivers to confirmed orders, see {@link DeliveryDispatcher}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.assignment")
+public class AssignmentProperties {
+    private String orderEventsTopic = "order-events";
+
+    private String assignedTopic = "deliveries.assigned";
+
+    /**
+     * Idle drivers are bucketed by geohash cells of this precision; 7 is about 150 m square, small enough that a
+     * search near a busy restaurant does not measure the distance to hundreds of drivers.
+     */
+    private int geohashPrecision = 7;
+
+    /**
+     * Nearest idle drivers considered for each order of a batch.
+     */
+    private int candidatesPerOrder = 5;
+
+    /**
+     * Drivers farther than this from the restaurant are not considered.
+     */
+    private double maxPickupDistanceMeters = 5_000;
+
+    /**
+     * Orders matched together at most, the rest wait for the next batch.
+     */
+    private int maxBatchSize = 1_000;
+
+    /**
+     * Idle drivers that have not pinged for this long are taken as offline.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(2);
+
+    /**
+     * Base URL of restaurant-service, where restaurants' locations are looked up; {@code lb://} ids are resolved
+     * against the Eureka registry.
+     */
+    private String restaurantServiceUrl = "lb://RESTAURANT-SERVICE";
+
+    /**
+     * How long an order event that cannot be handled, as while restaurant-service is down, is retried before it
+     * goes to the dead-letter topic.
+     */
+    private Duration orderEventRetryTimeout = Duration.ofMinutes(2);
+
+    private Duration pickupLocationTtl = Duration.ofHours(1);
+
+    private int pickupLocationCacheSize = 100_000;
+}
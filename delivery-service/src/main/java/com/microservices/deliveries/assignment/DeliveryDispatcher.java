@@ -0,0 +1,219 @@
+package com.microservices.deliveries.assignment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.deliveries.dto.event.DeliveryAssignedEvent;
+import com.microservices.deliveries.entity.Delivery;
+import com.microservices.deliveries.enums.DeliveryStatus;
+import com.microservices.deliveries.location.DriverLocationTracker;
+import com.microservices.deliveries.repository.DeliveryRepository;
+import com.microservices.deliveries.tracking.TrackingFeed;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Assigns drivers to confirmed orders in batches.
+ * <p>
+ * Confirmed orders are stored as {@code SEARCHING} deliveries and wait in memory for the next batch, which runs
+ * every {@code app.assignment.batch-window-ms}. Matching all the orders of a window together, rather than each as
+ * it arrives, lets the {@link DriverMatcher} give contested drivers to the nearest orders and cut the total
+ * distance driven to restaurants. Orders that find no idle driver wait for the next batch.
+ * <p>
+ * An assignment is written only if the delivery is still searching and the driver has no other active delivery,
+ * which another instance may have given them; otherwise the order is tried again, and a driver busy elsewhere is
+ * kept out of the index until that delivery ends.
+ * Deliveries still searching are reloaded on startup.
+ */
+@Slf4j
+@Component
+public class DeliveryDispatcher {
+    private static final List<DeliveryStatus> UNFINISHED =
+            List.of(DeliveryStatus.SEARCHING, DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP);
+
+    private final ConcurrentHashMap<Long, PendingOrder> waiting = new ConcurrentHashMap<>();
+    private final DriverMatcher driverMatcher;
+    private final IdleDriverIndex idleDriverIndex;
+    private final DriverLocationTracker driverLocationTracker;
+    private final TrackingFeed trackingFeed;
+    private final DeliveryRepository deliveryRepository;
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final AssignmentProperties properties;
+
+    public DeliveryDispatcher(DriverMatcher driverMatcher, IdleDriverIndex idleDriverIndex,
+                              DriverLocationTracker driverLocationTracker, TrackingFeed trackingFeed,
+                              DeliveryRepository deliveryRepository, MongoTemplate mongoTemplate,
+                              KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                              AssignmentProperties properties) {
+        this.driverMatcher = driverMatcher;
+        this.idleDriverIndex = idleDriverIndex;
+        this.driverLocationTracker = driverLocationTracker;
+        this.trackingFeed = trackingFeed;
+        this.deliveryRepository = deliveryRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Queues the deliveries still searching and marks the drivers of active ones busy.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try (Stream<Delivery> deliveries = deliveryRepository.streamByStatusIn(UNFINISHED)) {
+            deliveries.forEach(delivery -> {
+                if (delivery.getStatus() == DeliveryStatus.SEARCHING) {
+                    waiting.put(delivery.getOrderId(), PendingOrder.of(delivery));
+                } else {
+                    idleDriverIndex.markBusy(delivery.getDriverId());
+                }
+            });
+        }
+        log.info("Restored {} deliveries waiting for a driver", waiting.size());
+    }
+
+    /**
+     * Stores the orders as deliveries searching for a driver, in one bulk insert, and queues them for the next
+     * batch. Orders that already have a delivery, delivered twice, are skipped.
+     */
+    public void accept(List<PendingOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Delivery> deliveries = orders.stream()
+                .map(order -> new Delivery(order.orderId(), order.userId(), order.restaurantId(),
+                        new GeoJsonPoint(order.longitude(), order.latitude()), DeliveryStatus.SEARCHING, null, false,
+                        null, 0L, order.confirmedAt(), null, now))
+                .toList();
+        Set<Integer> duplicates = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Delivery.class).insert(deliveries).execute();
+        } catch (BulkOperationException ex) {
+            for (BulkWriteError error : ex.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw ex;
+                }
+                duplicates.add(error.getIndex());
+            }
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            if (!duplicates.contains(i)) {
+                waiting.put(orders.get(i).orderId(), orders.get(i));
+            }
+        }
+    }
+
+    /**
+     * Stops looking for a driver for the order.
+     */
+    public void forget(Long orderId) {
+        waiting.remove(orderId);
+    }
+
+    public int waitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * Matches the orders waiting longest, up to {@code app.assignment.max-batch-size}, with idle drivers.
+     */
+    @Scheduled(fixedDelayString = "${app.assignment.batch-window-ms:500}")
+    public void dispatch() {
+        if (waiting.isEmpty()) {
+            return;
+        }
+        List<PendingOrder> batch = waiting.values().stream()
+                .sorted(Comparator.comparing(PendingOrder::confirmedAt))
+                .limit(properties.getMaxBatchSize())
+                .toList();
+        List<Assignment> assignments = driverMatcher.match(batch);
+        int assigned = 0;
+        for (Assignment assignment : assignments) {
+            if (assign(assignment)) {
+                assigned++;
+            }
+        }
+        log.debug("Assigned drivers to {} of {} waiting orders", assigned, batch.size());
+    }
+
+    private boolean assign(Assignment assignment) {
+        Long orderId = assignment.order().orderId();
+        Long driverId = assignment.driverId();
+        Instant now = Instant.now();
+        Query searching = Query.query(Criteria.where("_id").is(orderId).and("status").is(DeliveryStatus.SEARCHING));
+        Update update = new Update()
+                .set("status", DeliveryStatus.ASSIGNED)
+                .set("driverId", driverId)
+                .set("active", true)
+                .set("pickupDistanceMeters", assignment.distanceMeters())
+                .set("assignedAt", now)
+                .set("updatedAt", now)
+                .inc("version", 1);
+        Delivery delivery;
+        try {
+            delivery = mongoTemplate.findAndModify(searching, update, FindAndModifyOptions.options().returnNew(true),
+                    Delivery.class);
+        } catch (DuplicateKeyException ex) {
+            // Busy with a delivery assigned by another instance, until the TrackingFeed hears that it ended
+            idleDriverIndex.markBusy(driverId);
+            return false;
+        } catch (RuntimeException ex) {
+            log.warn("Assigning driver {} to order {} failed, retrying on the next batch: {}", driverId, orderId,
+                    ex.getMessage());
+            idleDriverIndex.release(driverId, driverLocationTracker.latest(driverId));
+            return false;
+        }
+
+        waiting.remove(orderId);
+        if (delivery == null) {
+            // Cancelled meanwhile
+            idleDriverIndex.release(driverId, driverLocationTracker.latest(driverId));
+            return false;
+        }
+        publish(delivery);
+        trackingFeed.statusChanged(delivery);
+        return true;
+    }
+
+    private void publish(Delivery delivery) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(DeliveryAssignedEvent.of(delivery));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        kafkaTemplate.send(properties.getAssignedTopic(), String.valueOf(delivery.getOrderId()), payload)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Could not publish the assignment of order {}: {}", delivery.getOrderId(),
+                                ex.getMessage());
+                    }
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package com.microservices.deliveries.assignment;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Matches a batch of orders with idle drivers, aiming at the least total distance from drivers to restaurants.
+ * <p>
+ * Each order gets its {@code app.assignment.candidates-per-order} nearest idle drivers as candidates, and all the
+ * pairs of the batch are taken shortest first. An order that would grab the only nearby driver of another when
+ * first come, first served, only keeps it if it is the closer of the two. Orders whose candidates all went to nearer
+ * orders look again among the drivers left, until a round matches no one.
+ */
+@Component
+public class DriverMatcher {
+    private static final Comparator<Assignment> BY_DISTANCE = Comparator.comparingDouble(Assignment::distanceMeters);
+
+    private final IdleDriverIndex idleDriverIndex;
+    private final AssignmentProperties properties;
+
+    public DriverMatcher(IdleDriverIndex idleDriverIndex, AssignmentProperties properties) {
+        this.idleDriverIndex = idleDriverIndex;
+        this.properties = properties;
+    }
+
+    /**
+     * Claims a driver for as many of the orders as there are idle drivers near them.
+     *
+     * @return the matched orders; the others found no idle driver within
+     * {@code app.assignment.max-pickup-distance-meters}
+     */
+    public List<Assignment> match(List<PendingOrder> orders) {
+        List<Assignment> assignments = new ArrayList<>();
+        List<PendingOrder> unmatched = orders;
+        while (!unmatched.isEmpty()) {
+            List<Assignment> candidates = new ArrayList<>();
+            List<PendingOrder> withCandidates = new ArrayList<>();
+            for (PendingOrder order : unmatched) {
+                List<NearbyDriver> nearest = idleDriverIndex.nearest(order.latitude(), order.longitude(),
+                        properties.getMaxPickupDistanceMeters(), properties.getCandidatesPerOrder());
+                for (NearbyDriver nearby : nearest) {
+                    candidates.add(new Assignment(order, nearby.driver().driverId(), nearby.distanceMeters()));
+                }
+                // Drivers only leave the index during a batch, so an order without any will not find one
+                if (!nearest.isEmpty()) {
+                    withCandidates.add(order);
+                }
+            }
+            candidates.sort(BY_DISTANCE);
+
+            Set<Long> matchedOrders = new HashSet<>();
+            Set<Long> takenDrivers = new HashSet<>();
+            for (Assignment candidate : candidates) {
+                if (matchedOrders.contains(candidate.order().orderId())
+                        || !takenDrivers.add(candidate.driverId())) {
+                    continue;
+                }
+                // Fails if the driver was claimed outside this batch meanwhile
+                if (idleDriverIndex.claim(candidate.driverId())) {
+                    assignments.add(candidate);
+                    matchedOrders.add(candidate.order().orderId());
+                }
+            }
+            if (matchedOrders.isEmpty()) {
+                break;
+            }
+            unmatched = withCandidates.stream().filter(order -> !matchedOrders.contains(order.orderId())).toList();
+        }
+        return assignments;
+    }
+}
@@ -0,0 +1,163 @@
+package com.microservices.deliveries.assignment;
+
+import com.microservices.deliveries.location.DriverLocation;
+import com.microservices.geo.GeoHashGrid;
+import com.microservices.geo.Located;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the drivers free to take a delivery, bucketed by geohash cell and moved between cells as
+ * they ping, for finding the idle drivers nearest to a restaurant without going through every driver.
+ * <p>
+ * A driver given a delivery is {@link #claim(Long) claimed}: taken out of the index and ignored until
+ * {@link #release(Long, DriverLocation) released} when the delivery ends, so no two orders can get the same driver.
+ * Claiming and pinging go through the same per-driver map entry, so a ping racing a claim cannot put the driver
+ * back.
+ * <p>
+ * Each instance only sees the drivers pinging through it; the database keeps a driver from having two active
+ * deliveries across instances, see {@code Delivery.ACTIVE_DRIVER_INDEX}.
+ */
+@Component
+public class IdleDriverIndex {
+    private final ConcurrentHashMap<Long, IdleDriver> drivers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Map<Long, IdleDriver>> cells = new ConcurrentHashMap<>();
+    private final Set<Long> busy = ConcurrentHashMap.newKeySet();
+    private final AssignmentProperties properties;
+    private final GeoHashGrid grid;
+
+    public IdleDriverIndex(AssignmentProperties properties) {
+        this.properties = properties;
+        this.grid = new GeoHashGrid(properties.getGeohashPrecision());
+    }
+
+    /**
+     * Moves the driver to the cell of their latest position, unless they are busy.
+     */
+    public void update(DriverLocation location) {
+        long cell = grid.cellOf(location.latitude(), location.longitude());
+        drivers.compute(location.driverId(), (driverId, previous) -> {
+            if (busy.contains(driverId)) {
+                return null;
+            }
+            if (previous != null && previous.location().recordedAt().isAfter(location.recordedAt())) {
+                return previous;
+            }
+            IdleDriver idle = new IdleDriver(location, cell);
+            if (previous != null && previous.cell() != cell) {
+                removeFromCell(previous);
+            }
+            cells.computeIfAbsent(cell, key -> new ConcurrentHashMap<>()).put(driverId, idle);
+            return idle;
+        });
+    }
+
+    /**
+     * Takes an idle driver out of the index for a delivery.
+     *
+     * @return whether the driver was still idle
+     */
+    public boolean claim(Long driverId) {
+        boolean[] claimed = new boolean[1];
+        drivers.computeIfPresent(driverId, (id, idle) -> {
+            removeFromCell(idle);
+            busy.add(id);
+            claimed[0] = true;
+            return null;
+        });
+        return claimed[0];
+    }
+
+    /**
+     * Marks a driver busy whether or not they are in the index, as one found with an active delivery.
+     */
+    public void markBusy(Long driverId) {
+        drivers.compute(driverId, (id, idle) -> {
+            if (idle != null) {
+                removeFromCell(idle);
+            }
+            busy.add(id);
+            return null;
+        });
+    }
+
+    /**
+     * Makes a driver idle again.
+     *
+     * @param location the driver's latest position, {@code null} to wait for their next ping
+     */
+    public void release(Long driverId, DriverLocation location) {
+        busy.remove(driverId);
+        if (location != null) {
+            update(location);
+        }
+    }
+
+    public boolean isIdle(Long driverId) {
+        return drivers.containsKey(driverId);
+    }
+
+    public int size() {
+        return drivers.size();
+    }
+
+    /**
+     * Drops idle drivers that stopped pinging, they have gone offline.
+     */
+    @Scheduled(fixedDelayString = "${app.assignment.eviction-interval-ms:30000}")
+    public void evictOffline() {
+        Instant cutoff = Instant.now().minus(properties.getIdleTimeout());
+        for (Long driverId : drivers.keySet()) {
+            drivers.computeIfPresent(driverId, (id, idle) -> {
+                if (idle.location().recordedAt().isAfter(cutoff)) {
+                    return idle;
+                }
+                removeFromCell(idle);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * @return up to {@code limit} idle drivers within {@code radiusMeters}, nearest first
+     */
+    public List<NearbyDriver> nearest(double latitude, double longitude, double radiusMeters, int limit) {
+        return grid.nearest(latitude, longitude, radiusMeters, limit, this::idleIn, idle -> true).stream()
+                .map(nearby -> new NearbyDriver(nearby.item().location(), nearby.distanceMeters()))
+                .toList();
+    }
+
+    private Collection<IdleDriver> idleIn(long cell) {
+        Map<Long, IdleDriver> members = cells.get(cell);
+        return members != null ? members.values() : null;
+    }
+
+    private void removeFromCell(IdleDriver idle) {
+        cells.computeIfPresent(idle.cell(), (cell, members) -> {
+            members.remove(idle.location().driverId());
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    /**
+     * @param cell geohash of the cell the driver is in
+     */
+    record IdleDriver(DriverLocation location, long cell) implements Located {
+        @Override
+        public double latitude() {
+            return location.latitude();
+        }
+
+        @Override
+        public double longitude() {
+            return location.longitude();
+        }
+    }
+}
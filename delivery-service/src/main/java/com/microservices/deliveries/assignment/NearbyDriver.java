@@ -0,0 +1,6 @@
+package com.microservices.deliveries.assignment;
+
+import com.microservices.deliveries.location.DriverLocation;
+
+public record NearbyDriver(DriverLocation driver, double distanceMeters) {
+}
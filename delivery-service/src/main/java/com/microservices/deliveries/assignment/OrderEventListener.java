@@ -0,0 +1,86 @@
+package com.microservices.deliveries.assignment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.deliveries.dto.event.OrderEvent;
+import com.microservices.deliveries.enums.DeliveryStatus;
+import com.microservices.deliveries.exception.DeliveryNotFoundException;
+import com.microservices.deliveries.exception.DeliveryUpdateConflictException;
+import com.microservices.deliveries.service.DeliveryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns confirmed orders into deliveries waiting for a driver, and cancels the deliveries of cancelled orders.
+ * <p>
+ * Records are taken a poll at a time and stored with one bulk insert before their offsets are committed, so an
+ * order is neither lost nor, being keyed by its id, given two deliveries when redelivered. A record that cannot be
+ * handled fails alone: the ones before it are stored, and it is retried and then dead-lettered by
+ * {@link AssignmentConfig#orderEventErrorHandler}, without holding up the rest of the poll for good.
+ */
+@Slf4j
+@Component
+public class OrderEventListener {
+    private final DeliveryDispatcher deliveryDispatcher;
+    private final DeliveryService deliveryService;
+    private final PickupLocations pickupLocations;
+    private final ObjectMapper objectMapper;
+
+    public OrderEventListener(DeliveryDispatcher deliveryDispatcher, DeliveryService deliveryService,
+                              PickupLocations pickupLocations, ObjectMapper objectMapper) {
+        this.deliveryDispatcher = deliveryDispatcher;
+        this.deliveryService = deliveryService;
+        this.pickupLocations = pickupLocations;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(topics = "${app.assignment.order-events-topic:order-events}",
+            groupId = "${spring.application.name}-assignment", batch = "true")
+    public void onOrderEvents(List<String> payloads) {
+        List<PendingOrder> confirmed = new ArrayList<>();
+        for (int i = 0; i < payloads.size(); i++) {
+            OrderEvent event;
+            try {
+                event = objectMapper.readValue(payloads.get(i), OrderEvent.class);
+            } catch (JsonProcessingException ex) {
+                log.warn("Ignoring unreadable order event: {}", ex.getOriginalMessage());
+                continue;
+            }
+            if (OrderEvent.ORDER_CONFIRMED.equals(event.eventType())) {
+                PickupLocations.RestaurantLocation pickup;
+                try {
+                    pickup = pickupLocations.of(event.restaurantId());
+                } catch (RuntimeException ex) {
+                    // The records before this one are committed, so their orders must be stored first
+                    deliveryDispatcher.accept(confirmed);
+                    throw new BatchListenerFailedException("Could not look up the pickup location of order "
+                            + event.orderId(), ex, i);
+                }
+                confirmed.add(new PendingOrder(event.orderId(), event.userId(), event.restaurantId(),
+                        pickup.latitude(), pickup.longitude(),
+                        event.occurredAt().atZone(ZoneId.systemDefault()).toInstant()));
+            } else if (OrderEvent.ORDER_CANCELLED.equals(event.eventType())) {
+                // The order may have been confirmed earlier in this poll
+                deliveryDispatcher.accept(confirmed);
+                confirmed.clear();
+                cancel(event.orderId());
+            }
+        }
+        deliveryDispatcher.accept(confirmed);
+    }
+
+    private void cancel(Long orderId) {
+        try {
+            deliveryService.updateStatus(orderId, DeliveryStatus.CANCELLED);
+        } catch (DeliveryNotFoundException | DeliveryUpdateConflictException ex) {
+            // Cancelled before it was confirmed, or already delivered
+            log.debug("Not cancelling the delivery of order {}: {}", orderId, ex.getMessage());
+        }
+    }
+}
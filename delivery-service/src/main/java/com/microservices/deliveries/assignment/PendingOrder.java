@@ -0,0 +1,17 @@
+package com.microservices.deliveries.assignment;
+
+import com.microservices.deliveries.entity.Delivery;
+
+import java.time.Instant;
+
+/**
+ * A confirmed order waiting for a driver, with the restaurant it is picked up at.
+ */
+public record PendingOrder(Long orderId, Long userId, String restaurantId, double latitude, double longitude,
+                           Instant confirmedAt) {
+
+    static PendingOrder of(Delivery delivery) {
+        return new PendingOrder(delivery.getOrderId(), delivery.getUserId(), delivery.getRestaurantId(),
+                delivery.getPickup().getY(), delivery.getPickup().getX(), delivery.getConfirmedAt());
+    }
+}
@@ -0,0 +1,55 @@
+package com.microservices.deliveries.assignment;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.microservices.deliveries.dto.response.APIResponse;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Where orders of a restaurant are picked up, and who owns the restaurant. Order events only carry the restaurant's
+ * id, so its location is looked up in restaurant-service, and cached since restaurants rarely move.
+ */
+@Component
+public class PickupLocations {
+    private static final ParameterizedTypeReference<APIResponse<RestaurantLocation>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+    private final LoadingCache<String, RestaurantLocation> locations;
+
+    public PickupLocations(RestClient.Builder loadBalancedRestClientBuilder, AssignmentProperties properties) {
+        this.restClient = loadBalancedRestClientBuilder.baseUrl(properties.getRestaurantServiceUrl()).build();
+        this.locations = Caffeine.newBuilder()
+                .maximumSize(properties.getPickupLocationCacheSize())
+                .expireAfterWrite(properties.getPickupLocationTtl())
+                .build(this::fetch);
+    }
+
+    /**
+     * @throws IllegalStateException if restaurant-service does not know the restaurant's location
+     */
+    public RestaurantLocation of(String restaurantId) {
+        return locations.get(restaurantId);
+    }
+
+    private RestaurantLocation fetch(String restaurantId) {
+        APIResponse<RestaurantLocation> response = restClient.get()
+                .uri("/api/v1/restaurants/{id}", restaurantId)
+                .retrieve()
+                .body(RESPONSE_TYPE);
+        RestaurantLocation location = response != null ? response.getResult() : null;
+        if (location == null || location.latitude() == null || location.longitude() == null) {
+            throw new IllegalStateException("Location of restaurant " + restaurantId + " not known");
+        }
+        return location;
+    }
+
+    /**
+     * What is read of restaurant-service's restaurant.
+     */
+    public record RestaurantLocation(Double latitude, Double longitude, Long ownerId) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.microservices.deliveries.controller;
+
+import com.microservices.deliveries.dto.request.DeliveryStatusRequest;
+import com.microservices.deliveries.dto.response.APIResponse;
+import com.microservices.deliveries.dto.response.DeliveryResponse;
+import com.microservices.deliveries.service.DeliveryService;
+import com.microservices.identity.Caller;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/deliveries")
+@RequiredArgsConstructor
+public class DeliveryController {
+    private final DeliveryService deliveryService;
+
+    /**
+     * For the order's customer, its driver, the owner of its restaurant, or an admin.
+     */
+    @GetMapping("/{orderId}")
+    public APIResponse<DeliveryResponse> getDelivery(@RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                     @PathVariable Long orderId) {
+        return APIResponse.<DeliveryResponse>builder()
+                .result(deliveryService.getDelivery(caller, orderId))
+                .build();
+    }
+
+    /**
+     * Server-sent events with the delivery's {@code status} and its driver's {@code location}, to the order's
+     * customer or driver, or an admin, until it is delivered or cancelled. A client that reads slowly only gets the
+     * latest of each.
+     */
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter track(@RequestAttribute(Caller.ATTRIBUTE) Caller caller, @PathVariable Long orderId) {
+        return deliveryService.track(caller, orderId);
+    }
+
+    /**
+     * Moves the delivery on, for its driver or an admin.
+     */
+    @PatchMapping("/{orderId}/status")
+    public APIResponse<DeliveryResponse> updateStatus(@RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                      @PathVariable Long orderId,
+                                                      @Valid @RequestBody DeliveryStatusRequest request) {
+        return APIResponse.<DeliveryResponse>builder()
+                .result(deliveryService.updateStatus(caller, orderId, request.getStatus()))
+                .message("Delivery status updated")
+                .build();
+    }
+}
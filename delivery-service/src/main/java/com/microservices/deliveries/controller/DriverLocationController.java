@@ -0,0 +1,45 @@
+package com.microservices.deliveries.controller;
+
+import com.microservices.deliveries.dto.request.LocationBatchRequest;
+import com.microservices.deliveries.dto.response.APIResponse;
+import com.microservices.deliveries.dto.response.DriverLocationResponse;
+import com.microservices.deliveries.exception.DriverLocationAccessDeniedException;
+import com.microservices.deliveries.service.DriverLocationService;
+import com.microservices.identity.Caller;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/drivers")
+@RequiredArgsConstructor
+public class DriverLocationController {
+    private final DriverLocationService driverLocationService;
+
+    /**
+     * Takes the calling driver's GPS pings. They are written to the database shortly after, in bulk.
+     */
+    @PostMapping("/me/locations")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public APIResponse<Integer> recordLocations(@RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                @Valid @RequestBody LocationBatchRequest request) {
+        if (!caller.isAuthenticated() || !caller.hasRole(Caller.DELIVERY_PERSON)) {
+            throw new DriverLocationAccessDeniedException(caller.userId());
+        }
+        return APIResponse.<Integer>builder()
+                .result(driverLocationService.recordPings(caller.userId(), request.getPings()))
+                .message("Locations accepted")
+                .build();
+    }
+
+    @GetMapping("/{driverId}/location")
+    public APIResponse<DriverLocationResponse> getLocation(@RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                           @PathVariable Long driverId) {
+        return APIResponse.<DriverLocationResponse>builder()
+                .result(driverLocationService.getLocation(caller, driverId))
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.microservices.deliveries.dto.event;
+
+import com.microservices.deliveries.entity.Delivery;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published on {@code app.assignment.assigned-topic} once a driver has been given a delivery.
+ */
+public record DeliveryAssignedEvent(
+        UUID eventId,
+        Long orderId,
+        Long userId,
+        String restaurantId,
+        Long driverId,
+        Double pickupDistanceMeters,
+        Instant assignedAt) {
+
+    public static DeliveryAssignedEvent of(Delivery delivery) {
+        return new DeliveryAssignedEvent(UUID.randomUUID(), delivery.getOrderId(), delivery.getUserId(),
+                delivery.getRestaurantId(), delivery.getDriverId(), delivery.getPickupDistanceMeters(),
+                delivery.getAssignedAt());
+    }
+}
@@ -0,0 +1,22 @@
+package com.microservices.deliveries.dto.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Order event published by order-service on {@code app.assignment.order-events-topic}.
+ */
+public record OrderEvent(
+        UUID eventId,
+        String eventType,
+        Long orderId,
+        Long userId,
+        String restaurantId,
+        String status,
+        BigDecimal totalAmount,
+        LocalDateTime occurredAt) {
+
+    public static final String ORDER_CONFIRMED = "ORDER_CONFIRMED";
+    public static final String ORDER_CANCELLED = "ORDER_CANCELLED";
+}
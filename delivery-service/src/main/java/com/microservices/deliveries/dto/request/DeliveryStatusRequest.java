@@ -0,0 +1,11 @@
+package com.microservices.deliveries.dto.request;
+
+import com.microservices.deliveries.enums.DeliveryStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class DeliveryStatusRequest {
+    @NotNull(message = "BLANK_FIELD")
+    private DeliveryStatus status;
+}
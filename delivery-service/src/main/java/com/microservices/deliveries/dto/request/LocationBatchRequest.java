@@ -0,0 +1,18 @@
+package com.microservices.deliveries.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Pings of one driver. Devices that were offline send what they buffered in one request.
+ */
+@Data
+public class LocationBatchRequest {
+    @NotEmpty(message = "BLANK_FIELD")
+    @Size(max = 100, message = "TOO_MANY_PINGS")
+    private List<@Valid LocationPingRequest> pings;
+}
@@ -0,0 +1,34 @@
+package com.microservices.deliveries.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class LocationPingRequest {
+    @NotNull(message = "BLANK_FIELD")
+    @DecimalMin(value = "-90.0", message = "INVALID_LATITUDE")
+    @DecimalMax(value = "90.0", message = "INVALID_LATITUDE")
+    private Double latitude;
+
+    @NotNull(message = "BLANK_FIELD")
+    @DecimalMin(value = "-180.0", message = "INVALID_LONGITUDE")
+    @DecimalMax(value = "180.0", message = "INVALID_LONGITUDE")
+    private Double longitude;
+
+    @PositiveOrZero(message = "INVALID_SPEED")
+    private Double speed;
+
+    @DecimalMin(value = "0.0", message = "INVALID_HEADING")
+    @DecimalMax(value = "360.0", message = "INVALID_HEADING")
+    private Double heading;
+
+    /**
+     * When the driver's device took the fix, {@code null} for now.
+     */
+    private Instant recordedAt;
+}
@@ -0,0 +1,44 @@
+package com.microservices.deliveries.dto.response;
+
+import com.microservices.deliveries.entity.Delivery;
+import com.microservices.deliveries.enums.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryResponse {
+    private Long orderId;
+    private Long userId;
+    private String restaurantId;
+    private Double pickupLatitude;
+    private Double pickupLongitude;
+    private DeliveryStatus status;
+    private Long driverId;
+    private Double pickupDistanceMeters;
+    private Instant confirmedAt;
+    private Instant assignedAt;
+    private Instant updatedAt;
+
+    public static DeliveryResponse of(Delivery delivery) {
+        return DeliveryResponse.builder()
+                .orderId(delivery.getOrderId())
+                .userId(delivery.getUserId())
+                .restaurantId(delivery.getRestaurantId())
+                .pickupLatitude(delivery.getPickup().getY())
+                .pickupLongitude(delivery.getPickup().getX())
+                .status(delivery.getStatus())
+                .driverId(delivery.getDriverId())
+                .pickupDistanceMeters(delivery.getPickupDistanceMeters())
+                .confirmedAt(delivery.getConfirmedAt())
+                .assignedAt(delivery.getAssignedAt())
+                .updatedAt(delivery.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.microservices.deliveries.dto.response;
+
+import com.microservices.deliveries.location.DriverLocation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverLocationResponse {
+    private Long driverId;
+    private Double latitude;
+    private Double longitude;
+    private Double speed;
+    private Double heading;
+    private Instant recordedAt;
+
+    public static DriverLocationResponse of(DriverLocation location) {
+        return DriverLocationResponse.builder()
+                .driverId(location.driverId())
+                .latitude(location.latitude())
+                .longitude(location.longitude())
+                .speed(location.speed())
+                .heading(location.heading())
+                .recordedAt(location.recordedAt())
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.microservices.deliveries.entity;
+
+import com.microservices.deliveries.enums.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Delivery of a confirmed order, one document per order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "deliveries")
+@CompoundIndex(name = Delivery.ACTIVE_DRIVER_INDEX, def = "{'driverId': 1}", unique = true,
+        partialFilter = "{'active': true}")
+public class Delivery {
+    /**
+     * Keeps a driver from being given two deliveries at once, even by two instances that both saw them idle.
+     */
+    public static final String ACTIVE_DRIVER_INDEX = "active_driver";
+
+    /**
+     * The order's id, so a redelivered order event cannot create a second delivery.
+     */
+    @Id
+    private Long orderId;
+
+    private Long userId;
+
+    /**
+     * Id of the restaurant in restaurant-service.
+     */
+    private String restaurantId;
+
+    /**
+     * GeoJSON point of the restaurant, longitude first.
+     */
+    private GeoJsonPoint pickup;
+
+    @Indexed
+    private DeliveryStatus status;
+
+    private Long driverId;
+
+    /**
+     * Whether the status is an active one, see {@link DeliveryStatus#isActive()}.
+     */
+    private boolean active;
+
+    /**
+     * Straight-line distance from the driver to the restaurant when assigned.
+     */
+    private Double pickupDistanceMeters;
+
+    @Version
+    private Long version;
+
+    private Instant confirmedAt;
+
+    private Instant assignedAt;
+
+    private Instant updatedAt;
+}
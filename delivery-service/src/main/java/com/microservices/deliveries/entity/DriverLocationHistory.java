@@ -0,0 +1,34 @@
+package com.microservices.deliveries.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.Instant;
+
+/**
+ * Downsampled track of a driver, in a time-series collection bucketed by driver. Points expire after a week.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "driver_location_history")
+@TimeSeries(timeField = "recordedAt", metaField = "driverId", granularity = Granularity.SECONDS,
+        expireAfter = "7d")
+public class DriverLocationHistory {
+    @Id
+    private String id;
+
+    private Long driverId;
+
+    private GeoJsonPoint location;
+
+    private Double speed;
+
+    private Instant recordedAt;
+}
@@ -0,0 +1,33 @@
+package com.microservices.deliveries.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Last known position of a driver, one document per driver.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "driver_positions")
+public class DriverPosition {
+    @Id
+    private Long driverId;
+
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
+
+    private Double speed;
+
+    private Double heading;
+
+    private Instant recordedAt;
+}
@@ -0,0 +1,33 @@
+package com.microservices.deliveries.enums;
+
+public enum DeliveryStatus {
+    /**
+     * Confirmed order waiting for a driver.
+     */
+    SEARCHING,
+    ASSIGNED,
+    PICKED_UP,
+    DELIVERED,
+    CANCELLED;
+
+    /**
+     * @return whether the delivery keeps its driver busy
+     */
+    public boolean isActive() {
+        return this == ASSIGNED || this == PICKED_UP;
+    }
+
+    public boolean isFinal() {
+        return this == DELIVERED || this == CANCELLED;
+    }
+
+    public boolean canMoveTo(DeliveryStatus next) {
+        return switch (next) {
+            case ASSIGNED -> this == SEARCHING;
+            case PICKED_UP -> this == ASSIGNED;
+            case DELIVERED -> this == PICKED_UP;
+            case CANCELLED -> !isFinal();
+            case SEARCHING -> false;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.deliveries.exception;
+
+public class DeliveryAccessDeniedException extends RuntimeException {
+    public DeliveryAccessDeniedException(Long orderId) {
+        super("Not allowed to update the delivery of order " + orderId);
+    }
+}
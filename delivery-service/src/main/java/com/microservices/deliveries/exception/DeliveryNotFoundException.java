@@ -0,0 +1,7 @@
+package com.microservices.deliveries.exception;
+
+public class DeliveryNotFoundException extends RuntimeException {
+    public DeliveryNotFoundException(Long orderId) {
+        super("Delivery of order " + orderId + " not found");
+    }
+}
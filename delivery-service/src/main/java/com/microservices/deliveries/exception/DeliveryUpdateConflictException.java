@@ -0,0 +1,7 @@
+package com.microservices.deliveries.exception;
+
+public class DeliveryUpdateConflictException extends RuntimeException {
+    public DeliveryUpdateConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.deliveries.exception;
+
+public class DriverLocationAccessDeniedException extends RuntimeException {
+    public DriverLocationAccessDeniedException(Long driverId) {
+        super("Not allowed to access the location of driver " + driverId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.deliveries.exception;
+
+public class DriverLocationNotFoundException extends RuntimeException {
+    public DriverLocationNotFoundException(Long driverId) {
+        super("Location of driver " + driverId + " not known");
+    }
+}
@@ -0,0 +1,66 @@
+package com.microservices.deliveries.exception;
+
+import com.microservices.deliveries.dto.response.APIResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(DriverLocationNotFoundException.class)
+    public ResponseEntity<APIResponse<?>> handleDriverLocationNotFound(DriverLocationNotFoundException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiResponse);
+    }
+
+    @ExceptionHandler(DriverLocationAccessDeniedException.class)
+    public ResponseEntity<APIResponse<?>> handleDriverLocationAccessDenied(DriverLocationAccessDeniedException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(apiResponse);
+    }
+
+    @ExceptionHandler(DeliveryNotFoundException.class)
+    public ResponseEntity<APIResponse<?>> handleDeliveryNotFound(DeliveryNotFoundException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiResponse);
+    }
+
+    @ExceptionHandler(DeliveryAccessDeniedException.class)
+    public ResponseEntity<APIResponse<?>> handleDeliveryAccessDenied(DeliveryAccessDeniedException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(apiResponse);
+    }
+
+    @ExceptionHandler(DeliveryUpdateConflictException.class)
+    public ResponseEntity<APIResponse<?>> handleDeliveryUpdateConflict(DeliveryUpdateConflictException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(apiResponse);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<APIResponse<?>> handleConcurrentEdit(OptimisticLockingFailureException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message("Changed concurrently, please retry")
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(apiResponse);
+    }
+}
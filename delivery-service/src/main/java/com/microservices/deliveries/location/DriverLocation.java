@@ -0,0 +1,21 @@
+package com.microservices.deliveries.location;
+
+import java.time.Instant;
+
+/**
+ * A GPS ping of a driver.
+ *
+ * @param speed   meters per second, {@code null} if unknown
+ * @param heading degrees clockwise from north, {@code null} if unknown
+ */
+public record DriverLocation(Long driverId, double latitude, double longitude, Double speed, Double heading,
+                             Instant recordedAt) {
+
+    DriverLocation recordedAt(Instant time) {
+        return new DriverLocation(driverId, latitude, longitude, speed, heading, time);
+    }
+
+    static DriverLocation newer(DriverLocation a, DriverLocation b) {
+        return b.recordedAt().isAfter(a.recordedAt()) ? b : a;
+    }
+}
@@ -0,0 +1,186 @@
+package com.microservices.deliveries.location;
+
+import com.microservices.deliveries.entity.DriverPosition;
+import com.microservices.deliveries.repository.DriverPositionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the latest position of every driver in memory, and writes positions to the database in bulk rather than
+ * once per ping.
+ * <p>
+ * Pings only touch concurrent maps. Pings of a driver that arrive between two flushes coalesce into the latest one,
+ * so a flush writes each moving driver's position once however often it pinged; pings recorded before the
+ * driver's last known position, delivered late, are ignored. The driver's track is downsampled to one point per
+ * {@code app.locations.history-interval} and appended to a time-series collection.
+ * <p>
+ * Positions received in the last flush interval before a crash are lost, the next pings replace them.
+ */
+@Slf4j
+@Component
+public class DriverLocationTracker {
+    private final ConcurrentHashMap<Long, DriverLocation> latest = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, DriverLocation> unwritten = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Instant> lastTrackPoint = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<DriverLocation> pendingHistory = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingHistorySize = new AtomicInteger();
+    private final DriverLocationWriter writer;
+    private final DriverPositionRepository positionRepository;
+    private final LocationProperties properties;
+
+    public DriverLocationTracker(DriverLocationWriter writer, DriverPositionRepository positionRepository,
+                                 LocationProperties properties) {
+        this.writer = writer;
+        this.positionRepository = positionRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Reloads the positions of drivers seen recently, so they can be found again before their next ping.
+     */
+    @PostConstruct
+    void restore() {
+        Instant after = Instant.now().minus(properties.getRestoreWindow());
+        try (Stream<DriverPosition> positions = positionRepository.streamByRecordedAtAfter(after)) {
+            positions.forEach(position -> latest.merge(position.getDriverId(), new DriverLocation(
+                    position.getDriverId(), position.getLocation().getY(), position.getLocation().getX(),
+                    position.getSpeed(), position.getHeading(), position.getRecordedAt()), DriverLocation::newer));
+        }
+        log.info("Restored the positions of {} drivers", latest.size());
+    }
+
+    /**
+     * @return whether the ping is the driver's latest known position
+     */
+    public boolean record(DriverLocation ping) {
+        Instant now = Instant.now();
+        DriverLocation location = ping.recordedAt().isAfter(now.plus(properties.getMaxClockSkew()))
+                ? ping.recordedAt(now)
+                : ping;
+
+        if (latest.merge(location.driverId(), location, DriverLocation::newer) != location) {
+            return false;
+        }
+        unwritten.merge(location.driverId(), location, DriverLocation::newer);
+        sampleTrack(location);
+        return true;
+    }
+
+    /**
+     * @return the driver's latest position, {@code null} if unknown
+     */
+    public DriverLocation latest(Long driverId) {
+        return latest.get(driverId);
+    }
+
+    public Collection<DriverLocation> latestLocations() {
+        return Collections.unmodifiableCollection(latest.values());
+    }
+
+    /**
+     * Writes the positions received since the last flush and the pending track points. What cannot be written is
+     * kept for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.locations.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        int batchSize = properties.getFlushBatchSize();
+        List<DriverLocation> batch = new ArrayList<>(batchSize);
+        for (Long driverId : unwritten.keySet()) {
+            DriverLocation location = unwritten.remove(driverId);
+            if (location != null) {
+                batch.add(location);
+            }
+            if (batch.size() == batchSize) {
+                if (!writePositions(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty() && !writePositions(batch)) {
+            return;
+        }
+
+        List<DriverLocation> points = new ArrayList<>(batchSize);
+        DriverLocation point;
+        int toWrite = pendingHistorySize.get();
+        while (toWrite-- > 0 && (point = pendingHistory.poll()) != null) {
+            pendingHistorySize.decrementAndGet();
+            points.add(point);
+            if (points.size() == batchSize) {
+                if (!appendHistory(points)) {
+                    return;
+                }
+                points = new ArrayList<>(batchSize);
+            }
+        }
+        if (!points.isEmpty()) {
+            appendHistory(points);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean writePositions(List<DriverLocation> batch) {
+        try {
+            writer.writePositions(batch);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Writing {} driver positions failed, retrying on the next flush: {}", batch.size(),
+                    ex.getMessage());
+            // Pings received meanwhile are newer and win
+            batch.forEach(location -> unwritten.merge(location.driverId(), location, DriverLocation::newer));
+            return false;
+        }
+    }
+
+    private boolean appendHistory(List<DriverLocation> points) {
+        try {
+            writer.appendHistory(points);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Writing {} driver track points failed, retrying on the next flush: {}", points.size(),
+                    ex.getMessage());
+            points.forEach(this::queueTrackPoint);
+            return false;
+        }
+    }
+
+    private void sampleTrack(DriverLocation location) {
+        boolean[] sampled = new boolean[1];
+        lastTrackPoint.compute(location.driverId(), (driverId, last) -> {
+            if (last != null && location.recordedAt().isBefore(last.plus(properties.getHistoryInterval()))) {
+                return last;
+            }
+            sampled[0] = true;
+            return location.recordedAt();
+        });
+        if (sampled[0]) {
+            queueTrackPoint(location);
+        }
+    }
+
+    private void queueTrackPoint(DriverLocation location) {
+        pendingHistory.add(location);
+        if (pendingHistorySize.incrementAndGet() > properties.getMaxPendingHistory()
+                && pendingHistory.poll() != null) {
+            pendingHistorySize.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.microservices.deliveries.location;
+
+import com.microservices.deliveries.entity.DriverLocationHistory;
+import com.microservices.deliveries.entity.DriverPosition;
+import com.mongodb.ErrorCategory;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes driver locations to MongoDB in bulk.
+ */
+@Slf4j
+@Component
+class DriverLocationWriter {
+    private final MongoTemplate mongoTemplate;
+
+    DriverLocationWriter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Creates the history as a time-series collection, which inserting into it would otherwise create as a plain
+     * one.
+     */
+    @PostConstruct
+    void createHistoryCollection() {
+        if (!mongoTemplate.collectionExists(DriverLocationHistory.class)) {
+            mongoTemplate.createCollection(DriverLocationHistory.class);
+        }
+    }
+
+    /**
+     * Upserts the drivers' positions in one unordered bulk write. A position older than the stored one, written by
+     * another instance that got a later ping, is skipped.
+     */
+    void writePositions(Collection<DriverLocation> locations) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DriverPosition.class);
+        for (DriverLocation location : locations) {
+            Query olderOrMissing = Query.query(Criteria.where("_id").is(location.driverId())
+                    .and("recordedAt").lt(location.recordedAt()));
+            Update update = new Update()
+                    .set("location", new GeoJsonPoint(location.longitude(), location.latitude()))
+                    .set("speed", location.speed())
+                    .set("heading", location.heading())
+                    .set("recordedAt", location.recordedAt());
+            bulk.upsert(olderOrMissing, update);
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException ex) {
+            // A newer stored position makes the upsert try to insert a second document with the same id
+            boolean onlyNewerStored = ex.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyNewerStored) {
+                throw ex;
+            }
+        }
+    }
+
+    void appendHistory(List<DriverLocation> locations) {
+        List<DriverLocationHistory> points = locations.stream()
+                .map(location -> new DriverLocationHistory(null, location.driverId(),
+                        new GeoJsonPoint(location.longitude(), location.latitude()), location.speed(),
+                        location.recordedAt()))
+                .toList();
+        mongoTemplate.insert(points, DriverLocationHistory.class);
+    }
+}
@@ -0,0 +1,14 @@
+package com.microservices.deliveries.location;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Schedules the {@link DriverLocationTracker}'s database writes.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(LocationProperties.class)
+public class LocationConfig {
+}
@@ -0,0 +1,38 @@
+package com.microservices.deliveries.location;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for ingesting driver locations, see {@link DriverLocationTracker}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.locations")
+public class LocationProperties {
+    /**
+     * Positions written to the database per bulk write.
+     */
+    private int flushBatchSize = 5_000;
+
+    /**
+     * A driver's track keeps at most one point per interval.
+     */
+    private Duration historyInterval = Duration.ofSeconds(30);
+
+    /**
+     * Track points kept in memory while the database cannot be written. Beyond it, the oldest are dropped.
+     */
+    private int maxPendingHistory = 500_000;
+
+    /**
+     * Pings recorded further in the future than this, by a driver's clock running ahead, are taken as received now.
+     */
+    private Duration maxClockSkew = Duration.ofSeconds(30);
+
+    /**
+     * Positions reloaded from the database on startup are the ones recorded within this long.
+     */
+    private Duration restoreWindow = Duration.ofMinutes(10);
+}
@@ -0,0 +1,17 @@
+package com.microservices.deliveries.repository;
+
+import com.microservices.deliveries.entity.Delivery;
+import com.microservices.deliveries.enums.DeliveryStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+@Repository
+public interface DeliveryRepository extends MongoRepository<Delivery, Long> {
+
+    Stream<Delivery> streamByStatusIn(Collection<DeliveryStatus> statuses);
+
+    boolean existsByDriverIdAndUserIdAndActiveTrue(Long driverId, Long userId);
+}
@@ -0,0 +1,14 @@
+package com.microservices.deliveries.repository;
+
+import com.microservices.deliveries.entity.DriverPosition;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+@Repository
+public interface DriverPositionRepository extends MongoRepository<DriverPosition, Long> {
+
+    Stream<DriverPosition> streamByRecordedAtAfter(Instant after);
+}
@@ -0,0 +1,30 @@
+package com.microservices.deliveries.service;
+
+import com.microservices.deliveries.dto.response.DeliveryResponse;
+import com.microservices.deliveries.enums.DeliveryStatus;
+import com.microservices.identity.Caller;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface DeliveryService {
+    /**
+     * Only for the order's customer, its driver, the owner of its restaurant, or an admin.
+     *
+     * @throws com.microservices.deliveries.exception.DeliveryNotFoundException for anyone else too
+     */
+    DeliveryResponse getDelivery(Caller caller, Long orderId);
+
+    /**
+     * Moves the delivery on, freeing its driver once it is delivered or cancelled.
+     */
+    DeliveryResponse updateStatus(Long orderId, DeliveryStatus status);
+
+    /**
+     * Moves the delivery on for its driver, or for an admin.
+     */
+    DeliveryResponse updateStatus(Caller caller, Long orderId, DeliveryStatus status);
+
+    /**
+     * Streams the delivery's status and driver position to its customer or driver, or to an admin.
+     */
+    SseEmitter track(Caller caller, Long orderId);
+}
@@ -0,0 +1,19 @@
+package com.microservices.deliveries.service;
+
+import com.microservices.deliveries.dto.request.LocationPingRequest;
+import com.microservices.deliveries.dto.response.DriverLocationResponse;
+import com.microservices.identity.Caller;
+
+import java.util.List;
+
+public interface DriverLocationService {
+    /**
+     * @return number of pings that moved the driver's latest position
+     */
+    int recordPings(Long driverId, List<LocationPingRequest> pings);
+
+    /**
+     * The driver's latest position, for the driver, the customer of their active delivery, or an admin.
+     */
+    DriverLocationResponse getLocation(Caller caller, Long driverId);
+}
@@ -0,0 +1,107 @@
+package com.microservices.deliveries.service.impl;
+
+import com.microservices.deliveries.assignment.DeliveryDispatcher;
+import com.microservices.deliveries.assignment.IdleDriverIndex;
+import com.microservices.deliveries.assignment.PickupLocations;
+import com.microservices.deliveries.dto.response.DeliveryResponse;
+import com.microservices.deliveries.entity.Delivery;
+import com.microservices.deliveries.enums.DeliveryStatus;
+import com.microservices.deliveries.exception.DeliveryAccessDeniedException;
+import com.microservices.deliveries.exception.DeliveryNotFoundException;
+import com.microservices.deliveries.exception.DeliveryUpdateConflictException;
+import com.microservices.deliveries.location.DriverLocationTracker;
+import com.microservices.deliveries.repository.DeliveryRepository;
+import com.microservices.deliveries.service.DeliveryService;
+import com.microservices.deliveries.tracking.TrackingFeed;
+import com.microservices.identity.Caller;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class DeliveryServiceImpl implements DeliveryService {
+    private final DeliveryRepository deliveryRepository;
+    private final DeliveryDispatcher deliveryDispatcher;
+    private final IdleDriverIndex idleDriverIndex;
+    private final DriverLocationTracker driverLocationTracker;
+    private final TrackingFeed trackingFeed;
+    private final PickupLocations pickupLocations;
+
+    @Override
+    public DeliveryResponse getDelivery(Caller caller, Long orderId) {
+        Delivery delivery = findDelivery(orderId);
+        // Others are not told the delivery exists
+        if (!caller.isOrAdmin(delivery.getUserId()) && !isDriverOf(caller, delivery)
+                && !isRestaurantOwnerOf(caller, delivery)) {
+            throw new DeliveryNotFoundException(orderId);
+        }
+        return DeliveryResponse.of(delivery);
+    }
+
+    @Override
+    public DeliveryResponse updateStatus(Long orderId, DeliveryStatus status) {
+        return updateStatus(findDelivery(orderId), status);
+    }
+
+    @Override
+    public DeliveryResponse updateStatus(Caller caller, Long orderId, DeliveryStatus status) {
+        Delivery delivery = findDelivery(orderId);
+        if (!caller.isAdmin() && !isDriverOf(caller, delivery)) {
+            throw new DeliveryAccessDeniedException(orderId);
+        }
+        return updateStatus(delivery, status);
+    }
+
+    /**
+     * Saved with a version check, so it fails rather than undo a driver assigned meanwhile.
+     */
+    private DeliveryResponse updateStatus(Delivery delivery, DeliveryStatus status) {
+        Long orderId = delivery.getOrderId();
+        DeliveryStatus previous = delivery.getStatus();
+        if (!previous.canMoveTo(status)) {
+            throw new DeliveryUpdateConflictException(
+                    "Delivery of order " + orderId + " is " + previous + " and cannot become " + status);
+        }
+        delivery.setStatus(status);
+        delivery.setActive(status.isActive());
+        delivery.setUpdatedAt(Instant.now());
+        Delivery saved = deliveryRepository.save(delivery);
+
+        if (previous == DeliveryStatus.SEARCHING) {
+            deliveryDispatcher.forget(orderId);
+        }
+        if (status.isFinal() && saved.getDriverId() != null) {
+            idleDriverIndex.release(saved.getDriverId(), driverLocationTracker.latest(saved.getDriverId()));
+        }
+        trackingFeed.statusChanged(saved);
+        return DeliveryResponse.of(saved);
+    }
+
+    @Override
+    public SseEmitter track(Caller caller, Long orderId) {
+        Delivery delivery = findDelivery(orderId);
+        // Others are not told the delivery exists
+        if (!caller.isOrAdmin(delivery.getUserId()) && !isDriverOf(caller, delivery)) {
+            throw new DeliveryNotFoundException(orderId);
+        }
+        return trackingFeed.subscribe(delivery,
+                delivery.getDriverId() != null ? driverLocationTracker.latest(delivery.getDriverId()) : null);
+    }
+
+    private static boolean isDriverOf(Caller caller, Delivery delivery) {
+        return caller.hasRole(Caller.DELIVERY_PERSON) && caller.isAuthenticated()
+                && caller.userId().equals(delivery.getDriverId());
+    }
+
+    private boolean isRestaurantOwnerOf(Caller caller, Delivery delivery) {
+        return caller.hasRole(Caller.RESTAURANT_OWNER) && caller.isAuthenticated()
+                && caller.userId().equals(pickupLocations.of(delivery.getRestaurantId()).ownerId());
+    }
+
+    private Delivery findDelivery(Long orderId) {
+        return deliveryRepository.findById(orderId).orElseThrow(() -> new DeliveryNotFoundException(orderId));
+    }
+}
@@ -0,0 +1,62 @@
+package com.microservices.deliveries.service.impl;
+
+import com.microservices.deliveries.assignment.IdleDriverIndex;
+import com.microservices.deliveries.dto.request.LocationPingRequest;
+import com.microservices.deliveries.dto.response.DriverLocationResponse;
+import com.microservices.deliveries.exception.DriverLocationAccessDeniedException;
+import com.microservices.deliveries.exception.DriverLocationNotFoundException;
+import com.microservices.deliveries.location.DriverLocation;
+import com.microservices.deliveries.location.DriverLocationTracker;
+import com.microservices.deliveries.repository.DeliveryRepository;
+import com.microservices.deliveries.service.DriverLocationService;
+import com.microservices.deliveries.tracking.TrackingFeed;
+import com.microservices.identity.Caller;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class DriverLocationServiceImpl implements DriverLocationService {
+    private final DriverLocationTracker driverLocationTracker;
+    private final IdleDriverIndex idleDriverIndex;
+    private final TrackingFeed trackingFeed;
+    private final DeliveryRepository deliveryRepository;
+
+    @Override
+    public int recordPings(Long driverId, List<LocationPingRequest> pings) {
+        Instant now = Instant.now();
+        int accepted = 0;
+        for (LocationPingRequest ping : pings) {
+            DriverLocation location = new DriverLocation(driverId, ping.getLatitude(), ping.getLongitude(),
+                    ping.getSpeed(), ping.getHeading(), ping.getRecordedAt() != null ? ping.getRecordedAt() : now);
+            if (driverLocationTracker.record(location)) {
+                // As recorded, which may have its time corrected
+                DriverLocation recorded = driverLocationTracker.latest(driverId);
+                idleDriverIndex.update(recorded);
+                trackingFeed.driverMoved(recorded);
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Override
+    public DriverLocationResponse getLocation(Caller caller, Long driverId) {
+        if (!mayLocate(caller, driverId)) {
+            throw new DriverLocationAccessDeniedException(driverId);
+        }
+        DriverLocation location = driverLocationTracker.latest(driverId);
+        if (location == null) {
+            throw new DriverLocationNotFoundException(driverId);
+        }
+        return DriverLocationResponse.of(location);
+    }
+
+    private boolean mayLocate(Caller caller, Long driverId) {
+        return caller.isOrAdmin(driverId) || caller.isAuthenticated()
+                && deliveryRepository.existsByDriverIdAndUserIdAndActiveTrue(driverId, caller.userId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.microservices.deliveries.tracking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes delivery updates to the clients following them on this instance.
+ * <p>
+ * An update is serialized once, then handed to each subscriber of its order, which keeps only the latest one of
+ * each type until it is sent, see {@link Subscriber}. Sending runs on virtual threads, one at a time per
+ * subscriber: a client that stops reading holds up its own virtual thread, not the other clients or the thread
+ * publishing the update, and what it has not read yet is coalesced rather than queued.
+ * <p>
+ * A heartbeat every {@code app.tracking.heartbeat-interval-ms} finds the clients that went away without closing
+ * their connection.
+ */
+@Slf4j
+@Component
+public class DeliveryTrackingHub {
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Adds a client following the delivery of an order.
+     */
+    Subscriber subscribe(Long orderId, TrackingSink sink) {
+        Subscriber subscriber = new Subscriber(orderId, sink);
+        subscribers.computeIfAbsent(orderId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        return subscriber;
+    }
+
+    void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.orderId(), (orderId, members) -> {
+            members.remove(subscriber);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    /**
+     * Hands the update to every subscriber of its order.
+     *
+     * @param json the update as sent to clients
+     */
+    void publish(TrackingUpdate update, String json) {
+        Set<Subscriber> members = subscribers.get(update.orderId());
+        if (members == null) {
+            return;
+        }
+        for (Subscriber subscriber : members) {
+            offer(subscriber, update, json);
+        }
+    }
+
+    void offer(Subscriber subscriber, TrackingUpdate update, String json) {
+        if (subscriber.offer(update, json)) {
+            coalesced.increment();
+        }
+        scheduleDrain(subscriber);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracking.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> members : subscribers.values()) {
+            for (Subscriber subscriber : members) {
+                subscriber.heartbeat();
+                scheduleDrain(subscriber);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * @return updates sent to clients since startup
+     */
+    public long sentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * @return updates replaced by a later one before a slow client read them, since startup
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    @PreDestroy
+    void closeAll() {
+        subscribers.values().forEach(members -> members.forEach(Subscriber::close));
+        senders.shutdownNow();
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.startDraining()) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            sent.add(subscriber.drain());
+        } catch (IOException | RuntimeException ex) {
+            log.debug("Dropping a subscriber of order {}: {}", subscriber.orderId(), ex.getMessage());
+            subscriber.close();
+        }
+        if (subscriber.isClosed()) {
+            unsubscribe(subscriber);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.microservices.deliveries.tracking;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+class SseTrackingSink implements TrackingSink {
+    private final SseEmitter emitter;
+
+    SseTrackingSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(String event, String json) throws IOException {
+        emitter.send(SseEmitter.event().name(event).data(json, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @Override
+    public void complete() {
+        emitter.complete();
+    }
+}
@@ -0,0 +1,115 @@
+package com.microservices.deliveries.tracking;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One client following a delivery.
+ * <p>
+ * Holds at most one unsent status and one unsent location: an update offered before the previous one of its type
+ * was sent replaces it, so a client that reads slowly gets the latest state late rather than every state, and never
+ * makes updates pile up. Updates older than one already offered, as an initial state read before the subscription
+ * started, are dropped.
+ */
+final class Subscriber {
+    private final Long orderId;
+    private final TrackingSink sink;
+    private final AtomicReference<String> status = new AtomicReference<>();
+    private final AtomicReference<String> location = new AtomicReference<>();
+    private final AtomicLong statusSequence = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong locationSequence = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean heartbeatDue;
+    private volatile boolean lastOffered;
+    private volatile boolean closed;
+
+    Subscriber(Long orderId, TrackingSink sink) {
+        this.orderId = orderId;
+        this.sink = sink;
+    }
+
+    Long orderId() {
+        return orderId;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return whether the update replaced one not sent yet
+     */
+    boolean offer(TrackingUpdate update, String json) {
+        AtomicLong sequence = update.type() == TrackingUpdate.Type.STATUS ? statusSequence : locationSequence;
+        long previous = sequence.getAndAccumulate(update.sequence(), Math::max);
+        if (closed || previous >= update.sequence()) {
+            return false;
+        }
+        if (update.isLast()) {
+            lastOffered = true;
+        }
+        AtomicReference<String> slot = update.type() == TrackingUpdate.Type.STATUS ? status : location;
+        return slot.getAndSet(json) != null;
+    }
+
+    void heartbeat() {
+        heartbeatDue = true;
+    }
+
+    /**
+     * @return whether the caller is now the one to {@link #drain()} the subscriber
+     */
+    boolean startDraining() {
+        return !closed && hasPending() && draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Sends what is pending until nothing is, the status before the location. Only one thread drains at a time.
+     *
+     * @return number of updates sent
+     * @throws IOException if the client is gone
+     */
+    int drain() throws IOException {
+        int sent = 0;
+        do {
+            try {
+                sent += send(TrackingUpdate.Type.STATUS, status);
+                sent += send(TrackingUpdate.Type.LOCATION, location);
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    sink.heartbeat();
+                }
+                if (lastOffered && status.get() == null) {
+                    close();
+                    return sent;
+                }
+            } finally {
+                draining.set(false);
+            }
+            // An update offered after its slot was emptied but before draining ended is sent by this thread
+        } while (startDraining());
+        return sent;
+    }
+
+    void close() {
+        if (!closed) {
+            closed = true;
+            sink.complete();
+        }
+    }
+
+    private boolean hasPending() {
+        return status.get() != null || location.get() != null || heartbeatDue;
+    }
+
+    private int send(TrackingUpdate.Type type, AtomicReference<String> slot) throws IOException {
+        String json = slot.getAndSet(null);
+        if (json == null) {
+            return 0;
+        }
+        sink.send(type.eventName(), json);
+        return 1;
+    }
+}
@@ -0,0 +1,14 @@
+package com.microservices.deliveries.tracking;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Schedules the {@link DeliveryTrackingHub}'s heartbeats.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(TrackingProperties.class)
+public class TrackingConfig {
+}
@@ -0,0 +1,160 @@
+package com.microservices.deliveries.tracking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.deliveries.assignment.IdleDriverIndex;
+import com.microservices.deliveries.entity.Delivery;
+import com.microservices.deliveries.enums.DeliveryStatus;
+import com.microservices.deliveries.location.DriverLocation;
+import com.microservices.deliveries.repository.DeliveryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Carries delivery updates from wherever they happen to every instance's {@link DeliveryTrackingHub}.
+ * <p>
+ * A client follows a delivery through one instance, while its driver's pings and its status changes may arrive at
+ * any other. So updates are published on {@code app.tracking.topic}, which every instance reads in a consumer group
+ * of its own, and pushed from there. Only the pings of drivers on an active delivery are published, at most one per
+ * driver per {@code app.tracking.location-interval}; every instance learns which drivers those are from the status
+ * updates. The same updates keep each instance's {@link IdleDriverIndex} from offering drivers busy with a delivery
+ * assigned elsewhere, and make them idle again once it ends.
+ */
+@Slf4j
+@Component
+public class TrackingFeed {
+    private static final List<DeliveryStatus> ACTIVE = List.of(DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP);
+
+    /**
+     * Order of the active delivery of each driver.
+     */
+    private final ConcurrentHashMap<Long, Long> activeOrders = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> lastPublishedNanos = new ConcurrentHashMap<>();
+    private final DeliveryTrackingHub hub;
+    private final IdleDriverIndex idleDriverIndex;
+    private final DeliveryRepository deliveryRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TrackingProperties properties;
+
+    public TrackingFeed(DeliveryTrackingHub hub, IdleDriverIndex idleDriverIndex,
+                        DeliveryRepository deliveryRepository, KafkaTemplate<String, String> kafkaTemplate,
+                        ObjectMapper objectMapper, TrackingProperties properties) {
+        this.hub = hub;
+        this.idleDriverIndex = idleDriverIndex;
+        this.deliveryRepository = deliveryRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try (Stream<Delivery> deliveries = deliveryRepository.streamByStatusIn(ACTIVE)) {
+            deliveries.forEach(delivery -> activeOrders.put(delivery.getDriverId(), delivery.getOrderId()));
+        }
+    }
+
+    /**
+     * Publishes the driver's position if they are on a delivery and were not published within the interval.
+     */
+    public void driverMoved(DriverLocation location) {
+        Long orderId = activeOrders.get(location.driverId());
+        if (orderId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long interval = properties.getLocationInterval().toNanos();
+        boolean[] due = new boolean[1];
+        lastPublishedNanos.compute(location.driverId(), (driverId, last) -> {
+            if (last != null && now - last < interval) {
+                return last;
+            }
+            due[0] = true;
+            return now;
+        });
+        if (due[0]) {
+            publish(TrackingUpdate.location(orderId, location));
+        }
+    }
+
+    public void statusChanged(Delivery delivery) {
+        publish(TrackingUpdate.status(delivery));
+    }
+
+    /**
+     * Follows a delivery: sends its current state, then every update until it is delivered or cancelled.
+     *
+     * @param location the driver's latest position if known here, {@code null} otherwise
+     */
+    public SseEmitter subscribe(Delivery delivery, DriverLocation location) {
+        SseEmitter emitter = new SseEmitter(properties.getSubscriptionTimeout().toMillis());
+        Subscriber subscriber = hub.subscribe(delivery.getOrderId(), new SseTrackingSink(emitter));
+        emitter.onCompletion(() -> hub.unsubscribe(subscriber));
+        emitter.onTimeout(() -> hub.unsubscribe(subscriber));
+        emitter.onError(ex -> hub.unsubscribe(subscriber));
+
+        TrackingUpdate status = TrackingUpdate.status(delivery);
+        hub.offer(subscriber, status, toJson(status));
+        if (location != null && delivery.getStatus().isActive()) {
+            TrackingUpdate position = TrackingUpdate.location(delivery.getOrderId(), location);
+            hub.offer(subscriber, position, toJson(position));
+        }
+        return emitter;
+    }
+
+    @KafkaListener(topics = "${app.tracking.topic:deliveries.tracking}",
+            groupId = "${spring.application.name}-tracking-${app.instance-id}",
+            properties = "auto.offset.reset=latest")
+    public void onTrackingUpdate(String payload) {
+        TrackingUpdate update;
+        try {
+            update = objectMapper.readValue(payload, TrackingUpdate.class);
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring unreadable tracking update: {}", ex.getOriginalMessage());
+            return;
+        }
+        if (update.type() == TrackingUpdate.Type.STATUS && update.driverId() != null) {
+            if (update.status().isActive()) {
+                activeOrders.put(update.driverId(), update.orderId());
+                idleDriverIndex.markBusy(update.driverId());
+            } else {
+                lastPublishedNanos.remove(update.driverId());
+                // Not if the driver has since been given another delivery
+                if (activeOrders.remove(update.driverId(), update.orderId())) {
+                    // Idle again from their next ping
+                    idleDriverIndex.release(update.driverId(), null);
+                }
+            }
+        }
+        // Sent to clients as published
+        hub.publish(update, payload);
+    }
+
+    private void publish(TrackingUpdate update) {
+        kafkaTemplate.send(properties.getTopic(), String.valueOf(update.orderId()), toJson(update))
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Could not publish a {} update of order {}: {}", update.type(), update.orderId(),
+                                ex.getMessage());
+                    }
+                });
+    }
+
+    private String toJson(TrackingUpdate update) {
+        try {
+            return objectMapper.writeValueAsString(update);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
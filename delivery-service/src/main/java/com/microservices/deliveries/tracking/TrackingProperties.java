@@ -0,0 +1,28 @@
+package com.microservices.deliveries.tracking;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for pushing delivery updates to subscribers, see {@link DeliveryTrackingHub}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.tracking")
+public class TrackingProperties {
+    /**
+     * Topic every instance reads updates from, to push them to its own subscribers.
+     */
+    private String topic = "deliveries.tracking";
+
+    /**
+     * A driver's position is published at most once per interval, however often they ping.
+     */
+    private Duration locationInterval = Duration.ofSeconds(1);
+
+    /**
+     * Subscriptions end after this long; clients reconnect and get the current state again.
+     */
+    private Duration subscriptionTimeout = Duration.ofMinutes(30);
+}
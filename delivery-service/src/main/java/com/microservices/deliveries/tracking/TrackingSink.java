@@ -0,0 +1,20 @@
+package com.microservices.deliveries.tracking;
+
+import java.io.IOException;
+
+/**
+ * Where a subscriber's updates are written to, a server-sent event stream in production.
+ */
+interface TrackingSink {
+    /**
+     * Blocks while the client is not reading.
+     */
+    void send(String event, String json) throws IOException;
+
+    /**
+     * Sends nothing the client acts on, to find out whether it is still connected.
+     */
+    void heartbeat() throws IOException;
+
+    void complete();
+}
@@ -0,0 +1,48 @@
+package com.microservices.deliveries.tracking;
+
+import com.microservices.deliveries.entity.Delivery;
+import com.microservices.deliveries.enums.DeliveryStatus;
+import com.microservices.deliveries.location.DriverLocation;
+
+import java.time.Instant;
+
+/**
+ * An update pushed to the subscribers of a delivery, as published on {@code app.tracking.topic} and sent to them.
+ *
+ * @param sequence orders updates of the same type, the delivery's version for a status and the ping's time for a
+ *                 location
+ */
+public record TrackingUpdate(Type type, Long orderId, long sequence, DeliveryStatus status, Long driverId,
+                             Double latitude, Double longitude, Double heading, Instant at) {
+
+    public enum Type {
+        STATUS,
+        LOCATION;
+
+        /**
+         * @return the name of the server-sent event
+         */
+        public String eventName() {
+            return name().toLowerCase();
+        }
+    }
+
+    public static TrackingUpdate status(Delivery delivery) {
+        return new TrackingUpdate(Type.STATUS, delivery.getOrderId(),
+                delivery.getVersion() != null ? delivery.getVersion() : 0, delivery.getStatus(),
+                delivery.getDriverId(), null, null, null, delivery.getUpdatedAt());
+    }
+
+    public static TrackingUpdate location(Long orderId, DriverLocation location) {
+        return new TrackingUpdate(Type.LOCATION, orderId, location.recordedAt().toEpochMilli(), null,
+                location.driverId(), location.latitude(), location.longitude(), location.heading(),
+                location.recordedAt());
+    }
+
+    /**
+     * @return whether the update ends the subscription
+     */
+    public boolean isLast() {
+        return type == Type.STATUS && status.isFinal();
+    }
+}
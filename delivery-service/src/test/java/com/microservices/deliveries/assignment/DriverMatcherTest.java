@@ -0,0 +1,307 @@
+package com.microservices.deliveries.assignment;
+
+import com.microservices.deliveries.location.DriverLocation;
+import com.microservices.geo.GeoHashGrid;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Simulates a city of idle drivers and a stream of confirmed orders, matched in batches and one by one as they
+ * arrive, and compares the distance driven to restaurants. The benchmarks also report assignments per second and
+ * batch latency.
+ */
+class DriverMatcherTest {
+    private static final Logger log = LoggerFactory.getLogger(DriverMatcherTest.class);
+    private static final int DRIVERS = 2_000;
+    private static final int ORDERS_PER_WINDOW = 100;
+    private static final int WINDOWS = 10;
+    private static final int BENCHMARK_DRIVERS = Integer.getInteger("assignment.benchmark.drivers", 20_000);
+    private static final int BENCHMARK_ORDERS_PER_WINDOW =
+            Integer.getInteger("assignment.benchmark.orders-per-window", 500);
+    private static final int BENCHMARK_WINDOWS = 40;
+    private static final int RUNS = 200;
+    // Ho Chi Minh City
+    private static final double LATITUDE = 10.7769;
+    private static final double LONGITUDE = 106.7009;
+
+    private AssignmentProperties properties;
+    private IdleDriverIndex index;
+    private DriverMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AssignmentProperties();
+        index = new IdleDriverIndex(properties);
+        matcher = new DriverMatcher(index, properties);
+    }
+
+    @Test
+    void findsTheSameNearestIdleDriversAsAScan() {
+        Random random = new Random(42);
+        List<DriverLocation> drivers = idleDrivers(random, DRIVERS);
+
+        int k = properties.getCandidatesPerOrder();
+        double radius = properties.getMaxPickupDistanceMeters();
+        for (double[] restaurant : restaurants(random)) {
+            assertThat(ids(index.nearest(restaurant[0], restaurant[1], radius, k)))
+                    .containsExactlyElementsOf(ids(scan(drivers, restaurant[0], restaurant[1], radius, k)));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void findsNearestIdleDriversFasterThanAScan() {
+        Random random = new Random(42);
+        List<DriverLocation> drivers = idleDrivers(random, BENCHMARK_DRIVERS);
+        double[][] restaurants = restaurants(random);
+
+        int k = properties.getCandidatesPerOrder();
+        double radius = properties.getMaxPickupDistanceMeters();
+        int[] next = {0};
+        long indexMicros = medianMicros(() -> {
+            double[] restaurant = restaurants[next[0]++ % RUNS];
+            return index.nearest(restaurant[0], restaurant[1], radius, k);
+        });
+        long scanMicros = medianMicros(() -> {
+            double[] restaurant = restaurants[next[0]++ % RUNS];
+            return scan(drivers, restaurant[0], restaurant[1], radius, k);
+        });
+        log.info("{} nearest of {} idle drivers, median of {} runs: geohash cells {} us, scan {} us",
+                k, BENCHMARK_DRIVERS, RUNS, indexMicros, scanMicros);
+
+        assertThat(indexMicros).isLessThan(scanMicros);
+    }
+
+    @Test
+    void batchesCutTheDistanceToRestaurants() {
+        Simulation batched = simulate(true, DRIVERS, WINDOWS, ORDERS_PER_WINDOW);
+        Simulation oneByOne = simulate(false, DRIVERS, WINDOWS, ORDERS_PER_WINDOW);
+
+        assertThat(batched.assigned).isEqualTo(WINDOWS * ORDERS_PER_WINDOW);
+        assertThat(oneByOne.assigned).isEqualTo(batched.assigned);
+        assertThat(batched.totalMeters).isLessThan(oneByOne.totalMeters);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkBatchedAndOneByOneMatching() {
+        Simulation batched = simulate(true, BENCHMARK_DRIVERS, BENCHMARK_WINDOWS, BENCHMARK_ORDERS_PER_WINDOW);
+        Simulation oneByOne = simulate(false, BENCHMARK_DRIVERS, BENCHMARK_WINDOWS, BENCHMARK_ORDERS_PER_WINDOW);
+
+        batched.report("Batched");
+        oneByOne.report("One by one");
+        log.info("Batching cut the distance to restaurants by {}%",
+                Math.round(1000 * (1 - batched.totalMeters / oneByOne.totalMeters)) / 10.0);
+
+        assertThat(batched.totalMeters).isLessThan(oneByOne.totalMeters);
+    }
+
+    @Test
+    void givesAContestedDriverToTheNearerOrder() {
+        // The first order would take the driver between the two, leaving the second one a long way to go
+        PendingOrder first = order(1L, 0);
+        PendingOrder second = order(2L, 1_000);
+        index.update(driver(10L, 550));
+        index.update(driver(20L, -500));
+
+        List<Assignment> assignments = matcher.match(List.of(first, second));
+
+        assertThat(assignments).extracting(assignment -> assignment.order().orderId(), Assignment::driverId)
+                .containsExactlyInAnyOrder(tuple(1L, 20L), tuple(2L, 10L));
+        assertThat(assignments.stream().mapToDouble(Assignment::distanceMeters).sum()).isLessThan(1_000);
+    }
+
+    @Test
+    void ordersWhoseCandidatesWentToNearerOrdersLookFurther() {
+        properties.setCandidatesPerOrder(1);
+        index.update(driver(10L, 100));
+        index.update(driver(20L, 2_000));
+
+        List<Assignment> assignments = matcher.match(List.of(order(1L, 0), order(2L, 150)));
+
+        assertThat(assignments).extracting(Assignment::driverId).containsExactlyInAnyOrder(10L, 20L);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void leavesOrdersWithoutDriversNearbyUnmatched() {
+        index.update(driver(10L, 20_000));
+
+        assertThat(matcher.match(List.of(order(1L, 0)))).isEmpty();
+        assertThat(index.isIdle(10L)).isTrue();
+    }
+
+    @Test
+    void busyDriversAreNotOfferedUntilReleased() {
+        index.update(driver(10L, 100));
+        assertThat(matcher.match(List.of(order(1L, 0)))).singleElement()
+                .extracting(Assignment::driverId).isEqualTo(10L);
+
+        // Pings while on the delivery
+        index.update(driver(10L, 50));
+        assertThat(matcher.match(List.of(order(2L, 0)))).isEmpty();
+
+        index.release(10L, driver(10L, 50));
+        assertThat(matcher.match(List.of(order(2L, 0)))).singleElement()
+                .extracting(Assignment::driverId).isEqualTo(10L);
+    }
+
+    @Test
+    void dropsDriversThatStoppedPinging() {
+        properties.setIdleTimeout(Duration.ofMinutes(2));
+        index.update(driver(10L, 100));
+        index.update(new DriverLocation(20L, LATITUDE, east(200), null, null, Instant.now().minusSeconds(300)));
+
+        index.evictOffline();
+
+        assertThat(index.isIdle(10L)).isTrue();
+        assertThat(index.isIdle(20L)).isFalse();
+        assertThat(ids(index.nearest(LATITUDE, LONGITUDE, 1_000, 5))).containsExactly(10L);
+    }
+
+    /**
+     * Feeds the same orders, window by window, to the matcher in batches or one at a time. Drivers finish their
+     * deliveries at the end of the window and are idle again at the customer's.
+     */
+    private Simulation simulate(boolean batch, int drivers, int windows, int ordersPerWindow) {
+        setUp();
+        Random random = new Random(7);
+        for (long driverId = 0; driverId < drivers; driverId++) {
+            index.update(scattered(driverId, random, 0.05));
+        }
+
+        Simulation simulation = new Simulation(drivers, windows, ordersPerWindow);
+        long orderId = 0;
+        for (int window = 0; window < windows; window++) {
+            List<PendingOrder> orders = new ArrayList<>(ordersPerWindow);
+            for (int i = 0; i < ordersPerWindow; i++) {
+                orders.add(new PendingOrder(orderId++, 1L, "1", LATITUDE + random.nextGaussian() * 0.03,
+                        LONGITUDE + random.nextGaussian() * 0.03, Instant.now()));
+            }
+
+            long start = System.nanoTime();
+            List<Assignment> assignments = new ArrayList<>();
+            if (batch) {
+                assignments.addAll(matcher.match(orders));
+            } else {
+                for (PendingOrder order : orders) {
+                    assignments.addAll(matcher.match(List.of(order)));
+                }
+            }
+            simulation.windowNanos[window] = System.nanoTime() - start;
+
+            for (Assignment assignment : assignments) {
+                simulation.assigned++;
+                simulation.totalMeters += assignment.distanceMeters();
+                Random customer = new Random(assignment.order().orderId());
+                index.release(assignment.driverId(), scattered(assignment.driverId(), customer, 0.05));
+            }
+        }
+        return simulation;
+    }
+
+    private List<DriverLocation> idleDrivers(Random random, int count) {
+        List<DriverLocation> drivers = new ArrayList<>();
+        for (long driverId = 0; driverId < count; driverId++) {
+            DriverLocation driver = scattered(driverId, random, 0.05);
+            drivers.add(driver);
+            index.update(driver);
+        }
+        return drivers;
+    }
+
+    private static double[][] restaurants(Random random) {
+        double[][] restaurants = new double[RUNS][];
+        for (int i = 0; i < RUNS; i++) {
+            restaurants[i] = new double[]{LATITUDE + random.nextGaussian() * 0.03,
+                    LONGITUDE + random.nextGaussian() * 0.03};
+        }
+        return restaurants;
+    }
+
+    private static List<NearbyDriver> scan(List<DriverLocation> drivers, double latitude, double longitude,
+                                           double radiusMeters, int limit) {
+        return drivers.stream()
+                .map(driver -> new NearbyDriver(driver, GeoHashGrid.distanceMeters(latitude, longitude,
+                        driver.latitude(), driver.longitude())))
+                .filter(nearby -> nearby.distanceMeters() <= radiusMeters)
+                .sorted(Comparator.comparingDouble(NearbyDriver::distanceMeters))
+                .limit(limit)
+                .toList();
+    }
+
+    private static long medianMicros(Supplier<?> search) {
+        for (int i = 0; i < 20; i++) {
+            search.get();
+        }
+        long[] micros = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            search.get();
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+
+    private static List<Long> ids(List<NearbyDriver> nearby) {
+        return nearby.stream().map(driver -> driver.driver().driverId()).toList();
+    }
+
+    private static DriverLocation scattered(long driverId, Random random, double spreadDegrees) {
+        return new DriverLocation(driverId, LATITUDE + random.nextGaussian() * spreadDegrees,
+                LONGITUDE + random.nextGaussian() * spreadDegrees, null, null, Instant.now());
+    }
+
+    private static DriverLocation driver(Long driverId, double metersEast) {
+        return new DriverLocation(driverId, LATITUDE, east(metersEast), null, null, Instant.now());
+    }
+
+    private static PendingOrder order(Long orderId, double metersEast) {
+        return new PendingOrder(orderId, 1L, "1", LATITUDE, east(metersEast), Instant.now());
+    }
+
+    private static double east(double meters) {
+        return LONGITUDE + Math.toDegrees(meters / (GeoHashGrid.EARTH_RADIUS_METERS
+                * Math.cos(Math.toRadians(LATITUDE))));
+    }
+
+    private static class Simulation {
+        final int drivers;
+        final int ordersPerWindow;
+        final long[] windowNanos;
+        int assigned;
+        double totalMeters;
+
+        Simulation(int drivers, int windows, int ordersPerWindow) {
+            this.drivers = drivers;
+            this.ordersPerWindow = ordersPerWindow;
+            this.windowNanos = new long[windows];
+        }
+
+        void report(String mode) {
+            long[] sorted = windowNanos.clone();
+            Arrays.sort(sorted);
+            double seconds = Arrays.stream(windowNanos).sum() / 1e9;
+            log.info("{}: {} orders among {} drivers, {} assignments/s, {} orders per window matched in p50 {} us "
+                            + "p99 {} us, {} m to the restaurant on average", mode, assigned, drivers,
+                    Math.round(assigned / seconds), ordersPerWindow, sorted[sorted.length / 2] / 1_000,
+                    sorted[sorted.length * 99 / 100] / 1_000, Math.round(totalMeters / assigned));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.microservices.deliveries.location;
+
+import com.microservices.deliveries.repository.DriverPositionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks how pings are coalesced, ordered and written. The benchmark offers them at a steady 50k per second, as
+ * from 100k drivers pinging every 2 seconds, with flushes running alongside, and checks they are taken without
+ * falling behind and written in a few bulk writes.
+ */
+class DriverLocationTrackerTest {
+    private static final Logger log = LoggerFactory.getLogger(DriverLocationTrackerTest.class);
+    private static final int PINGS_PER_SECOND = Integer.getInteger("locations.benchmark.rate", 50_000);
+    private static final int SECONDS = 3;
+    private static final int DRIVERS = 100_000;
+    private static final int THREADS = 8;
+
+    private final DriverLocationWriter writer = mock(DriverLocationWriter.class);
+    private final DriverPositionRepository positionRepository = mock(DriverPositionRepository.class);
+    private final AtomicLong positionsWritten = new AtomicLong();
+    private final AtomicLong bulkWrites = new AtomicLong();
+    private final AtomicLong trackPointsWritten = new AtomicLong();
+    private LocationProperties properties;
+    private DriverLocationTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LocationProperties();
+        tracker = new DriverLocationTracker(writer, positionRepository, properties);
+        doAnswer(invocation -> {
+            bulkWrites.incrementAndGet();
+            positionsWritten.addAndGet(invocation.<Collection<?>>getArgument(0).size());
+            return null;
+        }).when(writer).writePositions(anyCollection());
+        doAnswer(invocation -> {
+            trackPointsWritten.addAndGet(invocation.<List<?>>getArgument(0).size());
+            return null;
+        }).when(writer).appendHistory(anyList());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void keepsUpWithFiftyThousandPingsPerSecond() throws Exception {
+        int total = PINGS_PER_SECOND * SECONDS;
+        int perThread = total / THREADS;
+        long intervalNanos = 1_000_000_000L * THREADS / PINGS_PER_SECOND;
+        Instant base = Instant.now();
+
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(tracker::flush, 1, 1, TimeUnit.SECONDS);
+        ExecutorService senders = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        List<long[]> latencies = new ArrayList<>();
+        try {
+            List<CompletableFuture<long[]>> running = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                running.add(CompletableFuture.supplyAsync(() -> {
+                    long[] nanos = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        long due = start + i * intervalNanos;
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        int ping = i * THREADS + thread;
+                        long driverId = ping % DRIVERS;
+                        DriverLocation location = new DriverLocation(driverId,
+                                10.77 + ThreadLocalRandom.current().nextDouble(0.1),
+                                106.70 + ThreadLocalRandom.current().nextDouble(0.1), 8.0, 90.0,
+                                base.plusMillis(ping / (PINGS_PER_SECOND / 1000)));
+                        long sent = System.nanoTime();
+                        tracker.record(location);
+                        nanos[i] = System.nanoTime() - sent;
+                    }
+                    return nanos;
+                }, senders));
+            }
+            for (CompletableFuture<long[]> sender : running) {
+                latencies.add(sender.get());
+            }
+        } finally {
+            senders.shutdown();
+            flusher.shutdown();
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        tracker.flush();
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        log.info("{} pings in {} ms ({} pings/s), record p50 {} ns p99 {} ns; {} positions in {} bulk writes, "
+                        + "{} track points", all.length, Math.round(elapsedSeconds * 1000),
+                Math.round(all.length / elapsedSeconds), all[all.length / 2], all[all.length * 99 / 100],
+                positionsWritten.get(), bulkWrites.get(), trackPointsWritten.get());
+
+        assertThat(all.length / elapsedSeconds).isGreaterThan(PINGS_PER_SECOND * 0.9);
+        assertThat(positionsWritten.get()).isBetween((long) DRIVERS, (long) all.length);
+        assertThat(bulkWrites.get()).isLessThan(all.length / 1_000);
+        assertThat(tracker.latestLocations()).hasSize(DRIVERS);
+        // One point per driver per 30 s of pings
+        assertThat(trackPointsWritten.get()).isEqualTo(DRIVERS);
+    }
+
+    @Test
+    void coalescesPingsBetweenFlushes() {
+        Instant now = Instant.now();
+        tracker.record(ping(1L, 10.0, now));
+        tracker.record(ping(1L, 10.1, now.plusSeconds(2)));
+        tracker.record(ping(1L, 10.2, now.plusSeconds(4)));
+
+        tracker.flush();
+
+        assertThat(positionsWritten).hasValue(1);
+        assertThat(tracker.latest(1L).latitude()).isEqualTo(10.2);
+    }
+
+    @Test
+    void ignoresPingsDeliveredLate() {
+        Instant now = Instant.now();
+        assertThat(tracker.record(ping(1L, 10.2, now))).isTrue();
+
+        assertThat(tracker.record(ping(1L, 10.1, now.minusSeconds(5)))).isFalse();
+        assertThat(tracker.latest(1L).latitude()).isEqualTo(10.2);
+    }
+
+    @Test
+    void downsamplesTheTrack() {
+        Instant now = Instant.now().minusSeconds(120);
+        for (int second = 0; second < 120; second += 3) {
+            tracker.record(ping(1L, 10.0 + second / 1000.0, now.plusSeconds(second)));
+        }
+
+        tracker.flush();
+
+        assertThat(trackPointsWritten).hasValue(4);
+    }
+
+    @Test
+    void retriesFailedWritesWithoutUndoingNewerPings() {
+        Instant now = Instant.now();
+        tracker.record(ping(1L, 10.0, now));
+        doThrow(new IllegalStateException("primary stepped down")).when(writer).writePositions(anyCollection());
+        tracker.flush();
+
+        tracker.record(ping(1L, 10.5, now.plusSeconds(2)));
+        doAnswer(invocation -> {
+            Collection<DriverLocation> written = invocation.getArgument(0);
+            assertThat(written).singleElement().extracting(DriverLocation::latitude).isEqualTo(10.5);
+            positionsWritten.addAndGet(written.size());
+            return null;
+        }).when(writer).writePositions(anyCollection());
+        tracker.flush();
+
+        assertThat(positionsWritten).hasValue(1);
+    }
+
+    @Test
+    void takesPingsFromClocksRunningAheadAsReceivedNow() {
+        properties.setMaxClockSkew(Duration.ofSeconds(30));
+
+        tracker.record(ping(1L, 10.0, Instant.now().plus(Duration.ofHours(1))));
+
+        assertThat(tracker.latest(1L).recordedAt()).isBefore(Instant.now().plusSeconds(1));
+    }
+
+    private static DriverLocation ping(Long driverId, double latitude, Instant recordedAt) {
+        return new DriverLocation(driverId, latitude, 106.7, null, null, recordedAt);
+    }
+}
@@ -0,0 +1,238 @@
+package com.microservices.deliveries.tracking;
+
+import com.microservices.deliveries.enums.DeliveryStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks what tracking clients are sent, fast or slow. The benchmark follows 100k deliveries, one client each and a
+ * few of them reading slowly, while every delivery's driver moves once per round, and checks that updates reach the
+ * fast clients promptly and the slow ones only get the latest.
+ */
+class DeliveryTrackingHubTest {
+    private static final Logger log = LoggerFactory.getLogger(DeliveryTrackingHubTest.class);
+    private static final int SUBSCRIBERS = Integer.getInteger("tracking.benchmark.subscribers", 100_000);
+    private static final int ROUNDS = 5;
+    private static final int SLOW_EVERY = 100;
+    private static final long SLOW_SEND_MILLIS = 50;
+
+    private final DeliveryTrackingHub hub = new DeliveryTrackingHub();
+
+    @AfterEach
+    void closeHub() {
+        hub.closeAll();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void fansOutToOneHundredThousandSubscribers() throws InterruptedException {
+        List<CountingSink> sinks = new ArrayList<>(SUBSCRIBERS);
+        for (long orderId = 0; orderId < SUBSCRIBERS; orderId++) {
+            CountingSink sink = new CountingSink(orderId % SLOW_EVERY == 0 ? SLOW_SEND_MILLIS : 0);
+            sinks.add(sink);
+            hub.subscribe(orderId, sink);
+        }
+        assertThat(hub.subscriberCount()).isEqualTo(SUBSCRIBERS);
+
+        long[] roundMillis = new long[ROUNDS];
+        long start = System.nanoTime();
+        for (int round = 1; round <= ROUNDS; round++) {
+            long roundStart = System.nanoTime();
+            String json = String.valueOf(roundStart);
+            for (long orderId = 0; orderId < SUBSCRIBERS; orderId++) {
+                hub.publish(location(orderId, round), json);
+            }
+            int published = round;
+            await(() -> sinks.stream().filter(sink -> !sink.slow()).allMatch(sink -> sink.sends >= published));
+            roundMillis[round - 1] = (System.nanoTime() - roundStart) / 1_000_000;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        await(() -> hub.sentCount() + hub.coalescedCount() == (long) SUBSCRIBERS * ROUNDS);
+
+        long[] lags = sinks.stream().filter(sink -> !sink.slow()).mapToLong(sink -> sink.maxLagMicros).sorted()
+                .toArray();
+        long slowSends = sinks.stream().filter(CountingSink::slow).mapToLong(sink -> sink.sends).sum();
+        log.info("{} subscribers, {} rounds of one update each in {} ms ({} updates/s), rounds took {} ms; worst "
+                        + "delay per fast subscriber p50 {} us p99 {} us; {} slow subscribers got {} of {} updates, "
+                        + "{} coalesced", SUBSCRIBERS, ROUNDS, Math.round(seconds * 1000),
+                Math.round(SUBSCRIBERS * ROUNDS / seconds), Arrays.toString(roundMillis), lags[lags.length / 2],
+                lags[lags.length * 99 / 100], SUBSCRIBERS / SLOW_EVERY, slowSends,
+                (long) SUBSCRIBERS / SLOW_EVERY * ROUNDS, hub.coalescedCount());
+
+        assertThat(hub.coalescedCount()).isPositive();
+        assertThat(slowSends).isLessThan((long) SUBSCRIBERS / SLOW_EVERY * ROUNDS);
+        // Slow or not, every client ends up with the latest position
+        assertThat(sinks).allSatisfy(sink -> assertThat(sink.lastJson).isEqualTo(sinks.getFirst().lastJson));
+    }
+
+    @Test
+    void slowClientOnlyGetsTheLatestPosition() throws InterruptedException {
+        BlockingSink sink = new BlockingSink();
+        Subscriber subscriber = hub.subscribe(1L, sink);
+
+        hub.publish(location(1L, 1), "1");
+        assertThat(sink.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        hub.publish(location(1L, 2), "2");
+        hub.publish(location(1L, 3), "3");
+        hub.publish(location(1L, 4), "4");
+        sink.release.countDown();
+
+        await(() -> sink.received.size() == 2);
+        assertThat(sink.received).containsExactly("location:1", "location:4");
+        assertThat(hub.coalescedCount()).isEqualTo(2);
+        assertThat(subscriber.isClosed()).isFalse();
+    }
+
+    @Test
+    void sendsTheStatusBeforeThePositionAndDropsOlderUpdates() throws InterruptedException {
+        BlockingSink sink = new BlockingSink();
+        Subscriber subscriber = hub.subscribe(1L, sink);
+        hub.offer(subscriber, location(1L, 1), "initial");
+        assertThat(sink.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        hub.offer(subscriber, location(1L, 5), "moved");
+        hub.offer(subscriber, status(1L, 3, DeliveryStatus.PICKED_UP), "picked up");
+        // The initial state, read before the update above was published
+        hub.offer(subscriber, status(1L, 2, DeliveryStatus.ASSIGNED), "assigned");
+        sink.release.countDown();
+
+        await(() -> sink.received.size() == 3);
+        assertThat(sink.received).containsExactly("location:initial", "status:picked up", "location:moved");
+    }
+
+    @Test
+    void lastStatusEndsTheSubscription() throws InterruptedException {
+        CountingSink sink = new CountingSink(0);
+        Subscriber subscriber = hub.subscribe(1L, sink);
+
+        hub.publish(status(1L, 4, DeliveryStatus.DELIVERED), "delivered");
+
+        await(() -> hub.subscriberCount() == 0);
+        assertThat(sink.completed).isTrue();
+        assertThat(sink.lastJson).isEqualTo("delivered");
+        hub.publish(location(1L, 9), "after");
+        assertThat(subscriber.isClosed()).isTrue();
+        assertThat(sink.sends).isEqualTo(1);
+    }
+
+    @Test
+    void dropsClientsThatWentAway() throws InterruptedException {
+        hub.subscribe(1L, new CountingSink(0));
+        hub.subscribe(1L, new CountingSink(0) {
+            @Override
+            public void heartbeat() throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        hub.heartbeat();
+
+        await(() -> hub.subscriberCount() == 1);
+    }
+
+    private static TrackingUpdate location(long orderId, long sequence) {
+        return new TrackingUpdate(TrackingUpdate.Type.LOCATION, orderId, sequence, null, 7L, 10.77, 106.70, 90.0,
+                Instant.now());
+    }
+
+    private static TrackingUpdate status(long orderId, long version, DeliveryStatus status) {
+        return new TrackingUpdate(TrackingUpdate.Type.STATUS, orderId, version, status, 7L, null, null, null,
+                Instant.now());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Timed out").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Records what it was sent; the json of the benchmark's updates is when they were published.
+     */
+    private static class CountingSink implements TrackingSink {
+        private final long sendMillis;
+        volatile int sends;
+        volatile String lastJson;
+        volatile boolean completed;
+        long maxLagMicros;
+
+        CountingSink(long sendMillis) {
+            this.sendMillis = sendMillis;
+        }
+
+        boolean slow() {
+            return sendMillis > 0;
+        }
+
+        @Override
+        public void send(String event, String json) throws IOException {
+            if (sendMillis > 0) {
+                try {
+                    Thread.sleep(sendMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+            } else if (json.chars().allMatch(Character::isDigit)) {
+                maxLagMicros = Math.max(maxLagMicros, (System.nanoTime() - Long.parseLong(json)) / 1_000);
+            }
+            lastJson = json;
+            sends++;
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    /**
+     * Blocks on its first send until released, as a client that stopped reading.
+     */
+    private static class BlockingSink implements TrackingSink {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(String event, String json) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            received.add(event + ":" + json);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void complete() {
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.microservices.eureka_server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the registry with the fast-convergence profile and churns a fleet of order-service and delivery-service
+ * instances through the REST API Eureka clients use: a quarter more join, a quarter leave cleanly and a quarter stop
+ * renewing, as when a container is killed. Checks that each change shows in the registry delta that clients fetch,
+ * and that the instances that stayed are still served. The benchmark measures how long each kind of change takes
+ * to show there.
+ * <p>
+ * Eureka lets a lease run for up to twice its duration after the last renewal before it is evicted, so each churn
+ * waits that long for the instances that died.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("fast-convergence")
+class RegistryChurnTest {
+    private static final Logger log = LoggerFactory.getLogger(RegistryChurnTest.class);
+    private static final int INSTANCES_PER_SERVICE = Integer.getInteger("churn.instances-per-service", 20);
+    private static final List<String> SERVICES = List.of("ORDER-SERVICE", "DELIVERY-SERVICE");
+    // Matching the clients' fast-convergence profile
+    private static final Duration RENEWAL_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(15);
+    private static final Duration EVICTION_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(200);
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService renewals = Executors.newScheduledThreadPool(4);
+    private final Map<String, ScheduledFuture<?>> renewing = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void stopRenewing() {
+        renewals.shutdownNow();
+    }
+
+    @Test
+    void reflectsJoiningLeavingAndDeadInstances() throws Exception {
+        Churn churn = churn("check");
+
+        assertThat(churn.seen()).containsKeys(ids(churn.joining()));
+        assertThat(churn.seen()).containsKeys(ids(churn.leaving()));
+        assertThat(churn.seen()).containsKeys(ids(churn.dying()));
+        // The instances that stayed are still served
+        assertThat(registeredIds()).contains(ids(churn.fleet().stream()
+                .filter(instance -> !churn.leaving().contains(instance) && !churn.dying().contains(instance))
+                .toList()));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void measuresTimeToReflectChurn() throws Exception {
+        Churn churn = churn("benchmark");
+
+        log.info("{} instances, {} joined, {} left, {} died: in the registry delta after at most {} ms, {} ms and "
+                        + "{} ms", churn.fleet().size(), churn.joining().size(), churn.leaving().size(),
+                churn.dying().size(), churn.maxMillisToSee(churn.joining()), churn.maxMillisToSee(churn.leaving()),
+                churn.maxMillisToSee(churn.dying()));
+        assertThat(churn.seen()).hasSize(churn.joining().size() + churn.leaving().size() + churn.dying().size());
+    }
+
+    /**
+     * Registers a fleet, waits for it to show, then has a quarter join, a quarter leave and a quarter die at once
+     * and watches the delta for those changes.
+     *
+     * @param run part of every instance id, so that a run is not confused with changes an earlier one left in the
+     *            delta
+     */
+    private Churn churn(String run) throws IOException, InterruptedException {
+        List<Instance> fleet = new ArrayList<>();
+        for (String service : SERVICES) {
+            for (int i = 0; i < INSTANCES_PER_SERVICE; i++) {
+                fleet.add(new Instance(service, service.toLowerCase() + "-" + run + "-" + i,
+                        address(0, fleet.size())));
+            }
+        }
+        for (Instance instance : fleet) {
+            register(instance);
+        }
+        Map<String, String> registered = new HashMap<>();
+        fleet.forEach(instance -> registered.put(instance.id(), "ADDED"));
+        assertThat(watchDelta(registered, Duration.ofSeconds(10))).hasSize(fleet.size());
+
+        List<Instance> joining = new ArrayList<>();
+        List<Instance> leaving = new ArrayList<>();
+        List<Instance> dying = new ArrayList<>();
+        for (int i = 0; i < fleet.size() / 4; i++) {
+            Instance existing = fleet.get(i * 4);
+            joining.add(new Instance(existing.service(), existing.id() + "-new", address(1, i)));
+            leaving.add(fleet.get(i * 4 + 1));
+            dying.add(fleet.get(i * 4 + 2));
+        }
+
+        long start = System.nanoTime();
+        for (Instance instance : joining) {
+            register(instance);
+        }
+        for (Instance instance : leaving) {
+            cancel(instance);
+        }
+        for (Instance instance : dying) {
+            renewing.remove(instance.id()).cancel(false);
+        }
+        Map<String, String> changes = new HashMap<>();
+        joining.forEach(instance -> changes.put(instance.id(), "ADDED"));
+        leaving.forEach(instance -> changes.put(instance.id(), "DELETED"));
+        dying.forEach(instance -> changes.put(instance.id(), "DELETED"));
+        Map<String, Long> seen = watchDelta(changes, LEASE_DURATION.multipliedBy(2).plus(EVICTION_INTERVAL)
+                .plusSeconds(15));
+        return new Churn(fleet, joining, leaving, dying, start, seen);
+    }
+
+    private void register(Instance instance) throws IOException, InterruptedException {
+        String body = """
+                {"instance": {
+                  "instanceId": "%s", "app": "%s", "hostName": "%s", "ipAddr": "%s", "vipAddress": "%s",
+                  "status": "UP", "port": {"$": 8080, "@enabled": "true"},
+                  "dataCenterInfo": {"@class": "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo",
+                                     "name": "MyOwn"},
+                  "leaseInfo": {"renewalIntervalInSecs": %d, "durationInSecs": %d}
+                }}""".formatted(instance.id(), instance.service(), instance.address(), instance.address(),
+                instance.service().toLowerCase(), RENEWAL_INTERVAL.toSeconds(), LEASE_DURATION.toSeconds());
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/eureka/apps/" + instance.service()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(204);
+        renewing.put(instance.id(), renewals.scheduleAtFixedRate(() -> renew(instance),
+                RENEWAL_INTERVAL.toMillis(), RENEWAL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private void renew(Instance instance) {
+        try {
+            send(HttpRequest.newBuilder(uri("/eureka/apps/" + instance.service() + "/" + instance.id()))
+                    .PUT(HttpRequest.BodyPublishers.noBody()));
+        } catch (IOException ex) {
+            // Renewed again on the next tick
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cancel(Instance instance) throws IOException, InterruptedException {
+        renewing.remove(instance.id()).cancel(false);
+        HttpResponse<String> response = send(HttpRequest.newBuilder(
+                uri("/eureka/apps/" + instance.service() + "/" + instance.id())).DELETE());
+        assertThat(response.statusCode()).isEqualTo(200);
+    }
+
+    /**
+     * Fetches the registry delta the way clients do, until every instance was reported with its expected action or
+     * the time is up.
+     *
+     * @param expected action type by instance id
+     * @return {@link System#nanoTime()} each instance was first reported at with its expected action
+     */
+    private Map<String, Long> watchDelta(Map<String, String> expected, Duration timeout)
+            throws IOException, InterruptedException {
+        Map<String, Long> seen = new HashMap<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (seen.size() < expected.size() && System.nanoTime() < deadline) {
+            long now = System.nanoTime();
+            for (JsonNode instance : instances(fetch("/eureka/apps/delta"))) {
+                String id = instance.path("instanceId").asText();
+                if (instance.path("actionType").asText().equals(expected.get(id))) {
+                    seen.putIfAbsent(id, now);
+                }
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        return seen;
+    }
+
+    private static String[] ids(List<Instance> instances) {
+        return instances.stream().map(Instance::id).toArray(String[]::new);
+    }
+
+    private List<String> registeredIds() throws IOException, InterruptedException {
+        return instances(fetch("/eureka/apps")).stream().map(instance -> instance.path("instanceId").asText()).toList();
+    }
+
+    private JsonNode fetch(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri(path)).header("Accept", "application/json")
+                .GET());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        return objectMapper.readTree(response.body());
+    }
+
+    private static List<JsonNode> instances(JsonNode registry) {
+        List<JsonNode> instances = new ArrayList<>();
+        for (JsonNode application : asList(registry.path("applications").path("application"))) {
+            instances.addAll(asList(application.path("instance")));
+        }
+        return instances;
+    }
+
+    // Lists of one may come as a single object
+    private static List<JsonNode> asList(JsonNode node) {
+        List<JsonNode> nodes = new ArrayList<>();
+        if (node.isArray()) {
+            node.forEach(nodes::add);
+        } else if (node.isObject()) {
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.timeout(Duration.ofSeconds(5)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String address(int subnet, int i) {
+        return "10." + subnet + "." + i / 250 + "." + (i % 250 + 1);
+    }
+
+    private record Instance(String service, String id, String address) {
+    }
+
+    /**
+     * @param start {@link System#nanoTime()} the changes were made at
+     * @param seen  {@link System#nanoTime()} each change was first seen at in the delta, by instance id
+     */
+    private record Churn(List<Instance> fleet, List<Instance> joining, List<Instance> leaving, List<Instance> dying,
+                         long start, Map<String, Long> seen) {
+        long maxMillisToSee(List<Instance> instances) {
+            return instances.stream()
+                    .map(instance -> seen.get(instance.id()))
+                    .filter(Objects::nonNull)
+                    .mapToLong(at -> (at - start) / 1_000_000)
+                    .max()
+                    .orElse(-1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.microservices.identity;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The caller of a request, as verified by {@link GatewayIdentityFilter}. Controllers take it as
+ * {@code @RequestAttribute(Caller.ATTRIBUTE) Caller caller}.
+ *
+ * @param userId {@code null} for anonymous callers, and for tokens issued before the claim was added
+ * @param roles  without the {@code ROLE_} prefix
+ */
+public record Caller(Long userId, String email, Set<String> roles) {
+    public static final String ATTRIBUTE = "com.microservices.identity.Caller";
+    public static final String ADMIN = "ADMIN";
+    public static final String USER = "USER";
+    public static final String RESTAURANT_OWNER = "RESTAURANT_OWNER";
+    public static final String DELIVERY_PERSON = "DELIVERY_PERSON";
+
+    public static final Caller ANONYMOUS = new Caller(null, null, Set.of());
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * @param roles the {@link IdentityHeaders#USER_ROLES} header
+     */
+    public static Caller of(Long userId, String email, String roles) {
+        Set<String> parsed = roles == null ? Set.of() : Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .map(role -> role.startsWith(ROLE_PREFIX) ? role.substring(ROLE_PREFIX.length()) : role)
+                .collect(Collectors.toUnmodifiableSet());
+        return new Caller(userId, email, parsed);
+    }
+
+    public boolean isAuthenticated() {
+        return userId != null;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    public boolean isAdmin() {
+        return hasRole(ADMIN);
+    }
+
+    /**
+     * Whether the caller is the given user, or an admin acting for them.
+     */
+    public boolean isOrAdmin(Long ownerId) {
+        return isAdmin() || userId != null && userId.equals(ownerId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.microservices.identity;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+
+/**
+ * Accepts the {@link IdentityHeaders} only with a valid {@link IdentitySignature}, and exposes the caller as the
+ * {@link Caller#ATTRIBUTE} request attribute.
+ * <p>
+ * A request without any of the headers is anonymous. A request with identity headers that are not signed, signed
+ * with another secret, altered or past the token expiry is rejected with 401, since it did not come through the
+ * api-gateway as it claims to. Everything that reaches a controller therefore carries headers the gateway set.
+ */
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(GatewayIdentityFilter.class);
+    private static final byte[] UNAUTHORIZED_BODY =
+            "{\"message\":\"Unauthorized: Identity headers not set by the gateway\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final IdentitySignature signature;
+    private final Clock clock;
+
+    public GatewayIdentityFilter(IdentitySignature signature) {
+        this(signature, Clock.systemUTC());
+    }
+
+    public GatewayIdentityFilter(IdentitySignature signature, Clock clock) {
+        this.signature = signature;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (IdentityHeaders.ALL.stream().allMatch(header -> request.getHeader(header) == null)) {
+            request.setAttribute(Caller.ATTRIBUTE, Caller.ANONYMOUS);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Caller caller = verify(request);
+        if (caller == null) {
+            log.warn("Rejected request with identity headers not set by the gateway: {} {} from {}",
+                    request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(UNAUTHORIZED_BODY);
+            return;
+        }
+        request.setAttribute(Caller.ATTRIBUTE, caller);
+        chain.doFilter(request, response);
+    }
+
+    private Caller verify(HttpServletRequest request) {
+        String userId = request.getHeader(IdentityHeaders.USER_ID);
+        String email = request.getHeader(IdentityHeaders.USER_EMAIL);
+        String roles = request.getHeader(IdentityHeaders.USER_ROLES);
+        long expiresAt;
+        Long parsedUserId;
+        try {
+            expiresAt = Long.parseLong(request.getHeader(IdentityHeaders.EXPIRES));
+            parsedUserId = userId != null ? Long.valueOf(userId) : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        if (expiresAt <= clock.instant().getEpochSecond()
+                || !signature.verify(userId, email, roles, expiresAt, request.getHeader(IdentityHeaders.SIGNATURE))) {
+            return null;
+        }
+        return Caller.of(parsedUserId, email, roles);
+    }
+}
@@ -0,0 +1,28 @@
+package com.microservices.identity;
+
+import java.util.List;
+
+/**
+ * Headers the api-gateway forwards the caller's identity in, once it verified the access token.
+ */
+public final class IdentityHeaders {
+    public static final String USER_ID = "X-User-Id";
+    public static final String USER_EMAIL = "X-User-Email";
+    /**
+     * Comma-separated, each with the {@code ROLE_} prefix.
+     */
+    public static final String USER_ROLES = "X-User-Roles";
+    /**
+     * Epoch second the access token expires at; the signature is not accepted after it.
+     */
+    public static final String EXPIRES = "X-User-Expires";
+    /**
+     * {@link IdentitySignature} of the other identity headers.
+     */
+    public static final String SIGNATURE = "X-User-Signature";
+
+    public static final List<String> ALL = List.of(USER_ID, USER_EMAIL, USER_ROLES, EXPIRES, SIGNATURE);
+
+    private IdentityHeaders() {
+    }
+}
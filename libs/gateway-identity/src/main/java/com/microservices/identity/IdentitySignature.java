@@ -0,0 +1,61 @@
+package com.microservices.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 over the identity headers, with a secret only the api-gateway and the services share. A service that
+ * checks it knows the headers were set by the gateway, not by a client that reached the service directly.
+ * <p>
+ * The signature covers the token expiry, so a captured set of headers is no longer accepted once the token it was
+ * made from would not be either.
+ */
+public class IdentitySignature {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final SecretKeySpec key;
+
+    /**
+     * @param base64Secret Base64-encoded secret, at least 32 bytes once decoded
+     */
+    public IdentitySignature(String base64Secret) {
+        byte[] secret = Base64.getDecoder().decode(base64Secret);
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("The identity secret must be at least " + MIN_SECRET_BYTES
+                    + " bytes, got " + secret.length);
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    public String sign(String userId, String email, String roles, long expiresAt) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal(payload(userId, email, roles, expiresAt).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    public boolean verify(String userId, String email, String roles, long expiresAt, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(userId, email, roles, expiresAt).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String payload(String userId, String email, String roles, long expiresAt) {
+        return nullToEmpty(userId) + "\n" + nullToEmpty(email) + "\n" + nullToEmpty(roles) + "\n" + expiresAt;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
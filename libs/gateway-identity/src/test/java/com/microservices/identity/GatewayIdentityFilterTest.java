@@ -0,0 +1,112 @@
+package com.microservices.identity;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayIdentityFilterTest {
+    private static final Instant NOW = Instant.parse("2026-10-16T12:00:00Z");
+    private static final long EXPIRES_AT = NOW.plusSeconds(3600).getEpochSecond();
+
+    private final IdentitySignature signature = new IdentitySignature(secret("gateway-and-services-shared-secret!"));
+    private final GatewayIdentityFilter filter = new GatewayIdentityFilter(signature,
+            Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void exposesTheCallerOfSignedHeaders() throws Exception {
+        MockHttpServletRequest request = signed("42", "driver@beefood.com", "ROLE_DELIVERY_PERSON", EXPIRES_AT);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        Caller caller = (Caller) request.getAttribute(Caller.ATTRIBUTE);
+        assertThat(caller.userId()).isEqualTo(42L);
+        assertThat(caller.hasRole(Caller.DELIVERY_PERSON)).isTrue();
+        assertThat(caller.isAdmin()).isFalse();
+    }
+
+    @Test
+    void treatsRequestsWithoutIdentityAsAnonymous() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/restaurants/nearby");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(request.getAttribute(Caller.ATTRIBUTE)).isEqualTo(Caller.ANONYMOUS);
+    }
+
+    @Test
+    void rejectsForgedHeaders() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders/1/transitions");
+        request.addHeader(IdentityHeaders.USER_ID, "1");
+        request.addHeader(IdentityHeaders.USER_ROLES, "ROLE_ADMIN");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void rejectsSignedHeadersWithAnElevatedRole() throws Exception {
+        MockHttpServletRequest request = signed("7", "customer@beefood.com", "ROLE_USER", EXPIRES_AT);
+        request.removeHeader(IdentityHeaders.USER_ROLES);
+        request.addHeader(IdentityHeaders.USER_ROLES, "ROLE_ADMIN");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void rejectsSignaturesPastTheTokenExpiry() throws Exception {
+        MockHttpServletRequest request = signed("7", "customer@beefood.com", "ROLE_USER",
+                NOW.minusSeconds(1).getEpochSecond());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void rejectsSignaturesMadeWithAnotherSecret() throws Exception {
+        IdentitySignature other = new IdentitySignature(secret("not-the-secret-the-services-know!!"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders/1");
+        request.addHeader(IdentityHeaders.USER_ID, "7");
+        request.addHeader(IdentityHeaders.EXPIRES, String.valueOf(EXPIRES_AT));
+        request.addHeader(IdentityHeaders.SIGNATURE, other.sign("7", null, null, EXPIRES_AT));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+    }
+
+    private MockHttpServletRequest signed(String userId, String email, String roles, long expiresAt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders/1");
+        request.addHeader(IdentityHeaders.USER_ID, userId);
+        request.addHeader(IdentityHeaders.USER_EMAIL, email);
+        request.addHeader(IdentityHeaders.USER_ROLES, roles);
+        request.addHeader(IdentityHeaders.EXPIRES, String.valueOf(expiresAt));
+        request.addHeader(IdentityHeaders.SIGNATURE, signature.sign(userId, email, roles, expiresAt));
+        return request;
+    }
+
+    private static String secret(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes());
+    }
+}
@@ -0,0 +1,158 @@
+package com.microservices.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * The grid of geohash cells of one precision. Cells are addressed by their row and column, and keyed by their
+ * geohash as a number rather than in base 32.
+ * <p>
+ * Indexes bucket what they hold by {@link #cellOf cell}, and find the items nearest to a point with
+ * {@link #nearest}.
+ */
+public final class GeoHashGrid {
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private static final Comparator<Nearby<?>> BY_DISTANCE = Comparator.comparingDouble(Nearby::distanceMeters);
+
+    private final int latBits;
+    private final int lonBits;
+    private final int rows;
+    private final int columns;
+    private final double cellLatDegrees;
+    private final double cellLonDegrees;
+
+    public GeoHashGrid(int precision) {
+        if (precision < 1 || precision > 12) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and 12");
+        }
+        int bits = 5 * precision;
+        this.lonBits = (bits + 1) / 2;
+        this.latBits = bits / 2;
+        this.rows = 1 << latBits;
+        this.columns = 1 << lonBits;
+        this.cellLatDegrees = 180.0 / rows;
+        this.cellLonDegrees = 360.0 / columns;
+    }
+
+    public int row(double latitude) {
+        return Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellLatDegrees));
+    }
+
+    public int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellLonDegrees), columns);
+    }
+
+    public boolean hasRow(int row) {
+        return row >= 0 && row < rows;
+    }
+
+    /**
+     * The geohash of a cell: its column and row bits interleaved, starting with the column's. Columns wrap around
+     * the antimeridian.
+     */
+    public long cell(int row, int column) {
+        int wrapped = Math.floorMod(column, columns);
+        long hash = 0;
+        for (int lonBit = lonBits - 1, latBit = latBits - 1; lonBit >= 0; lonBit--, latBit--) {
+            hash = (hash << 1) | ((wrapped >>> lonBit) & 1);
+            if (latBit >= 0) {
+                hash = (hash << 1) | ((row >>> latBit) & 1);
+            }
+        }
+        return hash;
+    }
+
+    public long cellOf(double latitude, double longitude) {
+        return cell(row(latitude), column(longitude));
+    }
+
+    public double cellHeightMeters() {
+        return Math.toRadians(cellLatDegrees) * EARTH_RADIUS_METERS;
+    }
+
+    public double cellWidthMeters(double latitude) {
+        return Math.toRadians(cellLonDegrees) * EARTH_RADIUS_METERS * Math.cos(Math.toRadians(latitude));
+    }
+
+    /**
+     * Finds the items nearest to a point, visiting the cells in rings around the point's, nearest ring first. The
+     * search stops as soon as no item in the next ring could be nearer than the ones found, or the ring lies beyond
+     * the radius.
+     *
+     * @param items  the items in a cell, {@code null} or empty if there are none
+     * @param accept further condition on an item, only tested for items near enough to be among the results
+     * @return up to {@code limit} accepted items within {@code radiusMeters}, nearest first
+     */
+    public <T extends Located> List<Nearby<T>> nearest(double latitude, double longitude, double radiusMeters,
+                                                       int limit, LongFunction<? extends Collection<T>> items,
+                                                       Predicate<? super T> accept) {
+        // Farthest of the nearest items found so far at the head
+        PriorityQueue<Nearby<T>> nearest = new PriorityQueue<>(limit + 1, BY_DISTANCE.reversed());
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        double latitudeReach = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double farthestLatitude = Math.min(89.9, Math.abs(latitude) + latitudeReach);
+        double minCellMeters = Math.max(1, Math.min(cellHeightMeters(), cellWidthMeters(farthestLatitude)));
+
+        for (int ring = 0; ; ring++) {
+            // Anything in this ring is at least ring - 1 whole cells away
+            double ringDistance = Math.max(0, ring - 1) * minCellMeters;
+            if (ringDistance > radiusMeters
+                    || nearest.size() == limit && ringDistance >= nearest.peek().distanceMeters()) {
+                break;
+            }
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (!hasRow(row)) {
+                    continue;
+                }
+                boolean edgeRow = Math.abs(row - centerRow) == ring;
+                int step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += step) {
+                    Collection<T> cell = items.apply(cell(row, column));
+                    if (cell != null) {
+                        collect(cell, latitude, longitude, radiusMeters, limit, accept, nearest);
+                    }
+                }
+            }
+        }
+
+        List<Nearby<T>> sorted = new ArrayList<>(nearest);
+        sorted.sort(BY_DISTANCE);
+        return sorted;
+    }
+
+    /**
+     * Great-circle distance by the haversine formula.
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static <T extends Located> void collect(Collection<T> cell, double latitude, double longitude,
+                                                    double radiusMeters, int limit, Predicate<? super T> accept,
+                                                    PriorityQueue<Nearby<T>> nearest) {
+        for (T item : cell) {
+            double distance = distanceMeters(latitude, longitude, item.latitude(), item.longitude());
+            if (distance > radiusMeters
+                    || nearest.size() == limit && distance >= nearest.peek().distanceMeters()
+                    || !accept.test(item)) {
+                continue;
+            }
+            nearest.add(new Nearby<>(item, distance));
+            if (nearest.size() > limit) {
+                nearest.poll();
+            }
+        }
+    }
+}
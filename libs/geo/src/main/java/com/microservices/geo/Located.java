@@ -0,0 +1,10 @@
+package com.microservices.geo;
+
+/**
+ * Something with a position, in degrees.
+ */
+public interface Located {
+    double latitude();
+
+    double longitude();
+}
@@ -0,0 +1,7 @@
+package com.microservices.geo;
+
+/**
+ * An item found by {@link GeoHashGrid#nearest}, with its distance from where the search was made.
+ */
+public record Nearby<T>(T item, double distanceMeters) {
+}
@@ -0,0 +1,80 @@
+package com.microservices.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeoHashGridTest {
+    // Ho Chi Minh City
+    private static final double LATITUDE = 10.7769;
+    private static final double LONGITUDE = 106.7009;
+
+    private final GeoHashGrid grid = new GeoHashGrid(6);
+
+    @Test
+    void keysCellsByTheirGeohash() {
+        assertThat(grid.cellOf(LATITUDE, LONGITUDE)).isEqualTo(base32("w3gvk1"));
+    }
+
+    @Test
+    void wrapsColumnsAroundTheAntimeridian() {
+        assertThat(grid.cellOf(0, 179.999)).isEqualTo(grid.cell(grid.row(0), grid.column(-180) - 1));
+    }
+
+    @Test
+    void rejectsPrecisionsGeohashesDoNotHave() {
+        assertThatThrownBy(() -> new GeoHashGrid(13)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findsTheSameNearestPointsAsAFullScan() {
+        Random random = new Random(42);
+        Map<Long, List<Point>> cells = new HashMap<>();
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Point point = new Point(i, LATITUDE + (random.nextDouble() - 0.5) * 0.2,
+                    LONGITUDE + (random.nextDouble() - 0.5) * 0.2);
+            points.add(point);
+            cells.computeIfAbsent(grid.cellOf(point.latitude(), point.longitude()), cell -> new ArrayList<>())
+                    .add(point);
+        }
+
+        for (int search = 0; search < 50; search++) {
+            double latitude = LATITUDE + (random.nextDouble() - 0.5) * 0.2;
+            double longitude = LONGITUDE + (random.nextDouble() - 0.5) * 0.2;
+            List<Nearby<Point>> expected = points.stream()
+                    .filter(point -> point.id() % 2 == 0)
+                    .map(point -> new Nearby<>(point, GeoHashGrid.distanceMeters(latitude, longitude,
+                            point.latitude(), point.longitude())))
+                    .filter(nearby -> nearby.distanceMeters() <= 3_000)
+                    .sorted(Comparator.comparingDouble(Nearby::distanceMeters))
+                    .limit(10)
+                    .toList();
+
+            List<Nearby<Point>> found = grid.nearest(latitude, longitude, 3_000, 10, cells::get,
+                    point -> point.id() % 2 == 0);
+
+            assertThat(found).isEqualTo(expected);
+        }
+    }
+
+    private static long base32(String geohash) {
+        String alphabet = "0123456789bcdefghjkmnpqrstuvwxyz";
+        long hash = 0;
+        for (char c : geohash.toCharArray()) {
+            hash = (hash << 5) | alphabet.indexOf(c);
+        }
+        return hash;
+    }
+
+    private record Point(int id, double latitude, double longitude) implements Located {
+    }
+}
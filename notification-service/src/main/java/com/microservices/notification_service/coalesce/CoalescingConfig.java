@@ -0,0 +1,11 @@
+package com.microservices.notification_service.coalesce;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class CoalescingConfig {
+}
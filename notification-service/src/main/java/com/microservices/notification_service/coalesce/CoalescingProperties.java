@@ -0,0 +1,38 @@
+package com.microservices.notification_service.coalesce;
+
+import com.microservices.notification_service.dto.event.OrderEvent;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Settings for dropping redelivered events and merging bursts of status updates, see {@link NotificationCoalescer}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.notifications.coalescing")
+public class CoalescingProperties {
+    /**
+     * How long the first status update to a recipient on a channel waits for others to merge with. Zero sends each
+     * one on its own.
+     */
+    private Duration window = Duration.ofSeconds(3);
+
+    /**
+     * Event types whose notifications are merged. The others are sent right away.
+     */
+    private Set<String> eventTypes = new HashSet<>(
+            Set.of(OrderEvent.ORDER_CONFIRMED, OrderEvent.ORDER_PREPARING, OrderEvent.ORDER_READY));
+
+    /**
+     * Event ids remembered to recognize redeliveries. Beyond it, the least recently seen are forgotten.
+     */
+    private long seenEvents = 200_000;
+
+    /**
+     * How long an event id is remembered.
+     */
+    private Duration seenEventsTtl = Duration.ofHours(1);
+}
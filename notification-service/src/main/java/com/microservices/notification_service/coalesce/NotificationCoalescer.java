@@ -0,0 +1,219 @@
+package com.microservices.notification_service.coalesce;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.notification_service.dispatch.Notification;
+import com.microservices.notification_service.dispatch.NotificationDispatcher;
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.enums.RecipientType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Stands between the event listener and the {@link NotificationDispatcher}, so that a customer whose order goes
+ * from preparing to ready within seconds gets one push instead of two, a restaurant confirmed several orders at once
+ * gets one SMS, and a redelivered event is not sent twice.
+ * <p>
+ * Events are recognized by id in a bounded set of recently seen ones, and a redelivery, such as after a rebalance
+ * that came before the offset was committed, is acknowledged without sending anything. The set only covers this
+ * instance and the last {@code seen-events-ttl}, so it makes duplicates rare rather than impossible.
+ * <p>
+ * Notifications of the {@code event-types} to merge wait in a window per recipient and channel, opened by the first
+ * of them and closed {@code window} later. Within a window, a later update of an order supersedes the earlier ones,
+ * and the updates of different orders go out as one message. Any other notification to the same recipient over the
+ * same channel closes the window first, so that messages keep their order. An event is acknowledged once all the
+ * windows it went into are sent.
+ * <p>
+ * Notifications left unsent either way are counted as {@value #SUPPRESSED_METRIC}, tagged with the {@code reason},
+ * {@code duplicate} or {@code coalesced}, and the {@code channel}.
+ */
+@Component
+public class NotificationCoalescer {
+    public static final String SUPPRESSED_METRIC = "notifications.suppressed";
+    public static final String DUPLICATE = "duplicate";
+    public static final String COALESCED = "coalesced";
+
+    private final NotificationDispatcher dispatcher;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final long windowMillis;
+    private final Set<String> eventTypes;
+    private final Cache<UUID, Boolean> seen;
+    // Insertion order is opening order, so the windows due first come first
+    private final Map<Key, Window> windows = new LinkedHashMap<>();
+    private int held;
+
+    public NotificationCoalescer(NotificationDispatcher dispatcher, CoalescingProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this(dispatcher, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    NotificationCoalescer(NotificationDispatcher dispatcher, CoalescingProperties properties,
+                          MeterRegistry meterRegistry, Clock clock) {
+        this.dispatcher = dispatcher;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.windowMillis = properties.getWindow().toMillis();
+        this.eventTypes = Set.copyOf(properties.getEventTypes());
+        this.seen = Caffeine.newBuilder()
+                .maximumSize(properties.getSeenEvents())
+                .expireAfterWrite(properties.getSeenEventsTtl())
+                .build();
+        Gauge.builder("notifications.coalescing.held", this, NotificationCoalescer::heldCount)
+                .description("Notifications waiting in a window to be merged")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends the notifications made from one event, or holds them back to be merged.
+     *
+     * @return completed once they were sent, merged into a notification that was sent, or given up on
+     */
+    public CompletableFuture<Void> submit(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        UUID eventId = notifications.getFirst().eventId();
+        if (eventId != null && seen.asMap().putIfAbsent(eventId, Boolean.TRUE) != null) {
+            notifications.forEach(notification -> suppressed(DUPLICATE, notification.channel(), 1));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long now = clock.millis();
+        List<Window> closed = new ArrayList<>();
+        List<Notification> direct = new ArrayList<>();
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        synchronized (this) {
+            for (Notification notification : notifications) {
+                Key key = Key.of(notification);
+                if (isMerged(notification)) {
+                    Window window = windows.computeIfAbsent(key, k -> new Window(now + windowMillis));
+                    window.add(notification);
+                    held++;
+                    done.add(window.sent);
+                } else {
+                    Window window = windows.remove(key);
+                    if (window != null) {
+                        held -= window.received;
+                        closed.add(window);
+                    }
+                    direct.add(notification);
+                }
+            }
+        }
+        closed.forEach(this::send);
+        if (!direct.isEmpty()) {
+            done.add(dispatcher.dispatch(direct));
+        }
+        return CompletableFuture.allOf(done.toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * Sends the windows whose time is up.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.coalescing.sweep-interval-ms:100}")
+    public void sweep() {
+        long now = clock.millis();
+        List<Window> due = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Window> open = windows.values().iterator();
+            while (open.hasNext()) {
+                Window window = open.next();
+                if (window.closesAt > now) {
+                    break;
+                }
+                open.remove();
+                held -= window.received;
+                due.add(window);
+            }
+        }
+        due.forEach(this::send);
+    }
+
+    /**
+     * @return notifications waiting in a window
+     */
+    public synchronized int heldCount() {
+        return held;
+    }
+
+    @PreDestroy
+    void sendHeld() {
+        List<Window> all;
+        synchronized (this) {
+            all = new ArrayList<>(windows.values());
+            windows.clear();
+            held = 0;
+        }
+        all.forEach(this::send);
+    }
+
+    private boolean isMerged(Notification notification) {
+        return windowMillis > 0 && notification.recipientId() != null
+                && eventTypes.contains(notification.eventType());
+    }
+
+    private void send(Window window) {
+        Notification merged = window.merge();
+        if (window.received > 1) {
+            suppressed(COALESCED, merged.channel(), window.received - 1);
+        }
+        dispatcher.dispatch(List.of(merged)).whenComplete((result, ex) -> window.sent.complete(null));
+    }
+
+    private void suppressed(String reason, Channel channel, int count) {
+        meterRegistry.counter(SUPPRESSED_METRIC, "reason", reason, "channel", channel.name()).increment(count);
+    }
+
+    private record Key(RecipientType recipientType, String recipientId, Channel channel) {
+        static Key of(Notification notification) {
+            return new Key(notification.recipientType(), notification.recipientId(), notification.channel());
+        }
+    }
+
+    private static final class Window {
+        final long closesAt;
+        final CompletableFuture<Void> sent = new CompletableFuture<>();
+        // The latest update of each order, in the order they came in
+        final Map<Long, Notification> latest = new LinkedHashMap<>();
+        int received;
+
+        Window(long closesAt) {
+            this.closesAt = closesAt;
+        }
+
+        void add(Notification notification) {
+            latest.remove(notification.orderId());
+            latest.put(notification.orderId(), notification);
+            received++;
+        }
+
+        Notification merge() {
+            List<Notification> updates = new ArrayList<>(latest.values());
+            Notification last = updates.getLast();
+            boolean critical = updates.stream().anyMatch(update -> update.priority() == Priority.CRITICAL);
+            if (updates.size() == 1 && (last.priority() == Priority.CRITICAL || !critical)) {
+                return last;
+            }
+            return new Notification(last.eventId(), last.eventType(), last.channel(),
+                    critical ? Priority.CRITICAL : last.priority(), last.recipientType(), last.recipientId(),
+                    updates.size() == 1 ? last.orderId() : null,
+                    updates.stream().map(Notification::message).collect(Collectors.joining("\n")));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.microservices.notification_service.config;
+
+import com.microservices.identity.GatewayIdentityFilter;
+import com.microservices.identity.IdentitySignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tokens are verified by the api-gateway, which forwards the caller's identity in the {@code X-User-*} headers.
+ * {@link GatewayIdentityFilter} rejects those headers unless the gateway signed them, so the caller they name can be
+ * trusted for authorization.
+ */
+@Configuration
+public class SecurityConfig {
+
+    @Bean
+    public GatewayIdentityFilter gatewayIdentityFilter(@Value("${app.security.identity-secret}") String secret) {
+        return new GatewayIdentityFilter(new IdentitySignature(secret));
+    }
+}
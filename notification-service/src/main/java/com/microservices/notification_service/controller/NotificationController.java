@@ -0,0 +1,34 @@
+package com.microservices.notification_service.controller;
+
+import com.microservices.notification_service.dto.response.APIResponse;
+import com.microservices.notification_service.dto.response.NotificationPageResponse;
+import com.microservices.identity.Caller;
+import com.microservices.notification_service.service.NotificationHistoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+    private final NotificationHistoryService notificationHistoryService;
+
+    /**
+     * The caller's notifications, newest first, a page at a time.
+     */
+    @GetMapping
+    public APIResponse<NotificationPageResponse> getHistory(@RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        if (!caller.isAuthenticated()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        return APIResponse.<NotificationPageResponse>builder()
+                .result(notificationHistoryService.getHistory(caller.userId(), cursor, size))
+                .build();
+    }
+}
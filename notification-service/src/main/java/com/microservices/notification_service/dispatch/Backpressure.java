@@ -0,0 +1,10 @@
+package com.microservices.notification_service.dispatch;
+
+/**
+ * Stops new events from coming in while notifications pile up faster than the providers take them.
+ */
+public interface Backpressure {
+    void pause();
+
+    void resume();
+}
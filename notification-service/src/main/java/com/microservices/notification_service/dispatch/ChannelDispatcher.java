@@ -0,0 +1,197 @@
+package com.microservices.notification_service.dispatch;
+
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.exception.NotificationDeliveryException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends the notifications of one channel through its provider, at most {@code concurrency} calls at a time.
+ * <p>
+ * Notifications wait in a critical and a normal lane. A feeder thread takes a permit, then as many waiting
+ * notifications as one provider call may carry, critical first, and hands them to a virtual thread that makes the
+ * call. While all permits are taken, notifications keep arriving and the next call carries more of them; when the
+ * channel is quiet, normal notifications wait up to {@code linger} for company, critical ones not at all.
+ * <p>
+ * Nothing is ever refused: the channel reports itself saturated at {@code max-queued} waiting notifications, and
+ * relieved at half of that, so that the owner stops taking new events in between.
+ */
+@Slf4j
+final class ChannelDispatcher {
+    private final Channel channel;
+    private final NotificationProvider provider;
+    private final NotificationProperties.ChannelSettings settings;
+    private final NotificationDispatcher owner;
+    private final ExecutorService senders;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final Semaphore permits;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<Pending> critical = new ArrayDeque<>();
+    private final ArrayDeque<Pending> normal = new ArrayDeque<>();
+    private long batchesTaken;
+    private boolean saturated;
+    private Thread feeder;
+
+    ChannelDispatcher(NotificationProvider provider, NotificationProperties properties, NotificationDispatcher owner,
+                      ExecutorService senders) {
+        this.channel = provider.channel();
+        this.provider = provider;
+        this.settings = properties.settingsFor(channel);
+        this.owner = owner;
+        this.senders = senders;
+        this.batchSize = Math.max(1, provider.maxBatchSize());
+        this.maxAttempts = properties.getMaxAttempts();
+        this.retryBackoffMillis = properties.getRetryBackoff().toMillis();
+        this.permits = new Semaphore(settings.getConcurrency());
+    }
+
+    void start() {
+        feeder = Thread.ofVirtual().name("notifications-" + channel.name().toLowerCase()).start(this::feed);
+    }
+
+    void stop() {
+        feeder.interrupt();
+    }
+
+    /**
+     * @return completed once the notification was sent or given up on
+     */
+    CompletableFuture<Void> enqueue(Notification notification) {
+        Pending pending = new Pending(notification, new CompletableFuture<>());
+        lock.lock();
+        try {
+            boolean wasEmpty = queued() == 0;
+            if (notification.priority() == Priority.CRITICAL) {
+                critical.add(pending);
+            } else {
+                normal.add(pending);
+            }
+            // Wakes the feeder when it waits for anything, or lingers for a full batch or a critical notification
+            if (wasEmpty || notification.priority() == Priority.CRITICAL || normal.size() == batchSize) {
+                available.signal();
+            }
+            if (!saturated && queued() >= settings.getMaxQueued()) {
+                saturated = true;
+                // Under the lock, so that the owner sees this channel's changes in order
+                owner.saturationChanged(channel, true);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return pending.done();
+    }
+
+    int queuedCount() {
+        lock.lock();
+        try {
+            return queued();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void feed() {
+        try {
+            while (true) {
+                permits.acquire();
+                List<Pending> batch;
+                try {
+                    batch = nextBatch();
+                } catch (InterruptedException ex) {
+                    permits.release();
+                    throw ex;
+                }
+                try {
+                    senders.execute(() -> {
+                        try {
+                            send(batch);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    // Shutting down; the events are consumed again, their offsets not being committed
+                    return;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Pending> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queued() == 0) {
+                available.await();
+            }
+            long lingerNanos = settings.getLinger().toNanos();
+            while (lingerNanos > 0 && critical.isEmpty() && normal.size() < batchSize) {
+                lingerNanos = available.awaitNanos(lingerNanos);
+            }
+            List<Pending> batch = new ArrayList<>(Math.min(batchSize, queued()));
+            boolean normalFirst = !normal.isEmpty() && ++batchesTaken % settings.getNormalEvery() == 0;
+            take(normalFirst ? normal : critical, batch);
+            take(normalFirst ? critical : normal, batch);
+            if (saturated && queued() <= settings.getMaxQueued() / 2) {
+                saturated = false;
+                owner.saturationChanged(channel, false);
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void take(ArrayDeque<Pending> lane, List<Pending> batch) {
+        while (batch.size() < batchSize && !lane.isEmpty()) {
+            batch.add(lane.poll());
+        }
+    }
+
+    private int queued() {
+        return critical.size() + normal.size();
+    }
+
+    private void send(List<Pending> batch) {
+        List<Notification> notifications = batch.stream().map(Pending::notification).toList();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                provider.send(notifications);
+                owner.sent(notifications);
+                break;
+            } catch (NotificationDeliveryException | RuntimeException ex) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up on {} {} notifications after {} attempts: {}", notifications.size(),
+                            channel, attempt, ex.getMessage());
+                    owner.failed(notifications);
+                    break;
+                }
+            }
+            try {
+                Thread.sleep(retryBackoffMillis << (attempt - 1));
+            } catch (InterruptedException ex) {
+                // Shutting down; left unfinished, so that their events are consumed again
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        batch.forEach(pending -> pending.done().complete(null));
+    }
+
+    private record Pending(Notification notification, CompletableFuture<Void> done) {
+    }
+}
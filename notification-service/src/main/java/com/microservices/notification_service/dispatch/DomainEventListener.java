@@ -0,0 +1,69 @@
+package com.microservices.notification_service.dispatch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.notification_service.coalesce.NotificationCoalescer;
+import com.microservices.notification_service.dto.event.DeliveryAssignedEvent;
+import com.microservices.notification_service.dto.event.OrderEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Turns domain events into notifications and hands them to the {@link NotificationDispatcher}, through the
+ * {@link NotificationCoalescer} that drops redeliveries and merges bursts of status updates.
+ * <p>
+ * The listener returns as soon as the notifications are queued, and the event is acknowledged once they have all
+ * been sent, merged or given up on. Acknowledgments come back out of order, from the provider threads; the
+ * container commits an offset only when every event before it was acknowledged too, so an event is not lost when
+ * the service stops with its notifications still queued.
+ */
+@Slf4j
+@Component
+public class DomainEventListener {
+    public static final String LISTENER_ID = "notifications";
+
+    private final NotificationRules notificationRules;
+    private final NotificationCoalescer notificationCoalescer;
+    private final NotificationProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public DomainEventListener(NotificationRules notificationRules, NotificationCoalescer notificationCoalescer,
+                               NotificationProperties properties, ObjectMapper objectMapper) {
+        this.notificationRules = notificationRules;
+        this.notificationCoalescer = notificationCoalescer;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(id = LISTENER_ID, groupId = "${spring.application.name}",
+            topics = {"${app.notifications.order-events-topic:order-events}",
+                    "${app.notifications.delivery-assigned-topic:deliveries.assigned}"})
+    public void onEvent(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        List<Notification> notifications;
+        try {
+            notifications = toNotifications(record);
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring unreadable event from {}: {}", record.topic(), ex.getOriginalMessage());
+            acknowledgment.acknowledge();
+            return;
+        }
+        notificationCoalescer.submit(notifications).whenComplete((result, ex) -> acknowledgment.acknowledge());
+    }
+
+    private List<Notification> toNotifications(ConsumerRecord<String, String> record)
+            throws JsonProcessingException {
+        if (record.topic().equals(properties.getOrderEventsTopic())) {
+            return notificationRules.forOrderEvent(objectMapper.readValue(record.value(), OrderEvent.class));
+        }
+        if (record.topic().equals(properties.getDeliveryAssignedTopic())) {
+            return notificationRules.forDeliveryAssigned(
+                    objectMapper.readValue(record.value(), DeliveryAssignedEvent.class));
+        }
+        return List.of();
+    }
+}
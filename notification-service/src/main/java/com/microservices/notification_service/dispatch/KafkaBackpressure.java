@@ -0,0 +1,34 @@
+package com.microservices.notification_service.dispatch;
+
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pauses the {@link DomainEventListener}'s consumer: it keeps polling, to stay in the group, but fetches nothing
+ * from its partitions until resumed. Records of the poll in progress are still delivered.
+ */
+@Component
+public class KafkaBackpressure implements Backpressure {
+    private final KafkaListenerEndpointRegistry registry;
+
+    public KafkaBackpressure(KafkaListenerEndpointRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void pause() {
+        MessageListenerContainer container = registry.getListenerContainer(DomainEventListener.LISTENER_ID);
+        if (container != null) {
+            container.pause();
+        }
+    }
+
+    @Override
+    public void resume() {
+        MessageListenerContainer container = registry.getListenerContainer(DomainEventListener.LISTENER_ID);
+        if (container != null) {
+            container.resume();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.microservices.notification_service.dispatch;
+
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.enums.RecipientType;
+
+import java.util.UUID;
+
+/**
+ * One message to one recipient over one channel, made from a domain event by {@link NotificationRules}.
+ *
+ * @param recipientId the recipient's id in the service that owns it: a user's id for customers and drivers, the
+ *                    restaurant's id in restaurant-service for restaurants
+ */
+public record Notification(
+        UUID eventId,
+        String eventType,
+        Channel channel,
+        Priority priority,
+        RecipientType recipientType,
+        String recipientId,
+        Long orderId,
+        String message) {
+}
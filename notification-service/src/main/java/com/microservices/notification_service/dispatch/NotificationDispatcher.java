@@ -0,0 +1,143 @@
+package com.microservices.notification_service.dispatch;
+
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.SendStatus;
+import com.microservices.notification_service.history.NotificationHistoryRecorder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends notifications over all channels at once, each channel through its own {@link ChannelDispatcher}.
+ * <p>
+ * Channels do not wait on each other: a slow SMS gateway holds up SMS only, up to its own concurrency limit, while
+ * email and push go on. Provider calls run on virtual threads, so a limit of hundreds of calls in flight costs no
+ * platform threads. Providers with a bulk API get as many notifications per call as they take.
+ * <p>
+ * When any channel has more notifications waiting than it is allowed, {@link Backpressure} pauses the intake of
+ * events until all channels have worked their queues down, rather than letting them grow without bound.
+ * <p>
+ * How each notification ended is handed to the {@link NotificationHistoryRecorder}, which only queues it.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+    private final Map<Channel, ChannelDispatcher> channels = new EnumMap<>(Channel.class);
+    private final Set<Channel> saturated = EnumSet.noneOf(Channel.class);
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Backpressure backpressure;
+    private final NotificationHistoryRecorder history;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder providerCalls = new LongAdder();
+
+    public NotificationDispatcher(List<NotificationProvider> providers, Backpressure backpressure,
+                                  NotificationHistoryRecorder history, NotificationProperties properties) {
+        this.backpressure = backpressure;
+        this.history = history;
+        for (NotificationProvider provider : providers) {
+            channels.put(provider.channel(), new ChannelDispatcher(provider, properties, this, senders));
+        }
+        for (Channel channel : Channel.values()) {
+            if (!channels.containsKey(channel)) {
+                log.warn("No provider for {}, its notifications are dropped", channel);
+            }
+        }
+        channels.values().forEach(ChannelDispatcher::start);
+    }
+
+    /**
+     * Queues the notifications on their channels.
+     *
+     * @return completed once every notification was sent or given up on
+     */
+    public CompletableFuture<Void> dispatch(List<Notification> notifications) {
+        CompletableFuture<?>[] done = new CompletableFuture<?>[notifications.size()];
+        for (int i = 0; i < done.length; i++) {
+            Notification notification = notifications.get(i);
+            ChannelDispatcher channel = channels.get(notification.channel());
+            if (channel == null) {
+                failed(List.of(notification));
+                done[i] = CompletableFuture.completedFuture(null);
+            } else {
+                done[i] = channel.enqueue(notification);
+            }
+        }
+        return CompletableFuture.allOf(done);
+    }
+
+    /**
+     * @return notifications waiting for a provider call
+     */
+    public int queuedCount() {
+        return channels.values().stream().mapToInt(ChannelDispatcher::queuedCount).sum();
+    }
+
+    /**
+     * @return notifications sent since startup
+     */
+    public long sentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * @return notifications given up on since startup
+     */
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return successful provider calls since startup, each carrying one or more notifications
+     */
+    public long providerCallCount() {
+        return providerCalls.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        channels.values().forEach(ChannelDispatcher::stop);
+        senders.shutdown();
+        if (!senders.awaitTermination(10, TimeUnit.SECONDS)) {
+            senders.shutdownNow();
+        }
+    }
+
+    synchronized void saturationChanged(Channel channel, boolean isSaturated) {
+        boolean wasPaused = !saturated.isEmpty();
+        if (isSaturated) {
+            saturated.add(channel);
+        } else {
+            saturated.remove(channel);
+        }
+        if (!wasPaused && !saturated.isEmpty()) {
+            log.info("{} notifications are piling up, pausing event consumption", channel);
+            backpressure.pause();
+        } else if (wasPaused && saturated.isEmpty()) {
+            log.info("Notifications caught up, resuming event consumption");
+            backpressure.resume();
+        }
+    }
+
+    void sent(List<Notification> notifications) {
+        sent.add(notifications.size());
+        providerCalls.increment();
+        history.record(notifications, SendStatus.SENT);
+    }
+
+    void failed(List<Notification> notifications) {
+        failed.add(notifications.size());
+        history.record(notifications, SendStatus.FAILED);
+    }
+}
@@ -0,0 +1,67 @@
+package com.microservices.notification_service.dispatch;
+
+import com.microservices.notification_service.enums.Channel;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for sending notifications, see {@link NotificationDispatcher}. {@link #channels} overrides the default
+ * settings per channel.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.notifications")
+public class NotificationProperties {
+    private String orderEventsTopic = "order-events";
+
+    private String deliveryAssignedTopic = "deliveries.assigned";
+
+    /**
+     * Calls made to a provider for the same notifications before giving up on them.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Wait before the second attempt, doubled before each further one.
+     */
+    private Duration retryBackoff = Duration.ofMillis(500);
+
+    /**
+     * Default settings applied to channels without an override.
+     */
+    private ChannelSettings defaults = new ChannelSettings();
+
+    private Map<Channel, ChannelSettings> channels = new EnumMap<>(Channel.class);
+
+    public ChannelSettings settingsFor(Channel channel) {
+        return channels.getOrDefault(channel, defaults);
+    }
+
+    @Data
+    public static class ChannelSettings {
+        /**
+         * Calls to the channel's provider in flight at once.
+         */
+        private int concurrency = 16;
+
+        /**
+         * Notifications waiting for the channel at which event consumption is paused. It resumes once half of them
+         * are sent.
+         */
+        private int maxQueued = 10_000;
+
+        /**
+         * How long normal notifications wait for others to fill a bulk call. Critical ones do not wait.
+         */
+        private Duration linger = Duration.ofMillis(50);
+
+        /**
+         * While both lanes have notifications waiting, every n-th call starts with the normal lane, so critical ones
+         * cannot hold the others back indefinitely.
+         */
+        private int normalEvery = 4;
+    }
+}
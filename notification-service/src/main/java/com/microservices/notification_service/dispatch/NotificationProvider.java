@@ -0,0 +1,24 @@
+package com.microservices.notification_service.dispatch;
+
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.exception.NotificationDeliveryException;
+
+import java.util.List;
+
+/**
+ * Sends notifications over one channel, e.g. through an email or SMS gateway. Called from many threads at once, up
+ * to the channel's {@code concurrency}; each call must be bounded in time.
+ */
+public interface NotificationProvider {
+    Channel channel();
+
+    /**
+     * @return most notifications one call may carry, 1 if the provider has no bulk API
+     */
+    int maxBatchSize();
+
+    /**
+     * Sends all the notifications or, by throwing, none of them; they are then retried together.
+     */
+    void send(List<Notification> notifications) throws NotificationDeliveryException;
+}
@@ -0,0 +1,75 @@
+package com.microservices.notification_service.dispatch;
+
+import com.microservices.notification_service.dto.event.DeliveryAssignedEvent;
+import com.microservices.notification_service.dto.event.OrderEvent;
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.enums.RecipientType;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Decides who is told what, over which channels, for each domain event:
+ * <ul>
+ *     <li>{@code ORDER_CREATED}: email receipt to the customer</li>
+ *     <li>{@code ORDER_CONFIRMED}: SMS to the customer and the restaurant</li>
+ *     <li>{@code ORDER_PREPARING}, {@code ORDER_READY}: push to the customer</li>
+ *     <li>{@code ORDER_CANCELLED}: push and email to the customer</li>
+ *     <li>{@code DELIVERY_ASSIGNED}: push to the customer and the driver</li>
+ * </ul>
+ * All but the receipt are about an order someone is waiting on, and are critical. Status updates that follow each
+ * other within seconds are merged before sending, see {@code NotificationCoalescer}.
+ */
+@Component
+public class NotificationRules {
+
+    public List<Notification> forOrderEvent(OrderEvent event) {
+        if (event.eventType() == null) {
+            return List.of();
+        }
+        return switch (event.eventType()) {
+            case OrderEvent.ORDER_CREATED -> List.of(
+                    toCustomer(event, Channel.EMAIL, Priority.NORMAL,
+                            "Receipt for order #%d: %s".formatted(event.orderId(), event.totalAmount())));
+            case OrderEvent.ORDER_CONFIRMED -> List.of(
+                    toCustomer(event, Channel.SMS, Priority.CRITICAL,
+                            "Your order #%d was confirmed".formatted(event.orderId())),
+                    new Notification(event.eventId(), event.eventType(), Channel.SMS, Priority.CRITICAL,
+                            RecipientType.RESTAURANT, event.restaurantId(), event.orderId(),
+                            "New order #%d to prepare".formatted(event.orderId())));
+            case OrderEvent.ORDER_PREPARING -> List.of(
+                    toCustomer(event, Channel.PUSH, Priority.CRITICAL,
+                            "Your order #%d is being prepared".formatted(event.orderId())));
+            case OrderEvent.ORDER_READY -> List.of(
+                    toCustomer(event, Channel.PUSH, Priority.CRITICAL,
+                            "Your order #%d is ready and waiting for its driver".formatted(event.orderId())));
+            case OrderEvent.ORDER_CANCELLED -> {
+                String message = "Your order #%d was cancelled".formatted(event.orderId());
+                yield List.of(toCustomer(event, Channel.PUSH, Priority.CRITICAL, message),
+                        toCustomer(event, Channel.EMAIL, Priority.CRITICAL, message));
+            }
+            default -> List.of();
+        };
+    }
+
+    public List<Notification> forDeliveryAssigned(DeliveryAssignedEvent event) {
+        return List.of(
+                new Notification(event.eventId(), DeliveryAssignedEvent.DELIVERY_ASSIGNED, Channel.PUSH,
+                        Priority.CRITICAL, RecipientType.CUSTOMER, idOf(event.userId()), event.orderId(),
+                        "A driver is on the way to pick up order #%d".formatted(event.orderId())),
+                new Notification(event.eventId(), DeliveryAssignedEvent.DELIVERY_ASSIGNED, Channel.PUSH,
+                        Priority.CRITICAL, RecipientType.DRIVER, idOf(event.driverId()), event.orderId(),
+                        "Pick up order #%d, %.0f m away".formatted(event.orderId(),
+                                event.pickupDistanceMeters())));
+    }
+
+    private static Notification toCustomer(OrderEvent event, Channel channel, Priority priority, String message) {
+        return new Notification(event.eventId(), event.eventType(), channel, priority, RecipientType.CUSTOMER,
+                idOf(event.userId()), event.orderId(), message);
+    }
+
+    private static String idOf(Long id) {
+        return id != null ? id.toString() : null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.microservices.notification_service.dto.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by delivery-service on {@code app.notifications.delivery-assigned-topic} once a driver has been given a
+ * delivery.
+ */
+public record DeliveryAssignedEvent(
+        UUID eventId,
+        Long orderId,
+        Long userId,
+        String restaurantId,
+        Long driverId,
+        Double pickupDistanceMeters,
+        Instant assignedAt) {
+
+    public static final String DELIVERY_ASSIGNED = "DELIVERY_ASSIGNED";
+}
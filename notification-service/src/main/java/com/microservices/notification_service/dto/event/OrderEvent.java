@@ -0,0 +1,25 @@
+package com.microservices.notification_service.dto.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Order event published by order-service on {@code app.notifications.order-events-topic}.
+ */
+public record OrderEvent(
+        UUID eventId,
+        String eventType,
+        Long orderId,
+        Long userId,
+        String restaurantId,
+        String status,
+        BigDecimal totalAmount,
+        LocalDateTime occurredAt) {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDER_CONFIRMED = "ORDER_CONFIRMED";
+    public static final String ORDER_PREPARING = "ORDER_PREPARING";
+    public static final String ORDER_READY = "ORDER_READY";
+    public static final String ORDER_CANCELLED = "ORDER_CANCELLED";
+}
@@ -0,0 +1,21 @@
+package com.microservices.notification_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageResponse {
+    private List<NotificationResponse> notifications;
+
+    /**
+     * Passed back as {@code cursor} to get the next page, {@code null} on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,38 @@
+package com.microservices.notification_service.dto.response;
+
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.SendStatus;
+import com.microservices.notification_service.history.NotificationRecord;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationResponse {
+    private UUID id;
+    private String eventType;
+    private Long orderId;
+    private Channel channel;
+    private SendStatus status;
+    private String message;
+    private Instant sentAt;
+
+    public static NotificationResponse of(NotificationRecord record) {
+        return NotificationResponse.builder()
+                .id(record.id())
+                .eventType(record.eventType())
+                .orderId(record.orderId())
+                .channel(record.channel())
+                .status(record.status())
+                .message(record.message())
+                .sentAt(record.sentAt())
+                .build();
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.notification_service.enums;
+
+public enum Channel {
+    EMAIL,
+    SMS,
+    PUSH
+}
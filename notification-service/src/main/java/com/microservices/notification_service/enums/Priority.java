@@ -0,0 +1,10 @@
+package com.microservices.notification_service.enums;
+
+/**
+ * Lane a notification waits in before it is sent; critical ones are those about an order the customer is waiting
+ * on, and go ahead of the rest.
+ */
+public enum Priority {
+    CRITICAL,
+    NORMAL
+}
@@ -0,0 +1,6 @@
+package com.microservices.notification_service.enums;
+
+public enum SendStatus {
+    SENT,
+    FAILED
+}
@@ -0,0 +1,20 @@
+package com.microservices.notification_service.exception;
+
+import com.microservices.notification_service.dto.response.APIResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<APIResponse<?>> handleInvalidCursor(InvalidCursorException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiResponse);
+    }
+}
@@ -0,0 +1,11 @@
+package com.microservices.notification_service.exception;
+
+public class NotificationDeliveryException extends Exception {
+    public NotificationDeliveryException(String message) {
+        super(message);
+    }
+
+    public NotificationDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package com.microservices.notification_service.history;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Schedules the {@link NotificationHistoryRecorder}'s flushes and the {@link HistoryPartitions}' upkeep.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(HistoryProperties.class)
+public class HistoryConfig {
+}
@@ -0,0 +1,43 @@
+package com.microservices.notification_service.history;
+
+import com.microservices.notification_service.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Where a page of history ended: the last row's send time and id. Handed to clients as an opaque string, so that
+ * the next page starts right after that row however many were recorded meanwhile.
+ */
+public record HistoryCursor(Instant sentAt, UUID id) {
+    private static final String SEPARATOR = "|";
+
+    public static HistoryCursor after(NotificationRecord record) {
+        return new HistoryCursor(record.sentAt(), record.id());
+    }
+
+    /**
+     * @throws InvalidCursorException if the string was not made by {@link #encode()}
+     */
+    public static HistoryCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return new HistoryCursor(Instant.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sentAt + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
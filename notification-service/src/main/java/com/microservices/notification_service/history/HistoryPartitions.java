@@ -0,0 +1,133 @@
+package com.microservices.notification_service.history;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps notification history in one PostgreSQL partition per UTC day.
+ * <p>
+ * Inserts of a day all go to the end of that day's partition and its index, which stay small enough to be cached,
+ * and retention drops whole partitions instead of deleting rows and leaving the table to be vacuumed. Partitions
+ * are created {@code app.notifications.history.partitions-ahead} days in advance, and dropped once all their rows
+ * are older than {@code retention}. The partitions are ordered by time, so a recipient's newest rows are read from
+ * the latest partitions first and older ones are only searched as far as a page needs.
+ * <p>
+ * Upkeep runs on startup and then every {@code maintenance-interval-ms}; a run that fails, say with the database
+ * down, is made up by the next one.
+ */
+@Slf4j
+@Component
+public class HistoryPartitions {
+    private static final String TABLE = NotificationHistoryWriter.TABLE;
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+            + "id UUID NOT NULL, "
+            + "sent_at TIMESTAMPTZ NOT NULL, "
+            + "event_id UUID, "
+            + "event_type VARCHAR(40), "
+            + "channel VARCHAR(10) NOT NULL, "
+            + "priority VARCHAR(10) NOT NULL, "
+            + "recipient_type VARCHAR(12) NOT NULL, "
+            + "recipient_id VARCHAR(64), "
+            + "order_id BIGINT, "
+            + "status VARCHAR(10) NOT NULL, "
+            + "message TEXT"
+            + ") PARTITION BY RANGE (sent_at)";
+
+    private static final String CREATE_INDEX = "CREATE INDEX IF NOT EXISTS " + TABLE + "_recipient_idx ON " + TABLE
+            + " (recipient_type, recipient_id, sent_at DESC, id DESC)";
+
+    private static final String LIST_PARTITIONS = "SELECT child.relname FROM pg_inherits "
+            + "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent "
+            + "JOIN pg_class child ON child.oid = pg_inherits.inhrelid "
+            + "WHERE parent.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HistoryProperties properties;
+    private final Clock clock;
+
+    public HistoryPartitions(JdbcTemplate jdbcTemplate, HistoryProperties properties) {
+        this(jdbcTemplate, properties, Clock.systemUTC());
+    }
+
+    HistoryPartitions(JdbcTemplate jdbcTemplate, HistoryProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the table and the partitions of the coming days, and drops those past retention.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.history.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        try {
+            jdbcTemplate.execute(CREATE_TABLE);
+            jdbcTemplate.execute(CREATE_INDEX);
+            LocalDate today = LocalDate.now(clock);
+            for (LocalDate day : toCreate(today, properties.getPartitionsAhead())) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day) + " PARTITION OF " + TABLE
+                        + " FOR VALUES FROM ('" + day + "T00:00:00Z') TO ('" + day.plusDays(1) + "T00:00:00Z')");
+            }
+            List<String> existing = jdbcTemplate.queryForList(LIST_PARTITIONS, String.class, TABLE);
+            for (String partition : toDrop(existing, today, properties.getRetention())) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped notification history partition {}", partition);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Notification history partition upkeep failed, retrying on the next run: {}", ex.getMessage());
+        }
+    }
+
+    static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * @return today's partition and those of the following days
+     */
+    static List<LocalDate> toCreate(LocalDate today, int daysAhead) {
+        List<LocalDate> days = new ArrayList<>(daysAhead + 1);
+        for (int i = 0; i <= daysAhead; i++) {
+            days.add(today.plusDays(i));
+        }
+        return days;
+    }
+
+    /**
+     * @return the partitions whose day ended before the retention period began; names not made by
+     * {@link #partitionName} are left alone
+     */
+    static List<String> toDrop(Collection<String> partitions, LocalDate today, Duration retention) {
+        LocalDate oldestKept = today.atStartOfDay(ZoneOffset.UTC).minus(retention).toLocalDate();
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            try {
+                LocalDate day = LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+                if (day.isBefore(oldestKept)) {
+                    expired.add(partition);
+                }
+            } catch (DateTimeParseException ex) {
+                // Not one of ours
+            }
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,33 @@
+package com.microservices.notification_service.history;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for recording notification history, see {@link NotificationHistoryRecorder}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.notifications.history")
+public class HistoryProperties {
+    /**
+     * Rows written per JDBC batch.
+     */
+    private int flushBatchSize = 5_000;
+
+    /**
+     * Rows kept in memory while the database cannot be written. Beyond it, the oldest are dropped.
+     */
+    private int maxPending = 1_000_000;
+
+    /**
+     * Daily partitions entirely older than this are dropped.
+     */
+    private Duration retention = Duration.ofDays(30);
+
+    /**
+     * Daily partitions created in advance, so that rows never arrive before their partition.
+     */
+    private int partitionsAhead = 3;
+}
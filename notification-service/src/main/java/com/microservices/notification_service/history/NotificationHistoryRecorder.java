@@ -0,0 +1,117 @@
+package com.microservices.notification_service.history;
+
+import com.microservices.notification_service.dispatch.Notification;
+import com.microservices.notification_service.enums.SendStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records every notification sent or given up on, without making sending wait for the database.
+ * <p>
+ * Recording only appends to an in-memory queue; a flush every {@code app.notifications.history.flush-interval-ms}
+ * writes what was queued in JDBC batches of {@code flush-batch-size}. While the database cannot be written, rows
+ * stay queued for the next flush, up to {@code max-pending}, beyond which the oldest are dropped. Rows queued when
+ * the service crashes are lost; the notifications themselves were sent.
+ */
+@Slf4j
+@Component
+public class NotificationHistoryRecorder {
+    private final ConcurrentLinkedQueue<NotificationRecord> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final NotificationHistoryWriter writer;
+    private final HistoryProperties properties;
+
+    public NotificationHistoryRecorder(NotificationHistoryWriter writer, HistoryProperties properties) {
+        this.writer = writer;
+        this.properties = properties;
+    }
+
+    public void record(List<Notification> notifications, SendStatus status) {
+        // Truncated to what the database keeps, so that cursors made from queued rows match the stored ones
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        for (Notification notification : notifications) {
+            queue(NotificationRecord.of(notification, status, now));
+        }
+    }
+
+    /**
+     * Writes the rows queued so far. What cannot be written is kept for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.history.flush-interval-ms:500}")
+    public synchronized void flush() {
+        int batchSize = properties.getFlushBatchSize();
+        List<NotificationRecord> batch = new ArrayList<>(batchSize);
+        NotificationRecord record;
+        // Rows queued while flushing wait for the next flush, so a steady stream cannot keep this one going
+        int toWrite = pendingSize.get();
+        while (toWrite-- > 0 && (record = pending.poll()) != null) {
+            pendingSize.decrementAndGet();
+            batch.add(record);
+            if (batch.size() == batchSize) {
+                if (!append(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            append(batch);
+        }
+    }
+
+    public int pendingCount() {
+        return pendingSize.get();
+    }
+
+    /**
+     * @return rows written since startup
+     */
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    /**
+     * @return rows dropped since startup, queued while the database could not be written
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean append(List<NotificationRecord> batch) {
+        try {
+            writer.append(batch);
+            written.add(batch.size());
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Writing {} notification history rows failed, retrying on the next flush: {}", batch.size(),
+                    ex.getMessage());
+            batch.forEach(this::queue);
+            return false;
+        }
+    }
+
+    private void queue(NotificationRecord record) {
+        pending.add(record);
+        if (pendingSize.incrementAndGet() > properties.getMaxPending() && pending.poll() != null) {
+            pendingSize.decrementAndGet();
+            dropped.increment();
+        }
+    }
+}
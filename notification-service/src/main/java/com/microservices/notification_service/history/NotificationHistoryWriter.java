@@ -0,0 +1,101 @@
+package com.microservices.notification_service.history;
+
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.enums.RecipientType;
+import com.microservices.notification_service.enums.SendStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends notification history with JDBC batches, which the driver rewrites into multi-row inserts, and reads a
+ * recipient's history newest first, a page at a time.
+ * <p>
+ * Rows are only ever inserted, into the partition of the day they were sent, see {@link HistoryPartitions}; there
+ * is no primary key to maintain, only the index that serves {@link #findByRecipient}.
+ */
+@Component
+public class NotificationHistoryWriter {
+    static final String TABLE = "notification_history";
+
+    private static final String INSERT = "INSERT INTO " + TABLE + " (id, sent_at, event_id, event_type, channel, "
+            + "priority, recipient_type, recipient_id, order_id, status, message) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT = "SELECT id, sent_at, event_id, event_type, channel, priority, "
+            + "recipient_type, recipient_id, order_id, status, message FROM " + TABLE + " "
+            + "WHERE recipient_type = ? AND recipient_id = ? ";
+
+    private static final String NEWEST_FIRST = "ORDER BY sent_at DESC, id DESC LIMIT ?";
+
+    private static final RowMapper<NotificationRecord> ROW_MAPPER = (rs, rowNum) -> new NotificationRecord(
+            rs.getObject("id", UUID.class),
+            rs.getTimestamp("sent_at").toInstant(),
+            rs.getObject("event_id", UUID.class),
+            rs.getString("event_type"),
+            Channel.valueOf(rs.getString("channel")),
+            Priority.valueOf(rs.getString("priority")),
+            RecipientType.valueOf(rs.getString("recipient_type")),
+            rs.getString("recipient_id"),
+            rs.getObject("order_id", Long.class),
+            SendStatus.valueOf(rs.getString("status")),
+            rs.getString("message"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationHistoryWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts all the rows or, failing, none of them, so that they can be written again without duplicates.
+     */
+    @Transactional
+    public void append(List<NotificationRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                NotificationRecord record = records.get(i);
+                ps.setObject(1, record.id());
+                ps.setTimestamp(2, Timestamp.from(record.sentAt()));
+                ps.setObject(3, record.eventId());
+                ps.setString(4, record.eventType());
+                ps.setString(5, record.channel().name());
+                ps.setString(6, record.priority().name());
+                ps.setString(7, record.recipientType().name());
+                ps.setString(8, record.recipientId());
+                ps.setObject(9, record.orderId(), Types.BIGINT);
+                ps.setString(10, record.status().name());
+                ps.setString(11, record.message());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+    }
+
+    /**
+     * @param before the last row of the previous page, {@code null} for the first page
+     * @return up to {@code limit} rows of the recipient sent before {@code before}, newest first
+     */
+    public List<NotificationRecord> findByRecipient(RecipientType recipientType, String recipientId,
+                                                    HistoryCursor before, int limit) {
+        if (before == null) {
+            return jdbcTemplate.query(SELECT + NEWEST_FIRST, ROW_MAPPER, recipientType.name(), recipientId, limit);
+        }
+        return jdbcTemplate.query(SELECT + "AND (sent_at, id) < (?, ?) " + NEWEST_FIRST, ROW_MAPPER,
+                recipientType.name(), recipientId, Timestamp.from(before.sentAt()), before.id(), limit);
+    }
+}
@@ -0,0 +1,45 @@
+package com.microservices.notification_service.history;
+
+import com.microservices.notification_service.dispatch.Notification;
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.enums.RecipientType;
+import com.microservices.notification_service.enums.SendStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One row of notification history: a notification and how sending it ended.
+ */
+public record NotificationRecord(
+        UUID id,
+        Instant sentAt,
+        UUID eventId,
+        String eventType,
+        Channel channel,
+        Priority priority,
+        RecipientType recipientType,
+        String recipientId,
+        Long orderId,
+        SendStatus status,
+        String message) {
+
+    public static NotificationRecord of(Notification notification, SendStatus status, Instant sentAt) {
+        return new NotificationRecord(newId(), sentAt, notification.eventId(), notification.eventType(),
+                notification.channel(), notification.priority(), notification.recipientType(),
+                notification.recipientId(), notification.orderId(), status, notification.message());
+    }
+
+    /**
+     * A random version 4 UUID, from a thread-local generator rather than the shared {@code SecureRandom} of
+     * {@link UUID#randomUUID()}, which every sending thread would contend on. Ids need not be unguessable.
+     */
+    private static UUID newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long low = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(high, low);
+    }
+}
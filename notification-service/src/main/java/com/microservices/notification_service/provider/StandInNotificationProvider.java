@@ -0,0 +1,52 @@
+package com.microservices.notification_service.provider;
+
+import com.microservices.notification_service.dispatch.Notification;
+import com.microservices.notification_service.dispatch.NotificationProvider;
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.exception.NotificationDeliveryException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Logs notifications instead of sending them, after waiting as long as a call to a real gateway would take.
+ */
+@Slf4j
+public class StandInNotificationProvider implements NotificationProvider {
+    private final Channel channel;
+    private final Duration latency;
+    private final int maxBatchSize;
+
+    public StandInNotificationProvider(Channel channel, Duration latency, int maxBatchSize) {
+        this.channel = channel;
+        this.latency = latency;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public Channel channel() {
+        return channel;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public void send(List<Notification> notifications) throws NotificationDeliveryException {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new NotificationDeliveryException("Interrupted", ex);
+        }
+        if (log.isDebugEnabled()) {
+            for (Notification notification : notifications) {
+                log.debug("{} to {} {}: {}", channel, notification.recipientType(), notification.recipientId(),
+                        notification.message());
+            }
+        }
+    }
+}
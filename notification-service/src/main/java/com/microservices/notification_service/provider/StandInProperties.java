@@ -0,0 +1,40 @@
+package com.microservices.notification_service.provider;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link StandInNotificationProvider}s used in place of real gateways, modelled on typical ones:
+ * bulk email and push APIs, and SMS sent one message per call.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.notifications.stand-in")
+public class StandInProperties {
+    private boolean enabled = true;
+
+    private Gateway email = new Gateway(Duration.ofMillis(80), 100);
+
+    private Gateway sms = new Gateway(Duration.ofMillis(150), 1);
+
+    private Gateway push = new Gateway(Duration.ofMillis(40), 500);
+
+    @Data
+    public static class Gateway {
+        /**
+         * Time one call takes, however many notifications it carries.
+         */
+        private Duration latency;
+
+        private int maxBatchSize;
+
+        public Gateway() {
+        }
+
+        Gateway(Duration latency, int maxBatchSize) {
+            this.latency = latency;
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.microservices.notification_service.provider;
+
+import com.microservices.notification_service.enums.Channel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers stand-in providers for all channels, until real gateways are configured and
+ * {@code app.notifications.stand-in.enabled} is turned off.
+ */
+@Configuration
+@EnableConfigurationProperties(StandInProperties.class)
+@ConditionalOnProperty(prefix = "app.notifications.stand-in", name = "enabled", matchIfMissing = true)
+public class StandInProviderConfig {
+
+    @Bean
+    public StandInNotificationProvider standInEmailProvider(StandInProperties properties) {
+        return provider(Channel.EMAIL, properties.getEmail());
+    }
+
+    @Bean
+    public StandInNotificationProvider standInSmsProvider(StandInProperties properties) {
+        return provider(Channel.SMS, properties.getSms());
+    }
+
+    @Bean
+    public StandInNotificationProvider standInPushProvider(StandInProperties properties) {
+        return provider(Channel.PUSH, properties.getPush());
+    }
+
+    private static StandInNotificationProvider provider(Channel channel, StandInProperties.Gateway gateway) {
+        return new StandInNotificationProvider(channel, gateway.getLatency(), gateway.getMaxBatchSize());
+    }
+}
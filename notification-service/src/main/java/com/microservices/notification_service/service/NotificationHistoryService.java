@@ -0,0 +1,12 @@
+package com.microservices.notification_service.service;
+
+import com.microservices.notification_service.dto.response.NotificationPageResponse;
+
+public interface NotificationHistoryService {
+    /**
+     * A page of the notifications sent to the customer, newest first.
+     *
+     * @param cursor the previous page's {@code nextCursor}, {@code null} for the first page
+     */
+    NotificationPageResponse getHistory(Long userId, String cursor, int size);
+}
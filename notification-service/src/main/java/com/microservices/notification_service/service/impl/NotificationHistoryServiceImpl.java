@@ -0,0 +1,36 @@
+package com.microservices.notification_service.service.impl;
+
+import com.microservices.notification_service.dto.response.NotificationPageResponse;
+import com.microservices.notification_service.dto.response.NotificationResponse;
+import com.microservices.notification_service.enums.RecipientType;
+import com.microservices.notification_service.history.HistoryCursor;
+import com.microservices.notification_service.history.NotificationHistoryWriter;
+import com.microservices.notification_service.history.NotificationRecord;
+import com.microservices.notification_service.service.NotificationHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationHistoryServiceImpl implements NotificationHistoryService {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final NotificationHistoryWriter notificationHistoryWriter;
+
+    @Override
+    public NotificationPageResponse getHistory(Long userId, String cursor, int size) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        HistoryCursor before = cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+        // One row more than asked tells whether there is a next page
+        List<NotificationRecord> records =
+                notificationHistoryWriter.findByRecipient(RecipientType.CUSTOMER, String.valueOf(userId), before,
+                        limit + 1);
+        List<NotificationRecord> page = records.size() > limit ? records.subList(0, limit) : records;
+        return NotificationPageResponse.builder()
+                .notifications(page.stream().map(NotificationResponse::of).toList())
+                .nextCursor(records.size() > limit ? HistoryCursor.after(page.getLast()).encode() : null)
+                .build();
+    }
+}
@@ -0,0 +1,378 @@
+package com.microservices.notification_service.coalesce;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.notification_service.dispatch.Backpressure;
+import com.microservices.notification_service.dispatch.DomainEventListener;
+import com.microservices.notification_service.dispatch.Notification;
+import com.microservices.notification_service.dispatch.NotificationDispatcher;
+import com.microservices.notification_service.dispatch.NotificationProperties;
+import com.microservices.notification_service.dispatch.NotificationProvider;
+import com.microservices.notification_service.dispatch.NotificationRules;
+import com.microservices.notification_service.dto.event.OrderEvent;
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.enums.RecipientType;
+import com.microservices.notification_service.history.HistoryProperties;
+import com.microservices.notification_service.history.NotificationHistoryRecorder;
+import com.microservices.notification_service.history.NotificationHistoryWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Replays streams of order events through the listener, the coalescer and the dispatcher on a clock the test moves,
+ * redelivering some of them, and checks what reached the gateways and what was counted as suppressed.
+ */
+class NotificationCoalescerTest {
+    private static final Logger log = LoggerFactory.getLogger(NotificationCoalescerTest.class);
+    private static final int REPLAY_ORDERS = Integer.getInteger("coalescing.replay.orders", 20_000);
+    private static final Duration WINDOW = Duration.ofSeconds(3);
+    private static final String TOPIC = new NotificationProperties().getOrderEventsTopic();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplayClock clock = new ReplayClock();
+    private final AtomicInteger acknowledged = new AtomicInteger();
+    private final Map<Channel, RecordingProvider> providers = new EnumMap<>(Channel.class);
+    private NotificationDispatcher dispatcher;
+    private NotificationCoalescer coalescer;
+    private DomainEventListener listener;
+    private long offset;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void sendsOnePushForABurstOfStatusUpdates() throws InterruptedException {
+        start(new CoalescingProperties());
+        List<Replayed> stream = lifecycle(1, 0, 500, 500, 1_000);
+
+        replay(stream);
+
+        assertThat(messagesTo(Channel.PUSH, RecipientType.CUSTOMER, 1))
+                .containsExactly("Your order #1 is ready and waiting for its driver");
+        assertThat(messagesTo(Channel.SMS, RecipientType.CUSTOMER, 1)).containsExactly("Your order #1 was confirmed");
+        assertThat(messagesTo(Channel.SMS, RecipientType.RESTAURANT, 1)).containsExactly("New order #1 to prepare");
+        assertThat(messagesTo(Channel.EMAIL, RecipientType.CUSTOMER, 1)).hasSize(1);
+        assertThat(suppressed(NotificationCoalescer.COALESCED, Channel.PUSH)).isEqualTo(1);
+        assertThat(suppressed(NotificationCoalescer.COALESCED, Channel.SMS)).isZero();
+        assertThat(acknowledged).hasValue(stream.size());
+        assertThat(coalescer.heldCount()).isZero();
+    }
+
+    @Test
+    void acknowledgesRedeliveredEventsWithoutSendingAgain() throws InterruptedException {
+        start(new CoalescingProperties());
+        List<Replayed> stream = lifecycle(1, 0, 500, 500, 1_000);
+        replay(stream);
+        int sent = sentCount();
+
+        // As after a rebalance, before the offsets were committed
+        replay(shift(stream, 10_000));
+
+        assertThat(sentCount()).isEqualTo(sent);
+        assertThat(suppressed(NotificationCoalescer.DUPLICATE, Channel.SMS)).isEqualTo(2);
+        assertThat(suppressed(NotificationCoalescer.DUPLICATE, Channel.PUSH)).isEqualTo(2);
+        assertThat(suppressed(NotificationCoalescer.DUPLICATE, Channel.EMAIL)).isEqualTo(1);
+        assertThat(acknowledged).hasValue(stream.size() * 2);
+    }
+
+    @Test
+    void sendsUpdatesFurtherApartThanTheWindowOnTheirOwn() throws InterruptedException {
+        start(new CoalescingProperties());
+
+        replay(lifecycle(1, 0, 4_000, 4_000, 4_000));
+
+        assertThat(messagesTo(Channel.PUSH, RecipientType.CUSTOMER, 1)).containsExactly(
+                "Your order #1 is being prepared",
+                "Your order #1 is ready and waiting for its driver");
+        assertThat(suppressed(NotificationCoalescer.COALESCED, Channel.PUSH)).isZero();
+    }
+
+    @Test
+    void mergesTheOrdersOfOneRecipientIntoOneMessage() throws InterruptedException {
+        start(new CoalescingProperties());
+        List<Replayed> stream = new ArrayList<>();
+        for (long orderId = 1; orderId <= 3; orderId++) {
+            OrderEvent confirmed = orderEvent(OrderEvent.ORDER_CONFIRMED, orderId, orderId, "7");
+            stream.add(new Replayed(orderId * 100, confirmed));
+        }
+
+        replay(stream);
+
+        assertThat(messagesTo(Channel.SMS, RecipientType.RESTAURANT, 7))
+                .containsExactly("New order #1 to prepare\nNew order #2 to prepare\nNew order #3 to prepare");
+        assertThat(providers.get(Channel.SMS).sent).filteredOn(n -> n.recipientType() == RecipientType.RESTAURANT)
+                .singleElement()
+                .satisfies(merged -> {
+                    assertThat(merged.orderId()).isNull();
+                    assertThat(merged.priority()).isEqualTo(Priority.CRITICAL);
+                });
+        assertThat(messagesTo(Channel.SMS, RecipientType.CUSTOMER, 2)).containsExactly("Your order #2 was confirmed");
+        assertThat(suppressed(NotificationCoalescer.COALESCED, Channel.SMS)).isEqualTo(2);
+    }
+
+    @Test
+    void sendsWhatIsHeldBeforeAnUpdateThatIsNotMerged() throws InterruptedException {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setEventTypes(Set.of(OrderEvent.ORDER_CONFIRMED, OrderEvent.ORDER_PREPARING));
+        start(properties);
+
+        replay(lifecycle(1, 0, 500, 500, 1_000));
+
+        assertThat(messagesTo(Channel.PUSH, RecipientType.CUSTOMER, 1)).containsExactly(
+                "Your order #1 is being prepared",
+                "Your order #1 is ready and waiting for its driver");
+    }
+
+    @Test
+    void sendsEachUpdateWithoutAWindow() throws InterruptedException {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setWindow(Duration.ZERO);
+        start(properties);
+
+        replay(lifecycle(1, 0, 10, 10, 10));
+
+        assertThat(messagesTo(Channel.PUSH, RecipientType.CUSTOMER, 1)).hasSize(2);
+        assertThat(coalescer.heldCount()).isZero();
+    }
+
+    @Test
+    void replaysABusyStreamWithRedeliveries() throws InterruptedException {
+        start(new CoalescingProperties());
+        Random random = new Random(24);
+        List<Replayed> stream = new ArrayList<>();
+        for (long orderId = 1; orderId <= REPLAY_ORDERS; orderId++) {
+            long placedAt = random.nextInt(600_000);
+            // Confirmed, preparing and ready within the window, the way a busy kitchen moves
+            stream.addAll(lifecycle(orderId, placedAt, 200 + random.nextInt(1_800), 100 + random.nextInt(400),
+                    100 + random.nextInt(500)));
+        }
+        // One in twenty events comes again up to a minute later
+        List<Replayed> redelivered = stream.stream()
+                .filter(replayed -> random.nextInt(20) == 0)
+                .map(replayed -> new Replayed(replayed.atMillis() + random.nextInt(60_000), replayed.event()))
+                .toList();
+        stream.addAll(redelivered);
+        stream.sort(Comparator.comparingLong(Replayed::atMillis));
+
+        NotificationRules rules = new NotificationRules();
+        Map<Channel, Integer> withoutCoalescing = new EnumMap<>(Channel.class);
+        for (Replayed replayed : stream) {
+            rules.forOrderEvent(replayed.event())
+                    .forEach(n -> withoutCoalescing.merge(n.channel(), 1, Integer::sum));
+        }
+
+        long start = System.nanoTime();
+        replay(stream);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        for (Channel channel : List.of(Channel.SMS, Channel.PUSH, Channel.EMAIL)) {
+            double duplicates = suppressed(NotificationCoalescer.DUPLICATE, channel);
+            double coalesced = suppressed(NotificationCoalescer.COALESCED, channel);
+            int sent = providers.get(channel).sent.size();
+            log.info("{}: {} notifications from {} events ({} redelivered), {} sent, {} duplicates and {} merged "
+                            + "suppressed ({}% fewer sends), replayed in {} ms", channel,
+                    withoutCoalescing.get(channel), stream.size(), redelivered.size(), sent, Math.round(duplicates),
+                    Math.round(coalesced),
+                    Math.round(100.0 * (withoutCoalescing.get(channel) - sent) / withoutCoalescing.get(channel)),
+                    Math.round(seconds * 1000));
+            assertThat(sent + duplicates + coalesced).isEqualTo(withoutCoalescing.get(channel).doubleValue());
+        }
+        long customerSms = providers.get(Channel.SMS).sent.stream()
+                .filter(n -> n.recipientType() == RecipientType.CUSTOMER)
+                .count();
+        assertThat(customerSms).isEqualTo(REPLAY_ORDERS);
+        // Preparing and ready merged into one
+        assertThat(providers.get(Channel.PUSH).sent).hasSize(REPLAY_ORDERS);
+        assertThat(providers.get(Channel.EMAIL).sent).hasSize(REPLAY_ORDERS);
+        assertThat(acknowledged).hasValue(stream.size());
+    }
+
+    private void start(CoalescingProperties coalescing) {
+        providers.put(Channel.SMS, new RecordingProvider(Channel.SMS));
+        providers.put(Channel.EMAIL, new RecordingProvider(Channel.EMAIL));
+        providers.put(Channel.PUSH, new RecordingProvider(Channel.PUSH));
+        NotificationProperties properties = new NotificationProperties();
+        // One call at a time, so that the gateways see the notifications in the order they were sent
+        properties.getDefaults().setConcurrency(1);
+        properties.getDefaults().setLinger(Duration.ZERO);
+        dispatcher = new NotificationDispatcher(List.copyOf(providers.values()), mock(Backpressure.class),
+                new NotificationHistoryRecorder(mock(NotificationHistoryWriter.class), new HistoryProperties()),
+                properties);
+        coalescer = new NotificationCoalescer(dispatcher, coalescing, meterRegistry, clock);
+        listener = new DomainEventListener(new NotificationRules(), coalescer, properties, objectMapper);
+    }
+
+    /**
+     * Delivers the events at their time, then lets the last windows close and waits for every acknowledgment.
+     */
+    private void replay(List<Replayed> stream) throws InterruptedException {
+        int expected = acknowledged.get() + stream.size();
+        for (Replayed replayed : stream) {
+            clock.advanceTo(replayed.atMillis());
+            coalescer.sweep();
+            ConsumerRecord<String, String> record = new ConsumerRecord<>(TOPIC, 0, offset++,
+                    String.valueOf(replayed.event().orderId()), json(replayed.event()));
+            listener.onEvent(record, acknowledged::incrementAndGet);
+        }
+        clock.advanceBy(WINDOW.toMillis());
+        coalescer.sweep();
+        await(() -> acknowledged.get() == expected);
+    }
+
+    /**
+     * Placed, then confirmed, preparing and ready after the given gaps.
+     */
+    private static List<Replayed> lifecycle(long orderId, long placedAt, long confirmedAfter, long preparingAfter,
+                                            long readyAfter) {
+        long confirmedAt = placedAt + confirmedAfter;
+        long preparingAt = confirmedAt + preparingAfter;
+        String restaurantId = String.valueOf(orderId % 300);
+        return List.of(
+                new Replayed(placedAt, orderEvent(OrderEvent.ORDER_CREATED, orderId, orderId, restaurantId)),
+                new Replayed(confirmedAt, orderEvent(OrderEvent.ORDER_CONFIRMED, orderId, orderId, restaurantId)),
+                new Replayed(preparingAt, orderEvent(OrderEvent.ORDER_PREPARING, orderId, orderId, restaurantId)),
+                new Replayed(preparingAt + readyAfter,
+                        orderEvent(OrderEvent.ORDER_READY, orderId, orderId, restaurantId)));
+    }
+
+    private static List<Replayed> shift(List<Replayed> stream, long millis) {
+        return stream.stream().map(replayed -> new Replayed(replayed.atMillis() + millis, replayed.event())).toList();
+    }
+
+    private static OrderEvent orderEvent(String eventType, long orderId, Long userId, String restaurantId) {
+        return new OrderEvent(UUID.randomUUID(), eventType, orderId, userId, restaurantId, null,
+                new BigDecimal("18.50"), LocalDateTime.now());
+    }
+
+    private String json(OrderEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private List<String> messagesTo(Channel channel, RecipientType recipientType, long recipientId) {
+        return providers.get(channel).sent.stream()
+                .filter(n -> n.recipientType() == recipientType
+                        && String.valueOf(recipientId).equals(n.recipientId()))
+                .map(Notification::message)
+                .toList();
+    }
+
+    private int sentCount() {
+        return providers.values().stream().mapToInt(provider -> provider.sent.size()).sum();
+    }
+
+    private double suppressed(String reason, Channel channel) {
+        Counter counter = meterRegistry.find(NotificationCoalescer.SUPPRESSED_METRIC)
+                .tags("reason", reason, "channel", channel.name())
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Timed out").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private record Replayed(long atMillis, OrderEvent event) {
+    }
+
+    private static class RecordingProvider implements NotificationProvider {
+        final ConcurrentLinkedQueue<Notification> sent = new ConcurrentLinkedQueue<>();
+        private final Channel channel;
+
+        RecordingProvider(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public Channel channel() {
+            return channel;
+        }
+
+        @Override
+        public int maxBatchSize() {
+            return channel == Channel.SMS ? 1 : 100;
+        }
+
+        @Override
+        public void send(List<Notification> notifications) {
+            sent.addAll(notifications);
+        }
+    }
+
+    /**
+     * Time as far as the replay got, so that windows close when the stream says, not when the test machine does.
+     */
+    private static final class ReplayClock extends Clock {
+        private static final long STREAM_START = Instant.parse("2026-10-16T12:00:00Z").toEpochMilli();
+
+        private volatile long millis = STREAM_START;
+
+        void advanceTo(long streamMillis) {
+            millis = Math.max(millis, STREAM_START + streamMillis);
+        }
+
+        void advanceBy(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
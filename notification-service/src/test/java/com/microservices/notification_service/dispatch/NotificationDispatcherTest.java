@@ -0,0 +1,345 @@
+package com.microservices.notification_service.dispatch;
+
+import com.microservices.notification_service.dto.event.DeliveryAssignedEvent;
+import com.microservices.notification_service.dto.event.OrderEvent;
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.enums.RecipientType;
+import com.microservices.notification_service.exception.NotificationDeliveryException;
+import com.microservices.notification_service.history.HistoryProperties;
+import com.microservices.notification_service.history.NotificationHistoryRecorder;
+import com.microservices.notification_service.history.NotificationHistoryWriter;
+import com.microservices.notification_service.provider.StandInNotificationProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks lanes, batching, retries and backpressure one by one. The benchmark fans a burst of order and delivery
+ * events out over stand-in email, SMS and push gateways, and compares it with sending each notification in turn.
+ */
+class NotificationDispatcherTest {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcherTest.class);
+    private static final int EVENTS = Integer.getInteger("notifications.benchmark.events", 20_000);
+    private static final int SEQUENTIAL_SAMPLE = 200;
+    private static final Duration EMAIL_LATENCY = Duration.ofMillis(20);
+    private static final Duration SMS_LATENCY = Duration.ofMillis(20);
+    private static final Duration PUSH_LATENCY = Duration.ofMillis(10);
+
+    private final NotificationRules rules = new NotificationRules();
+    private final RecordingBackpressure backpressure = new RecordingBackpressure();
+    private final NotificationHistoryRecorder history =
+            new NotificationHistoryRecorder(mock(NotificationHistoryWriter.class), new HistoryProperties());
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void fansOutFasterThanSendingOneAtATime() throws Exception {
+        List<NotificationProvider> providers = List.of(
+                new StandInNotificationProvider(Channel.EMAIL, EMAIL_LATENCY, 100),
+                new StandInNotificationProvider(Channel.SMS, SMS_LATENCY, 1),
+                new StandInNotificationProvider(Channel.PUSH, PUSH_LATENCY, 500));
+        NotificationProperties properties = properties(16, 5_000, Duration.ofMillis(20));
+        NotificationProperties.ChannelSettings sms = settings(64, 5_000, Duration.ZERO);
+        properties.getChannels().put(Channel.SMS, sms);
+        dispatcher = new NotificationDispatcher(providers, backpressure, history, properties);
+
+        List<List<Notification>> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(notificationsOf(i));
+        }
+        int total = events.stream().mapToInt(List::size).sum();
+
+        // One event, one channel, one notification at a time, on a sample
+        Map<Channel, NotificationProvider> byChannel = new EnumMap<>(Channel.class);
+        providers.forEach(provider -> byChannel.put(provider.channel(), provider));
+        List<Notification> sample = events.stream().flatMap(List::stream).limit(SEQUENTIAL_SAMPLE).toList();
+        long sequentialStart = System.nanoTime();
+        for (Notification notification : sample) {
+            byChannel.get(notification.channel()).send(List.of(notification));
+        }
+        double sequentialRate = sample.size() / ((System.nanoTime() - sequentialStart) / 1e9);
+
+        long[] latencyMicros = new long[EVENTS];
+        boolean[] critical = new boolean[EVENTS];
+        CompletableFuture<?>[] done = new CompletableFuture<?>[EVENTS];
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            int event = i;
+            long dispatched = System.nanoTime();
+            critical[i] = events.get(i).getFirst().priority() == Priority.CRITICAL;
+            done[i] = dispatcher.dispatch(events.get(i))
+                    .thenRun(() -> latencyMicros[event] = (System.nanoTime() - dispatched) / 1_000);
+        }
+        CompletableFuture.allOf(done).get(60, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("{} events, {} notifications: one at a time {}/s (on {}), dispatcher {}/s in {} ms with {} provider "
+                        + "calls; event latency critical {}, normal {}; intake paused {} times", EVENTS, total,
+                Math.round(sequentialRate), sample.size(), Math.round(total / seconds), Math.round(seconds * 1000),
+                dispatcher.providerCallCount(), percentiles(latencyMicros, critical, true),
+                percentiles(latencyMicros, critical, false), backpressure.pauses.get());
+
+        assertThat(dispatcher.sentCount()).isEqualTo(total);
+        assertThat(dispatcher.failedCount()).isZero();
+        assertThat(dispatcher.queuedCount()).isZero();
+        assertThat(dispatcher.providerCallCount()).isLessThan(total);
+        assertThat(history.pendingCount()).isEqualTo(total);
+        assertThat(total / seconds).isGreaterThan(sequentialRate * 10);
+        assertThat(backpressure.pauses.get()).isEqualTo(backpressure.resumes.get());
+    }
+
+    @Test
+    void sendsCriticalNotificationsFirstWithoutStarvingTheOthers() throws InterruptedException {
+        RecordingProvider provider = new RecordingProvider(Channel.EMAIL, 1, true);
+        dispatcher = new NotificationDispatcher(List.of(provider), backpressure, history,
+                properties(1, 100, Duration.ZERO));
+
+        dispatcher.dispatch(List.of(notification(Priority.NORMAL, "n1")));
+        assertThat(provider.calling.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Notification> waiting = new ArrayList<>();
+        waiting.add(notification(Priority.NORMAL, "n2"));
+        waiting.add(notification(Priority.NORMAL, "n3"));
+        for (int i = 1; i <= 6; i++) {
+            waiting.add(notification(Priority.CRITICAL, "c" + i));
+        }
+        CompletableFuture<Void> done = dispatcher.dispatch(waiting);
+        provider.release.countDown();
+
+        done.join();
+        // Every fourth call starts with the normal lane while it has notifications waiting
+        assertThat(provider.calls).containsExactly(List.of("n1"), List.of("c1"), List.of("c2"), List.of("n2"),
+                List.of("c3"), List.of("c4"), List.of("c5"), List.of("n3"), List.of("c6"));
+    }
+
+    @Test
+    void fillsBulkCallsWhileLingering() {
+        RecordingProvider provider = new RecordingProvider(Channel.EMAIL, 10, false);
+        dispatcher = new NotificationDispatcher(List.of(provider), backpressure, history,
+                properties(1, 100, Duration.ofMillis(200)));
+
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            notifications.add(notification(Priority.NORMAL, "n" + i));
+        }
+        dispatcher.dispatch(notifications).join();
+
+        assertThat(provider.calls).extracting(List::size).containsExactly(10, 10, 5);
+        assertThat(dispatcher.providerCallCount()).isEqualTo(3);
+    }
+
+    @Test
+    void retriesFailedCallsThenGivesUp() {
+        AtomicInteger attempts = new AtomicInteger();
+        NotificationProvider flaky = new RecordingProvider(Channel.SMS, 1, false) {
+            @Override
+            public void send(List<Notification> notifications) throws NotificationDeliveryException {
+                int attempt = attempts.incrementAndGet();
+                if (attempt < 3) {
+                    throw new NotificationDeliveryException("Gateway timeout");
+                }
+                if (attempt > 3) {
+                    throw new IllegalStateException("Gateway down");
+                }
+            }
+        };
+        NotificationProperties properties = properties(1, 100, Duration.ZERO);
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        dispatcher = new NotificationDispatcher(List.of(flaky), backpressure, history, properties);
+
+        dispatcher.dispatch(List.of(notification(Channel.SMS, Priority.CRITICAL, "sent on the third try"))).join();
+        assertThat(dispatcher.sentCount()).isEqualTo(1);
+        assertThat(dispatcher.failedCount()).isZero();
+
+        dispatcher.dispatch(List.of(notification(Channel.SMS, Priority.CRITICAL, "never sent"))).join();
+        assertThat(dispatcher.sentCount()).isEqualTo(1);
+        assertThat(dispatcher.failedCount()).isEqualTo(1);
+        assertThat(attempts).hasValue(6);
+    }
+
+    @Test
+    void dropsNotificationsOfChannelsWithoutProvider() {
+        dispatcher = new NotificationDispatcher(List.of(new RecordingProvider(Channel.EMAIL, 1, false)),
+                backpressure, history, properties(1, 100, Duration.ZERO));
+
+        dispatcher.dispatch(List.of(notification(Channel.PUSH, Priority.CRITICAL, "nowhere to go"))).join();
+
+        assertThat(dispatcher.failedCount()).isEqualTo(1);
+        assertThat(history.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pausesIntakeWhileAChannelIsBehind() throws InterruptedException {
+        RecordingProvider provider = new RecordingProvider(Channel.PUSH, 1, true);
+        dispatcher = new NotificationDispatcher(List.of(provider), backpressure, history,
+                properties(1, 4, Duration.ZERO));
+
+        dispatcher.dispatch(List.of(notification(Channel.PUSH, Priority.NORMAL, "first")));
+        assertThat(provider.calling.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Notification> burst = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            burst.add(notification(Channel.PUSH, Priority.NORMAL, "n" + i));
+        }
+        CompletableFuture<Void> done = dispatcher.dispatch(burst);
+        assertThat(backpressure.pauses).hasValue(1);
+        assertThat(backpressure.resumes).hasValue(0);
+
+        provider.release.countDown();
+        done.join();
+        await(() -> backpressure.resumes.get() == 1);
+        assertThat(backpressure.pauses).hasValue(1);
+    }
+
+    /**
+     * 40% orders placed (a normal email), 30% confirmed (two critical SMS), 25% assigned a driver (two critical
+     * pushes) and 5% cancelled (a critical push and email).
+     */
+    private List<Notification> notificationsOf(int i) {
+        long orderId = i;
+        int kind = i % 20;
+        if (kind < 8) {
+            return rules.forOrderEvent(orderEvent(OrderEvent.ORDER_CREATED, orderId));
+        } else if (kind < 14) {
+            return rules.forOrderEvent(orderEvent(OrderEvent.ORDER_CONFIRMED, orderId));
+        } else if (kind < 19) {
+            return rules.forDeliveryAssigned(new DeliveryAssignedEvent(UUID.randomUUID(), orderId, orderId % 5_000,
+                    String.valueOf(orderId % 300), orderId % 2_000, 850.0, Instant.now()));
+        }
+        return rules.forOrderEvent(orderEvent(OrderEvent.ORDER_CANCELLED, orderId));
+    }
+
+    private static OrderEvent orderEvent(String eventType, long orderId) {
+        return new OrderEvent(UUID.randomUUID(), eventType, orderId, orderId % 5_000, String.valueOf(orderId % 300),
+                "CONFIRMED", new BigDecimal("18.50"), LocalDateTime.now());
+    }
+
+    private static Notification notification(Priority priority, String message) {
+        return notification(Channel.EMAIL, priority, message);
+    }
+
+    private static Notification notification(Channel channel, Priority priority, String message) {
+        return new Notification(UUID.randomUUID(), OrderEvent.ORDER_CONFIRMED, channel, priority,
+                RecipientType.CUSTOMER, "1", 1L, message);
+    }
+
+    private static NotificationProperties properties(int concurrency, int maxQueued, Duration linger) {
+        NotificationProperties properties = new NotificationProperties();
+        properties.setDefaults(settings(concurrency, maxQueued, linger));
+        return properties;
+    }
+
+    private static NotificationProperties.ChannelSettings settings(int concurrency, int maxQueued, Duration linger) {
+        NotificationProperties.ChannelSettings settings = new NotificationProperties.ChannelSettings();
+        settings.setConcurrency(concurrency);
+        settings.setMaxQueued(maxQueued);
+        settings.setLinger(linger);
+        return settings;
+    }
+
+    private static String percentiles(long[] latencyMicros, boolean[] critical, boolean ofCritical) {
+        long[] lane = new long[latencyMicros.length];
+        int n = 0;
+        for (int i = 0; i < latencyMicros.length; i++) {
+            if (critical[i] == ofCritical) {
+                lane[n++] = latencyMicros[i];
+            }
+        }
+        lane = Arrays.copyOf(lane, n);
+        Arrays.sort(lane);
+        return "p50 %d ms p99 %d ms".formatted(lane[n / 2] / 1_000, lane[n * 99 / 100] / 1_000);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Timed out").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static class RecordingBackpressure implements Backpressure {
+        final AtomicInteger pauses = new AtomicInteger();
+        final AtomicInteger resumes = new AtomicInteger();
+
+        @Override
+        public void pause() {
+            pauses.incrementAndGet();
+        }
+
+        @Override
+        public void resume() {
+            resumes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the messages of each call; if blocking, its first call waits until released.
+     */
+    private static class RecordingProvider implements NotificationProvider {
+        final CountDownLatch calling = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<List<String>> calls = new CopyOnWriteArrayList<>();
+        private final Channel channel;
+        private final int maxBatchSize;
+        private final boolean blocking;
+
+        RecordingProvider(Channel channel, int maxBatchSize, boolean blocking) {
+            this.channel = channel;
+            this.maxBatchSize = maxBatchSize;
+            this.blocking = blocking;
+        }
+
+        @Override
+        public Channel channel() {
+            return channel;
+        }
+
+        @Override
+        public int maxBatchSize() {
+            return maxBatchSize;
+        }
+
+        @Override
+        public void send(List<Notification> notifications) throws NotificationDeliveryException {
+            calling.countDown();
+            if (blocking) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new NotificationDeliveryException("Interrupted", ex);
+                }
+            }
+            calls.add(notifications.stream().map(Notification::message).toList());
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.microservices.notification_service.history;
+
+import com.microservices.notification_service.dispatch.Notification;
+import com.microservices.notification_service.dto.response.NotificationPageResponse;
+import com.microservices.notification_service.dto.response.NotificationResponse;
+import com.microservices.notification_service.enums.Channel;
+import com.microservices.notification_service.enums.Priority;
+import com.microservices.notification_service.enums.RecipientType;
+import com.microservices.notification_service.enums.SendStatus;
+import com.microservices.notification_service.exception.InvalidCursorException;
+import com.microservices.notification_service.service.impl.NotificationHistoryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Pages through a customer's history and checks what happens to rows while the database is down. The benchmark
+ * records a million sends from many threads at once, writes them in batches and compares that with inserting a row
+ * at a time. Runs on H2, which has no partitioned tables, so the table is a plain one with the same columns and
+ * index; partition upkeep is checked on its own.
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(NotificationHistoryWriter.class)
+class NotificationHistoryTest {
+    private static final Logger log = LoggerFactory.getLogger(NotificationHistoryTest.class);
+    private static final int RECORDS = Integer.getInteger("history.benchmark.records", 1_000_000);
+    private static final int SENDERS = 16;
+    private static final int CUSTOMERS = 50_000;
+    private static final int ROW_AT_A_TIME_SAMPLE = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationHistoryWriter writer;
+
+    @BeforeEach
+    void createTable() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS row_at_a_time");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + NotificationHistoryWriter.TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + NotificationHistoryWriter.TABLE + " ("
+                + "id UUID NOT NULL, sent_at TIMESTAMP WITH TIME ZONE NOT NULL, event_id UUID, "
+                + "event_type VARCHAR(40), channel VARCHAR(10) NOT NULL, priority VARCHAR(10) NOT NULL, "
+                + "recipient_type VARCHAR(12) NOT NULL, recipient_id VARCHAR(64), order_id BIGINT, "
+                + "status VARCHAR(10) NOT NULL, message VARCHAR(255))");
+        jdbcTemplate.execute("CREATE INDEX notification_history_recipient_idx ON " + NotificationHistoryWriter.TABLE
+                + " (recipient_type, recipient_id, sent_at DESC, id DESC)");
+    }
+
+    @Test
+    @Tag("benchmark")
+    void ingestsAMillionSendsInBatches() {
+        HistoryProperties properties = new HistoryProperties();
+        properties.setMaxPending(RECORDS);
+        NotificationHistoryRecorder recorder = new NotificationHistoryRecorder(writer, properties);
+
+        // What senders pay: queueing only, from many threads at once
+        ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+        List<CompletableFuture<Long>> recorded = new ArrayList<>();
+        long recordStart = System.nanoTime();
+        for (int sender = 0; sender < SENDERS; sender++) {
+            int first = sender;
+            recorded.add(CompletableFuture.supplyAsync(() -> {
+                long worstNanos = 0;
+                for (int i = first; i < RECORDS; i += SENDERS) {
+                    long start = System.nanoTime();
+                    recorder.record(List.of(notification(i)), SendStatus.SENT);
+                    worstNanos = Math.max(worstNanos, System.nanoTime() - start);
+                }
+                return worstNanos;
+            }, senders));
+        }
+        long worstRecordNanos = recorded.stream().mapToLong(CompletableFuture::join).max().orElseThrow();
+        double recordSeconds = (System.nanoTime() - recordStart) / 1e9;
+        senders.shutdown();
+        assertThat(recorder.pendingCount()).isEqualTo(RECORDS);
+
+        long flushStart = System.nanoTime();
+        recorder.flush();
+        double flushSeconds = (System.nanoTime() - flushStart) / 1e9;
+
+        // The same rows inserted one statement at a time, on a sample
+        jdbcTemplate.execute("CREATE TABLE row_at_a_time AS SELECT * FROM " + NotificationHistoryWriter.TABLE
+                + " WHERE 1 = 0");
+        List<NotificationRecord> sample = new ArrayList<>(ROW_AT_A_TIME_SAMPLE);
+        for (int i = 0; i < ROW_AT_A_TIME_SAMPLE; i++) {
+            sample.add(NotificationRecord.of(notification(i), SendStatus.SENT, Instant.now()));
+        }
+        long rowStart = System.nanoTime();
+        for (NotificationRecord record : sample) {
+            jdbcTemplate.update("INSERT INTO row_at_a_time (id, sent_at, channel, priority, recipient_type, "
+                            + "recipient_id, status, message) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    record.id(), Timestamp.from(record.sentAt()), record.channel().name(),
+                    record.priority().name(), record.recipientType().name(), record.recipientId(),
+                    record.status().name(), record.message());
+        }
+        double rowSeconds = (System.nanoTime() - rowStart) / 1e9;
+
+        log.info("{} sends recorded by {} threads in {} ms ({}/s, worst {} us), written in {} ms ({} rows/s in "
+                        + "batches of {}); one row at a time {} rows/s (on {})", RECORDS, SENDERS,
+                Math.round(recordSeconds * 1000), Math.round(RECORDS / recordSeconds), worstRecordNanos / 1_000,
+                Math.round(flushSeconds * 1000), Math.round(RECORDS / flushSeconds), properties.getFlushBatchSize(),
+                Math.round(ROW_AT_A_TIME_SAMPLE / rowSeconds), ROW_AT_A_TIME_SAMPLE);
+
+        assertThat(recorder.pendingCount()).isZero();
+        assertThat(recorder.writtenCount()).isEqualTo(RECORDS);
+        assertThat(recorder.droppedCount()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + NotificationHistoryWriter.TABLE,
+                Long.class)).isEqualTo((long) RECORDS);
+        assertThat(RECORDS / flushSeconds).isGreaterThan(ROW_AT_A_TIME_SAMPLE / rowSeconds);
+    }
+
+    @Test
+    void pagesThroughACustomersHistoryNewestFirst() {
+        NotificationHistoryRecorder recorder = new NotificationHistoryRecorder(writer, new HistoryProperties());
+        long customer = 42;
+        // Recorded in bursts, so that many rows share a send time and the id decides their order
+        for (int burst = 0; burst < 10; burst++) {
+            List<Notification> notifications = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                notifications.add(notification(Channel.values()[i % 3], customer, burst * 5 + i));
+                notifications.add(notification(Channel.EMAIL, customer + 1, burst * 5 + i));
+            }
+            recorder.record(notifications, SendStatus.SENT);
+        }
+        recorder.flush();
+        NotificationHistoryServiceImpl service = new NotificationHistoryServiceImpl(writer);
+
+        List<NotificationResponse> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            NotificationPageResponse page = service.getHistory(customer, cursor, 7);
+            seen.addAll(page.getNotifications());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(8);
+        assertThat(seen).hasSize(50);
+        assertThat(seen).extracting(NotificationResponse::getId).doesNotHaveDuplicates();
+        assertThat(seen).extracting(NotificationResponse::getSentAt)
+                .isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(service.getHistory(customer + 2, null, 20).getNotifications()).isEmpty();
+    }
+
+    @Test
+    void keepsRowsQueuedWhileTheDatabaseIsDown() {
+        NotificationHistoryWriter failing = mock(NotificationHistoryWriter.class);
+        HistoryProperties properties = new HistoryProperties();
+        properties.setFlushBatchSize(10);
+        properties.setMaxPending(25);
+        NotificationHistoryRecorder recorder = new NotificationHistoryRecorder(failing, properties);
+        for (int i = 0; i < 30; i++) {
+            recorder.record(List.of(notification(i)), SendStatus.SENT);
+        }
+        assertThat(recorder.droppedCount()).isEqualTo(5);
+
+        doThrow(new IllegalStateException("Connection refused")).when(failing).append(anyList());
+        recorder.flush();
+        assertThat(recorder.pendingCount()).isEqualTo(25);
+        assertThat(recorder.writtenCount()).isZero();
+
+        doNothing().when(failing).append(anyList());
+        recorder.flush();
+        assertThat(recorder.pendingCount()).isZero();
+        assertThat(recorder.writtenCount()).isEqualTo(25);
+    }
+
+    @Test
+    void createsPartitionsAheadAndDropsThoseFullyPastRetention() {
+        LocalDate today = LocalDate.of(2026, 10, 16);
+
+        assertThat(HistoryPartitions.toCreate(today, 2)).containsExactly(today, today.plusDays(1),
+                today.plusDays(2));
+        assertThat(HistoryPartitions.partitionName(today)).isEqualTo("notification_history_p20261016");
+
+        List<String> existing = Arrays.asList(
+                HistoryPartitions.partitionName(today.minusDays(31)),
+                HistoryPartitions.partitionName(today.minusDays(30)),
+                HistoryPartitions.partitionName(today.minusDays(29)),
+                HistoryPartitions.partitionName(today),
+                "notification_history_archive",
+                "notification_history_pold");
+        assertThat(HistoryPartitions.toDrop(existing, today, Duration.ofDays(30)))
+                .containsExactly("notification_history_p20260915");
+    }
+
+    @Test
+    void rejectsCursorsItDidNotMake() {
+        HistoryCursor cursor = new HistoryCursor(Instant.parse("2026-10-16T08:30:00.123456Z"), UUID.randomUUID());
+
+        assertThat(HistoryCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThatThrownBy(() -> HistoryCursor.decode("not a cursor")).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> HistoryCursor.decode("bm8gc2VwYXJhdG9y")).isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static Notification notification(int i) {
+        return notification(Channel.values()[i % 3], i % CUSTOMERS, i);
+    }
+
+    private static Notification notification(Channel channel, long customer, long orderId) {
+        return new Notification(UUID.randomUUID(), "ORDER_CONFIRMED", channel, Priority.CRITICAL,
+                RecipientType.CUSTOMER, String.valueOf(customer), orderId, "Your order #" + orderId + " was confirmed");
+    }
+}
@@ -0,0 +1,126 @@
+package com.microservices.orders.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.microservices.identity.Caller;
+import com.microservices.orders.dto.request.BulkCreateOrderRequest;
+import com.microservices.orders.dto.request.CreateOrderRequest;
+import com.microservices.orders.dto.request.OrderTransitionRequest;
+import com.microservices.orders.dto.response.APIResponse;
+import com.microservices.orders.dto.response.OrderResponse;
+import com.microservices.orders.exception.OrderAccessDeniedException;
+import com.microservices.orders.idempotency.IdempotencyService;
+import com.microservices.orders.idempotency.IdempotentResponse;
+import com.microservices.orders.service.OrderService;
+import com.microservices.orders.statemachine.OrderStateMachine;
+import com.microservices.orders.statemachine.OrderTransition;
+import com.microservices.orders.statemachine.TransitionResult;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/orders")
+@RequiredArgsConstructor
+public class OrderController {
+    /**
+     * Set by the api-gateway from the verified JWT.
+     */
+    public static final String USER_ID_HEADER = "X-User-Id";
+    /**
+     * Lets clients retry a create safely: a retry with the same key gets the first response back.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final OrderService orderService;
+    private final OrderStateMachine orderStateMachine;
+    private final IdempotencyService idempotencyService;
+
+    @PostMapping
+    public ResponseEntity<APIResponse<OrderResponse>> createOrder(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 100) String idempotencyKey,
+            @Valid @RequestBody CreateOrderRequest request) {
+        IdempotentResponse<OrderResponse> response = idempotencyKey == null
+                ? new IdempotentResponse<>(orderService.createOrder(userId, request), false)
+                : idempotencyService.execute(userId, idempotencyKey, request, new TypeReference<OrderResponse>() {
+                }, () -> orderService.createOrder(userId, request));
+        return created(response, "Order created");
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<APIResponse<List<OrderResponse>>> createOrders(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 100) String idempotencyKey,
+            @Valid @RequestBody BulkCreateOrderRequest request) {
+        IdempotentResponse<List<OrderResponse>> response = idempotencyKey == null
+                ? new IdempotentResponse<>(orderService.createOrders(userId, request.getOrders()), false)
+                : idempotencyService.execute(userId, idempotencyKey, request, new TypeReference<List<OrderResponse>>() {
+                }, () -> orderService.createOrders(userId, request.getOrders()));
+        return created(response, "Orders created");
+    }
+
+    /**
+     * Only the customer who placed the order, or an admin, can read it.
+     */
+    @GetMapping("/{orderId}")
+    public APIResponse<OrderResponse> getOrder(@PathVariable Long orderId,
+                                               @RequestAttribute(Caller.ATTRIBUTE) Caller caller) {
+        OrderResponse order = orderService.getOrder(orderId);
+        if (!caller.isOrAdmin(order.getUserId())) {
+            throw new OrderAccessDeniedException(orderId);
+        }
+        return APIResponse.<OrderResponse>builder()
+                .result(order)
+                .build();
+    }
+
+    /**
+     * Fails with 403 if the caller may not make the transition, see {@code OrderTransitionTable#mayMake}.
+     */
+    @PostMapping("/{orderId}/transitions")
+    public APIResponse<TransitionResult> transition(@PathVariable Long orderId,
+                                                    @RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                    @Valid @RequestBody OrderTransitionRequest request) {
+        TransitionResult result = orderStateMachine.apply(
+                new OrderTransition(request.getEventId(), orderId, request.getStatus(), caller));
+        if (result.outcome() == TransitionResult.Outcome.FORBIDDEN) {
+            throw new OrderAccessDeniedException(orderId);
+        }
+        return APIResponse.<TransitionResult>builder()
+                .result(result)
+                .build();
+    }
+
+    /**
+     * Transitions the caller may not make are answered with {@code FORBIDDEN} and the others still applied.
+     */
+    @PostMapping("/transitions")
+    public APIResponse<List<TransitionResult>> transitions(
+            @RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+            @RequestBody List<@Valid OrderTransitionRequest> requests) {
+        List<OrderTransition> transitions = requests.stream()
+                .map(request -> new OrderTransition(request.getEventId(), request.getOrderId(), request.getStatus(),
+                        caller))
+                .toList();
+        return APIResponse.<List<TransitionResult>>builder()
+                .result(orderStateMachine.applyAll(transitions))
+                .build();
+    }
+
+    private static <T> ResponseEntity<APIResponse<T>> created(IdempotentResponse<T> response, String message) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(response.replayed()))
+                .body(APIResponse.<T>builder()
+                        .result(response.body())
+                        .message(message)
+                        .build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.microservices.orders.delivery;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.orders.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records the driver delivery-service assigns each order to, who is then the only driver allowed to pick it up and
+ * deliver it. A reassignment replaces the driver.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeliveryAssignmentListener {
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${app.orders.deliveries-assigned-topic:deliveries.assigned}",
+            groupId = "${spring.application.name}-assignments")
+    @Transactional
+    public void onAssigned(String payload) {
+        DeliveryAssigned event;
+        try {
+            event = objectMapper.readValue(payload, DeliveryAssigned.class);
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring unreadable delivery assignment: {}", ex.getOriginalMessage());
+            return;
+        }
+        if (orderRepository.assignDriver(event.orderId(), event.driverId()) == 0) {
+            log.warn("Ignoring the assignment of unknown order {}", event.orderId());
+        }
+    }
+
+    /**
+     * What is read of delivery-service's assignment event.
+     */
+    public record DeliveryAssigned(Long orderId, Long driverId) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.microservices.orders.dto.event;
+
+import com.microservices.orders.entity.Order;
+import com.microservices.orders.enums.OrderEventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payload of the order events published to Kafka. Consumers use {@code eventId} to drop the duplicates an
+ * at-least-once relay can produce.
+ */
+public record OrderEvent(
+        UUID eventId,
+        OrderEventType eventType,
+        Long orderId,
+        Long userId,
+        String restaurantId,
+        String status,
+        BigDecimal totalAmount,
+        LocalDateTime occurredAt) {
+
+    public static OrderEvent of(OrderEventType eventType, Order order) {
+        return new OrderEvent(UUID.randomUUID(), eventType, order.getId(), order.getUserId(),
+                order.getRestaurantId(), order.getStatus().name(), order.getTotalAmount(), LocalDateTime.now());
+    }
+}
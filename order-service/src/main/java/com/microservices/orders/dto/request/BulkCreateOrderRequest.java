@@ -0,0 +1,15 @@
+package com.microservices.orders.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCreateOrderRequest {
+    @NotEmpty(message = "BLANK_FIELD")
+    @Size(max = 100, message = "TOO_MANY_ORDERS")
+    private List<@Valid CreateOrderRequest> orders;
+}
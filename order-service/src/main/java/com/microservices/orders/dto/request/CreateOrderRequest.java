@@ -0,0 +1,22 @@
+package com.microservices.orders.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CreateOrderRequest {
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 64, message = "INVALID_RESTAURANT_ID")
+    private String restaurantId;
+
+    @NotBlank(message = "BLANK_FIELD")
+    private String deliveryAddress;
+
+    @NotEmpty(message = "BLANK_FIELD")
+    private List<@Valid OrderItemRequest> items;
+}
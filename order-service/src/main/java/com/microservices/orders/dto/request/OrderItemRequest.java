@@ -0,0 +1,15 @@
+package com.microservices.orders.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class OrderItemRequest {
+    @NotNull(message = "BLANK_FIELD")
+    private Long productId;
+
+    @NotNull(message = "BLANK_FIELD")
+    @Min(value = 1, message = "INVALID_QUANTITY")
+    private Integer quantity;
+}
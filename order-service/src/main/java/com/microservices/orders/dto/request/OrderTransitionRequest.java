@@ -0,0 +1,25 @@
+package com.microservices.orders.dto.request;
+
+import com.microservices.orders.enums.OrderStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class OrderTransitionRequest {
+    /**
+     * Id of the update at its source. Sending it again is a no-op.
+     */
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 64, message = "INVALID_EVENT_ID")
+    private String eventId;
+
+    /**
+     * Only read by the bulk endpoint, the single endpoint takes it from the path.
+     */
+    private Long orderId;
+
+    @NotNull(message = "BLANK_FIELD")
+    private OrderStatus status;
+}
@@ -0,0 +1,15 @@
+package com.microservices.orders.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class APIResponse<T> {
+    @Builder.Default
+    private String message= "Success";
+    private T result;
+}
@@ -0,0 +1,62 @@
+package com.microservices.orders.entity;
+
+import com.microservices.orders.enums.OrderEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event waiting to be published to Kafka. Rows are written in the same transaction as the order change they
+ * describe and deleted by the outbox relay once Kafka acknowledged them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_events",
+        indexes = @Index(name = "idx_outbox_events_aggregate_id",
+                columnList = "aggregate_id, aggregate_version, id"))
+public class OutboxEvent {
+    /**
+     * Allocated in blocks per instance, so ids of different instances are not in write order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Kafka record key, so all events of one order land on the same partition in order.
+     */
+    @Column(name = "aggregate_id", nullable = false, length = 64)
+    private String aggregateId;
+
+    /**
+     * Version of the order the event was written against. Optimistic locking makes every change of an order commit
+     * against a newer version than the last, so this orders the events of one order across instances.
+     */
+    @Column(name = "aggregate_version", nullable = false)
+    private Long aggregateVersion;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    @Enumerated(EnumType.STRING)
+    private OrderEventType eventType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package com.microservices.orders.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id of an event that already changed an order, so a redelivered or retried event is not applied twice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "processed_order_events",
+        indexes = @Index(name = "idx_processed_order_events_processed_at", columnList = "processed_at"))
+public class ProcessedOrderEvent implements Persistable<String> {
+    @Id
+    @Column(name = "event_id", length = 64)
+    private String eventId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+
+    @Override
+    public String getId() {
+        return eventId;
+    }
+
+    /**
+     * Rows are only ever inserted, this saves the select {@code save} would otherwise run for an assigned id.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
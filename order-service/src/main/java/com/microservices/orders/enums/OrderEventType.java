@@ -0,0 +1,9 @@
+package com.microservices.orders.enums;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_CONFIRMED,
+    ORDER_PREPARING,
+    ORDER_READY,
+    ORDER_CANCELLED
+}
@@ -0,0 +1,11 @@
+package com.microservices.orders.enums;
+
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    PREPARING,
+    READY,
+    PICKED_UP,
+    DELIVERED,
+    CANCELLED
+}
@@ -0,0 +1,56 @@
+package com.microservices.orders.exception;
+
+import com.microservices.orders.dto.response.APIResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(OrderNotFoundException.class)
+    public ResponseEntity<APIResponse<?>> handleOrderNotFound(OrderNotFoundException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiResponse);
+    }
+
+    @ExceptionHandler(OrderItemUnavailableException.class)
+    public ResponseEntity<APIResponse<?>> handleOrderItemUnavailable(OrderItemUnavailableException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiResponse);
+    }
+
+    @ExceptionHandler(OrderAccessDeniedException.class)
+    public ResponseEntity<APIResponse<?>> handleOrderAccessDenied(OrderAccessDeniedException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(apiResponse);
+    }
+
+    @ExceptionHandler(OrderUpdateConflictException.class)
+    public ResponseEntity<APIResponse<?>> handleOrderUpdateConflict(OrderUpdateConflictException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(apiResponse);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<APIResponse<?>> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(apiResponse);
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.orders.exception;
+
+public class OrderAccessDeniedException extends RuntimeException {
+    public OrderAccessDeniedException(Long orderId) {
+        super("Not allowed to access order " + orderId);
+    }
+}
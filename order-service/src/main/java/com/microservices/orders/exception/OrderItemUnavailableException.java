@@ -0,0 +1,7 @@
+package com.microservices.orders.exception;
+
+public class OrderItemUnavailableException extends RuntimeException {
+    public OrderItemUnavailableException(Long productId, String restaurantId) {
+        super("Product " + productId + " is not sold by restaurant " + restaurantId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.orders.exception;
+
+public class OrderNotFoundException extends RuntimeException {
+    public OrderNotFoundException(Long orderId) {
+        super("Order " + orderId + " not found");
+    }
+}
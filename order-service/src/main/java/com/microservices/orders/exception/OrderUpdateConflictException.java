@@ -0,0 +1,7 @@
+package com.microservices.orders.exception;
+
+public class OrderUpdateConflictException extends RuntimeException {
+    public OrderUpdateConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,118 @@
+package com.microservices.orders.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.orders.entity.IdempotencyRecord;
+import com.microservices.orders.exception.IdempotencyKeyReusedException;
+import com.microservices.orders.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}, and answers retries with the stored response.
+ * <p>
+ * The key is inserted before the request runs, in the same transaction. A retry arriving while the first request is
+ * still running blocks on that insert until the first one commits, and then gets its response; if the first one
+ * failed, its key is rolled back with it and the retry runs normally. Keys expire after {@code ttl}.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.orders.idempotency-key-ttl:24h}") Duration ttl) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+    }
+
+    /**
+     * @param request      the request body, compared with the one stored for the key
+     * @param responseType type of the response, to read a stored one back
+     * @param action       runs the request; joins the transaction that stores the key
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public <T> IdempotentResponse<T> execute(Long userId, String key, Object request, TypeReference<T> responseType,
+                                             Supplier<T> action) {
+        String id = userId + ":" + key;
+        String requestHash = hash(request);
+
+        IdempotencyRecord stored = repository.findById(id).orElse(null);
+        if (stored != null && stored.getExpiresAt().isAfter(LocalDateTime.now())) {
+            return replay(stored, requestHash, responseType);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                repository.deleteIfExpired(id, now);
+                IdempotencyRecord record = new IdempotencyRecord(id, requestHash, now, now.plus(ttl));
+                repository.saveAndFlush(record);
+
+                T response = action.get();
+                record.setResponse(toJson(response));
+                return new IdempotentResponse<>(response, false);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // A request with the same key committed while this one was waiting on the insert
+            return repository.findById(id)
+                    .map(record -> replay(record, requestHash, responseType))
+                    .orElseThrow(() -> ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.idempotency-key-purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer purged = transactionTemplate.execute(status -> repository.deleteExpired(now));
+        log.debug("Purged {} expired idempotency keys", purged);
+    }
+
+    private <T> IdempotentResponse<T> replay(IdempotencyRecord record, String requestHash,
+                                             TypeReference<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        try {
+            return new IdempotentResponse<>(objectMapper.readValue(record.getResponse(), responseType), true);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read stored response for idempotency key", ex);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Could not hash request", ex);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not store response for idempotency key", ex);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.orders.idempotency;
+
+/**
+ * @param replayed whether {@code body} is the stored response of an earlier request with the same key
+ */
+public record IdempotentResponse<T>(T body, boolean replayed) {
+}
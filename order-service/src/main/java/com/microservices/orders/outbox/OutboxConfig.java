@@ -0,0 +1,24 @@
+package com.microservices.orders.outbox;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Schedules the {@link OutboxRelay} and creates the order events topic if it does not exist.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    @Bean
+    public NewTopic orderEventsTopic(OutboxProperties properties) {
+        return TopicBuilder.name(properties.getTopic())
+                .partitions(properties.getTopicPartitions())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.microservices.orders.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for publishing the outbox to Kafka.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+    private String topic = "order-events";
+
+    private int topicPartitions = 6;
+
+    /**
+     * Largest number of events locked and published in one transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long to wait for Kafka to acknowledge a batch before it is rolled back and retried.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+}
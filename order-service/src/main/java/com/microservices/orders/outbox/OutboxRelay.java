@@ -0,0 +1,102 @@
+package com.microservices.orders.outbox;
+
+import com.microservices.orders.entity.OutboxEvent;
+import com.microservices.orders.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the outbox to Kafka in batches.
+ * <p>
+ * Each batch is locked with {@code FOR UPDATE SKIP LOCKED}, so any number of order-service instances can relay at
+ * the same time without publishing an event twice or waiting on each other. The whole batch is handed to the
+ * producer at once, letting it compress and batch records per partition, and the rows are deleted in the same
+ * transaction once Kafka acknowledged all of them. A failed batch is rolled back and published again on the next
+ * poll, so delivery is at least once.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    public static final String EVENT_TYPE_HEADER = "eventType";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, String> kafkaTemplate,
+                       OutboxProperties properties, PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Drains the outbox until a batch comes back less than full.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:100}")
+    public void relay() {
+        try {
+            while (publishBatch() == properties.getBatchSize()) {
+                // A full batch means more events are probably waiting
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Publishing order events failed, retrying on the next poll: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Publishes one batch and removes it from the outbox.
+     *
+     * @return the number of events published
+     */
+    public int publishBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.lockNextBatch(properties.getBatchSize());
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            CompletableFuture<?>[] sends = events.stream().map(this::send).toArray(CompletableFuture[]::new);
+            // The batch is complete, there is nothing to gain from lingering
+            kafkaTemplate.flush();
+            awaitAcknowledgements(sends);
+
+            outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+            return events.size();
+        });
+        return published != null ? published : 0;
+    }
+
+    private CompletableFuture<SendResult<String, String>> send(OutboxEvent event) {
+        ProducerRecord<String, String> record =
+                new ProducerRecord<>(properties.getTopic(), event.getAggregateId(), event.getPayload());
+        record.headers().add(EVENT_TYPE_HEADER, event.getEventType().name().getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+
+    private void awaitAcknowledgements(CompletableFuture<?>[] sends) {
+        try {
+            CompletableFuture.allOf(sends).get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing order events", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new IllegalStateException("Kafka did not acknowledge the order events", ex);
+        }
+    }
+}
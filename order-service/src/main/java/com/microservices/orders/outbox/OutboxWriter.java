@@ -0,0 +1,50 @@
+package com.microservices.orders.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.orders.dto.event.OrderEvent;
+import com.microservices.orders.entity.Order;
+import com.microservices.orders.entity.OutboxEvent;
+import com.microservices.orders.enums.OrderEventType;
+import com.microservices.orders.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records order events in the outbox. Must be called inside the transaction that changes the order, so the event
+ * is stored if and only if the change is committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Records an event describing the order as it is now. The order must already have its id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderEvent append(OrderEventType eventType, Order order) {
+        OrderEvent event = OrderEvent.of(eventType, order);
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(order.getId().toString());
+        outboxEvent.setAggregateVersion(order.getVersion() != null ? order.getVersion() : 0L);
+        outboxEvent.setEventType(event.eventType());
+        outboxEvent.setPayload(toJson(event));
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        outboxEventRepository.save(outboxEvent);
+        return event;
+    }
+
+    private String toJson(OrderEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + event.eventType() + " event", ex);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.microservices.orders.product;
+
+import com.microservices.orders.dto.response.APIResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Products as sold by product-service, which orders are priced from. Not cached: an order is charged the price of
+ * the moment, and product-service keeps its hot products in memory anyway.
+ */
+@Component
+public class ProductCatalog {
+    private static final ParameterizedTypeReference<APIResponse<Product>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+
+    public ProductCatalog(RestClient.Builder loadBalancedRestClientBuilder,
+                          @Value("${app.products.base-url:lb://PRODUCT-SERVICE}") String baseUrl) {
+        this.restClient = loadBalancedRestClientBuilder.baseUrl(baseUrl).build();
+    }
+
+    /**
+     * Looks each product up once.
+     *
+     * @return the products by id, without the ones product-service does not know
+     */
+    public Map<Long, Product> find(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                Product product = fetch(productId);
+                if (product != null) {
+                    products.put(productId, product);
+                }
+            }
+        }
+        return products;
+    }
+
+    private Product fetch(Long productId) {
+        try {
+            APIResponse<Product> response = restClient.get()
+                    .uri("/api/v1/products/{id}", productId)
+                    .retrieve()
+                    .body(RESPONSE_TYPE);
+            return response != null ? response.getResult() : null;
+        } catch (HttpClientErrorException.NotFound ex) {
+            return null;
+        }
+    }
+
+    /**
+     * What is read of product-service's product.
+     */
+    public record Product(Long id, String restaurantId, BigDecimal price) {
+    }
+}
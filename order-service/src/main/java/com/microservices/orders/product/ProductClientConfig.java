@@ -0,0 +1,20 @@
+package com.microservices.orders.product;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+public class ProductClientConfig {
+
+    /**
+     * Resolves {@code lb://} service ids against the Eureka registry, so product-service and restaurant-service are
+     * reached on whichever instances are up rather than on a fixed address.
+     */
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder() {
+        return RestClient.builder();
+    }
+}
@@ -0,0 +1,21 @@
+package com.microservices.orders.repository;
+
+import com.microservices.orders.entity.Order;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Records the driver in place. The version is bumped too, so that a transition that read the order before
+     * fails its version check instead of writing the old driver back.
+     */
+    @Modifying
+    @Query("update Order o set o.driverId = :driverId, o.version = o.version + 1 where o.id = :orderId")
+    int assignDriver(@Param("orderId") Long orderId, @Param("driverId") Long driverId);
+}
+
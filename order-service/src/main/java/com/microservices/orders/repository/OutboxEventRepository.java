@@ -0,0 +1,30 @@
+package com.microservices.orders.repository;
+
+import com.microservices.orders.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest unpublished event of up to {@code batchSize} orders. Rows locked by another relay are skipped
+     * instead of waited for, and an event is only taken once every earlier event of its order is gone, so two
+     * relays never publish events of the same order out of order. Events written in the same transaction share the
+     * order version and keep their id order.
+     */
+    @Query(value = """
+            SELECT * FROM outbox_events e
+            WHERE NOT EXISTS (SELECT 1 FROM outbox_events earlier
+                              WHERE earlier.aggregate_id = e.aggregate_id
+                                AND (earlier.aggregate_version < e.aggregate_version
+                                     OR (earlier.aggregate_version = e.aggregate_version AND earlier.id < e.id)))
+            ORDER BY e.id
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("batchSize") int batchSize);
+}
@@ -0,0 +1,23 @@
+package com.microservices.orders.repository;
+
+import com.microservices.orders.entity.ProcessedOrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProcessedOrderEventRepository extends JpaRepository<ProcessedOrderEvent, String> {
+
+    @Query("select e.eventId from ProcessedOrderEvent e where e.eventId in :eventIds")
+    List<String> findProcessedIds(@Param("eventIds") Collection<String> eventIds);
+
+    @Modifying
+    @Query("delete from ProcessedOrderEvent e where e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,63 @@
+package com.microservices.orders.restaurant;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.microservices.orders.dto.response.APIResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Who owns each restaurant, as known by restaurant-service. Cached for a short while, since the orders of a
+ * restaurant are moved through the kitchen one after the other and restaurants rarely change hands.
+ */
+@Component
+public class RestaurantOwners {
+    private static final ParameterizedTypeReference<APIResponse<Restaurant>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+    private final LoadingCache<String, Optional<Long>> owners;
+
+    public RestaurantOwners(RestClient.Builder loadBalancedRestClientBuilder,
+                            @Value("${app.restaurants.base-url:lb://RESTAURANT-SERVICE}") String baseUrl,
+                            @Value("${app.restaurants.owner-ttl:5m}") Duration ownerTtl) {
+        this.restClient = loadBalancedRestClientBuilder.baseUrl(baseUrl).build();
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ownerTtl)
+                .build(this::fetch);
+    }
+
+    /**
+     * @return the id of the restaurant's owner, empty if restaurant-service does not know the restaurant
+     */
+    public Optional<Long> ownerOf(String restaurantId) {
+        return owners.get(restaurantId);
+    }
+
+    private Optional<Long> fetch(String restaurantId) {
+        try {
+            APIResponse<Restaurant> response = restClient.get()
+                    .uri("/api/v1/restaurants/{id}", restaurantId)
+                    .retrieve()
+                    .body(RESPONSE_TYPE);
+            return Optional.ofNullable(response != null && response.getResult() != null
+                    ? response.getResult().ownerId() : null);
+        } catch (HttpClientErrorException.NotFound ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * What is read of restaurant-service's restaurant.
+     */
+    public record Restaurant(Long ownerId) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.microservices.orders.service;
+
+import com.microservices.orders.dto.request.CreateOrderRequest;
+import com.microservices.orders.dto.response.OrderResponse;
+
+import java.util.List;
+
+public interface OrderService {
+    OrderResponse createOrder(Long userId, CreateOrderRequest request);
+
+    List<OrderResponse> createOrders(Long userId, List<CreateOrderRequest> requests);
+
+    OrderResponse getOrder(Long orderId);
+}
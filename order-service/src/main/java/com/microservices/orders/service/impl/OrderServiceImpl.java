@@ -0,0 +1,118 @@
+package com.microservices.orders.service.impl;
+
+import com.microservices.orders.dto.request.CreateOrderRequest;
+import com.microservices.orders.dto.request.OrderItemRequest;
+import com.microservices.orders.dto.response.OrderResponse;
+import com.microservices.orders.entity.Order;
+import com.microservices.orders.entity.OrderItem;
+import com.microservices.orders.enums.OrderEventType;
+import com.microservices.orders.enums.OrderStatus;
+import com.microservices.orders.exception.OrderItemUnavailableException;
+import com.microservices.orders.exception.OrderNotFoundException;
+import com.microservices.orders.outbox.OutboxWriter;
+import com.microservices.orders.product.ProductCatalog;
+import com.microservices.orders.repository.OrderRepository;
+import com.microservices.orders.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderServiceImpl implements OrderService {
+    private final OrderRepository orderRepository;
+    private final OutboxWriter outboxWriter;
+    private final ProductCatalog productCatalog;
+
+    @Override
+    @Transactional
+    public OrderResponse createOrder(Long userId, CreateOrderRequest request) {
+        Map<Long, ProductCatalog.Product> products = productCatalog.find(productIds(List.of(request)));
+        Order saved = orderRepository.save(newOrder(userId, request, LocalDateTime.now(), products));
+        // Same transaction as the order, the relay publishes it once this commits
+        outboxWriter.append(OrderEventType.ORDER_CREATED, saved);
+
+        log.info("Created order {} for user {}", saved.getId(), userId);
+        return OrderResponse.of(saved);
+    }
+
+    /**
+     * Creates all orders in one transaction. Ids come from pooled sequences, so the orders, items and events are
+     * sent as JDBC batches instead of one round trip per row.
+     */
+    @Override
+    @Transactional
+    public List<OrderResponse> createOrders(Long userId, List<CreateOrderRequest> requests) {
+        Map<Long, ProductCatalog.Product> products = productCatalog.find(productIds(requests));
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (CreateOrderRequest request : requests) {
+            orders.add(newOrder(userId, request, now, products));
+        }
+
+        List<Order> saved = orderRepository.saveAll(orders);
+        saved.forEach(order -> outboxWriter.append(OrderEventType.ORDER_CREATED, order));
+
+        log.info("Created {} orders for user {}", saved.size(), userId);
+        return saved.stream().map(OrderResponse::of).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderResponse getOrder(Long orderId) {
+        return orderRepository.findById(orderId)
+                .map(OrderResponse::of)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+    }
+
+    private static Set<Long> productIds(List<CreateOrderRequest> requests) {
+        Set<Long> productIds = new HashSet<>();
+        for (CreateOrderRequest request : requests) {
+            request.getItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+        return productIds;
+    }
+
+    /**
+     * Prices the items at product-service's current prices, never at what the client sent.
+     *
+     * @throws OrderItemUnavailableException if a product is unknown or sold by another restaurant
+     */
+    private static Order newOrder(Long userId, CreateOrderRequest request, LocalDateTime now,
+                                  Map<Long, ProductCatalog.Product> products) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setRestaurantId(request.getRestaurantId());
+        order.setDeliveryAddress(request.getDeliveryAddress());
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            ProductCatalog.Product product = products.get(itemRequest.getProductId());
+            if (product == null || product.price() == null
+                    || !request.getRestaurantId().equals(product.restaurantId())) {
+                throw new OrderItemUnavailableException(itemRequest.getProductId(), request.getRestaurantId());
+            }
+            OrderItem item = new OrderItem();
+            item.setProductId(itemRequest.getProductId());
+            item.setQuantity(itemRequest.getQuantity());
+            item.setUnitPrice(product.price());
+            order.addItem(item);
+            total = total.add(product.price().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+}
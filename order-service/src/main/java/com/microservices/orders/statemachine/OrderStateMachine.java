@@ -0,0 +1,163 @@
+package com.microservices.orders.statemachine;
+
+import com.microservices.orders.entity.Order;
+import com.microservices.orders.entity.ProcessedOrderEvent;
+import com.microservices.orders.exception.OrderUpdateConflictException;
+import com.microservices.orders.outbox.OutboxWriter;
+import com.microservices.orders.repository.OrderRepository;
+import com.microservices.orders.repository.ProcessedOrderEventRepository;
+import com.microservices.orders.restaurant.RestaurantOwners;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies status updates from restaurants, drivers and payments to orders, following {@link OrderTransitionTable}.
+ * <p>
+ * Orders are never locked. A batch of transitions is applied to the orders in memory and written back with version
+ * checks; if another update got in first, the whole batch is re-read and applied again. The event id of every
+ * applied transition is stored in the same transaction, so a transition delivered twice, or racing with its own
+ * retry, changes the order only once.
+ */
+@Slf4j
+@Service
+public class OrderStateMachine {
+    private final OrderRepository orderRepository;
+    private final ProcessedOrderEventRepository processedOrderEventRepository;
+    private final OutboxWriter outboxWriter;
+    private final RestaurantOwners restaurantOwners;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration processedEventRetention;
+
+    public OrderStateMachine(OrderRepository orderRepository,
+                             ProcessedOrderEventRepository processedOrderEventRepository,
+                             OutboxWriter outboxWriter,
+                             RestaurantOwners restaurantOwners,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.orders.transition-max-attempts:10}") int maxAttempts,
+                             @Value("${app.orders.processed-event-retention:7d}") Duration processedEventRetention) {
+        this.orderRepository = orderRepository;
+        this.processedOrderEventRepository = processedOrderEventRepository;
+        this.outboxWriter = outboxWriter;
+        this.restaurantOwners = restaurantOwners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.processedEventRetention = processedEventRetention;
+    }
+
+    public TransitionResult apply(OrderTransition transition) {
+        return applyAll(List.of(transition)).get(0);
+    }
+
+    /**
+     * Applies the transitions in the given order, in one transaction.
+     *
+     * @return one result per transition, in the same order
+     * @throws OrderUpdateConflictException if concurrent updates kept winning for every attempt
+     */
+    public List<TransitionResult> applyAll(List<OrderTransition> transitions) {
+        if (transitions.isEmpty()) {
+            return List.of();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyInTransaction(transitions));
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException ex) {
+                // Another update changed one of the orders, or recorded one of the events, since they were read.
+                // Lock timeouts and deadlock victims from the batched updates are retried the same way
+                if (attempt >= maxAttempts) {
+                    throw new OrderUpdateConflictException(
+                            "Orders are being updated concurrently, please try again", ex);
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private List<TransitionResult> applyInTransaction(List<OrderTransition> transitions) {
+        Set<String> seen = new HashSet<>(processedOrderEventRepository.findProcessedIds(
+                transitions.stream().map(OrderTransition::eventId).collect(Collectors.toSet())));
+        Map<Long, Order> orders = orderRepository.findAllById(
+                        transitions.stream()
+                                .map(OrderTransition::orderId)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TransitionResult> results = new ArrayList<>(transitions.size());
+        List<ProcessedOrderEvent> processed = new ArrayList<>();
+        List<Runnable> events = new ArrayList<>();
+        for (OrderTransition transition : transitions) {
+            Order order = orders.get(transition.orderId());
+            if (order != null && !OrderTransitionTable.mayMake(transition.caller(), order, transition.target(),
+                    restaurantOwners::ownerOf)) {
+                // Checked first so that a caller does not learn the status of an order that is not theirs
+                results.add(result(transition, TransitionResult.Outcome.FORBIDDEN, null));
+            } else if (!seen.add(transition.eventId())) {
+                results.add(result(transition, TransitionResult.Outcome.DUPLICATE, order));
+            } else if (order == null) {
+                results.add(result(transition, TransitionResult.Outcome.NOT_FOUND, null));
+            } else if (!OrderTransitionTable.isAllowed(order.getStatus(), transition.target())) {
+                results.add(result(transition, TransitionResult.Outcome.REJECTED, order));
+            } else {
+                order.setStatus(transition.target());
+                order.setUpdatedAt(now);
+                processed.add(new ProcessedOrderEvent(transition.eventId(), order.getId(), now));
+                OrderTransitionTable.eventFor(transition.target())
+                        .ifPresent(eventType -> events.add(() -> outboxWriter.append(eventType, order)));
+                results.add(result(transition, TransitionResult.Outcome.APPLIED, order));
+            }
+        }
+
+        processedOrderEventRepository.saveAll(processed);
+        // Run the version-checked updates here, so a conflict surfaces as a translated exception and is retried
+        orderRepository.flush();
+        // Written after the flush so that the events carry the order version this change commits
+        events.forEach(Runnable::run);
+        return results;
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.processed-event-purge-interval-ms:3600000}")
+    public void purgeProcessedEvents() {
+        LocalDateTime before = LocalDateTime.now().minus(processedEventRetention);
+        Integer purged = transactionTemplate.execute(
+                status -> processedOrderEventRepository.deleteProcessedBefore(before));
+        log.debug("Purged {} processed order events older than {}", purged, before);
+    }
+
+    private static TransitionResult result(OrderTransition transition, TransitionResult.Outcome outcome,
+                                           Order order) {
+        return new TransitionResult(transition.eventId(), transition.orderId(), outcome,
+                order != null ? order.getStatus() : null);
+    }
+
+    private static void backOff(int attempt) {
+        try {
+            // Jitter keeps the racing updates from colliding again on the next attempt
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 1L << Math.min(attempt, 6)));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OrderUpdateConflictException("Interrupted while retrying order update", ex);
+        }
+    }
+}
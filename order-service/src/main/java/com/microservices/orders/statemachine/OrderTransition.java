@@ -0,0 +1,13 @@
+package com.microservices.orders.statemachine;
+
+import com.microservices.identity.Caller;
+import com.microservices.orders.enums.OrderStatus;
+
+/**
+ * A request to move an order to {@code target}. {@code eventId} identifies the update at its source, so sending the
+ * same transition again has no effect.
+ *
+ * @param caller who asks for the transition, checked with {@link OrderTransitionTable#mayMake}
+ */
+public record OrderTransition(String eventId, Long orderId, OrderStatus target, Caller caller) {
+}
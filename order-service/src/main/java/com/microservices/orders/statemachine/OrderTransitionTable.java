@@ -0,0 +1,99 @@
+package com.microservices.orders.statemachine;
+
+import com.microservices.identity.Caller;
+import com.microservices.orders.entity.Order;
+import com.microservices.orders.enums.OrderEventType;
+import com.microservices.orders.enums.OrderStatus;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.microservices.orders.enums.OrderStatus.CANCELLED;
+import static com.microservices.orders.enums.OrderStatus.CONFIRMED;
+import static com.microservices.orders.enums.OrderStatus.DELIVERED;
+import static com.microservices.orders.enums.OrderStatus.PENDING;
+import static com.microservices.orders.enums.OrderStatus.PICKED_UP;
+import static com.microservices.orders.enums.OrderStatus.PREPARING;
+import static com.microservices.orders.enums.OrderStatus.READY;
+
+/**
+ * The order lifecycle: PENDING → CONFIRMED → PREPARING → READY → PICKED_UP → DELIVERED, with cancellation allowed
+ * until the restaurant starts preparing. Also names the event each transition publishes, if any, and who may make
+ * it: the owner of the order's restaurant moves it through the kitchen, the driver it was assigned to picks it up
+ * and delivers it, and only the customer who placed it can cancel it. Admins can make every transition.
+ */
+public final class OrderTransitionTable {
+    private static final Map<OrderStatus, Set<OrderStatus>> NEXT = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, OrderEventType> EVENTS = new EnumMap<>(OrderStatus.class);
+    /**
+     * Role that makes the transition into each status. Missing for {@code CANCELLED}, which the order's customer
+     * makes.
+     */
+    private static final Map<OrderStatus, String> ACTORS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        for (OrderStatus status : OrderStatus.values()) {
+            NEXT.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        allow(PENDING, CONFIRMED, CANCELLED);
+        allow(CONFIRMED, PREPARING, CANCELLED);
+        allow(PREPARING, READY);
+        allow(READY, PICKED_UP);
+        allow(PICKED_UP, DELIVERED);
+
+        EVENTS.put(CONFIRMED, OrderEventType.ORDER_CONFIRMED);
+        EVENTS.put(PREPARING, OrderEventType.ORDER_PREPARING);
+        EVENTS.put(READY, OrderEventType.ORDER_READY);
+        EVENTS.put(CANCELLED, OrderEventType.ORDER_CANCELLED);
+
+        ACTORS.put(CONFIRMED, Caller.RESTAURANT_OWNER);
+        ACTORS.put(PREPARING, Caller.RESTAURANT_OWNER);
+        ACTORS.put(READY, Caller.RESTAURANT_OWNER);
+        ACTORS.put(PICKED_UP, Caller.DELIVERY_PERSON);
+        ACTORS.put(DELIVERED, Caller.DELIVERY_PERSON);
+    }
+
+    private OrderTransitionTable() {
+    }
+
+    public static boolean isAllowed(OrderStatus from, OrderStatus to) {
+        return NEXT.get(from).contains(to);
+    }
+
+    public static Optional<OrderEventType> eventFor(OrderStatus to) {
+        return Optional.ofNullable(EVENTS.get(to));
+    }
+
+    /**
+     * Whether {@code caller} may move {@code order} to {@code to}, whatever its current status.
+     *
+     * @param restaurantOwners id of the owner of a restaurant, only asked for transitions a restaurant makes
+     */
+    public static boolean mayMake(Caller caller, Order order, OrderStatus to,
+                                  Function<String, Optional<Long>> restaurantOwners) {
+        if (caller.isAdmin()) {
+            return true;
+        }
+        if (to == CANCELLED) {
+            return caller.isOrAdmin(order.getUserId());
+        }
+        String actor = ACTORS.get(to);
+        if (actor == null || !caller.hasRole(actor) || caller.userId() == null) {
+            return false;
+        }
+        if (actor.equals(Caller.DELIVERY_PERSON)) {
+            return caller.userId().equals(order.getDriverId());
+        }
+        return restaurantOwners.apply(order.getRestaurantId())
+                .map(caller.userId()::equals)
+                .orElse(false);
+    }
+
+    private static void allow(OrderStatus from, OrderStatus... to) {
+        NEXT.get(from).addAll(Set.of(to));
+    }
+}
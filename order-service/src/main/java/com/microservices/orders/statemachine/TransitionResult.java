@@ -0,0 +1,26 @@
+package com.microservices.orders.statemachine;
+
+import com.microservices.orders.enums.OrderStatus;
+
+/**
+ * @param status the order's status after the transition was handled, {@code null} if the order does not exist
+ */
+public record TransitionResult(String eventId, Long orderId, Outcome outcome, OrderStatus status) {
+
+    public enum Outcome {
+        APPLIED,
+        /**
+         * The event was applied before.
+         */
+        DUPLICATE,
+        /**
+         * The order's current status does not allow the transition.
+         */
+        REJECTED,
+        /**
+         * The caller may not make the transition, see {@link OrderTransitionTable#mayMake}.
+         */
+        FORBIDDEN,
+        NOT_FOUND
+    }
+}
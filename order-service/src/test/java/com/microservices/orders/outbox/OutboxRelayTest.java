@@ -0,0 +1,199 @@
+package com.microservices.orders.outbox;
+
+import com.microservices.orders.dto.event.OrderEvent;
+import com.microservices.orders.entity.Order;
+import com.microservices.orders.enums.OrderEventType;
+import com.microservices.orders.enums.OrderStatus;
+import com.microservices.orders.repository.OutboxEventRepository;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.producer.compression-type=lz4",
+        "spring.kafka.producer.properties.linger.ms=20",
+        "spring.kafka.producer.properties.enable.idempotence=true",
+        "app.outbox.topic=" + OutboxRelayTest.TOPIC,
+        "app.outbox.batch-size=200"
+})
+@EmbeddedKafka(partitions = 4, topics = OutboxRelayTest.TOPIC)
+@ImportAutoConfiguration({KafkaAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OutboxWriter.class, OutboxRelay.class, OutboxRelayTest.OutboxPropertiesConfig.class})
+class OutboxRelayTest {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelayTest.class);
+
+    static final String TOPIC = "order-events-test";
+    private static final int ORDERS = 200;
+    private static final int BENCHMARK_ORDERS = 1_000;
+    private static final int EVENTS_PER_ORDER = 5;
+    private static final int RELAYS = 3;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    void concurrentRelaysPublishEveryEventOnceInOrderPerOrder() throws Exception {
+        relayAndVerify(1, ORDERS);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkConcurrentRelays() throws Exception {
+        long elapsedMillis = relayAndVerify(1_000_001, BENCHMARK_ORDERS);
+        int total = BENCHMARK_ORDERS * EVENTS_PER_ORDER;
+        log.info("{} events of {} orders relayed by {} relays in {} ms ({} events/s)",
+                total, BENCHMARK_ORDERS, RELAYS, elapsedMillis, total * 1000L / elapsedMillis);
+    }
+
+    /**
+     * Writes the events of {@code orders} orders from {@code firstOrderId} on, drains the outbox with concurrent
+     * relays and checks that each order's events were published once, in order.
+     *
+     * @return how long draining took, in milliseconds
+     */
+    private long relayAndVerify(long firstOrderId, int orders) throws Exception {
+        Map<String, List<String>> written = writeEvents(firstOrderId, orders);
+        int total = orders * EVENTS_PER_ORDER;
+
+        ExecutorService relays = Executors.newFixedThreadPool(RELAYS);
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<Void>> running = new ArrayList<>();
+            for (int i = 0; i < RELAYS; i++) {
+                running.add(CompletableFuture.runAsync(this::drain, relays));
+            }
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            relays.shutdown();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        assertThat(outboxEventRepository.count()).isZero();
+        Map<String, List<String>> published = new HashMap<>();
+        for (ConsumerRecord<String, String> record : consume(written.keySet(), total)) {
+            published.computeIfAbsent(record.key(), key -> new ArrayList<>()).add(eventId(record.value()));
+        }
+        assertThat(published).isEqualTo(written);
+        return elapsedMillis;
+    }
+
+    /**
+     * Keeps publishing batches until the outbox is empty. Batches may come back empty while other relays hold the
+     * remaining rows, so only an empty table ends the loop.
+     */
+    private void drain() {
+        while (outboxRelay.publishBatch() > 0 || outboxEventRepository.count() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private Map<String, List<String>> writeEvents(long firstOrderId, int orders) {
+        Map<String, List<String>> written = new HashMap<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int sequence = 0; sequence < EVENTS_PER_ORDER; sequence++) {
+            long version = sequence;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (long orderId = firstOrderId; orderId < firstOrderId + orders; orderId++) {
+                    OrderEvent event = outboxWriter.append(OrderEventType.ORDER_CREATED, order(orderId, version));
+                    written.computeIfAbsent(String.valueOf(orderId), key -> new ArrayList<>())
+                            .add(event.eventId().toString());
+                }
+            });
+        }
+        return written;
+    }
+
+    /**
+     * An order as it is after {@code version} changes. The outbox only needs its fields, it is never persisted.
+     */
+    private static Order order(long orderId, long version) {
+        Order order = new Order();
+        order.setId(orderId);
+        order.setVersion(version);
+        order.setUserId(1L);
+        order.setRestaurantId("1");
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(BigDecimal.TEN);
+        return order;
+    }
+
+    /**
+     * Reads the topic from the start, keeping the records of the given orders only, since other tests publish to the
+     * same topic.
+     */
+    private List<ConsumerRecord<String, String>> consume(Set<String> orderIds, int expected) {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("outbox-relay-test", "false", embeddedKafka);
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(consumerProps,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            embeddedKafka.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+            List<ConsumerRecord<String, String>> records = new ArrayList<>();
+            long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (records.size() < expected && System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    if (orderIds.contains(record.key())) {
+                        records.add(record);
+                    }
+                }
+            }
+            return records;
+        }
+    }
+
+    private static String eventId(String payload) {
+        int start = payload.indexOf("\"eventId\":\"") + "\"eventId\":\"".length();
+        return payload.substring(start, payload.indexOf('"', start));
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(OutboxProperties.class)
+    static class OutboxPropertiesConfig {
+    }
+}
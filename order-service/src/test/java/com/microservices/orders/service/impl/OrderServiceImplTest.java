@@ -0,0 +1,223 @@
+package com.microservices.orders.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.microservices.orders.dto.request.CreateOrderRequest;
+import com.microservices.orders.dto.request.OrderItemRequest;
+import com.microservices.orders.dto.response.OrderResponse;
+import com.microservices.orders.exception.IdempotencyKeyReusedException;
+import com.microservices.orders.exception.OrderItemUnavailableException;
+import com.microservices.orders.idempotency.IdempotencyService;
+import com.microservices.orders.idempotency.IdempotentResponse;
+import com.microservices.orders.outbox.OutboxWriter;
+import com.microservices.orders.product.ProductCatalog;
+import com.microservices.orders.repository.IdempotencyRecordRepository;
+import com.microservices.orders.repository.OrderRepository;
+import com.microservices.orders.repository.OutboxEventRepository;
+import com.microservices.orders.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs against H2 in PostgreSQL mode, standing in for the production database: same sequences and batching, so
+ * the statement counts carry over even though the timings do not.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orders;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderServiceImpl.class, OutboxWriter.class, IdempotencyService.class})
+class OrderServiceImplTest {
+    private static final Logger log = LoggerFactory.getLogger(OrderServiceImplTest.class);
+    private static final long USER_ID = 42L;
+    private static final int BENCHMARK_ORDERS = 2_000;
+    private static final int BULK_SIZE = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private ProductCatalog productCatalog;
+
+    @BeforeEach
+    void clear() {
+        outboxEventRepository.deleteAllInBatch();
+        idempotencyRecordRepository.deleteAllInBatch();
+        orderRepository.deleteAll();
+        // Products 1 to 10 are sold by restaurant 1 at 5 each, product 99 by another restaurant
+        when(productCatalog.find(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> productIds = invocation.getArgument(0);
+            return productIds.stream()
+                    .map(id -> new ProductCatalog.Product(id, id == 99 ? "2" : "1", BigDecimal.valueOf(5)))
+                    .collect(Collectors.toMap(ProductCatalog.Product::id, Function.identity()));
+        });
+    }
+
+    @Test
+    void pricesItemsFromTheCatalog() {
+        OrderResponse order = orderService.createOrder(USER_ID, request(3));
+
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void rejectsProductsOfAnotherRestaurant() {
+        CreateOrderRequest request = request(1);
+        request.getItems().get(0).setProductId(99L);
+
+        assertThatThrownBy(() -> orderService.createOrder(USER_ID, request))
+                .isInstanceOf(OrderItemUnavailableException.class);
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    @Test
+    void bulkCreateSendsFarFewerStatementsThanSingleCreates() {
+        int orders = 2 * BULK_SIZE;
+
+        Creation single = createOneByOne(orders);
+        Creation bulk = createInBulks(orders);
+
+        assertThat(orderRepository.count()).isEqualTo(2L * orders);
+        assertThat(outboxEventRepository.count()).isEqualTo(2L * orders);
+        assertThat(bulk.statements()).isLessThan(single.statements() / 5);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSingleAndBulkCreates() {
+        Creation single = createOneByOne(BENCHMARK_ORDERS);
+        Creation bulk = createInBulks(BENCHMARK_ORDERS);
+        log.info("{} orders one by one: {} ms ({} orders/s), {} statements", BENCHMARK_ORDERS, single.millis(),
+                BENCHMARK_ORDERS * 1000L / single.millis(), single.statements());
+        log.info("{} orders in bulks of {}: {} ms ({} orders/s), {} statements", BENCHMARK_ORDERS, BULK_SIZE,
+                bulk.millis(), BENCHMARK_ORDERS * 1000L / bulk.millis(), bulk.statements());
+
+        assertThat(orderRepository.count()).isEqualTo(2L * BENCHMARK_ORDERS);
+        assertThat(bulk.statements()).isLessThan(single.statements() / 5);
+    }
+
+    @Test
+    void retryWithSameKeyReplaysTheFirstResponse() {
+        CreateOrderRequest request = request(1);
+
+        IdempotentResponse<OrderResponse> first = createIdempotent("key-1", request);
+        IdempotentResponse<OrderResponse> retry = createIdempotent("key-1", request);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.body().getId()).isEqualTo(first.body().getId());
+        assertThat(orderRepository.count()).isEqualTo(1);
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        createIdempotent("key-2", request(1));
+
+        assertThatThrownBy(() -> createIdempotent("key-2", request(3)))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    private IdempotentResponse<OrderResponse> createIdempotent(String key, CreateOrderRequest request) {
+        return idempotencyService.execute(USER_ID, key, request, new TypeReference<OrderResponse>() {
+        }, () -> orderService.createOrder(USER_ID, request));
+    }
+
+    private Creation createOneByOne(int orders) {
+        List<CreateOrderRequest> requests = requests(orders);
+        return measure(() -> requests.forEach(request -> orderService.createOrder(USER_ID, request)));
+    }
+
+    private Creation createInBulks(int orders) {
+        List<CreateOrderRequest> requests = requests(orders);
+        return measure(() -> {
+            for (int from = 0; from < orders; from += BULK_SIZE) {
+                orderService.createOrders(USER_ID, requests.subList(from, Math.min(orders, from + BULK_SIZE)));
+            }
+        });
+    }
+
+    private Creation measure(Runnable work) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        work.run();
+        return new Creation(Math.max(1, (System.nanoTime() - start) / 1_000_000),
+                statistics.getPrepareStatementCount());
+    }
+
+    private static List<CreateOrderRequest> requests(int orders) {
+        List<CreateOrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            requests.add(request(i % 10 + 1));
+        }
+        return requests;
+    }
+
+    private static CreateOrderRequest request(int items) {
+        List<OrderItemRequest> itemRequests = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId((long) i + 1);
+            item.setQuantity(1);
+            itemRequests.add(item);
+        }
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setRestaurantId("1");
+        request.setDeliveryAddress("1 Bee Street");
+        request.setItems(itemRequests);
+        return request;
+    }
+
+    private record Creation(long millis, long statements) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.microservices.orders.statemachine;
+
+import com.microservices.identity.Caller;
+import com.microservices.orders.entity.Order;
+import com.microservices.orders.enums.OrderStatus;
+import com.microservices.orders.exception.OrderUpdateConflictException;
+import com.microservices.orders.outbox.OutboxWriter;
+import com.microservices.orders.repository.OrderRepository;
+import com.microservices.orders.repository.OutboxEventRepository;
+import com.microservices.orders.repository.ProcessedOrderEventRepository;
+import com.microservices.orders.restaurant.RestaurantOwners;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races several workers over a small set of hot orders, each sending the next transition of random orders in
+ * batches. Workers that read the same status send the same event id, like a source retrying its update.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.orders.transition-max-attempts=20"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderStateMachine.class, OutboxWriter.class})
+class OrderStateMachineStressTest {
+    private static final Logger log = LoggerFactory.getLogger(OrderStateMachineStressTest.class);
+    private static final List<OrderStatus> LIFECYCLE = List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED,
+            OrderStatus.PREPARING, OrderStatus.READY, OrderStatus.PICKED_UP, OrderStatus.DELIVERED);
+    private static final int ORDERS = 50;
+    private static final int BENCHMARK_ORDERS = 500;
+    private static final int WORKERS = 8;
+    private static final int BATCH_SIZE = 10;
+    private static final Caller ADMIN = new Caller(99L, "admin@beefood.com", Set.of(Caller.ADMIN));
+
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProcessedOrderEventRepository processedOrderEventRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockitoBean
+    private RestaurantOwners restaurantOwners;
+
+    @Test
+    void contendedTransitionsAreAppliedExactlyOnce() throws Exception {
+        race(ORDERS);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkContendedTransitions() throws Exception {
+        Race race = race(BENCHMARK_ORDERS);
+        log.info("{} workers, {} orders: {} transitions in {} ms ({}/s), {} duplicates, {} rejected, "
+                        + "{} batches gave up", WORKERS, BENCHMARK_ORDERS, race.applied(), race.millis(),
+                race.applied() * 1000L / race.millis(), race.duplicates(), race.rejected(), race.conflicts());
+    }
+
+    /**
+     * Creates {@code orders} pending orders, races the workers until all of them are delivered and checks that
+     * every transition was applied once.
+     */
+    private Race race(int orders) throws Exception {
+        List<Long> orderIds = createOrders(orders);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger delivered = new AtomicInteger();
+
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<Void>> running = new ArrayList<>();
+            for (int i = 0; i < WORKERS; i++) {
+                running.add(CompletableFuture.runAsync(() -> {
+                    while (delivered.get() < orders) {
+                        try {
+                            for (TransitionResult result : orderStateMachine.applyAll(nextTransitions(orderIds))) {
+                                switch (result.outcome()) {
+                                    case APPLIED -> {
+                                        applied.incrementAndGet();
+                                        if (result.status() == OrderStatus.DELIVERED) {
+                                            delivered.incrementAndGet();
+                                        }
+                                    }
+                                    case DUPLICATE -> duplicates.incrementAndGet();
+                                    case REJECTED -> rejected.incrementAndGet();
+                                    case NOT_FOUND, FORBIDDEN ->
+                                            throw new IllegalStateException(result.outcome() + " " + result.orderId());
+                                }
+                            }
+                        } catch (OrderUpdateConflictException ex) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                }, workers));
+            }
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            workers.shutdown();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        int transitionsPerOrder = LIFECYCLE.size() - 1;
+        assertThat(applied.get()).isEqualTo(orders * transitionsPerOrder);
+        assertThat(processedOrderEventRepository.count()).isEqualTo((long) orders * transitionsPerOrder);
+        assertThat(orderRepository.findAllById(orderIds)).allSatisfy(order -> {
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+            assertThat(order.getVersion()).isEqualTo((long) transitionsPerOrder);
+        });
+        // Confirmed, preparing and ready publish events on this path, picked up and delivered do not
+        assertThat(outboxEventRepository.count()).isEqualTo(orders * 3L);
+        return new Race(applied.get(), duplicates.get(), rejected.get(), conflicts.get(), elapsedMillis);
+    }
+
+    private List<Long> createOrders(int count) {
+        orderRepository.deleteAll();
+        processedOrderEventRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setUserId(1L);
+            order.setRestaurantId("1");
+            order.setDeliveryAddress("1 Bee Street");
+            order.setTotalAmount(BigDecimal.TEN);
+            order.setStatus(OrderStatus.PENDING);
+            order.setCreatedAt(LocalDateTime.now());
+            orders.add(order);
+        }
+        return orderRepository.saveAll(orders).stream().map(Order::getId).toList();
+    }
+
+    /**
+     * The next step of a batch of random orders, as seen by a worker that read them just now.
+     */
+    private List<OrderTransition> nextTransitions(List<Long> orderIds) {
+        List<Long> batch = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size())));
+        }
+
+        List<OrderTransition> transitions = new ArrayList<>();
+        for (Order order : orderRepository.findAllById(batch)) {
+            int step = LIFECYCLE.indexOf(order.getStatus());
+            if (step < LIFECYCLE.size() - 1) {
+                OrderStatus next = LIFECYCLE.get(step + 1);
+                transitions.add(new OrderTransition(order.getId() + ":" + next, order.getId(), next, ADMIN));
+            }
+        }
+        return transitions;
+    }
+
+    private record Race(int applied, int duplicates, int rejected, int conflicts, long millis) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.microservices.orders.statemachine;
+
+import com.microservices.identity.Caller;
+import com.microservices.orders.entity.Order;
+import com.microservices.orders.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static com.microservices.orders.enums.OrderStatus.CANCELLED;
+import static com.microservices.orders.enums.OrderStatus.CONFIRMED;
+import static com.microservices.orders.enums.OrderStatus.DELIVERED;
+import static com.microservices.orders.enums.OrderStatus.PICKED_UP;
+import static com.microservices.orders.enums.OrderStatus.PREPARING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderTransitionTableTest {
+    private static final Caller CUSTOMER = new Caller(7L, "customer@beefood.com", Set.of(Caller.USER));
+    private static final Caller OTHER_CUSTOMER = new Caller(8L, "other@beefood.com", Set.of(Caller.USER));
+    private static final Caller RESTAURANT = new Caller(20L, "owner@beefood.com", Set.of(Caller.RESTAURANT_OWNER));
+    private static final Caller OTHER_RESTAURANT =
+            new Caller(21L, "other-owner@beefood.com", Set.of(Caller.RESTAURANT_OWNER));
+    private static final Caller DRIVER = new Caller(30L, "driver@beefood.com", Set.of(Caller.DELIVERY_PERSON));
+    private static final Caller OTHER_DRIVER =
+            new Caller(31L, "other-driver@beefood.com", Set.of(Caller.DELIVERY_PERSON));
+    private static final Caller ADMIN = new Caller(1L, "admin@beefood.com", Set.of(Caller.ADMIN));
+
+    private final Order order = orderOf(CUSTOMER.userId(), "1");
+
+    @Test
+    void onlyTheCustomerWhoPlacedTheOrderCancelsIt() {
+        assertThat(mayMake(CUSTOMER, order, CANCELLED)).isTrue();
+        assertThat(mayMake(OTHER_CUSTOMER, order, CANCELLED)).isFalse();
+        assertThat(mayMake(DRIVER, order, CANCELLED)).isFalse();
+    }
+
+    @Test
+    void restaurantsMoveOrdersThroughTheKitchen() {
+        assertThat(mayMake(RESTAURANT, order, CONFIRMED)).isTrue();
+        assertThat(mayMake(RESTAURANT, order, PREPARING)).isTrue();
+        assertThat(mayMake(RESTAURANT, order, PICKED_UP)).isFalse();
+        assertThat(mayMake(CUSTOMER, order, CONFIRMED)).isFalse();
+    }
+
+    @Test
+    void driversPickUpAndDeliver() {
+        assertThat(mayMake(DRIVER, order, PICKED_UP)).isTrue();
+        assertThat(mayMake(DRIVER, order, DELIVERED)).isTrue();
+        assertThat(mayMake(DRIVER, order, PREPARING)).isFalse();
+        assertThat(mayMake(CUSTOMER, order, DELIVERED)).isFalse();
+    }
+
+    @Test
+    void ownersOfOtherRestaurantsAreRejected() {
+        assertThat(mayMake(OTHER_RESTAURANT, order, CONFIRMED)).isFalse();
+        assertThat(mayMake(OTHER_RESTAURANT, order, PREPARING)).isFalse();
+        assertThat(mayMake(OTHER_RESTAURANT, orderOf(CUSTOMER.userId(), "unknown"), CONFIRMED)).isFalse();
+    }
+
+    @Test
+    void driversOtherThanTheAssignedOneAreRejected() {
+        assertThat(mayMake(OTHER_DRIVER, order, PICKED_UP)).isFalse();
+        assertThat(mayMake(OTHER_DRIVER, order, DELIVERED)).isFalse();
+
+        Order unassigned = orderOf(CUSTOMER.userId(), "1");
+        unassigned.setDriverId(null);
+        assertThat(mayMake(DRIVER, unassigned, PICKED_UP)).isFalse();
+    }
+
+    @Test
+    void adminsMakeEveryTransitionAndAnonymousCallersNone() {
+        assertThat(mayMake(ADMIN, order, CANCELLED)).isTrue();
+        assertThat(mayMake(ADMIN, order, DELIVERED)).isTrue();
+        assertThat(mayMake(Caller.ANONYMOUS, order, CANCELLED)).isFalse();
+        assertThat(mayMake(Caller.ANONYMOUS, order, CONFIRMED)).isFalse();
+    }
+
+    private static boolean mayMake(Caller caller, Order order, OrderStatus to) {
+        // Restaurant 1 is owned by RESTAURANT, no other restaurant is known
+        return OrderTransitionTable.mayMake(caller, order, to,
+                restaurantId -> restaurantId.equals("1") ? Optional.of(RESTAURANT.userId()) : Optional.empty());
+    }
+
+    private static Order orderOf(Long userId, String restaurantId) {
+        Order order = new Order();
+        order.setId(100L);
+        order.setUserId(userId);
+        order.setRestaurantId(restaurantId);
+        order.setDriverId(DRIVER.userId());
+        return order;
+    }
+}
@@ -0,0 +1,17 @@
+package com.microservices.products.cache;
+
+import com.microservices.products.dto.response.ProductResponse;
+
+/**
+ * A product as stored in both cache tiers.
+ *
+ * @param product    {@code null} if no product has the id
+ * @param expiresAt  epoch millis at which the entry expires in Redis
+ * @param loadMillis how long loading it from the database took, used to decide when to reload it early
+ */
+public record CachedProduct(ProductResponse product, long expiresAt, long loadMillis) {
+
+    public long remainingMillis(long now) {
+        return expiresAt - now;
+    }
+}
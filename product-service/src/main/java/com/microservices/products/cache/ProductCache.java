@@ -0,0 +1,279 @@
+package com.microservices.products.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.microservices.products.dto.response.ProductResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through product cache: a size-bounded in-memory tier, in front of Redis, in front of the database.
+ * <p>
+ * Concurrent reads of a product missing from memory share a single load, so a hot product expiring sends one
+ * request to Redis and at most one query to the database per instance. Products read after
+ * {@code localRefreshAfter} are reloaded in the background while the cached copy keeps being served. Redis entries
+ * are reloaded early with a probability that rises as they near expiry, which spreads the reloads of a hot product
+ * across instances instead of having all of them miss at the same moment. Every TTL is jittered.
+ * <p>
+ * Redis is best effort: if it fails, products are loaded from the database and Redis is skipped for the retry
+ * interval.
+ */
+@Slf4j
+public class ProductCache implements AutoCloseable {
+    static final String LOCAL_CACHE_NAME = "products.local";
+
+    private final AsyncLoadingCache<Long, CachedProduct> local;
+    private final Function<Long, ProductResponse> loader;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Timer loadTimer;
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong redisRetryAt = new AtomicLong();
+    private final LongAdder redisLookups = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    /**
+     * When each product was last invalidated, so that a load racing with the invalidation does not put the old
+     * product back into Redis. Only needs to outlive the longest load.
+     */
+    private final Cache<Long, Long> invalidatedAt;
+
+    /**
+     * @param loader        reads a product from the database, returns {@code null} if there is none
+     * @param redisTemplate {@code null} to use the in-memory tier only
+     */
+    public ProductCache(ProductCacheProperties properties, Function<Long, ProductResponse> loader,
+                        StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.loader = loader;
+        this.redisTemplate = properties.getRedis().isEnabled() ? redisTemplate : null;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.loadTimer = Timer.builder("products.cache.load")
+                .description("Time to load a product from the database on a cache miss")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.invalidatedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build();
+        // Caffeine evicts by size using recency and frequency, so one-off reads do not push out hot products
+        this.local = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxSize())
+                .expireAfter(new Expiry<Long, CachedProduct>() {
+                    @Override
+                    public long expireAfterCreate(Long id, CachedProduct product, long currentTime) {
+                        long ttl = Math.min(jitter(properties.getLocalTtl()).toMillis(),
+                                product.remainingMillis(System.currentTimeMillis()));
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttl));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, CachedProduct product, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(id, product, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, CachedProduct product, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .refreshAfterWrite(properties.getLocalRefreshAfter())
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync((id, executor) -> CompletableFuture.supplyAsync(() -> load(id), executor));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, local.synchronous(), LOCAL_CACHE_NAME);
+        Gauge.builder("products.cache.hit.ratio", local, cache -> cache.synchronous().stats().hitRate())
+                .tag("tier", "local")
+                .register(meterRegistry);
+        Gauge.builder("products.cache.hit.ratio", this, cache -> cache.redisHitRatio())
+                .tag("tier", "redis")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the product, or {@code null} if there is none with this id
+     */
+    public ProductResponse get(Long id) {
+        try {
+            return local.get(id).join().product();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Drops the product from both tiers. The next read loads it from the database.
+     */
+    public void invalidate(Long id) {
+        invalidatedAt.put(id, System.currentTimeMillis());
+        local.synchronous().invalidate(id);
+        if (!redisAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(redisKey(id));
+        } catch (RuntimeException ex) {
+            redisFailed(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        loadExecutor.close();
+    }
+
+    private CachedProduct load(Long id) {
+        long startedAt = System.currentTimeMillis();
+        CachedProduct cached = readRedis(id, startedAt);
+        if (cached != null) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        ProductResponse product = loader.apply(id);
+        long loadNanos = System.nanoTime() - start;
+        loadTimer.record(loadNanos, TimeUnit.NANOSECONDS);
+
+        long now = System.currentTimeMillis();
+        Duration ttl = jitter(product != null ? properties.getTtl() : properties.getNotFoundTtl());
+        CachedProduct loaded = new CachedProduct(product, now + ttl.toMillis(),
+                TimeUnit.NANOSECONDS.toMillis(loadNanos));
+        Long invalidated = invalidatedAt.getIfPresent(id);
+        if (invalidated == null || invalidated < startedAt) {
+            writeRedis(id, loaded, ttl);
+        }
+        return loaded;
+    }
+
+    /**
+     * @return the product from Redis, or {@code null} if it is missing there or due for an early reload
+     */
+    private CachedProduct readRedis(Long id, long now) {
+        if (!redisAvailable()) {
+            return null;
+        }
+
+        String json;
+        try {
+            json = redisTemplate.opsForValue().get(redisKey(id));
+        } catch (RuntimeException ex) {
+            redisFailed(ex);
+            return null;
+        }
+        redisLookups.increment();
+        CachedProduct cached = json != null ? deserialize(json) : null;
+        if (cached == null || cached.remainingMillis(now) <= 0) {
+            redisResult("miss");
+            return null;
+        }
+        if (reloadEarly(cached, now)) {
+            redisResult("early_reload");
+            return null;
+        }
+        redisHits.increment();
+        redisResult("hit");
+        return cached;
+    }
+
+    private void writeRedis(Long id, CachedProduct product, Duration ttl) {
+        if (!redisAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(redisKey(id), serialize(product), ttl);
+        } catch (RuntimeException ex) {
+            redisFailed(ex);
+        }
+    }
+
+    /**
+     * Probabilistic early expiration: reload when {@code now - loadTime * beta * ln(random)} passes the expiry.
+     * The further from expiry and the cheaper the load, the less likely a reload, so only products read close to
+     * expiry are reloaded, by roughly one reader.
+     */
+    private boolean reloadEarly(CachedProduct cached, long now) {
+        double beta = properties.getEarlyRefreshBeta();
+        if (beta <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double head = -Math.max(1, cached.loadMillis()) * beta * Math.log(random);
+        return now + head >= cached.expiresAt();
+    }
+
+    private Duration jitter(Duration ttl) {
+        double jitter = properties.getTtlJitter();
+        if (jitter <= 0) {
+            return ttl;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Duration.ofMillis(Math.max(1, (long) (ttl.toMillis() * factor)));
+    }
+
+    private double redisHitRatio() {
+        long lookups = redisLookups.sum();
+        return lookups == 0 ? Double.NaN : (double) redisHits.sum() / lookups;
+    }
+
+    private String redisKey(Long id) {
+        return properties.getRedis().getKeyPrefix() + id;
+    }
+
+    private boolean redisAvailable() {
+        return redisTemplate != null && System.currentTimeMillis() >= redisRetryAt.get();
+    }
+
+    private void redisFailed(RuntimeException ex) {
+        log.warn("Redis product cache unavailable, using the in-memory tier only for {}: {}",
+                properties.getRedis().getRetryInterval(), ex.toString());
+        redisRetryAt.set(System.currentTimeMillis() + properties.getRedis().getRetryInterval().toMillis());
+        redisResult("error");
+    }
+
+    private void redisResult(String result) {
+        meterRegistry.counter("products.cache.redis", "result", result).increment();
+    }
+
+    private String serialize(CachedProduct product) {
+        try {
+            return objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cached product", e);
+        }
+    }
+
+    private CachedProduct deserialize(String json) {
+        try {
+            return objectMapper.readValue(json, CachedProduct.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable cached product: {}", e.getOriginalMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.microservices.products.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.products.dto.response.ProductResponse;
+import com.microservices.products.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Wires the {@link ProductCache} in front of the product table, and creates the inventory updates topic that
+ * invalidates it if it does not exist.
+ */
+@Configuration
+@EnableConfigurationProperties(ProductCacheProperties.class)
+public class ProductCacheConfig {
+
+    @Bean
+    public ProductCache productCache(ProductCacheProperties properties, ProductRepository productRepository,
+                                     ObjectProvider<StringRedisTemplate> redisTemplate, ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry) {
+        return new ProductCache(properties,
+                id -> productRepository.findById(id).map(ProductResponse::of).orElse(null),
+                redisTemplate.getIfAvailable(), objectMapper, meterRegistry);
+    }
+
+    @Bean
+    public NewTopic inventoryUpdatesTopic(ProductCacheProperties properties) {
+        return TopicBuilder.name(properties.getInvalidation().getTopic())
+                .partitions(properties.getInvalidation().getTopicPartitions())
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.microservices.products.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.products.dto.event.InventoryUpdateEvent;
+import com.microservices.products.inventory.InventoryEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts products from the {@link ProductCache} as their inventory updates arrive.
+ * <p>
+ * Each instance listens in a consumer group of its own, named after {@code app.instance-id}, so every instance sees
+ * every update and evicts its in-memory tier. A new instance starts from the latest offset, anything older is
+ * already gone from memory; a restarted one resumes where it stopped, and the group is not left behind.
+ * <p>
+ * Deletions also reach the {@link InventoryEngine}, so that the instance owning inventory drops the counter and
+ * reservations of a product deleted through another instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+    private final ProductCache productCache;
+    private final InventoryEngine inventoryEngine;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${app.product-cache.invalidation.topic:inventory-updates}",
+            groupId = "${spring.application.name}-cache-${app.instance-id}",
+            properties = "auto.offset.reset=latest")
+    public void onInventoryUpdate(String payload) {
+        InventoryUpdateEvent event;
+        try {
+            event = objectMapper.readValue(payload, InventoryUpdateEvent.class);
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring unreadable inventory update: {}", ex.getOriginalMessage());
+            return;
+        }
+        productCache.invalidate(event.productId());
+        if (event.stock() == null) {
+            inventoryEngine.forget(event.productId());
+        }
+    }
+}
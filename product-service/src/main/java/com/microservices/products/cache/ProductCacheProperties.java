@@ -0,0 +1,78 @@
+package com.microservices.products.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the product cache: an in-memory tier per instance in front of a Redis tier shared by all instances.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.product-cache")
+public class ProductCacheProperties {
+    /**
+     * Number of products kept in memory. Beyond it, the least frequently used products are evicted first.
+     */
+    private long localMaxSize = 10_000;
+
+    /**
+     * How long a product is kept in memory. Kept short, it bounds how stale an instance can be if it misses an
+     * invalidation.
+     */
+    private Duration localTtl = Duration.ofMinutes(1);
+
+    /**
+     * Products read again after this long are reloaded in the background, so hot products never expire in memory.
+     */
+    private Duration localRefreshAfter = Duration.ofSeconds(45);
+
+    /**
+     * How long a product is kept in Redis.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * How long a missing product is remembered, so lookups of unknown ids do not all reach the database.
+     */
+    private Duration notFoundTtl = Duration.ofSeconds(30);
+
+    /**
+     * Fraction by which every TTL is randomly shortened or lengthened, so products cached together do not all
+     * expire together.
+     */
+    private double ttlJitter = 0.1;
+
+    /**
+     * How eagerly products are reloaded before they expire in Redis. Each read of a product close to expiry
+     * reloads it with a probability that grows as expiry nears and with how long the product took to load; higher
+     * values reload earlier. {@code 0} disables early reloads.
+     */
+    private double earlyRefreshBeta = 1.0;
+
+    private Redis redis = new Redis();
+
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Redis {
+        private boolean enabled = true;
+
+        private String keyPrefix = "products:product:";
+
+        /**
+         * How long to skip Redis after it failed before trying it again.
+         */
+        private Duration retryInterval = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Invalidation {
+        /**
+         * Topic of the {@code InventoryUpdateEvent}s. Every instance reads all of it, to evict its in-memory tier.
+         */
+        private String topic = "inventory-updates";
+
+        private int topicPartitions = 6;
+    }
+}
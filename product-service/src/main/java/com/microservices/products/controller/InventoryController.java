@@ -0,0 +1,103 @@
+package com.microservices.products.controller;
+
+import com.microservices.identity.Caller;
+import com.microservices.products.dto.request.ReservationRequest;
+import com.microservices.products.dto.request.StockAdjustmentRequest;
+import com.microservices.products.dto.response.APIResponse;
+import com.microservices.products.dto.response.ReservationResponse;
+import com.microservices.products.exception.ReservationAccessDeniedException;
+import com.microservices.products.inventory.InventoryEngine;
+import com.microservices.products.inventory.Reservation;
+import com.microservices.products.restaurant.RestaurantOwners;
+import com.microservices.products.service.ProductService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Served only by the instance that owns inventory, see {@code InventoryEngine}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/inventory")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.inventory", name = "owner", havingValue = "true", matchIfMissing = true)
+public class InventoryController {
+    private final InventoryEngine inventoryEngine;
+    private final ProductService productService;
+    private final RestaurantOwners restaurantOwners;
+
+    @GetMapping("/{productId}")
+    public APIResponse<Integer> getAvailable(@PathVariable Long productId) {
+        return APIResponse.<Integer>builder()
+                .result(inventoryEngine.available(productId))
+                .build();
+    }
+
+    /**
+     * Only the owner of the product's restaurant, or an admin, adjusts its stock.
+     */
+    @PostMapping("/{productId}/adjustments")
+    public APIResponse<Integer> adjustStock(@PathVariable Long productId,
+                                            @RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                            @Valid @RequestBody StockAdjustmentRequest request) {
+        restaurantOwners.checkManages(caller, productService.getProduct(productId).getRestaurantId());
+        inventoryEngine.adjustStock(productId, request.getDelta());
+        return APIResponse.<Integer>builder()
+                .result(inventoryEngine.available(productId))
+                .message("Stock adjusted")
+                .build();
+    }
+
+    @PostMapping("/reservations")
+    @ResponseStatus(HttpStatus.CREATED)
+    public APIResponse<ReservationResponse> reserve(@RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                    @Valid @RequestBody ReservationRequest request) {
+        if (!caller.isAuthenticated()) {
+            throw new ReservationAccessDeniedException(request.getReservationId());
+        }
+        Reservation reservation = inventoryEngine.reserve(request.getReservationId(), caller.userId(),
+                request.getProductId(), request.getQuantity(), request.getTtl());
+        // A retry returns the reservation made first, which must be the caller's own
+        checkOwns(caller, reservation);
+        return APIResponse.<ReservationResponse>builder()
+                .result(ReservationResponse.of(reservation))
+                .message("Stock reserved")
+                .build();
+    }
+
+    /**
+     * Only an admin sells reserved stock. The customer who reserved it may release it, but not confirm the sale
+     * themselves.
+     */
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public APIResponse<ReservationResponse> confirm(@PathVariable String reservationId,
+                                                    @RequestAttribute(Caller.ATTRIBUTE) Caller caller) {
+        if (!caller.isAdmin()) {
+            throw new ReservationAccessDeniedException(reservationId);
+        }
+        return APIResponse.<ReservationResponse>builder()
+                .result(ReservationResponse.of(inventoryEngine.confirm(reservationId)))
+                .message("Reservation confirmed")
+                .build();
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    public APIResponse<ReservationResponse> release(@PathVariable String reservationId,
+                                                    @RequestAttribute(Caller.ATTRIBUTE) Caller caller) {
+        checkOwns(caller, inventoryEngine.reservation(reservationId));
+        return APIResponse.<ReservationResponse>builder()
+                .result(ReservationResponse.of(inventoryEngine.release(reservationId)))
+                .message("Reservation released")
+                .build();
+    }
+
+    private static void checkOwns(Caller caller, Reservation reservation) {
+        if (!caller.isOrAdmin(reservation.userId())) {
+            throw new ReservationAccessDeniedException(reservation.id());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.microservices.products.controller;
+
+import com.microservices.identity.Caller;
+import com.microservices.products.dto.request.ProductRequest;
+import com.microservices.products.dto.response.APIResponse;
+import com.microservices.products.dto.response.ProductResponse;
+import com.microservices.products.search.ProductSearchQuery;
+import com.microservices.products.search.ProductSearchResult;
+import com.microservices.products.service.ProductService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+public class ProductController {
+    private final ProductService productService;
+
+    @GetMapping("/search")
+    public APIResponse<ProductSearchResult> searchProducts(@RequestParam(required = false) String q,
+                                                          @RequestParam(required = false) String category,
+                                                          @RequestParam(required = false) String restaurantId,
+                                                          @RequestParam(required = false) String priceBand,
+                                                          @RequestParam(defaultValue = "0") int page,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        ProductSearchQuery query = new ProductSearchQuery(q, category, restaurantId, priceBand, page, size);
+        return APIResponse.<ProductSearchResult>builder()
+                .result(productService.searchProducts(query))
+                .build();
+    }
+
+    @GetMapping("/{productId}")
+    public APIResponse<ProductResponse> getProduct(@PathVariable Long productId) {
+        return APIResponse.<ProductResponse>builder()
+                .result(productService.getProduct(productId))
+                .build();
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public APIResponse<ProductResponse> createProduct(@RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                      @Valid @RequestBody ProductRequest request) {
+        return APIResponse.<ProductResponse>builder()
+                .result(productService.createProduct(caller, request))
+                .message("Product created")
+                .build();
+    }
+
+    @PutMapping("/{productId}")
+    public APIResponse<ProductResponse> updateProduct(@PathVariable Long productId,
+                                                      @RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                      @Valid @RequestBody ProductRequest request) {
+        return APIResponse.<ProductResponse>builder()
+                .result(productService.updateProduct(caller, productId, request))
+                .message("Product updated")
+                .build();
+    }
+
+    @DeleteMapping("/{productId}")
+    public APIResponse<Void> deleteProduct(@PathVariable Long productId,
+                                          @RequestAttribute(Caller.ATTRIBUTE) Caller caller) {
+        productService.deleteProduct(caller, productId);
+        return APIResponse.<Void>builder()
+                .message("Product deleted")
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.microservices.products.dto.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published on the inventory updates topic whenever a product's stock or details change, keyed by product id.
+ *
+ * @param stock   stock available to new orders, {@code null} if the product was deleted
+ * @param reindex whether a field the search index uses changed; {@code false} for stock changes, which make up most
+ *                updates and need no reindexing
+ */
+public record InventoryUpdateEvent(Long productId, Integer stock, boolean reindex, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,38 @@
+package com.microservices.products.dto.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductRequest {
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 64, message = "INVALID_RESTAURANT_ID")
+    private String restaurantId;
+
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 150, message = "INVALID_NAME")
+    private String name;
+
+    @Size(max = 1000, message = "INVALID_DESCRIPTION")
+    private String description;
+
+    @Size(max = 50, message = "INVALID_CATEGORY")
+    private String category;
+
+    @NotNull(message = "BLANK_FIELD")
+    @DecimalMin(value = "0.0", message = "INVALID_PRICE")
+    private BigDecimal price;
+
+    /**
+     * Initial stock. Ignored on updates, stock is then adjusted through {@code /api/v1/inventory}.
+     */
+    @NotNull(message = "BLANK_FIELD")
+    @PositiveOrZero(message = "INVALID_STOCK")
+    private Integer stock;
+}
@@ -0,0 +1,31 @@
+package com.microservices.products.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+public class ReservationRequest {
+    /**
+     * Chosen by the caller, for example from the order id, so a retried reservation is not made twice.
+     */
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 100, message = "INVALID_RESERVATION_ID")
+    private String reservationId;
+
+    @NotNull(message = "BLANK_FIELD")
+    private Long productId;
+
+    @NotNull(message = "BLANK_FIELD")
+    @Positive(message = "INVALID_QUANTITY")
+    private Integer quantity;
+
+    /**
+     * Defaults to {@code app.inventory.reservation-ttl}.
+     */
+    private Duration ttl;
+}
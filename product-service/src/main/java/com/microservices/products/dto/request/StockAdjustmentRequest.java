@@ -0,0 +1,13 @@
+package com.microservices.products.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class StockAdjustmentRequest {
+    /**
+     * Stock added, or removed if negative.
+     */
+    @NotNull(message = "BLANK_FIELD")
+    private Integer delta;
+}
@@ -0,0 +1,38 @@
+package com.microservices.products.dto.response;
+
+import com.microservices.products.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductResponse {
+    private Long id;
+    private String restaurantId;
+    private String name;
+    private String description;
+    private String category;
+    private BigDecimal price;
+    private Integer stock;
+    private LocalDateTime updatedAt;
+
+    public static ProductResponse of(Product product) {
+        return ProductResponse.builder()
+                .id(product.getId())
+                .restaurantId(product.getRestaurantId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .category(product.getCategory())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .updatedAt(product.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.microservices.products.dto.response;
+
+import com.microservices.products.inventory.Reservation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+    private String reservationId;
+    private Long productId;
+    private Integer quantity;
+    private Instant expiresAt;
+
+    public static ReservationResponse of(Reservation reservation) {
+        return ReservationResponse.builder()
+                .reservationId(reservation.id())
+                .productId(reservation.productId())
+                .quantity(reservation.quantity())
+                .expiresAt(reservation.expiresAt())
+                .build();
+    }
+}
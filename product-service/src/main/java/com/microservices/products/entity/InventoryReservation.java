@@ -0,0 +1,48 @@
+package com.microservices.products.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Stock held for an order that is not confirmed yet. Held stock is not available to other orders, but is only
+ * taken off {@link Product#getStock()} once the reservation is confirmed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "inventory_reservations")
+public class InventoryReservation implements Persistable<String> {
+    @Id
+    @Column(length = 100)
+    private String id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Rows are only ever inserted and deleted, this saves the select {@code save} would otherwise run for an
+     * assigned id.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package com.microservices.products.exception;
+
+import com.microservices.products.dto.response.APIResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(ProductNotFoundException.class)
+    public ResponseEntity<APIResponse<?>> handleProductNotFound(ProductNotFoundException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiResponse);
+    }
+
+    @ExceptionHandler(ProductAccessDeniedException.class)
+    public ResponseEntity<APIResponse<?>> handleProductAccessDenied(ProductAccessDeniedException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(apiResponse);
+    }
+
+    @ExceptionHandler(ReservationAccessDeniedException.class)
+    public ResponseEntity<APIResponse<?>> handleReservationAccessDenied(ReservationAccessDeniedException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(apiResponse);
+    }
+
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<APIResponse<?>> handleReservationNotFound(ReservationNotFoundException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiResponse);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<APIResponse<?>> handleInsufficientStock(InsufficientStockException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(apiResponse);
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.products.exception;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(Long productId, int requested, int available) {
+        super("Only " + available + " of product " + productId + " available, " + requested + " requested");
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.products.exception;
+
+public class ProductAccessDeniedException extends RuntimeException {
+    public ProductAccessDeniedException(String restaurantId) {
+        super("Not allowed to manage products of restaurant " + restaurantId);
+    }
+}
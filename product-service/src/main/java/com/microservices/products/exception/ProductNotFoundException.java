@@ -0,0 +1,7 @@
+package com.microservices.products.exception;
+
+public class ProductNotFoundException extends RuntimeException {
+    public ProductNotFoundException(Long productId) {
+        super("Product " + productId + " not found");
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.products.exception;
+
+public class ReservationAccessDeniedException extends RuntimeException {
+    public ReservationAccessDeniedException(String reservationId) {
+        super("Not allowed to access reservation " + reservationId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.products.exception;
+
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(String reservationId) {
+        super("Reservation " + reservationId + " not found or expired");
+    }
+}
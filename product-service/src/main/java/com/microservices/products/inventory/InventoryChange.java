@@ -0,0 +1,19 @@
+package com.microservices.products.inventory;
+
+/**
+ * A change made in memory by the {@link InventoryEngine}, waiting to be written to the database.
+ */
+sealed interface InventoryChange {
+
+    record Reserved(Reservation reservation) implements InventoryChange {
+    }
+
+    /**
+     * The reservation ended: released, expired, or confirmed with {@code sold} set.
+     */
+    record Ended(Reservation reservation, boolean sold) implements InventoryChange {
+    }
+
+    record StockAdjusted(Long productId, int delta) implements InventoryChange {
+    }
+}
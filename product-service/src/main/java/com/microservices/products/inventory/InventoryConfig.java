@@ -0,0 +1,14 @@
+package com.microservices.products.inventory;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Schedules the {@link InventoryEngine}'s database writes and expiry of reservations.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(InventoryProperties.class)
+public class InventoryConfig {
+}
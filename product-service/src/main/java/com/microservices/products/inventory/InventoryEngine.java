@@ -0,0 +1,304 @@
+package com.microservices.products.inventory;
+
+import com.microservices.products.dto.event.InventoryUpdateEvent;
+import com.microservices.products.entity.InventoryReservation;
+import com.microservices.products.exception.InsufficientStockException;
+import com.microservices.products.exception.ProductNotFoundException;
+import com.microservices.products.exception.ReservationNotFoundException;
+import com.microservices.products.repository.InventoryReservationRepository;
+import com.microservices.products.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Reserves stock in memory, so that orders racing for the same products during a flash sale never wait on a row
+ * lock.
+ * <p>
+ * Each product has an atomic counter of the stock still available, that is its stock minus what is reserved. A
+ * reservation takes its quantity off the counter with a compare-and-set, and fails instead of going below zero,
+ * so stock is never oversold. Confirming a reservation sells the stock; releasing it, or letting it expire, gives
+ * it back. Every change is written to the database afterwards, in batches, by {@link InventoryWriteBehind}; on
+ * startup the engine restores the reservations that were written and reads each product's stock when it is
+ * first used.
+ * <p>
+ * The counters are only correct if all changes of a product's stock go through one instance. When product-service
+ * is scaled out, exactly one instance runs with {@code app.inventory.owner=true}; only that one serves
+ * {@code /api/v1/inventory}, and the api-gateway routes those requests to it, see {@link InventoryOwnerConfig}.
+ * The other instances neither restore, expire nor write anything, and answer {@link #available} from the database.
+ * Changes made in the last flush interval before a crash are lost.
+ */
+@Slf4j
+@Component
+public class InventoryEngine {
+    private final ConcurrentHashMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ProductRepository productRepository;
+    private final InventoryReservationRepository reservationRepository;
+    private final InventoryWriteBehind writeBehind;
+    private final InventoryUpdatePublisher inventoryUpdatePublisher;
+    private final InventoryProperties properties;
+
+    public InventoryEngine(ProductRepository productRepository,
+                           InventoryReservationRepository reservationRepository,
+                           InventoryWriteBehind writeBehind,
+                           InventoryUpdatePublisher inventoryUpdatePublisher,
+                           InventoryProperties properties) {
+        this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
+        this.writeBehind = writeBehind;
+        this.inventoryUpdatePublisher = inventoryUpdatePublisher;
+        this.properties = properties;
+    }
+
+    /**
+     * Reloads the reservations written before the last shutdown. Ones that expired meanwhile are released.
+     */
+    @PostConstruct
+    void restore() {
+        if (!properties.isOwner()) {
+            return;
+        }
+        Instant now = Instant.now();
+        int restored = 0;
+        for (InventoryReservation row : reservationRepository.findAll()) {
+            Reservation reservation = new Reservation(row.getId(), row.getUserId(), row.getProductId(),
+                    row.getQuantity(), row.getExpiresAt());
+            if (reservation.isExpired(now)) {
+                writeBehind.append(new InventoryChange.Ended(reservation, false));
+            } else {
+                reservations.put(reservation.id(), reservation);
+                restored++;
+            }
+        }
+        log.info("Restored {} inventory reservations", restored);
+    }
+
+    /**
+     * Reserves stock of a product. Reserving again with the same id returns the existing reservation.
+     *
+     * @param userId who reserves the stock
+     * @param ttl    {@code null} for the default reservation TTL
+     * @throws InsufficientStockException if less than {@code quantity} is available
+     */
+    public Reservation reserve(String reservationId, Long userId, Long productId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Reservation existing = reservations.get(reservationId);
+        if (existing != null) {
+            return existing;
+        }
+
+        Instant expiresAt = Instant.now().plus(reservationTtl(ttl));
+        AtomicInteger counter = counter(productId);
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                throw new InsufficientStockException(productId, quantity, Math.max(0, current));
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+
+        Reservation reservation = new Reservation(reservationId, userId, productId, quantity, expiresAt);
+        Reservation stored = reservations.computeIfAbsent(reservationId, id -> {
+            writeBehind.append(new InventoryChange.Reserved(reservation));
+            return reservation;
+        });
+        if (stored != reservation) {
+            // Lost a race with a retry of the same reservation
+            counter.addAndGet(quantity);
+        }
+        return stored;
+    }
+
+    /**
+     * Sells the reserved stock.
+     *
+     * @throws ReservationNotFoundException if the reservation was already confirmed, released or expired
+     */
+    public Reservation confirm(String reservationId) {
+        // A counter built from the database while the sale is still queued would count the sold stock as available
+        // again, since the reservation no longer holds it by then. Building it first has it count the reservation
+        counter(reservation(reservationId).productId());
+        Reservation reservation = end(reservationId, true, r -> true);
+        if (reservation == null) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        return reservation;
+    }
+
+    /**
+     * Gives the reserved stock back.
+     *
+     * @throws ReservationNotFoundException if the reservation was already confirmed, released or expired
+     */
+    public Reservation release(String reservationId) {
+        Reservation reservation = end(reservationId, false, r -> true);
+        if (reservation == null) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        return reservation;
+    }
+
+    /**
+     * @throws ReservationNotFoundException if the reservation was already confirmed, released or expired
+     */
+    public Reservation reservation(String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        return reservation;
+    }
+
+    /**
+     * Adds stock to, or with a negative {@code delta} removes stock from, a product. Available stock may go below
+     * zero, in which case reservations fail until enough is released or added.
+     */
+    public void adjustStock(Long productId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        counter(productId).addAndGet(delta);
+        writeBehind.append(new InventoryChange.StockAdjusted(productId, delta));
+    }
+
+    /**
+     * On an instance that does not own inventory, the stock less the reservations as last written by the owner,
+     * which may be up to a flush interval behind.
+     */
+    public int available(Long productId) {
+        if (!properties.isOwner()) {
+            int stock = productRepository.findStockById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException(productId));
+            return Math.toIntExact(stock - reservationRepository.sumQuantityByProductId(productId));
+        }
+        return counter(productId).get();
+    }
+
+    /**
+     * Forgets a deleted product and drops its reservations. The owner is told about deletions made on other
+     * instances through the inventory updates topic.
+     */
+    public void forget(Long productId) {
+        available.remove(productId);
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.productId().equals(productId)) {
+                end(reservation.id(), false, r -> r == reservation);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.expiry-interval-ms:1000}")
+    public void expireReservations() {
+        if (!properties.isOwner()) {
+            return;
+        }
+        Instant now = Instant.now();
+        int expired = 0;
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.isExpired(now) && end(reservation.id(), false, r -> r == reservation) != null) {
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.debug("Released {} expired inventory reservations", expired);
+        }
+    }
+
+    /**
+     * Writes pending changes to the database, and tells the other instances about products whose stock changed.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:100}")
+    public void flush() {
+        if (!properties.isOwner()) {
+            return;
+        }
+        InventoryWriteBehind.Flushed flushed;
+        do {
+            flushed = writeBehind.flush();
+            LocalDateTime now = LocalDateTime.now();
+            for (Long productId : flushed.products()) {
+                AtomicInteger counter = available.get(productId);
+                inventoryUpdatePublisher.publish(new InventoryUpdateEvent(productId,
+                        counter != null ? counter.get() : null, false, now));
+            }
+        } while (flushed.changes() > 0 && !writeBehind.isEmpty());
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+        if (!writeBehind.isEmpty()) {
+            log.warn("Could not write pending inventory changes before shutdown");
+        }
+    }
+
+    /**
+     * Removes the reservation if it matches {@code condition}, and gives its stock back unless it was sold.
+     * <p>
+     * Changes of a reservation are queued while its map entry is locked, so they reach the write-behind in the
+     * order they happened: the end of a reservation never overtakes its creation.
+     *
+     * @return the removed reservation, or {@code null} if there was none or it did not match
+     */
+    private Reservation end(String reservationId, boolean sold, Predicate<Reservation> condition) {
+        Reservation[] ended = new Reservation[1];
+        reservations.computeIfPresent(reservationId, (id, reservation) -> {
+            if (!condition.test(reservation)) {
+                return reservation;
+            }
+            writeBehind.append(new InventoryChange.Ended(reservation, sold));
+            ended[0] = reservation;
+            return null;
+        });
+        Reservation reservation = ended[0];
+        if (reservation != null && !sold) {
+            AtomicInteger counter = available.get(reservation.productId());
+            if (counter != null) {
+                counter.addAndGet(reservation.quantity());
+            }
+        }
+        return reservation;
+    }
+
+    /**
+     * The product's counter, read from the database on first use: its stock less what the restored reservations
+     * hold. Changes are only written through the counter afterwards, so the database never gets ahead of it.
+     */
+    private AtomicInteger counter(Long productId) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        return available.computeIfAbsent(productId, id -> {
+            int stock = productRepository.findStockById(id).orElseThrow(() -> new ProductNotFoundException(id));
+            int reserved = reservations.values().stream()
+                    .filter(reservation -> reservation.productId().equals(id))
+                    .mapToInt(Reservation::quantity)
+                    .sum();
+            return new AtomicInteger(stock - reserved);
+        });
+    }
+
+    private Duration reservationTtl(Duration requested) {
+        if (requested == null) {
+            return properties.getReservationTtl();
+        }
+        if (requested.isNegative() || requested.isZero()) {
+            throw new IllegalArgumentException("Reservation TTL must be positive");
+        }
+        return requested.compareTo(properties.getMaxReservationTtl()) > 0
+                ? properties.getMaxReservationTtl() : requested;
+    }
+}
@@ -0,0 +1,32 @@
+package com.microservices.products.inventory;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the instance that owns inventory under {@link #VIRTUAL_HOST_NAME} as well as its usual name, so that the
+ * api-gateway can route {@code /api/v1/inventory} to it alone with {@code lb://PRODUCT-INVENTORY}, whichever load
+ * balancer picks the instance.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.inventory", name = "owner", havingValue = "true", matchIfMissing = true)
+public class InventoryOwnerConfig {
+    public static final String VIRTUAL_HOST_NAME = "product-inventory";
+
+    @Bean
+    static BeanPostProcessor inventoryOwnerRegistration() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof EurekaInstanceConfigBean instance) {
+                    // Eureka reads a comma-separated virtual host name as several
+                    instance.setVirtualHostName(instance.getVirtualHostName() + "," + VIRTUAL_HOST_NAME);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.microservices.products.inventory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.inventory")
+public class InventoryProperties {
+    /**
+     * Whether this instance owns inventory. Exactly one instance does; the others keep no counters or reservations
+     * and read stock from the database, see {@link InventoryEngine}.
+     */
+    private boolean owner = true;
+
+    /**
+     * How long stock stays reserved for an order that is neither confirmed nor released.
+     */
+    private Duration reservationTtl = Duration.ofMinutes(10);
+
+    /**
+     * Longest reservation a caller may ask for.
+     */
+    private Duration maxReservationTtl = Duration.ofMinutes(30);
+
+    /**
+     * Maximum number of inventory changes written to the database per transaction.
+     */
+    private int writeBatchSize = 1_000;
+}
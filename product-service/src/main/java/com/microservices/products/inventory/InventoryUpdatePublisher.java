@@ -0,0 +1,42 @@
+package com.microservices.products.inventory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.products.cache.ProductCacheProperties;
+import com.microservices.products.dto.event.InventoryUpdateEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link InventoryUpdateEvent}s, keyed by product id so updates of one product stay in order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryUpdatePublisher {
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductCacheProperties cacheProperties;
+
+    /**
+     * Must only be called once the update is committed. A failed send is only logged: caches that miss it catch
+     * up when their entry expires.
+     */
+    public void publish(InventoryUpdateEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize inventory update", ex);
+        }
+        kafkaTemplate.send(cacheProperties.getInvalidation().getTopic(), event.productId().toString(), payload)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Could not publish inventory update of product {}: {}",
+                                event.productId(), ex.toString());
+                    }
+                });
+    }
+}
@@ -0,0 +1,123 @@
+package com.microservices.products.inventory;
+
+import com.microservices.products.entity.InventoryReservation;
+import com.microservices.products.repository.InventoryReservationRepository;
+import com.microservices.products.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Queues the {@link InventoryEngine}'s changes and writes them to the database in batches.
+ * <p>
+ * Each batch is folded before it is written: a reservation that ends within the batch it was made in never reaches
+ * the database, and all stock changes of a product become one in-place update. A batch that fails is kept and
+ * written again, ahead of newer changes, by the next flush.
+ */
+@Slf4j
+@Component
+class InventoryWriteBehind {
+    private final ConcurrentLinkedQueue<InventoryChange> queue = new ConcurrentLinkedQueue<>();
+    private final InventoryReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final InventoryProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Changes of a failed batch. Only touched by {@link #flush()}, which runs one at a time.
+     */
+    private volatile List<InventoryChange> retry = List.of();
+
+    InventoryWriteBehind(InventoryReservationRepository reservationRepository, ProductRepository productRepository,
+                         InventoryProperties properties, PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    void append(InventoryChange change) {
+        queue.add(change);
+    }
+
+    boolean isEmpty() {
+        return queue.isEmpty() && retry.isEmpty();
+    }
+
+    /**
+     * Writes the next batch of changes.
+     */
+    synchronized Flushed flush() {
+        List<InventoryChange> batch = new ArrayList<>(retry);
+        InventoryChange change;
+        while (batch.size() < properties.getWriteBatchSize() && (change = queue.poll()) != null) {
+            batch.add(change);
+        }
+        if (batch.isEmpty()) {
+            return Flushed.NOTHING;
+        }
+
+        Map<String, InventoryReservation> inserts = new LinkedHashMap<>();
+        Set<String> deletes = new HashSet<>();
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        for (InventoryChange next : batch) {
+            switch (next) {
+                case InventoryChange.Reserved reserved -> {
+                    Reservation reservation = reserved.reservation();
+                    inserts.put(reservation.id(), new InventoryReservation(reservation.id(),
+                            reservation.userId(), reservation.productId(), reservation.quantity(),
+                            reservation.expiresAt()));
+                }
+                case InventoryChange.Ended ended -> {
+                    Reservation reservation = ended.reservation();
+                    if (inserts.remove(reservation.id()) == null) {
+                        deletes.add(reservation.id());
+                    }
+                    if (ended.sold()) {
+                        stockDeltas.merge(reservation.productId(), -reservation.quantity(), Integer::sum);
+                    }
+                }
+                case InventoryChange.StockAdjusted adjusted ->
+                        stockDeltas.merge(adjusted.productId(), adjusted.delta(), Integer::sum);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                reservationRepository.saveAll(inserts.values());
+                if (!deletes.isEmpty()) {
+                    reservationRepository.deleteAllByIdInBatch(deletes);
+                }
+                stockDeltas.forEach((productId, delta) -> {
+                    if (delta != 0) {
+                        productRepository.adjustStock(productId, delta);
+                    }
+                });
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Writing {} inventory changes failed, retrying on the next flush: {}",
+                    batch.size(), ex.getMessage());
+            retry = batch;
+            return Flushed.NOTHING;
+        }
+        retry = List.of();
+        return new Flushed(batch.size(), stockDeltas.keySet());
+    }
+
+    /**
+     * @param changes  number of changes written, {@code 0} if there were none or writing them failed
+     * @param products products whose stock changed
+     */
+    record Flushed(int changes, Set<Long> products) {
+        static final Flushed NOTHING = new Flushed(0, Set.of());
+    }
+}
@@ -0,0 +1,16 @@
+package com.microservices.products.inventory;
+
+import java.time.Instant;
+
+/**
+ * Stock held in memory by the {@link InventoryEngine} for an order until it is confirmed, released or expires.
+ *
+ * @param userId who made the reservation, the only user besides admins who may confirm or release it; {@code null}
+ *               for reservations written before it was recorded
+ */
+public record Reservation(String id, Long userId, Long productId, int quantity, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,14 @@
+package com.microservices.products.repository;
+
+import com.microservices.products.entity.InventoryReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, String> {
+
+    @Query("select coalesce(sum(r.quantity), 0) from InventoryReservation r where r.productId = :productId")
+    long sumQuantityByProductId(@Param("productId") Long productId);
+}
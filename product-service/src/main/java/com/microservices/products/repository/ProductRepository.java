@@ -0,0 +1,31 @@
+package com.microservices.products.repository;
+
+import com.microservices.products.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    /**
+     * Next page of products after {@code id}, for reading the whole table without deep offsets.
+     */
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select p.stock from Product p where p.id = :productId")
+    Optional<Integer> findStockById(@Param("productId") Long productId);
+
+    /**
+     * Adds {@code delta} to the stock in place, so concurrent adjustments are never lost.
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock + :delta where p.id = :productId")
+    int adjustStock(@Param("productId") Long productId, @Param("delta") int delta);
+}
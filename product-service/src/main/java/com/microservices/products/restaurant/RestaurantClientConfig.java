@@ -0,0 +1,20 @@
+package com.microservices.products.restaurant;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+public class RestaurantClientConfig {
+
+    /**
+     * Resolves {@code lb://} service ids against the Eureka registry, so restaurant-service is reached on whichever
+     * instances are up rather than on a fixed address.
+     */
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder() {
+        return RestClient.builder();
+    }
+}
@@ -0,0 +1,81 @@
+package com.microservices.products.restaurant;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.microservices.identity.Caller;
+import com.microservices.products.dto.response.APIResponse;
+import com.microservices.products.exception.ProductAccessDeniedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Who owns each restaurant, as known by restaurant-service. Cached for a short while, since products of the same
+ * restaurant are usually edited together and restaurants rarely change hands.
+ */
+@Component
+public class RestaurantOwners {
+    private static final ParameterizedTypeReference<APIResponse<Restaurant>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+    private final LoadingCache<String, Optional<Long>> owners;
+
+    public RestaurantOwners(RestClient.Builder loadBalancedRestClientBuilder,
+                            @Value("${app.restaurants.base-url:lb://RESTAURANT-SERVICE}") String baseUrl,
+                            @Value("${app.restaurants.owner-ttl:5m}") Duration ownerTtl) {
+        this.restClient = loadBalancedRestClientBuilder.baseUrl(baseUrl).build();
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ownerTtl)
+                .build(this::fetch);
+    }
+
+    /**
+     * @return the id of the restaurant's owner, empty if restaurant-service does not know the restaurant
+     */
+    public Optional<Long> ownerOf(String restaurantId) {
+        return owners.get(restaurantId);
+    }
+
+    /**
+     * Products and stock of a restaurant are managed by its owner, or by an admin.
+     *
+     * @throws ProductAccessDeniedException if the caller is neither
+     */
+    public void checkManages(Caller caller, String restaurantId) {
+        if (caller.isAdmin()) {
+            return;
+        }
+        if (!caller.hasRole(Caller.RESTAURANT_OWNER) || !ownerOf(restaurantId)
+                .map(owner -> owner.equals(caller.userId()))
+                .orElse(false)) {
+            throw new ProductAccessDeniedException(restaurantId);
+        }
+    }
+
+    private Optional<Long> fetch(String restaurantId) {
+        try {
+            APIResponse<Restaurant> response = restClient.get()
+                    .uri("/api/v1/restaurants/{id}", restaurantId)
+                    .retrieve()
+                    .body(RESPONSE_TYPE);
+            return Optional.ofNullable(response != null && response.getResult() != null
+                    ? response.getResult().ownerId() : null);
+        } catch (HttpClientErrorException.NotFound ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * What is read of restaurant-service's restaurant.
+     */
+    public record Restaurant(Long ownerId) {
+    }
+}
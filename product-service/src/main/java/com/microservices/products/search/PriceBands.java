@@ -0,0 +1,52 @@
+package com.microservices.products.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Splits prices into the bands of {@link SearchProperties#getPriceBands()}, labelled like {@code 50000-100000}
+ * and {@code 500000+}. Prices are compared in minor units, so ranges can be matched on a long point field.
+ */
+class PriceBands {
+    private final List<BigDecimal> bounds;
+
+    PriceBands(List<BigDecimal> bounds) {
+        this.bounds = List.copyOf(bounds);
+    }
+
+    String labelOf(BigDecimal price) {
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : bounds) {
+            if (price.compareTo(upper) < 0) {
+                return label(lower, upper);
+            }
+            lower = upper;
+        }
+        return lower.stripTrailingZeros().toPlainString() + "+";
+    }
+
+    /**
+     * @return the range of the band in minor units, upper bound exclusive; {@code null} for an unknown label
+     */
+    long[] rangeOf(String label) {
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : bounds) {
+            if (label(lower, upper).equals(label)) {
+                return new long[]{minorUnits(lower), minorUnits(upper)};
+            }
+            lower = upper;
+        }
+        if (label.equals(lower.stripTrailingZeros().toPlainString() + "+")) {
+            return new long[]{minorUnits(lower), Long.MAX_VALUE};
+        }
+        return null;
+    }
+
+    static long minorUnits(BigDecimal price) {
+        return price.movePointRight(2).longValue();
+    }
+
+    private static String label(BigDecimal lower, BigDecimal upper) {
+        return lower.stripTrailingZeros().toPlainString() + "-" + upper.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,359 @@
+package com.microservices.products.search;
+
+import com.microservices.products.entity.Product;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.MultiCollectorManager;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index of the product catalogue, for searching products by name and narrowing them down by category,
+ * restaurant and price band.
+ * <p>
+ * Names are folded to lower case ASCII, so {@code pho} finds {@code Phở}. Each word of a search matches a product
+ * name word exactly, as a prefix or with up to two typos, exact matches ranking first. Facet counts come from doc
+ * values of the same search, so a page of results and its facets cost one pass over the matches.
+ * <p>
+ * Writes are visible to searches after the next {@link #refresh()}, within {@code app.search.refresh-interval-ms}.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+    static final String CATEGORY_FACET = "category";
+    static final String RESTAURANT_FACET = "restaurant";
+    static final String PRICE_BAND_FACET = "priceBand";
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String CATEGORY = "category";
+    private static final String RESTAURANT = "restaurant";
+    private static final String PRICE = "price";
+    private static final String PRICE_MINOR_UNITS = "price_minor_units";
+
+    private final SearchProperties properties;
+    private final PriceBands priceBands;
+    private final Path indexPath;
+    private final boolean temporary;
+    private final FSDirectory directory;
+    private final Analyzer analyzer = new FoldingAnalyzer();
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public ProductSearchIndex(SearchProperties properties) throws IOException {
+        this.properties = properties;
+        this.priceBands = new PriceBands(properties.getPriceBands());
+        this.temporary = properties.getIndexPath() == null;
+        this.indexPath = temporary ? Files.createTempDirectory("product-index") : properties.getIndexPath();
+        this.directory = FSDirectory.open(indexPath);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(writer, new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                return new FacetedSearcher(reader, facetState(reader));
+            }
+        });
+    }
+
+    public void index(Product product) {
+        try {
+            writer.updateDocument(new Term(ID, product.getId().toString()), document(product));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not index product " + product.getId(), ex);
+        }
+    }
+
+    public void indexAll(Collection<Product> products) {
+        products.forEach(this::index);
+    }
+
+    public void delete(Long productId) {
+        try {
+            writer.deleteDocuments(new Term(ID, productId.toString()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not remove product " + productId + " from the index", ex);
+        }
+    }
+
+    public void deleteAll() {
+        try {
+            writer.deleteAll();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not clear the product index", ex);
+        }
+    }
+
+    /**
+     * Makes the writes since the last refresh visible to searches.
+     */
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:200}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException ex) {
+            log.warn("Could not refresh the product index: {}", ex.getMessage());
+        }
+    }
+
+    public ProductSearchResult search(ProductSearchQuery query) {
+        int size = Math.clamp(query.size(), 1, properties.getMaxPageSize());
+        int from = Math.max(0, query.page()) * size;
+        int topK = Math.min(from + size, properties.getMaxResults());
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // Counts every hit, as the total is shown
+                Object[] collected = searcher.search(toLuceneQuery(query), new MultiCollectorManager(
+                        new TopScoreDocCollectorManager(Math.max(1, topK), Integer.MAX_VALUE),
+                        new FacetsCollectorManager()));
+                TopDocs topDocs = (TopDocs) collected[0];
+                FacetsCollector facetsCollector = (FacetsCollector) collected[1];
+
+                StoredFields storedFields = searcher.storedFields();
+                List<ProductSearchResult.Hit> hits = new ArrayList<>();
+                ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+                for (int i = from; i < Math.min(topK, scoreDocs.length); i++) {
+                    hits.add(hit(storedFields.document(scoreDocs[i].doc), scoreDocs[i].score));
+                }
+                return new ProductSearchResult(hits, topDocs.totalHits.value, query.page(), size,
+                        facets(((FacetedSearcher) searcher).facetState, facetsCollector));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Product search failed", ex);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+        if (temporary) {
+            FileSystemUtils.deleteRecursively(indexPath);
+        }
+    }
+
+    /**
+     * What of a product the index holds. A change that leaves these equal needs no reindexing.
+     */
+    public record IndexedFields(String name, String category, String restaurantId, BigDecimal price) {
+
+        public static IndexedFields of(Product product) {
+            return new IndexedFields(product.getName(), product.getCategory(), product.getRestaurantId(),
+                    product.getPrice());
+        }
+    }
+
+    private Document document(Product product) {
+        Document document = new Document();
+        document.add(new StringField(ID, product.getId().toString(), Field.Store.YES));
+        document.add(new TextField(NAME, product.getName(), Field.Store.YES));
+        document.add(new StringField(RESTAURANT, product.getRestaurantId(), Field.Store.YES));
+        document.add(new SortedSetDocValuesFacetField(RESTAURANT_FACET, product.getRestaurantId()));
+        if (product.getCategory() != null) {
+            document.add(new StringField(CATEGORY, product.getCategory(), Field.Store.YES));
+            document.add(new SortedSetDocValuesFacetField(CATEGORY_FACET, product.getCategory()));
+        }
+        document.add(new StoredField(PRICE, product.getPrice().toPlainString()));
+        document.add(new LongPoint(PRICE_MINOR_UNITS, PriceBands.minorUnits(product.getPrice())));
+        document.add(new SortedSetDocValuesFacetField(PRICE_BAND_FACET, priceBands.labelOf(product.getPrice())));
+        try {
+            return facetsConfig.build(document);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Query toLuceneQuery(ProductSearchQuery query) throws IOException {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        List<String> words = query.text() != null ? analyze(query.text()) : List.of();
+        if (words.isEmpty()) {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        for (String word : words) {
+            builder.add(wordQuery(word), BooleanClause.Occur.MUST);
+        }
+
+        if (query.category() != null) {
+            builder.add(new TermQuery(new Term(CATEGORY, query.category())), BooleanClause.Occur.FILTER);
+        }
+        if (query.restaurantId() != null) {
+            builder.add(new TermQuery(new Term(RESTAURANT, query.restaurantId())),
+                    BooleanClause.Occur.FILTER);
+        }
+        if (query.priceBand() != null) {
+            long[] range = priceBands.rangeOf(query.priceBand());
+            Query priceQuery = range != null
+                    ? LongPoint.newRangeQuery(PRICE_MINOR_UNITS, range[0], range[1] - 1)
+                    : new MatchNoDocsQuery("Unknown price band " + query.priceBand());
+            builder.add(priceQuery, BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    /**
+     * An exact match scores highest, then a prefix (the word is still being typed), then a match with typos.
+     */
+    private static Query wordQuery(String word) {
+        Term term = new Term(NAME, word);
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(new BoostQuery(new TermQuery(term), 4f), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(term), 2f), BooleanClause.Occur.SHOULD);
+        if (word.length() >= 3) {
+            int maxEdits = word.length() < 6 ? 1 : 2;
+            builder.add(new FuzzyQuery(term, maxEdits, 1), BooleanClause.Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> words = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                words.add(term.toString());
+            }
+            stream.end();
+        }
+        return words;
+    }
+
+    private Map<String, List<ProductSearchResult.FacetValue>> facets(SortedSetDocValuesReaderState state,
+                                                                     FacetsCollector facetsCollector)
+            throws IOException {
+        Map<String, List<ProductSearchResult.FacetValue>> facets = new LinkedHashMap<>();
+        SortedSetDocValuesFacetCounts counts = state != null
+                ? new SortedSetDocValuesFacetCounts(state, facetsCollector) : null;
+        for (String dimension : List.of(CATEGORY_FACET, RESTAURANT_FACET, PRICE_BAND_FACET)) {
+            facets.put(dimension, counts != null ? topValues(counts, dimension) : List.of());
+        }
+        return facets;
+    }
+
+    private List<ProductSearchResult.FacetValue> topValues(SortedSetDocValuesFacetCounts counts, String dimension)
+            throws IOException {
+        FacetResult result;
+        try {
+            result = counts.getTopChildren(properties.getFacetSize(), dimension);
+        } catch (IllegalArgumentException ex) {
+            // No product has a value for this facet yet
+            return List.of();
+        }
+        if (result == null) {
+            return List.of();
+        }
+        return Arrays.stream(result.labelValues)
+                .map(ProductSearchIndex::toFacetValue)
+                .toList();
+    }
+
+    private static ProductSearchResult.FacetValue toFacetValue(LabelAndValue labelValue) {
+        return new ProductSearchResult.FacetValue(labelValue.label, labelValue.value.longValue());
+    }
+
+    private static ProductSearchResult.Hit hit(Document document, float score) {
+        String category = document.get(CATEGORY);
+        return new ProductSearchResult.Hit(Long.valueOf(document.get(ID)), document.get(NAME), category,
+                document.get(RESTAURANT), new BigDecimal(document.get(PRICE)), score);
+    }
+
+    private SortedSetDocValuesReaderState facetState(IndexReader reader) {
+        try {
+            return new DefaultSortedSetDocValuesReaderState(reader, facetsConfig);
+        } catch (IllegalArgumentException | IOException ex) {
+            // The index has no facet values yet
+            return null;
+        }
+    }
+
+    /**
+     * A searcher with the facet ordinals of its reader, built once per refresh instead of once per search.
+     */
+    private static final class FacetedSearcher extends IndexSearcher {
+        private final SortedSetDocValuesReaderState facetState;
+
+        private FacetedSearcher(IndexReader reader, SortedSetDocValuesReaderState facetState) {
+            super(reader);
+            this.facetState = facetState;
+        }
+    }
+
+    /**
+     * Splits on word boundaries, lower-cases and strips diacritics.
+     */
+    private static final class FoldingAnalyzer extends Analyzer {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
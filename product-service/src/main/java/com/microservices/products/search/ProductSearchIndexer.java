@@ -0,0 +1,76 @@
+package com.microservices.products.search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.products.dto.event.InventoryUpdateEvent;
+import com.microservices.products.entity.Product;
+import com.microservices.products.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the {@link ProductSearchIndex} in step with the product table.
+ * <p>
+ * The index is rebuilt from the table on startup, then kept up to date from the inventory updates topic, which
+ * every instance consumes in a group of its own, named after {@code app.instance-id}. Products changed through this
+ * instance are also indexed right after their change commits, by the product service.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndexer {
+    private final ProductSearchIndex searchIndex;
+    private final ProductRepository productRepository;
+    private final SearchProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        searchIndex.deleteAll();
+        long lastId = 0;
+        int indexed = 0;
+        List<Product> products;
+        do {
+            products = productRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                    PageRequest.ofSize(properties.getRebuildBatchSize()));
+            searchIndex.indexAll(products);
+            indexed += products.size();
+            if (!products.isEmpty()) {
+                lastId = products.getLast().getId();
+            }
+        } while (products.size() == properties.getRebuildBatchSize());
+        searchIndex.refresh();
+        log.info("Indexed {} products for search in {} ms", indexed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @KafkaListener(topics = "${app.product-cache.invalidation.topic:inventory-updates}",
+            groupId = "${spring.application.name}-search-${app.instance-id}",
+            properties = "auto.offset.reset=latest")
+    public void onInventoryUpdate(String payload) {
+        InventoryUpdateEvent event;
+        try {
+            event = objectMapper.readValue(payload, InventoryUpdateEvent.class);
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring unreadable inventory update: {}", ex.getOriginalMessage());
+            return;
+        }
+        if (event.stock() == null) {
+            searchIndex.delete(event.productId());
+            return;
+        }
+        if (!event.reindex()) {
+            // Only the stock changed, which is not indexed; skips a read and a write per flushed product
+            return;
+        }
+        productRepository.findById(event.productId())
+                .ifPresentOrElse(searchIndex::index, () -> searchIndex.delete(event.productId()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.microservices.products.search;
+
+/**
+ * @param text         matched against product names, by whole word, prefix, or with typos; {@code null} matches all
+ * @param category     only products of this category, if set
+ * @param restaurantId only products of this restaurant, if set
+ * @param priceBand    only products in this price band, labelled as in the price band facet, if set
+ */
+public record ProductSearchQuery(String text, String category, String restaurantId, String priceBand, int page,
+                                 int size) {
+}
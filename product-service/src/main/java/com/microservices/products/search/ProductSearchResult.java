@@ -0,0 +1,21 @@
+package com.microservices.products.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of matching products, best first, with the number of matches per facet value.
+ *
+ * @param total  number of products matching the query
+ * @param facets by facet name: {@code category}, {@code restaurant} and {@code priceBand}
+ */
+public record ProductSearchResult(List<Hit> hits, long total, int page, int size,
+                                  Map<String, List<FacetValue>> facets) {
+
+    public record Hit(Long id, String name, String category, String restaurantId, BigDecimal price, float score) {
+    }
+
+    public record FacetValue(String value, long count) {
+    }
+}
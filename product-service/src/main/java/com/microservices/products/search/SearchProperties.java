@@ -0,0 +1,42 @@
+package com.microservices.products.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+    /**
+     * Directory of the index. It is rebuilt from the database on startup, so a temporary directory is used when
+     * unset.
+     */
+    private Path indexPath;
+
+    /**
+     * Upper bounds of the price bands products are faceted by, in ascending order. Prices above the last bound fall
+     * in an open-ended band.
+     */
+    private List<BigDecimal> priceBands = List.of(
+            new BigDecimal("50000"), new BigDecimal("100000"), new BigDecimal("200000"), new BigDecimal("500000"));
+
+    private int maxPageSize = 100;
+
+    /**
+     * Only the first results of a search can be paged through, which keeps every search a top-k search.
+     */
+    private int maxResults = 1_000;
+
+    /**
+     * Number of values returned per facet.
+     */
+    private int facetSize = 10;
+
+    /**
+     * Products read from the database per query while rebuilding the index.
+     */
+    private int rebuildBatchSize = 5_000;
+}
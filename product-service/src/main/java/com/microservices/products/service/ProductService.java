@@ -0,0 +1,24 @@
+package com.microservices.products.service;
+
+import com.microservices.identity.Caller;
+import com.microservices.products.dto.request.ProductRequest;
+import com.microservices.products.dto.response.ProductResponse;
+import com.microservices.products.search.ProductSearchQuery;
+import com.microservices.products.search.ProductSearchResult;
+
+public interface ProductService {
+    ProductResponse getProduct(Long productId);
+
+    ProductSearchResult searchProducts(ProductSearchQuery query);
+
+    /**
+     * Products are created, changed and deleted by the owner of their restaurant, or by an admin.
+     *
+     * @throws com.microservices.products.exception.ProductAccessDeniedException if the caller is neither
+     */
+    ProductResponse createProduct(Caller caller, ProductRequest request);
+
+    ProductResponse updateProduct(Caller caller, Long productId, ProductRequest request);
+
+    void deleteProduct(Caller caller, Long productId);
+}
@@ -0,0 +1,135 @@
+package com.microservices.products.service.impl;
+
+import com.microservices.identity.Caller;
+import com.microservices.products.cache.ProductCache;
+import com.microservices.products.dto.event.InventoryUpdateEvent;
+import com.microservices.products.dto.request.ProductRequest;
+import com.microservices.products.dto.response.ProductResponse;
+import com.microservices.products.entity.Product;
+import com.microservices.products.exception.ProductNotFoundException;
+import com.microservices.products.inventory.InventoryEngine;
+import com.microservices.products.inventory.InventoryUpdatePublisher;
+import com.microservices.products.repository.ProductRepository;
+import com.microservices.products.restaurant.RestaurantOwners;
+import com.microservices.products.search.ProductSearchIndex;
+import com.microservices.products.search.ProductSearchQuery;
+import com.microservices.products.search.ProductSearchResult;
+import com.microservices.products.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductServiceImpl implements ProductService {
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final InventoryUpdatePublisher inventoryUpdatePublisher;
+    private final InventoryEngine inventoryEngine;
+    private final ProductSearchIndex searchIndex;
+    private final RestaurantOwners restaurantOwners;
+
+    @Override
+    public ProductResponse getProduct(Long productId) {
+        ProductResponse product = productCache.get(productId);
+        if (product == null) {
+            throw new ProductNotFoundException(productId);
+        }
+        return product;
+    }
+
+    @Override
+    public ProductSearchResult searchProducts(ProductSearchQuery query) {
+        return searchIndex.search(query);
+    }
+
+    @Override
+    @Transactional
+    public ProductResponse createProduct(Caller caller, ProductRequest request) {
+        restaurantOwners.checkManages(caller, request.getRestaurantId());
+        LocalDateTime now = LocalDateTime.now();
+        Product product = new Product();
+        apply(product, request);
+        product.setStock(request.getStock());
+        product.setCreatedAt(now);
+        product.setUpdatedAt(now);
+
+        Product saved = productRepository.save(product);
+        // Evicts a cached "not found" for the id, in case it was looked up before it existed
+        changed(saved, new InventoryUpdateEvent(saved.getId(), saved.getStock(), true, now));
+
+        log.info("Created product {} of restaurant {}", saved.getId(), saved.getRestaurantId());
+        return ProductResponse.of(saved);
+    }
+
+    @Override
+    @Transactional
+    public ProductResponse updateProduct(Caller caller, Long productId, ProductRequest request) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        restaurantOwners.checkManages(caller, product.getRestaurantId());
+        if (!product.getRestaurantId().equals(request.getRestaurantId())) {
+            // Moving a product to another restaurant takes owning both
+            restaurantOwners.checkManages(caller, request.getRestaurantId());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ProductSearchIndex.IndexedFields indexed = ProductSearchIndex.IndexedFields.of(product);
+        apply(product, request);
+        product.setUpdatedAt(now);
+
+        boolean reindex = !indexed.equals(ProductSearchIndex.IndexedFields.of(product));
+        changed(product, new InventoryUpdateEvent(productId, inventoryEngine.available(productId), reindex, now));
+        return ProductResponse.of(product);
+    }
+
+    @Override
+    @Transactional
+    public void deleteProduct(Caller caller, Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        restaurantOwners.checkManages(caller, product.getRestaurantId());
+        productRepository.delete(product);
+
+        changed(product, new InventoryUpdateEvent(productId, null, true, LocalDateTime.now()));
+        log.info("Deleted product {}", productId);
+    }
+
+    /**
+     * Once the change commits, evicts the product here right away, and reindexes it if the event says so; the other
+     * instances do the same from the inventory updates topic.
+     *
+     * @param product the product as committed
+     */
+    private void changed(Product product, InventoryUpdateEvent event) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productCache.invalidate(event.productId());
+                if (event.stock() == null) {
+                    searchIndex.delete(event.productId());
+                    inventoryEngine.forget(event.productId());
+                } else if (event.reindex()) {
+                    searchIndex.index(product);
+                }
+                inventoryUpdatePublisher.publish(event);
+            }
+        });
+    }
+
+    /**
+     * Copies everything but the stock, which only changes through the {@link InventoryEngine} once created.
+     */
+    private static void apply(Product product, ProductRequest request) {
+        product.setRestaurantId(request.getRestaurantId());
+        product.setName(request.getName());
+        product.setDescription(request.getDescription());
+        product.setCategory(request.getCategory());
+        product.setPrice(request.getPrice());
+    }
+}
@@ -0,0 +1,229 @@
+package com.microservices.products.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.products.dto.response.ProductResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ProductCacheTest {
+    private final AtomicInteger databaseLoads = new AtomicInteger();
+    private final AtomicInteger lastLoadedStock = new AtomicInteger(-1);
+    private final ConcurrentHashMap<Long, Integer> stock = new ConcurrentHashMap<>();
+    private final List<ProductCache> caches = new ArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private MeterRegistry meterRegistry;
+    private ProductCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ProductCacheProperties();
+        properties.getRedis().setEnabled(false);
+        stock.put(1L, 10);
+        stock.put(2L, 20);
+    }
+
+    @AfterEach
+    void closeCaches() {
+        caches.forEach(ProductCache::close);
+    }
+
+    @Test
+    void concurrentMissesForOneProductShareOneDatabaseLoad() throws Exception {
+        ProductCache cache = cache(null, slowDatabase(Duration.ofMillis(100)));
+        int readers = 64;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            List<CompletableFuture<ProductResponse>> reads = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                reads.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return cache.get(1L);
+                }, executor));
+            }
+            start.countDown();
+
+            for (CompletableFuture<ProductResponse> read : reads) {
+                assertThat(read.get().getStock()).isEqualTo(10);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(databaseLoads).hasValue(1);
+    }
+
+    @Test
+    void missingProductIsRememberedToo() {
+        ProductCache cache = cache(null, database());
+
+        assertThat(cache.get(404L)).isNull();
+        assertThat(cache.get(404L)).isNull();
+
+        assertThat(databaseLoads).hasValue(1);
+    }
+
+    @Test
+    void invalidatedProductIsReloaded() {
+        ProductCache cache = cache(null, database());
+        cache.get(1L);
+
+        stock.put(1L, 9);
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L).getStock()).isEqualTo(9);
+        assertThat(databaseLoads).hasValue(2);
+    }
+
+    @Test
+    void hotProductIsRefreshedInTheBackground() throws Exception {
+        properties.setLocalRefreshAfter(Duration.ofMillis(100));
+        ProductCache cache = cache(null, slowDatabase(Duration.ofMillis(200)));
+        cache.get(1L);
+        stock.put(1L, 9);
+        Thread.sleep(150);
+
+        long start = System.nanoTime();
+        ProductResponse stale = cache.get(1L);
+        long readMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // The read that triggered the reload did not wait for it. Reading again here could trigger another refresh,
+        // so the reload is observed at the database instead
+        assertThat(stale.getStock()).isEqualTo(10);
+        assertThat(readMillis).isLessThan(100);
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (lastLoadedStock.get() != 9 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(lastLoadedStock).hasValue(9);
+        assertThat(databaseLoads).hasValue(2);
+    }
+
+    @Test
+    void exposesHitRatioAndLoadLatency() {
+        ProductCache cache = cache(null, database());
+        for (int i = 0; i < 10; i++) {
+            cache.get(1L);
+        }
+
+        assertThat(meterRegistry.get("products.cache.hit.ratio").tag("tier", "local").gauge().value())
+                .isCloseTo(0.9, within(0.001));
+        assertThat(meterRegistry.get("products.cache.load").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ProductCache.LOCAL_CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(9);
+    }
+
+    @Test
+    void sharesProductsBetweenInstancesThroughRedisWithJitteredTtls() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        RedisServer redisServer = new RedisServer(port);
+        redisServer.start();
+        LettuceConnectionFactory connectionFactory =
+                new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        try {
+            properties.getRedis().setEnabled(true);
+            StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+            ProductCache first = cache(redisTemplate, database());
+            ProductCache second = cache(redisTemplate, database());
+
+            assertThat(first.get(1L).getStock()).isEqualTo(10);
+            assertThat(second.get(1L).getStock()).isEqualTo(10);
+            assertThat(databaseLoads).hasValue(1);
+
+            // The writer evicts its own tiers, the inventory update then reaches every instance
+            stock.put(1L, 9);
+            first.invalidate(1L);
+            second.invalidate(1L);
+            assertThat(second.get(1L).getStock()).isEqualTo(9);
+            assertThat(databaseLoads).hasValue(2);
+
+            Set<Long> ttls = new HashSet<>();
+            for (long id = 100; id < 150; id++) {
+                stock.put(id, 1);
+                first.get(id);
+                ttls.add(redisTemplate.getExpire(properties.getRedis().getKeyPrefix() + id));
+            }
+            assertThat(ttls).allSatisfy(ttl -> assertThat(ttl).isBetween(530L, 660L));
+            assertThat(ttls).hasSizeGreaterThan(10);
+        } finally {
+            connectionFactory.destroy();
+            redisServer.stop();
+        }
+    }
+
+    private ProductCache cache(StringRedisTemplate redisTemplate, Function<Long, ProductResponse> database) {
+        ProductCache cache = new ProductCache(properties, database, redisTemplate, objectMapper, meterRegistry);
+        caches.add(cache);
+        return cache;
+    }
+
+    private Function<Long, ProductResponse> database() {
+        return slowDatabase(Duration.ZERO);
+    }
+
+    private Function<Long, ProductResponse> slowDatabase(Duration latency) {
+        return id -> {
+            databaseLoads.incrementAndGet();
+            sleep(latency);
+            Integer inStock = stock.get(id);
+            if (inStock == null) {
+                return null;
+            }
+            lastLoadedStock.set(inStock);
+            return ProductResponse.builder()
+                    .id(id)
+                    .restaurantId("1")
+                    .name("Product " + id)
+                    .price(BigDecimal.TEN)
+                    .stock(inStock)
+                    .build();
+        };
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
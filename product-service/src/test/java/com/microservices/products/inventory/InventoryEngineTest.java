@@ -0,0 +1,272 @@
+package com.microservices.products.inventory;
+
+import com.microservices.products.entity.Product;
+import com.microservices.products.exception.InsufficientStockException;
+import com.microservices.products.exception.ReservationNotFoundException;
+import com.microservices.products.repository.InventoryReservationRepository;
+import com.microservices.products.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Races many threads reserving the same few products, as in a flash sale, with the write-behind flushing
+ * alongside.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({InventoryEngine.class, InventoryWriteBehind.class, InventoryEngineTest.InventoryPropertiesConfig.class})
+class InventoryEngineTest {
+    private static final Logger log = LoggerFactory.getLogger(InventoryEngineTest.class);
+    private static final int HOT_PRODUCTS = 3;
+    private static final int STOCK = 2_000;
+    private static final int BENCHMARK_STOCK = 20_000;
+    private static final int THREADS = 16;
+    private static final Long USER_ID = 7L;
+
+    @Autowired
+    private InventoryEngine inventoryEngine;
+
+    @Autowired
+    private InventoryWriteBehind writeBehind;
+
+    @Autowired
+    private InventoryProperties properties;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryReservationRepository reservationRepository;
+
+    @MockitoBean
+    private InventoryUpdatePublisher inventoryUpdatePublisher;
+
+    private List<Long> productIds;
+
+    @BeforeEach
+    void createProducts() {
+        // Reservations left in memory by earlier tests stay there, but not in the database
+        inventoryEngine.flush();
+        reservationRepository.deleteAllInBatch();
+        productIds = saveHotProducts(STOCK);
+    }
+
+    @Test
+    void concurrentReservationsOfHotProductsNeverOversell() throws Exception {
+        List<String> reservationIds = reserveUntilSoldOut(productIds, STOCK);
+
+        int confirmed = 0;
+        for (int i = 0; i < reservationIds.size(); i++) {
+            if (i % 2 == 0) {
+                inventoryEngine.confirm(reservationIds.get(i));
+                confirmed++;
+            } else {
+                inventoryEngine.release(reservationIds.get(i));
+            }
+        }
+        inventoryEngine.flush();
+
+        assertThat(writeBehind.isEmpty()).isTrue();
+        assertThat(reservationRepository.count()).isZero();
+        int stockLeft = productRepository.findAllById(productIds).stream().mapToInt(Product::getStock).sum();
+        assertThat(stockLeft).isEqualTo(HOT_PRODUCTS * STOCK - confirmed);
+        assertThat(productIds.stream().mapToInt(inventoryEngine::available).sum()).isEqualTo(stockLeft);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void reservationThroughputOfHotProducts() throws Exception {
+        List<Long> hotProducts = saveHotProducts(BENCHMARK_STOCK);
+
+        long start = System.nanoTime();
+        List<String> reservationIds = reserveUntilSoldOut(hotProducts, BENCHMARK_STOCK);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        log.info("{} threads reserved {} units of {} products in {} ms ({} reservations/s)", THREADS,
+                reservationIds.size(), HOT_PRODUCTS, elapsedMillis, reservationIds.size() * 1000L / elapsedMillis);
+    }
+
+    @Test
+    void instanceNotOwningInventoryReadsStockFromTheDatabase() {
+        Long productId = productIds.get(0);
+        InventoryProperties replicaProperties = new InventoryProperties();
+        replicaProperties.setOwner(false);
+        InventoryEngine replica = new InventoryEngine(productRepository, reservationRepository, writeBehind,
+                inventoryUpdatePublisher, replicaProperties);
+        replica.restore();
+
+        inventoryEngine.reserve(productId + ":order-1", USER_ID, productId, 5, null);
+        inventoryEngine.flush();
+        assertThat(replica.available(productId)).isEqualTo(STOCK - 5);
+
+        // Keeps no counter that the owner's later changes would leave behind
+        inventoryEngine.adjustStock(productId, 10);
+        inventoryEngine.flush();
+        assertThat(replica.available(productId)).isEqualTo(STOCK + 5);
+    }
+
+    @Test
+    void restartRestoresReservationsFromTheDatabase() {
+        Long productId = productIds.get(0);
+        inventoryEngine.reserve(productId + ":order-1", USER_ID, productId, 5, null);
+        inventoryEngine.reserve(productId + ":order-2", USER_ID, productId, 3, null);
+        inventoryEngine.confirm(productId + ":order-2");
+        inventoryEngine.flush();
+
+        InventoryEngine restarted = new InventoryEngine(productRepository, reservationRepository, writeBehind,
+                inventoryUpdatePublisher, properties);
+        restarted.restore();
+
+        assertThat(restarted.available(productId)).isEqualTo(STOCK - 8);
+        restarted.release(productId + ":order-1");
+        assertThat(restarted.available(productId)).isEqualTo(STOCK - 3);
+    }
+
+    @Test
+    void confirmingARestoredReservationBeforeTheFlushDoesNotFreeItsStock() {
+        Long productId = productIds.get(0);
+        inventoryEngine.reserve(productId + ":order-1", USER_ID, productId, 5, null);
+        inventoryEngine.flush();
+
+        InventoryEngine restarted = new InventoryEngine(productRepository, reservationRepository, writeBehind,
+                inventoryUpdatePublisher, properties);
+        restarted.restore();
+        // Nothing used the product since the restart, and the sale is not written yet
+        Reservation sold = restarted.confirm(productId + ":order-1");
+
+        assertThat(sold.userId()).isEqualTo(USER_ID);
+        assertThat(restarted.available(productId)).isEqualTo(STOCK - 5);
+        restarted.flush();
+        assertThat(productRepository.findStockById(productId)).contains(STOCK - 5);
+    }
+
+    @Test
+    void expiredReservationGivesStockBack() throws InterruptedException {
+        Long productId = productIds.get(0);
+        inventoryEngine.reserve(productId + ":order-1", USER_ID, productId, 5, Duration.ofMillis(50));
+        Thread.sleep(100);
+
+        inventoryEngine.expireReservations();
+
+        assertThat(inventoryEngine.available(productId)).isEqualTo(STOCK);
+        assertThatThrownBy(() -> inventoryEngine.confirm(productId + ":order-1"))
+                .isInstanceOf(ReservationNotFoundException.class);
+    }
+
+    @Test
+    void retriedReservationHoldsStockOnce() {
+        Long productId = productIds.get(0);
+
+        Reservation first = inventoryEngine.reserve(productId + ":order-1", USER_ID, productId, 5, null);
+        Reservation retry = inventoryEngine.reserve(productId + ":order-1", USER_ID, productId, 5, null);
+
+        assertThat(retry).isEqualTo(first);
+        assertThat(inventoryEngine.available(productId)).isEqualTo(STOCK - 5);
+    }
+
+    private List<Long> saveHotProducts(int stock) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < HOT_PRODUCTS; i++) {
+            Product product = new Product();
+            product.setRestaurantId("1");
+            product.setName("Flash sale " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setStock(stock);
+            product.setCreatedAt(LocalDateTime.now());
+            products.add(product);
+        }
+        return productRepository.saveAll(products).stream().map(Product::getId).toList();
+    }
+
+    /**
+     * Reserves one unit at a time from {@link #THREADS} threads until every product is sold out, flushing alongside,
+     * and checks that exactly {@code stock} units of each were reserved.
+     *
+     * @return the ids of the reservations made
+     */
+    private List<String> reserveUntilSoldOut(List<Long> products, int stock) throws Exception {
+        Map<Long, AtomicInteger> reserved = new ConcurrentHashMap<>();
+        Set<Long> soldOut = ConcurrentHashMap.newKeySet();
+        List<String> reservationIds = new ArrayList<>();
+        AtomicLong nextId = new AtomicLong();
+
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(inventoryEngine::flush, 100, 100, TimeUnit.MILLISECONDS);
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<List<String>>> running = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                running.add(CompletableFuture.supplyAsync(() -> {
+                    List<String> made = new ArrayList<>();
+                    while (soldOut.size() < HOT_PRODUCTS) {
+                        Long productId = products.get(ThreadLocalRandom.current().nextInt(HOT_PRODUCTS));
+                        // Reservations of earlier tests may still be in memory under plain order ids
+                        String reservationId = products.get(0) + ":order-" + nextId.incrementAndGet();
+                        try {
+                            inventoryEngine.reserve(reservationId, USER_ID, productId, 1, null);
+                            reserved.computeIfAbsent(productId, id -> new AtomicInteger()).incrementAndGet();
+                            made.add(reservationId);
+                        } catch (InsufficientStockException ex) {
+                            soldOut.add(productId);
+                        }
+                    }
+                    return made;
+                }, workers));
+            }
+            for (CompletableFuture<List<String>> worker : running) {
+                reservationIds.addAll(worker.get());
+            }
+        } finally {
+            workers.shutdown();
+            flusher.shutdown();
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(reservationIds).hasSize(HOT_PRODUCTS * stock);
+        for (Long productId : products) {
+            assertThat(reserved.get(productId)).hasValue(stock);
+            assertThat(inventoryEngine.available(productId)).isZero();
+        }
+        return reservationIds;
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(InventoryProperties.class)
+    static class InventoryPropertiesConfig {
+    }
+}
@@ -0,0 +1,306 @@
+package com.microservices.products.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.products.entity.Product;
+import com.microservices.products.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the matching rules on small catalogues, and that searches through the index agree with the same filters
+ * and facet counts run against the product table.
+ * <p>
+ * The benchmark, tagged {@code benchmark} and only run with {@code -Pbenchmark}, times the same search on a large
+ * catalogue through both; its size is set with {@code -Dsearch.benchmark.products}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductSearchIndex.class, ProductSearchIndexTest.SearchPropertiesConfig.class})
+class ProductSearchIndexTest {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexTest.class);
+    private static final int PRODUCTS = 5_000;
+    private static final int BENCHMARK_PRODUCTS = Integer.getInteger("search.benchmark.products", 1_000_000);
+    private static final int RUNS = 20;
+    private static final int RESTAURANTS = 50;
+    private static final String[] STYLES = {"Spicy", "Crispy", "Grilled", "Fried", "Steamed", "Sweet", "Smoked",
+            "Braised"};
+    private static final String[] DISHES = {"Beef Pho", "Chicken Rice", "Pork Banh Mi", "Shrimp Noodles",
+            "Tofu Curry", "Duck Soup", "Fish Cake", "Spring Roll", "Milk Tea", "Mango Smoothie"};
+    private static final String[] CATEGORIES = {"noodles", "rice", "bread", "curry", "soup", "snacks", "drinks",
+            "desserts", "salads", "grill", "seafood", "vegetarian"};
+    private static final ProductSearchQuery PHO_NOODLES = new ProductSearchQuery("pho", "noodles", null, null, 0, 20);
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private SearchProperties properties;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<ProductSearchIndex> ownIndexes = new ArrayList<>();
+
+    @AfterEach
+    void closeIndexes() throws IOException {
+        for (ProductSearchIndex index : ownIndexes) {
+            index.close();
+        }
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void facetedSearchAgreesWithTheDatabase() {
+        insertProducts(PRODUCTS);
+        rebuild();
+
+        ProductSearchResult indexed = searchIndex.search(PHO_NOODLES);
+        DatabaseResult database = searchDatabase();
+
+        assertThat(indexed.total()).isEqualTo(database.total()).isPositive();
+        assertThat(indexed.hits()).hasSize(20).allSatisfy(hit -> {
+            assertThat(hit.name()).containsIgnoringCase("pho");
+            assertThat(hit.category()).isEqualTo("noodles");
+        });
+        assertThat(indexed.facets().get(ProductSearchIndex.CATEGORY_FACET))
+                .containsExactly(new ProductSearchResult.FacetValue("noodles", indexed.total()));
+        assertThat(indexed.facets().get(ProductSearchIndex.RESTAURANT_FACET))
+                .isNotEmpty()
+                .allSatisfy(facet -> assertThat(facet.count())
+                        .isEqualTo(database.restaurantCounts().get(facet.value())));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void facetedSearchOfALargeCatalogue() {
+        insertProducts(BENCHMARK_PRODUCTS);
+        long start = System.nanoTime();
+        rebuild();
+        log.info("Indexed {} products in {} ms", BENCHMARK_PRODUCTS, (System.nanoTime() - start) / 1_000_000);
+
+        long indexMicros = medianMicros(() -> searchIndex.search(PHO_NOODLES));
+        long databaseMicros = medianMicros(this::searchDatabase);
+        log.info("Faceted search of {} products, median of {} runs: index {} us, database {} us",
+                BENCHMARK_PRODUCTS, RUNS, indexMicros, databaseMicros);
+
+        assertThat(searchIndex.search(PHO_NOODLES).total()).isEqualTo(searchDatabase().total());
+    }
+
+    @Test
+    void matchesWordsByPrefixAndWithTypos() {
+        ProductSearchIndex index = index(
+                product(1L, "10", "Phở Bò Tái", "noodles", "45000"),
+                product(2L, "10", "Chicken Rice", "rice", "55000"),
+                product(3L, "20", "Chicken Curry", "curry", "120000"));
+
+        assertThat(ids(index.search(query("pho", null, null, null)))).containsExactly(1L);
+        assertThat(ids(index.search(query("chick", null, null, null)))).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(ids(index.search(query("chikcen rice", null, null, null)))).containsExactly(2L);
+        assertThat(ids(index.search(query("pizza", null, null, null)))).isEmpty();
+    }
+
+    @Test
+    void exactMatchesRankFirst() {
+        ProductSearchIndex index = index(
+                product(1L, "10", "Rices Bowl", "rice", "50000"),
+                product(2L, "10", "Rice Bowl", "rice", "50000"),
+                product(3L, "10", "Ricotta Bowl", "rice", "50000"));
+
+        assertThat(ids(index.search(query("rice", null, null, null)))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void filtersAndCountsFacets() {
+        ProductSearchIndex index = index(
+                product(1L, "10", "Chicken Rice", "rice", "45000"),
+                product(2L, "10", "Chicken Pho", "noodles", "65000"),
+                product(3L, "20", "Chicken Curry", "curry", "120000"),
+                product(4L, "20", "Chicken Wings", "snacks", "650000"));
+
+        ProductSearchResult all = index.search(query("chicken", null, null, null));
+        assertThat(all.total()).isEqualTo(4);
+        assertThat(all.facets().get(ProductSearchIndex.RESTAURANT_FACET)).containsExactlyInAnyOrder(
+                new ProductSearchResult.FacetValue("10", 2), new ProductSearchResult.FacetValue("20", 2));
+        assertThat(all.facets().get(ProductSearchIndex.PRICE_BAND_FACET)).containsExactlyInAnyOrder(
+                new ProductSearchResult.FacetValue("0-50000", 1),
+                new ProductSearchResult.FacetValue("50000-100000", 1),
+                new ProductSearchResult.FacetValue("100000-200000", 1),
+                new ProductSearchResult.FacetValue("500000+", 1));
+
+        assertThat(ids(index.search(query("chicken", "rice", null, null)))).containsExactly(1L);
+        assertThat(ids(index.search(query(null, null, "20", null)))).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(ids(index.search(query("chicken", null, null, "50000-100000")))).containsExactly(2L);
+        assertThat(ids(index.search(query("chicken", null, null, "500000+")))).containsExactly(4L);
+        assertThat(index.search(query("chicken", null, null, "1-2")).total()).isZero();
+
+        ProductSearchResult rice = index.search(query("chicken", "rice", null, null));
+        assertThat(rice.facets().get(ProductSearchIndex.CATEGORY_FACET))
+                .containsExactly(new ProductSearchResult.FacetValue("rice", 1));
+    }
+
+    @Test
+    void pagesThroughResultsAndSeesUpdates() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            products.add(product(id, "10", "Milk Tea " + id, "drinks", "30000"));
+        }
+        ProductSearchIndex index = index(products.toArray(Product[]::new));
+
+        ProductSearchResult first = index.search(new ProductSearchQuery("tea", null, null, null, 0, 10));
+        ProductSearchResult last = index.search(new ProductSearchQuery("tea", null, null, null, 2, 10));
+        assertThat(first.total()).isEqualTo(25);
+        assertThat(first.hits()).hasSize(10);
+        assertThat(last.hits()).hasSize(5);
+        assertThat(ids(first)).doesNotContainAnyElementsOf(ids(last));
+
+        index.index(product(1L, "10", "Iced Coffee", "drinks", "30000"));
+        index.delete(2L);
+        index.refresh();
+
+        assertThat(index.search(query("tea", null, null, null)).total()).isEqualTo(23);
+        assertThat(ids(index.search(query("coffee", null, null, null)))).containsExactly(1L);
+    }
+
+    @Test
+    void emptyIndexHasNoResultsOrFacets() {
+        ProductSearchResult result = index().search(query("pho", null, null, null));
+
+        assertThat(result.total()).isZero();
+        assertThat(result.facets().values()).allSatisfy(values -> assertThat(values).isEmpty());
+    }
+
+    private ProductSearchIndex index(Product... products) {
+        try {
+            ProductSearchIndex index = new ProductSearchIndex(new SearchProperties());
+            ownIndexes.add(index);
+            index.indexAll(Arrays.asList(products));
+            index.refresh();
+            return index;
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void rebuild() {
+        new ProductSearchIndexer(searchIndex, productRepository, properties, new ObjectMapper()).rebuild();
+    }
+
+    /**
+     * The page, total and restaurant facet counts of {@link #PHO_NOODLES}, as the product table answers them.
+     */
+    private DatabaseResult searchDatabase() {
+        String pattern = "%pho%";
+        entityManager.createQuery("select p from Product p where lower(p.name) like :name "
+                        + "and p.category = :category order by p.id", Product.class)
+                .setParameter("name", pattern)
+                .setParameter("category", "noodles")
+                .setMaxResults(20)
+                .getResultList();
+        Long total = entityManager.createQuery("select count(p) from Product p where lower(p.name) like :name "
+                        + "and p.category = :category", Long.class)
+                .setParameter("name", pattern)
+                .setParameter("category", "noodles")
+                .getSingleResult();
+        Map<String, Long> restaurantCounts = entityManager.createQuery("select p.restaurantId, count(p) "
+                        + "from Product p where lower(p.name) like :name and p.category = :category "
+                        + "group by p.restaurantId", Object[].class)
+                .setParameter("name", pattern)
+                .setParameter("category", "noodles")
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+        entityManager.clear();
+        return new DatabaseResult(total, restaurantCounts);
+    }
+
+    private void insertProducts(int count) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int batch = 10_000;
+        for (int from = 0; from < count; from += batch) {
+            List<Object[]> rows = new ArrayList<>(batch);
+            for (int i = from; i < Math.min(count, from + batch); i++) {
+                String name = STYLES[i % STYLES.length] + " " + DISHES[(i / STYLES.length) % DISHES.length] + " "
+                        + i;
+                BigDecimal price = BigDecimal.valueOf(20_000 + (i * 7_919L) % 600_000);
+                rows.add(new Object[]{i + 1L, String.valueOf(1 + i % RESTAURANTS), name, CATEGORIES[i % CATEGORIES.length],
+                        price, 100, 0L, now, now});
+            }
+            jdbcTemplate.batchUpdate("insert into products (id, restaurant_id, name, category, price, stock, version,"
+                    + " created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private static long medianMicros(Supplier<?> search) {
+        for (int i = 0; i < 3; i++) {
+            search.get();
+        }
+        long[] micros = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            search.get();
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+
+    private static ProductSearchQuery query(String text, String category, String restaurantId, String priceBand) {
+        return new ProductSearchQuery(text, category, restaurantId, priceBand, 0, 20);
+    }
+
+    private static List<Long> ids(ProductSearchResult result) {
+        return result.hits().stream().map(ProductSearchResult.Hit::id).toList();
+    }
+
+    private static Product product(Long id, String restaurantId, String name, String category, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setRestaurantId(restaurantId);
+        product.setName(name);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(10);
+        return product;
+    }
+
+    private record DatabaseResult(long total, Map<String, Long> restaurantCounts) {
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(SearchProperties.class)
+    static class SearchPropertiesConfig {
+    }
+}
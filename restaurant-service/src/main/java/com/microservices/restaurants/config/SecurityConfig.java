@@ -0,0 +1,38 @@
+package com.microservices.restaurants.config;
+
+import com.microservices.identity.GatewayIdentityFilter;
+import com.microservices.identity.IdentitySignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Tokens are verified by the api-gateway, which forwards the caller's identity in the {@code X-User-*} headers.
+ * {@link GatewayIdentityFilter} rejects those headers unless the gateway signed them, so the caller they name can be
+ * trusted for authorization.
+ */
+@Configuration
+@EnableWebSecurity
+public class SecurityConfig {
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                );
+
+        return http.build();
+    }
+
+    @Bean
+    public GatewayIdentityFilter gatewayIdentityFilter(@Value("${app.security.identity-secret}") String secret) {
+        return new GatewayIdentityFilter(new IdentitySignature(secret));
+    }
+}
@@ -0,0 +1,85 @@
+package com.microservices.restaurants.controller;
+
+import com.microservices.identity.Caller;
+import com.microservices.restaurants.dto.request.MenuSectionRequest;
+import com.microservices.restaurants.dto.response.APIResponse;
+import com.microservices.restaurants.dto.response.MenuResponse;
+import com.microservices.restaurants.menu.MenuSnapshot;
+import com.microservices.restaurants.service.MenuService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/restaurants/{restaurantId}/menu")
+@RequiredArgsConstructor
+public class MenuController {
+    static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+
+    private final MenuService menuService;
+
+    /**
+     * Serves the menu's current snapshot as is: JSON, gzipped if the client accepts it, or CBOR if the client asks
+     * for {@code application/cbor}. Clients revalidate with the ETag and get a 304 while the menu is unchanged.
+     */
+    @GetMapping
+    public ResponseEntity<byte[]> getMenu(@PathVariable String restaurantId,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                          String acceptEncoding,
+                                          WebRequest request) {
+        MenuSnapshot snapshot = menuService.getMenuSnapshot(restaurantId);
+        MenuSnapshot.Format format = format(snapshot, accept, acceptEncoding);
+        if (request.checkNotModified(snapshot.etag(format))) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(snapshot.etag(format))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(format == MenuSnapshot.Format.CBOR ? APPLICATION_CBOR : MediaType.APPLICATION_JSON);
+        if (format == MenuSnapshot.Format.GZIPPED_JSON) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(snapshot.body(format));
+    }
+
+    @PutMapping("/sections/{sectionId}")
+    public APIResponse<MenuResponse> putSection(@PathVariable String restaurantId, @PathVariable String sectionId,
+                                                @RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                @Valid @RequestBody MenuSectionRequest request) {
+        return APIResponse.<MenuResponse>builder()
+                .result(menuService.putSection(caller, restaurantId, sectionId, request))
+                .message("Menu section saved")
+                .build();
+    }
+
+    @DeleteMapping("/sections/{sectionId}")
+    public APIResponse<MenuResponse> deleteSection(@PathVariable String restaurantId,
+                                                   @PathVariable String sectionId,
+                                                   @RequestAttribute(Caller.ATTRIBUTE) Caller caller) {
+        return APIResponse.<MenuResponse>builder()
+                .result(menuService.deleteSection(caller, restaurantId, sectionId))
+                .message("Menu section deleted")
+                .build();
+    }
+
+    private static MenuSnapshot.Format format(MenuSnapshot snapshot, String accept, String acceptEncoding) {
+        if (snapshot.hasBinary() && accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(APPLICATION_CBOR::equalsTypeAndSubtype)) {
+            return MenuSnapshot.Format.CBOR;
+        }
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return MenuSnapshot.Format.GZIPPED_JSON;
+        }
+        return MenuSnapshot.Format.JSON;
+    }
+}
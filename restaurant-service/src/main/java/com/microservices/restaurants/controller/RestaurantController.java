@@ -0,0 +1,80 @@
+package com.microservices.restaurants.controller;
+
+import com.microservices.identity.Caller;
+import com.microservices.restaurants.dto.request.RestaurantRequest;
+import com.microservices.restaurants.dto.request.RestaurantStatusRequest;
+import com.microservices.restaurants.dto.response.APIResponse;
+import com.microservices.restaurants.dto.response.NearbyRestaurantResponse;
+import com.microservices.restaurants.dto.response.RestaurantResponse;
+import com.microservices.restaurants.service.RestaurantService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/restaurants")
+@RequiredArgsConstructor
+public class RestaurantController {
+    private final RestaurantService restaurantService;
+
+    /**
+     * Restaurants open now near the given point, nearest first. Not to be cached, since restaurants open and close
+     * by the clock.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<APIResponse<List<NearbyRestaurantResponse>>> findNearby(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(APIResponse.<List<NearbyRestaurantResponse>>builder()
+                        .result(restaurantService.findNearby(lat, lng, radiusKm, limit))
+                        .build());
+    }
+
+    @GetMapping("/{restaurantId}")
+    public APIResponse<RestaurantResponse> getRestaurant(@PathVariable String restaurantId) {
+        return APIResponse.<RestaurantResponse>builder()
+                .result(restaurantService.getRestaurant(restaurantId))
+                .build();
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public APIResponse<RestaurantResponse> createRestaurant(@RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                            @Valid @RequestBody RestaurantRequest request) {
+        return APIResponse.<RestaurantResponse>builder()
+                .result(restaurantService.createRestaurant(caller, request))
+                .message("Restaurant created")
+                .build();
+    }
+
+    @PutMapping("/{restaurantId}")
+    public APIResponse<RestaurantResponse> updateRestaurant(@PathVariable String restaurantId,
+                                                            @RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                            @Valid @RequestBody RestaurantRequest request) {
+        return APIResponse.<RestaurantResponse>builder()
+                .result(restaurantService.updateRestaurant(caller, restaurantId, request))
+                .message("Restaurant updated")
+                .build();
+    }
+
+    @PatchMapping("/{restaurantId}/status")
+    public APIResponse<RestaurantResponse> updateStatus(@PathVariable String restaurantId,
+                                                        @RequestAttribute(Caller.ATTRIBUTE) Caller caller,
+                                                        @Valid @RequestBody RestaurantStatusRequest request) {
+        return APIResponse.<RestaurantResponse>builder()
+                .result(restaurantService.updateStatus(caller, restaurantId, request))
+                .message("Restaurant status updated")
+                .build();
+    }
+}
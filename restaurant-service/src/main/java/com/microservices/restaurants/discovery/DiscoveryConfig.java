@@ -0,0 +1,14 @@
+package com.microservices.restaurants.discovery;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Schedules the reloads of the {@link OpenRestaurantIndex}.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(DiscoveryProperties.class)
+public class DiscoveryConfig {
+}
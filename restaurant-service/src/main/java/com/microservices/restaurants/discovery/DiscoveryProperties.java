@@ -0,0 +1,32 @@
+package com.microservices.restaurants.discovery;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.ZoneId;
+
+/**
+ * Settings for finding open restaurants near a customer.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.restaurants.discovery")
+public class DiscoveryProperties {
+    /**
+     * Length of the geohashes restaurants are bucketed by. At 6, a cell is about 1.2 km by 0.6 km; dense cities
+     * want smaller cells, so a search stops after a few rings of them.
+     */
+    private int geohashPrecision = 6;
+
+    private double defaultRadiusKm = 5;
+
+    private double maxRadiusKm = 30;
+
+    private int defaultLimit = 20;
+
+    private int maxLimit = 100;
+
+    /**
+     * Time zone of the restaurants' operating hours.
+     */
+    private ZoneId zoneId = ZoneId.of("Asia/Ho_Chi_Minh");
+}
@@ -0,0 +1,32 @@
+package com.microservices.restaurants.discovery;
+
+import com.microservices.geo.Located;
+import com.microservices.restaurants.entity.OperatingHours;
+import com.microservices.restaurants.entity.Restaurant;
+import com.microservices.restaurants.enums.RestaurantStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What the {@link OpenRestaurantIndex} keeps of a restaurant.
+ *
+ * @param cell      geohash of the cell the restaurant is in
+ * @param indexedAt {@link System#nanoTime()} when it was indexed
+ */
+public record IndexedRestaurant(String id, String name, String cuisine, String address, double latitude,
+                                double longitude, RestaurantStatus status, List<OperatingHours> operatingHours,
+                                long version, long cell, long indexedAt) implements Located {
+
+    static IndexedRestaurant of(Restaurant restaurant, long cell) {
+        return new IndexedRestaurant(restaurant.getId(), restaurant.getName(), restaurant.getCuisine(),
+                restaurant.getAddress(), restaurant.getLocation().getY(), restaurant.getLocation().getX(),
+                restaurant.getStatus(),
+                restaurant.getOperatingHours() != null ? List.copyOf(restaurant.getOperatingHours()) : List.of(),
+                restaurant.getVersion() != null ? restaurant.getVersion() : -1, cell, System.nanoTime());
+    }
+
+    boolean isOpenAt(LocalDateTime time) {
+        return status == RestaurantStatus.OPEN && OperatingHours.isOpenAt(operatingHours, time);
+    }
+}
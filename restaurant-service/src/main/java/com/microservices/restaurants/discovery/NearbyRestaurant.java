@@ -0,0 +1,4 @@
+package com.microservices.restaurants.discovery;
+
+public record NearbyRestaurant(IndexedRestaurant restaurant, double distanceMeters) {
+}
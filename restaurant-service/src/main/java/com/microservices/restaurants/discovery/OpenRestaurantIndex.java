@@ -0,0 +1,140 @@
+package com.microservices.restaurants.discovery;
+
+import com.microservices.geo.GeoHashGrid;
+import com.microservices.restaurants.entity.Restaurant;
+import com.microservices.restaurants.enums.RestaurantStatus;
+import com.microservices.restaurants.repository.RestaurantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the restaurants that take orders, bucketed by geohash cell, for finding the open restaurants
+ * nearest to a customer without a database query.
+ * <p>
+ * A search goes through the cells nearest first, see {@link GeoHashGrid#nearest}. Whether a restaurant is open is
+ * checked against its operating hours at search time, so restaurants open and close on schedule without the index
+ * changing.
+ * <p>
+ * Restaurants changed through this instance are reindexed right after they are saved. Changes made through other
+ * instances are picked up by the periodic {@link #reload()}, so they show up within
+ * {@code app.restaurants.discovery.reload-interval-ms}.
+ */
+@Slf4j
+@Component
+public class OpenRestaurantIndex {
+    private final ConcurrentHashMap<String, IndexedRestaurant> restaurants = new ConcurrentHashMap<>();
+    /**
+     * Restaurants with status {@code OPEN}, by geohash cell.
+     */
+    private final ConcurrentHashMap<Long, Map<String, IndexedRestaurant>> cells = new ConcurrentHashMap<>();
+    private final RestaurantRepository restaurantRepository;
+    private final GeoHashGrid grid;
+    private volatile boolean loaded;
+
+    public OpenRestaurantIndex(RestaurantRepository restaurantRepository, DiscoveryProperties properties) {
+        this.restaurantRepository = restaurantRepository;
+        this.grid = new GeoHashGrid(properties.getGeohashPrecision());
+    }
+
+    /**
+     * @return whether the index has been loaded since startup; until then searches must go to the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Indexes a saved restaurant, unless a newer version of it is already indexed.
+     */
+    public void put(Restaurant restaurant) {
+        IndexedRestaurant indexed = IndexedRestaurant.of(restaurant,
+                grid.cellOf(restaurant.getLocation().getY(), restaurant.getLocation().getX()));
+        restaurants.compute(indexed.id(), (id, previous) -> {
+            if (previous != null && previous.version() > indexed.version()) {
+                return previous;
+            }
+            if (previous != null) {
+                removeFromCell(previous);
+            }
+            if (indexed.status() == RestaurantStatus.OPEN) {
+                cells.compute(indexed.cell(), (cell, members) -> {
+                    Map<String, IndexedRestaurant> updated = members != null ? members : new ConcurrentHashMap<>();
+                    updated.put(id, indexed);
+                    return updated;
+                });
+            }
+            return indexed;
+        });
+    }
+
+    public int size() {
+        return restaurants.size();
+    }
+
+    /**
+     * Reads every restaurant from the database. Restaurants no longer there are dropped, unless they were indexed
+     * while the reload ran.
+     */
+    @Scheduled(fixedDelayString = "${app.restaurants.discovery.reload-interval-ms:60000}")
+    public void reload() {
+        long start = System.nanoTime();
+        Set<String> seen = new HashSet<>();
+        try (Stream<Restaurant> all = restaurantRepository.streamAllBy()) {
+            all.forEach(restaurant -> {
+                put(restaurant);
+                seen.add(restaurant.getId());
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not reload restaurants for nearby search: {}", ex.getMessage());
+            return;
+        }
+        for (String id : restaurants.keySet()) {
+            if (!seen.contains(id)) {
+                restaurants.computeIfPresent(id, (key, indexed) -> {
+                    if (indexed.indexedAt() - start >= 0) {
+                        return indexed;
+                    }
+                    removeFromCell(indexed);
+                    return null;
+                });
+            }
+        }
+        loaded = true;
+        log.debug("Reloaded {} restaurants for nearby search in {} ms", seen.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @param time local time at the restaurants
+     * @return up to {@code limit} restaurants open at {@code time} within {@code radiusMeters}, nearest first
+     */
+    public List<NearbyRestaurant> nearby(double latitude, double longitude, double radiusMeters, int limit,
+                                         LocalDateTime time) {
+        return grid.nearest(latitude, longitude, radiusMeters, limit, this::openIn,
+                        restaurant -> restaurant.isOpenAt(time)).stream()
+                .map(nearby -> new NearbyRestaurant(nearby.item(), nearby.distanceMeters()))
+                .toList();
+    }
+
+    private Collection<IndexedRestaurant> openIn(long cell) {
+        Map<String, IndexedRestaurant> members = cells.get(cell);
+        return members != null ? members.values() : null;
+    }
+
+    private void removeFromCell(IndexedRestaurant indexed) {
+        cells.computeIfPresent(indexed.cell(), (cell, members) -> {
+            members.remove(indexed.id());
+            return members.isEmpty() ? null : members;
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.microservices.restaurants.dto.request;
+
+import com.microservices.restaurants.entity.MenuItem;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class MenuItemRequest {
+    private Long productId;
+
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 150, message = "INVALID_NAME")
+    private String name;
+
+    @Size(max = 1000, message = "INVALID_DESCRIPTION")
+    private String description;
+
+    @NotNull(message = "BLANK_FIELD")
+    @DecimalMin(value = "0.0", message = "INVALID_PRICE")
+    private BigDecimal price;
+
+    private boolean available = true;
+
+    public MenuItem toMenuItem() {
+        return new MenuItem(productId, name, description, price, available);
+    }
+}
@@ -0,0 +1,19 @@
+package com.microservices.restaurants.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class MenuSectionRequest {
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 100, message = "INVALID_NAME")
+    private String name;
+
+    @Size(max = 200, message = "INVALID_ITEMS")
+    private List<@Valid MenuItemRequest> items = new ArrayList<>();
+}
@@ -0,0 +1,27 @@
+package com.microservices.restaurants.dto.request;
+
+import com.microservices.restaurants.entity.OperatingHours;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+@Data
+public class OperatingHoursRequest {
+    @NotNull(message = "BLANK_FIELD")
+    private DayOfWeek day;
+
+    @NotNull(message = "BLANK_FIELD")
+    private LocalTime opensAt;
+
+    /**
+     * At or before {@code opensAt} for hours running past midnight.
+     */
+    @NotNull(message = "BLANK_FIELD")
+    private LocalTime closesAt;
+
+    public OperatingHours toOperatingHours() {
+        return new OperatingHours(day, opensAt, closesAt);
+    }
+}
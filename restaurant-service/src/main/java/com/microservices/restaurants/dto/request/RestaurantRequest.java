@@ -0,0 +1,48 @@
+package com.microservices.restaurants.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class RestaurantRequest {
+    /**
+     * Only read from admins, anyone else creates and keeps restaurants of their own. Left out, an admin creates the
+     * restaurant for themselves and keeps its owner on update.
+     */
+    private Long ownerId;
+
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 150, message = "INVALID_NAME")
+    private String name;
+
+    @Size(max = 50, message = "INVALID_CUISINE")
+    private String cuisine;
+
+    @NotBlank(message = "BLANK_FIELD")
+    @Size(max = 255, message = "INVALID_ADDRESS")
+    private String address;
+
+    @NotNull(message = "BLANK_FIELD")
+    @DecimalMin(value = "-90.0", message = "INVALID_LATITUDE")
+    @DecimalMax(value = "90.0", message = "INVALID_LATITUDE")
+    private Double latitude;
+
+    @NotNull(message = "BLANK_FIELD")
+    @DecimalMin(value = "-180.0", message = "INVALID_LONGITUDE")
+    @DecimalMax(value = "180.0", message = "INVALID_LONGITUDE")
+    private Double longitude;
+
+    /**
+     * Empty for a restaurant open around the clock.
+     */
+    @Size(max = 21, message = "INVALID_OPERATING_HOURS")
+    private List<@Valid OperatingHoursRequest> operatingHours = new ArrayList<>();
+}
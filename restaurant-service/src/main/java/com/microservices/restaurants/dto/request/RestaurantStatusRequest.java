@@ -0,0 +1,11 @@
+package com.microservices.restaurants.dto.request;
+
+import com.microservices.restaurants.enums.RestaurantStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class RestaurantStatusRequest {
+    @NotNull(message = "BLANK_FIELD")
+    private RestaurantStatus status;
+}
@@ -0,0 +1,31 @@
+package com.microservices.restaurants.dto.response;
+
+import com.microservices.restaurants.entity.MenuItem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemResponse {
+    private Long productId;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private boolean available;
+
+    public static MenuItemResponse of(MenuItem item) {
+        return MenuItemResponse.builder()
+                .productId(item.getProductId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .price(item.getPrice())
+                .available(item.isAvailable())
+                .build();
+    }
+}
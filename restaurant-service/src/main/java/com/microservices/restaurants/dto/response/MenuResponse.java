@@ -0,0 +1,30 @@
+package com.microservices.restaurants.dto.response;
+
+import com.microservices.restaurants.entity.Menu;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuResponse {
+    private String restaurantId;
+    private Long version;
+    private LocalDateTime updatedAt;
+    private List<MenuSectionResponse> sections;
+
+    public static MenuResponse of(Menu menu) {
+        return MenuResponse.builder()
+                .restaurantId(menu.getRestaurantId())
+                .version(menu.getVersion())
+                .updatedAt(menu.getUpdatedAt())
+                .sections(menu.getSections().stream().map(MenuSectionResponse::of).toList())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.microservices.restaurants.dto.response;
+
+import com.microservices.restaurants.entity.MenuSection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuSectionResponse {
+    private String id;
+    private String name;
+    private List<MenuItemResponse> items;
+
+    public static MenuSectionResponse of(MenuSection section) {
+        return MenuSectionResponse.builder()
+                .id(section.getId())
+                .name(section.getName())
+                .items(section.getItems().stream().map(MenuItemResponse::of).toList())
+                .build();
+    }
+}
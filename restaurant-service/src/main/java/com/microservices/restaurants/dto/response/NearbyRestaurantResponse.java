@@ -0,0 +1,20 @@
+package com.microservices.restaurants.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyRestaurantResponse {
+    private String id;
+    private String name;
+    private String cuisine;
+    private String address;
+    private Double latitude;
+    private Double longitude;
+    private long distanceMeters;
+}
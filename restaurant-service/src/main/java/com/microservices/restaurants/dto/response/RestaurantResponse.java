@@ -0,0 +1,44 @@
+package com.microservices.restaurants.dto.response;
+
+import com.microservices.restaurants.entity.OperatingHours;
+import com.microservices.restaurants.entity.Restaurant;
+import com.microservices.restaurants.enums.RestaurantStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantResponse {
+    private String id;
+    private Long ownerId;
+    private String name;
+    private String cuisine;
+    private String address;
+    private Double latitude;
+    private Double longitude;
+    private RestaurantStatus status;
+    private List<OperatingHours> operatingHours;
+    private LocalDateTime updatedAt;
+
+    public static RestaurantResponse of(Restaurant restaurant) {
+        return RestaurantResponse.builder()
+                .id(restaurant.getId())
+                .ownerId(restaurant.getOwnerId())
+                .name(restaurant.getName())
+                .cuisine(restaurant.getCuisine())
+                .address(restaurant.getAddress())
+                .latitude(restaurant.getLocation().getY())
+                .longitude(restaurant.getLocation().getX())
+                .status(restaurant.getStatus())
+                .operatingHours(restaurant.getOperatingHours())
+                .updatedAt(restaurant.getUpdatedAt())
+                .build();
+    }
+}
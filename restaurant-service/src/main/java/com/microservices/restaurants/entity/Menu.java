@@ -0,0 +1,34 @@
+package com.microservices.restaurants.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "menus")
+public class Menu {
+    /**
+     * Id of the restaurant, which has one menu.
+     */
+    @Id
+    private String restaurantId;
+
+    private List<MenuSection> sections = new ArrayList<>();
+
+    /**
+     * Incremented by every edit. Edits of a stale menu fail rather than overwrite a concurrent edit.
+     */
+    @Version
+    private Long version;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.microservices.restaurants.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItem {
+    /**
+     * The product in product-service this item sells, if any.
+     */
+    private Long productId;
+
+    private String name;
+
+    private String description;
+
+    private BigDecimal price;
+
+    private boolean available;
+}
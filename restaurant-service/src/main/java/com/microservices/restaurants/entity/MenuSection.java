@@ -0,0 +1,25 @@
+package com.microservices.restaurants.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuSection {
+    private String id;
+
+    private String name;
+
+    private List<MenuItem> items = new ArrayList<>();
+
+    /**
+     * Version of the menu that last changed this section, so snapshots of later versions can reuse the section as
+     * already serialized.
+     */
+    private long revision;
+}
@@ -0,0 +1,47 @@
+package com.microservices.restaurants.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Opening hours on one day of the week. Hours closing at or before they open run past midnight into the next day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperatingHours {
+    private DayOfWeek day;
+    private LocalTime opensAt;
+    private LocalTime closesAt;
+
+    /**
+     * @return whether any of {@code hours} covers {@code time}; {@code true} if there are none, for a restaurant open
+     * around the clock
+     */
+    public static boolean isOpenAt(List<OperatingHours> hours, LocalDateTime time) {
+        if (hours == null || hours.isEmpty()) {
+            return true;
+        }
+        for (OperatingHours opening : hours) {
+            if (opening.isOpenAt(time)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isOpenAt(LocalDateTime time) {
+        LocalTime timeOfDay = time.toLocalTime();
+        boolean overnight = !closesAt.isAfter(opensAt);
+        if (time.getDayOfWeek() == day) {
+            return !timeOfDay.isBefore(opensAt) && (overnight || timeOfDay.isBefore(closesAt));
+        }
+        return overnight && time.getDayOfWeek() == day.plus(1) && timeOfDay.isBefore(closesAt);
+    }
+}
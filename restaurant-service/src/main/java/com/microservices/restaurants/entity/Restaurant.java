@@ -0,0 +1,66 @@
+package com.microservices.restaurants.entity;
+
+import com.microservices.restaurants.enums.RestaurantStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "restaurants")
+public class Restaurant {
+    @Id
+    private String id;
+
+    @Indexed
+    private Long ownerId;
+
+    private String name;
+
+    private String cuisine;
+
+    private String address;
+
+    /**
+     * GeoJSON point, longitude first.
+     */
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
+
+    private RestaurantStatus status;
+
+    /**
+     * No hours means open around the clock while the status is {@code OPEN}.
+     */
+    private List<OperatingHours> operatingHours = new ArrayList<>();
+
+    /**
+     * Lets the nearby search tell a newer copy of the restaurant from an older one, see
+     * {@code OpenRestaurantIndex}.
+     */
+    @Version
+    private Long version;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * @param time local time at the restaurant
+     */
+    public boolean isOpenAt(LocalDateTime time) {
+        return status == RestaurantStatus.OPEN && OperatingHours.isOpenAt(operatingHours, time);
+    }
+}
@@ -0,0 +1,10 @@
+package com.microservices.restaurants.enums;
+
+/**
+ * Set by the owner. An {@code OPEN} restaurant takes orders during its operating hours, a {@code CLOSED} one does
+ * not take orders at all.
+ */
+public enum RestaurantStatus {
+    OPEN,
+    CLOSED
+}
@@ -0,0 +1,57 @@
+package com.microservices.restaurants.exception;
+
+import com.microservices.restaurants.dto.response.APIResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(RestaurantNotFoundException.class)
+    public ResponseEntity<APIResponse<?>> handleRestaurantNotFound(RestaurantNotFoundException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiResponse);
+    }
+
+    @ExceptionHandler(RestaurantAccessDeniedException.class)
+    public ResponseEntity<APIResponse<?>> handleRestaurantAccessDenied(RestaurantAccessDeniedException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(apiResponse);
+    }
+
+    @ExceptionHandler(MenuNotFoundException.class)
+    public ResponseEntity<APIResponse<?>> handleMenuNotFound(MenuNotFoundException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiResponse);
+    }
+
+    @ExceptionHandler(MenuSectionNotFoundException.class)
+    public ResponseEntity<APIResponse<?>> handleMenuSectionNotFound(MenuSectionNotFoundException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiResponse);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<APIResponse<?>> handleConcurrentEdit(OptimisticLockingFailureException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message("Changed concurrently, please retry")
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(apiResponse);
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.restaurants.exception;
+
+public class MenuNotFoundException extends RuntimeException {
+    public MenuNotFoundException(String restaurantId) {
+        super("Menu of restaurant " + restaurantId + " not found");
+    }
+}
@@ -0,0 +1,7 @@
+package com.microservices.restaurants.exception;
+
+public class MenuSectionNotFoundException extends RuntimeException {
+    public MenuSectionNotFoundException(String restaurantId, String sectionId) {
+        super("Menu section " + sectionId + " of restaurant " + restaurantId + " not found");
+    }
+}
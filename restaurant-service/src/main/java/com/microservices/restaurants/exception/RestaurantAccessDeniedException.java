@@ -0,0 +1,11 @@
+package com.microservices.restaurants.exception;
+
+public class RestaurantAccessDeniedException extends RuntimeException {
+    public RestaurantAccessDeniedException() {
+        super("Not allowed to create restaurants");
+    }
+
+    public RestaurantAccessDeniedException(String restaurantId) {
+        super("Not allowed to manage restaurant " + restaurantId);
+    }
+}
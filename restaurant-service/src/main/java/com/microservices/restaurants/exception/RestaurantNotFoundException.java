@@ -0,0 +1,7 @@
+package com.microservices.restaurants.exception;
+
+public class RestaurantNotFoundException extends RuntimeException {
+    public RestaurantNotFoundException(String restaurantId) {
+        super("Restaurant " + restaurantId + " not found");
+    }
+}
@@ -0,0 +1,30 @@
+package com.microservices.restaurants.menu;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for the serialized menu snapshots served by {@code GET /api/v1/restaurants/{id}/menu}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.menus")
+public class MenuProperties {
+    /**
+     * How long a cached snapshot is served before its version is checked against the database again. Bounds how
+     * long a menu edited through another instance can be served stale.
+     */
+    private Duration versionCheckInterval = Duration.ofSeconds(1);
+
+    /**
+     * Memory for cached snapshots. Beyond it, the least frequently read menus are evicted first.
+     */
+    private DataSize snapshotCacheSize = DataSize.ofMegabytes(256);
+
+    /**
+     * Whether snapshots are also kept in CBOR, for clients that accept {@code application/cbor}.
+     */
+    private boolean binaryEnabled = true;
+}
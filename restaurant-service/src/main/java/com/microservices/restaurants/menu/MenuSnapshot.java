@@ -0,0 +1,60 @@
+package com.microservices.restaurants.menu;
+
+import java.util.Map;
+
+/**
+ * One version of a menu, serialized once for every read of that version. The bytes must not be modified.
+ *
+ * @param contentHash        CRC-32 of {@code json}, which tells apart versions of a menu deleted and created again
+ * @param cbor               {@code null} if binary snapshots are disabled
+ * @param sections           the JSON of each section, by section id, for the next version to reuse
+ * @param sectionsSerialized number of sections serialized for this version rather than reused
+ */
+public record MenuSnapshot(String restaurantId, long version, String contentHash, byte[] json, byte[] gzippedJson,
+                           byte[] cbor, Map<String, SectionJson> sections, int sectionsSerialized) {
+
+    public enum Format {
+        JSON(""),
+        GZIPPED_JSON("-gz"),
+        CBOR("-cbor");
+
+        private final String etagSuffix;
+
+        Format(String etagSuffix) {
+            this.etagSuffix = etagSuffix;
+        }
+    }
+
+    public byte[] body(Format format) {
+        return switch (format) {
+            case JSON -> json;
+            case GZIPPED_JSON -> gzippedJson;
+            case CBOR -> cbor;
+        };
+    }
+
+    /**
+     * A strong ETag, different for each format since their bytes differ.
+     */
+    public String etag(Format format) {
+        return "\"" + version + "-" + contentHash + format.etagSuffix + "\"";
+    }
+
+    public boolean hasBinary() {
+        return cbor != null;
+    }
+
+    int sizeInBytes() {
+        int size = json.length + gzippedJson.length + (cbor != null ? cbor.length : 0);
+        for (SectionJson section : sections.values()) {
+            size += section.json().length() * 2;
+        }
+        return size;
+    }
+
+    /**
+     * @param revision menu version that last changed the section
+     */
+    public record SectionJson(long revision, String json) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.microservices.restaurants.menu;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.microservices.restaurants.dto.response.APIResponse;
+import com.microservices.restaurants.dto.response.MenuResponse;
+import com.microservices.restaurants.dto.response.MenuSectionResponse;
+import com.microservices.restaurants.entity.Menu;
+import com.microservices.restaurants.entity.MenuSection;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes menus into {@link MenuSnapshot}s, in the same envelope as every other response.
+ * <p>
+ * A section unchanged since the previous snapshot keeps its JSON, so an edit only serializes the sections it
+ * touched; the menu around them is assembled from the kept JSON, then compressed as a whole.
+ */
+@Component
+public class MenuSnapshotBuilder {
+    private static final String SUCCESS = APIResponse.builder().build().getMessage();
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final MenuProperties properties;
+
+    public MenuSnapshotBuilder(ObjectMapper objectMapper, MenuProperties properties) {
+        this.objectMapper = objectMapper;
+        this.cborMapper = CBORMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        this.properties = properties;
+    }
+
+    /**
+     * @param previous an earlier snapshot of the same menu to reuse sections from, or {@code null}
+     */
+    public MenuSnapshot build(Menu menu, MenuSnapshot previous) {
+        Map<String, MenuSnapshot.SectionJson> sections = new LinkedHashMap<>();
+        int serialized = 0;
+        for (MenuSection section : menu.getSections()) {
+            MenuSnapshot.SectionJson kept = previous != null
+                    && previous.restaurantId().equals(menu.getRestaurantId())
+                    ? previous.sections().get(section.getId()) : null;
+            if (kept == null || kept.revision() != section.getRevision()) {
+                kept = new MenuSnapshot.SectionJson(section.getRevision(), toJson(MenuSectionResponse.of(section)));
+                serialized++;
+            }
+            sections.put(section.getId(), kept);
+        }
+
+        try {
+            byte[] json = assemble(menu, sections);
+            byte[] cbor = properties.isBinaryEnabled()
+                    ? cborMapper.writeValueAsBytes(APIResponse.builder().result(MenuResponse.of(menu)).build())
+                    : null;
+            CRC32 crc = new CRC32();
+            crc.update(json);
+            return new MenuSnapshot(menu.getRestaurantId(), menu.getVersion(), Long.toHexString(crc.getValue()), json,
+                    gzip(json), cbor, Map.copyOf(sections), serialized);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not serialize the menu of restaurant " + menu.getRestaurantId(), ex);
+        }
+    }
+
+    /**
+     * Writes what {@code objectMapper} would write for the menu's {@link MenuResponse}, with the sections' JSON
+     * copied in rather than serialized again.
+     */
+    private byte[] assemble(Menu menu, Map<String, MenuSnapshot.SectionJson> sections) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("message", SUCCESS);
+            generator.writeObjectFieldStart("result");
+            generator.writeStringField("restaurantId", menu.getRestaurantId());
+            generator.writeNumberField("version", menu.getVersion());
+            generator.writeFieldName("updatedAt");
+            generator.writeObject(menu.getUpdatedAt());
+            generator.writeArrayFieldStart("sections");
+            for (MenuSnapshot.SectionJson section : sections.values()) {
+                generator.writeRawValue(section.json());
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private String toJson(MenuSectionResponse section) {
+        try {
+            return objectMapper.writeValueAsString(section);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,76 @@
+package com.microservices.restaurants.menu;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.restaurants.entity.Menu;
+import com.microservices.restaurants.repository.MenuRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the latest {@link MenuSnapshot} of the most read menus.
+ * <p>
+ * Menus edited through this instance get their new snapshot right away. A snapshot is otherwise trusted for
+ * {@code app.menus.version-check-interval}, after which the menu's version is read again, alone, and the menu only
+ * read and serialized again if it changed.
+ */
+@Component
+public class MenuSnapshotStore {
+    private final Cache<String, Entry> snapshots;
+    private final MenuRepository menuRepository;
+    private final MenuSnapshotBuilder builder;
+    private final long versionCheckIntervalNanos;
+
+    public MenuSnapshotStore(MenuRepository menuRepository, MenuSnapshotBuilder builder, MenuProperties properties) {
+        this.menuRepository = menuRepository;
+        this.builder = builder;
+        this.versionCheckIntervalNanos = properties.getVersionCheckInterval().toNanos();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(properties.getSnapshotCacheSize().toBytes())
+                .weigher((String restaurantId, Entry entry) -> entry.snapshot().sizeInBytes())
+                .build();
+    }
+
+    /**
+     * @return the current snapshot of the restaurant's menu, {@code null} if it has none
+     */
+    public MenuSnapshot get(String restaurantId) {
+        Entry entry = snapshots.getIfPresent(restaurantId);
+        long now = System.nanoTime();
+        if (entry != null && now - entry.checkedAt() < versionCheckIntervalNanos) {
+            return entry.snapshot();
+        }
+
+        Long version = menuRepository.findVersionByRestaurantId(restaurantId)
+                .map(MenuRepository.VersionOnly::getVersion)
+                .orElse(null);
+        if (version == null) {
+            snapshots.invalidate(restaurantId);
+            return null;
+        }
+        if (entry != null && entry.snapshot().version() == version) {
+            snapshots.asMap().replace(restaurantId, entry, new Entry(entry.snapshot(), now));
+            return entry.snapshot();
+        }
+        return menuRepository.findById(restaurantId)
+                .map(this::update)
+                .orElse(null);
+    }
+
+    /**
+     * Snapshots a saved version of a menu, unless a later version is already snapshotted.
+     */
+    public MenuSnapshot update(Menu menu) {
+        Entry current = snapshots.getIfPresent(menu.getRestaurantId());
+        MenuSnapshot built = builder.build(menu, current != null ? current.snapshot() : null);
+        return snapshots.asMap().merge(menu.getRestaurantId(), new Entry(built, System.nanoTime()),
+                        (existing, updated) -> existing.snapshot().version() > updated.snapshot().version()
+                                ? existing : updated)
+                .snapshot();
+    }
+
+    /**
+     * @param checkedAt {@link System#nanoTime()} when the snapshot was last known to be current
+     */
+    private record Entry(MenuSnapshot snapshot, long checkedAt) {
+    }
+}
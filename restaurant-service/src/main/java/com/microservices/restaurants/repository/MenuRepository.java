@@ -0,0 +1,22 @@
+package com.microservices.restaurants.repository;
+
+import com.microservices.restaurants.entity.Menu;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MenuRepository extends MongoRepository<Menu, String> {
+
+    /**
+     * Reads only the version, to tell whether a cached snapshot of the menu is still current.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1 }")
+    Optional<VersionOnly> findVersionByRestaurantId(String restaurantId);
+
+    interface VersionOnly {
+        Long getVersion();
+    }
+}
@@ -0,0 +1,26 @@
+package com.microservices.restaurants.repository;
+
+import com.microservices.restaurants.entity.Restaurant;
+import com.microservices.restaurants.enums.RestaurantStatus;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+@Repository
+public interface RestaurantRepository extends MongoRepository<Restaurant, String> {
+
+    /**
+     * Restaurants with the status within {@code distance} of {@code location}, nearest first, through the 2dsphere
+     * index on {@code location}.
+     */
+    GeoResults<Restaurant> findByStatusAndLocationNear(RestaurantStatus status, Point location, Distance distance);
+
+    /**
+     * Every restaurant, read through a cursor instead of all at once.
+     */
+    Stream<Restaurant> streamAllBy();
+}
@@ -0,0 +1,18 @@
+package com.microservices.restaurants.service;
+
+import com.microservices.identity.Caller;
+import com.microservices.restaurants.dto.request.MenuSectionRequest;
+import com.microservices.restaurants.dto.response.MenuResponse;
+import com.microservices.restaurants.menu.MenuSnapshot;
+
+public interface MenuService {
+    MenuSnapshot getMenuSnapshot(String restaurantId);
+
+    /**
+     * Adds the section to the restaurant's menu, or replaces it if the menu has one with the same id. Only the
+     * restaurant's owner, or an admin, edits its menu.
+     */
+    MenuResponse putSection(Caller caller, String restaurantId, String sectionId, MenuSectionRequest request);
+
+    MenuResponse deleteSection(Caller caller, String restaurantId, String sectionId);
+}
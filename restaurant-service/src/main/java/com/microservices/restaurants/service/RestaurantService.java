@@ -0,0 +1,33 @@
+package com.microservices.restaurants.service;
+
+import com.microservices.identity.Caller;
+import com.microservices.restaurants.dto.request.RestaurantRequest;
+import com.microservices.restaurants.dto.request.RestaurantStatusRequest;
+import com.microservices.restaurants.dto.response.NearbyRestaurantResponse;
+import com.microservices.restaurants.dto.response.RestaurantResponse;
+
+import java.util.List;
+
+public interface RestaurantService {
+    RestaurantResponse getRestaurant(String restaurantId);
+
+    /**
+     * @param radiusKm {@code null} for the default radius
+     * @param limit    {@code null} for the default number of restaurants
+     * @return restaurants open now, nearest first
+     */
+    List<NearbyRestaurantResponse> findNearby(double latitude, double longitude, Double radiusKm, Integer limit);
+
+    /**
+     * Creates a restaurant owned by the caller, who must be a restaurant owner. Only an admin may create one for
+     * someone else, with {@link RestaurantRequest#getOwnerId()}.
+     */
+    RestaurantResponse createRestaurant(Caller caller, RestaurantRequest request);
+
+    /**
+     * Only the restaurant's owner, or an admin, updates it; only an admin hands it to another owner.
+     */
+    RestaurantResponse updateRestaurant(Caller caller, String restaurantId, RestaurantRequest request);
+
+    RestaurantResponse updateStatus(Caller caller, String restaurantId, RestaurantStatusRequest request);
+}
@@ -0,0 +1,100 @@
+package com.microservices.restaurants.service.impl;
+
+import com.microservices.identity.Caller;
+import com.microservices.restaurants.dto.request.MenuItemRequest;
+import com.microservices.restaurants.dto.request.MenuSectionRequest;
+import com.microservices.restaurants.dto.response.MenuResponse;
+import com.microservices.restaurants.entity.Menu;
+import com.microservices.restaurants.entity.MenuSection;
+import com.microservices.restaurants.exception.MenuNotFoundException;
+import com.microservices.restaurants.exception.MenuSectionNotFoundException;
+import com.microservices.restaurants.exception.RestaurantNotFoundException;
+import com.microservices.restaurants.menu.MenuSnapshot;
+import com.microservices.restaurants.menu.MenuSnapshotStore;
+import com.microservices.restaurants.repository.MenuRepository;
+import com.microservices.restaurants.repository.RestaurantRepository;
+import com.microservices.restaurants.service.MenuService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MenuServiceImpl implements MenuService {
+    private final MenuRepository menuRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final MenuSnapshotStore menuSnapshotStore;
+
+    @Override
+    public MenuSnapshot getMenuSnapshot(String restaurantId) {
+        MenuSnapshot snapshot = menuSnapshotStore.get(restaurantId);
+        if (snapshot == null) {
+            throw new MenuNotFoundException(restaurantId);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public MenuResponse putSection(Caller caller, String restaurantId, String sectionId, MenuSectionRequest request) {
+        checkManages(caller, restaurantId);
+        Menu menu = menuRepository.findById(restaurantId).orElseGet(() -> newMenu(restaurantId));
+        MenuSection section = menu.getSections().stream()
+                .filter(existing -> existing.getId().equals(sectionId))
+                .findFirst()
+                .orElseGet(() -> {
+                    MenuSection added = new MenuSection();
+                    added.setId(sectionId);
+                    menu.getSections().add(added);
+                    return added;
+                });
+        section.setName(request.getName());
+        section.setItems(new ArrayList<>(request.getItems().stream().map(MenuItemRequest::toMenuItem).toList()));
+        section.setRevision(nextVersion(menu));
+
+        return MenuResponse.of(save(menu));
+    }
+
+    @Override
+    public MenuResponse deleteSection(Caller caller, String restaurantId, String sectionId) {
+        checkManages(caller, restaurantId);
+        Menu menu = menuRepository.findById(restaurantId)
+                .orElseThrow(() -> new MenuNotFoundException(restaurantId));
+        if (!menu.getSections().removeIf(section -> section.getId().equals(sectionId))) {
+            throw new MenuSectionNotFoundException(restaurantId, sectionId);
+        }
+        return MenuResponse.of(save(menu));
+    }
+
+    /**
+     * Saves the edit, failing if the menu changed since it was read, and snapshots the new version.
+     */
+    private Menu save(Menu menu) {
+        menu.setUpdatedAt(LocalDateTime.now());
+        Menu saved = menuRepository.save(menu);
+        menuSnapshotStore.update(saved);
+        log.info("Menu of restaurant {} is now version {}", saved.getRestaurantId(), saved.getVersion());
+        return saved;
+    }
+
+    private void checkManages(Caller caller, String restaurantId) {
+        RestaurantAccess.checkManages(caller, restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new RestaurantNotFoundException(restaurantId)));
+    }
+
+    private static Menu newMenu(String restaurantId) {
+        Menu menu = new Menu();
+        menu.setRestaurantId(restaurantId);
+        return menu;
+    }
+
+    /**
+     * The version the menu gets when saved: a new menu is inserted as version 0.
+     */
+    private static long nextVersion(Menu menu) {
+        return menu.getVersion() != null ? menu.getVersion() + 1 : 0;
+    }
+}
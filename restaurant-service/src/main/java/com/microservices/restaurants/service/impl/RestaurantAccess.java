@@ -0,0 +1,26 @@
+package com.microservices.restaurants.service.impl;
+
+import com.microservices.identity.Caller;
+import com.microservices.restaurants.entity.Restaurant;
+import com.microservices.restaurants.exception.RestaurantAccessDeniedException;
+
+/**
+ * A restaurant, and its menu, are managed by its owner or by an admin. Other services trust the owner recorded
+ * here, product-service for one lets it manage the restaurant's products.
+ */
+final class RestaurantAccess {
+    private RestaurantAccess() {
+    }
+
+    /**
+     * @throws RestaurantAccessDeniedException if the caller is neither the restaurant's owner nor an admin
+     */
+    static void checkManages(Caller caller, Restaurant restaurant) {
+        if (caller.isAdmin()) {
+            return;
+        }
+        if (!caller.hasRole(Caller.RESTAURANT_OWNER) || !caller.isOrAdmin(restaurant.getOwnerId())) {
+            throw new RestaurantAccessDeniedException(restaurant.getId());
+        }
+    }
+}
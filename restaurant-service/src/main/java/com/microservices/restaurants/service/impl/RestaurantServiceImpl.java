@@ -0,0 +1,157 @@
+package com.microservices.restaurants.service.impl;
+
+import com.microservices.identity.Caller;
+import com.microservices.restaurants.discovery.DiscoveryProperties;
+import com.microservices.restaurants.discovery.IndexedRestaurant;
+import com.microservices.restaurants.discovery.OpenRestaurantIndex;
+import com.microservices.restaurants.dto.request.OperatingHoursRequest;
+import com.microservices.restaurants.dto.request.RestaurantRequest;
+import com.microservices.restaurants.dto.request.RestaurantStatusRequest;
+import com.microservices.restaurants.dto.response.NearbyRestaurantResponse;
+import com.microservices.restaurants.dto.response.RestaurantResponse;
+import com.microservices.restaurants.entity.Restaurant;
+import com.microservices.restaurants.enums.RestaurantStatus;
+import com.microservices.restaurants.exception.RestaurantAccessDeniedException;
+import com.microservices.restaurants.exception.RestaurantNotFoundException;
+import com.microservices.restaurants.repository.RestaurantRepository;
+import com.microservices.restaurants.service.RestaurantService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RestaurantServiceImpl implements RestaurantService {
+    private final RestaurantRepository restaurantRepository;
+    private final OpenRestaurantIndex openRestaurantIndex;
+    private final DiscoveryProperties discoveryProperties;
+
+    @Override
+    public RestaurantResponse getRestaurant(String restaurantId) {
+        return RestaurantResponse.of(find(restaurantId));
+    }
+
+    @Override
+    public List<NearbyRestaurantResponse> findNearby(double latitude, double longitude, Double radiusKm,
+                                                     Integer limit) {
+        double radius = radiusKm != null && radiusKm > 0 ? radiusKm : discoveryProperties.getDefaultRadiusKm();
+        radius = Math.min(radius, discoveryProperties.getMaxRadiusKm());
+        int count = Math.clamp(limit != null ? limit : discoveryProperties.getDefaultLimit(), 1,
+                discoveryProperties.getMaxLimit());
+        LocalDateTime now = LocalDateTime.now(discoveryProperties.getZoneId());
+
+        if (openRestaurantIndex.isLoaded()) {
+            return openRestaurantIndex.nearby(latitude, longitude, radius * 1000, count, now).stream()
+                    .map(nearby -> toNearbyResponse(nearby.restaurant(), nearby.distanceMeters()))
+                    .toList();
+        }
+        // Not loaded yet after startup: the 2dsphere index sorts by distance, operating hours are checked here
+        return restaurantRepository.findByStatusAndLocationNear(RestaurantStatus.OPEN,
+                        new Point(longitude, latitude), new Distance(radius, Metrics.KILOMETERS))
+                .getContent().stream()
+                .filter(result -> result.getContent().isOpenAt(now))
+                .limit(count)
+                .map(RestaurantServiceImpl::toNearbyResponse)
+                .toList();
+    }
+
+    @Override
+    public RestaurantResponse createRestaurant(Caller caller, RestaurantRequest request) {
+        if (!caller.isAdmin() && (!caller.isAuthenticated() || !caller.hasRole(Caller.RESTAURANT_OWNER))) {
+            throw new RestaurantAccessDeniedException();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Restaurant restaurant = new Restaurant();
+        restaurant.setOwnerId(caller.isAdmin() && request.getOwnerId() != null
+                ? request.getOwnerId() : caller.userId());
+        apply(restaurant, request);
+        restaurant.setStatus(RestaurantStatus.CLOSED);
+        restaurant.setCreatedAt(now);
+        restaurant.setUpdatedAt(now);
+
+        Restaurant saved = restaurantRepository.save(restaurant);
+        openRestaurantIndex.put(saved);
+        log.info("Created restaurant {} of owner {}", saved.getId(), saved.getOwnerId());
+        return RestaurantResponse.of(saved);
+    }
+
+    @Override
+    public RestaurantResponse updateRestaurant(Caller caller, String restaurantId, RestaurantRequest request) {
+        Restaurant restaurant = find(restaurantId);
+        RestaurantAccess.checkManages(caller, restaurant);
+        if (caller.isAdmin() && request.getOwnerId() != null) {
+            restaurant.setOwnerId(request.getOwnerId());
+        }
+        apply(restaurant, request);
+        restaurant.setUpdatedAt(LocalDateTime.now());
+
+        Restaurant saved = restaurantRepository.save(restaurant);
+        openRestaurantIndex.put(saved);
+        return RestaurantResponse.of(saved);
+    }
+
+    @Override
+    public RestaurantResponse updateStatus(Caller caller, String restaurantId, RestaurantStatusRequest request) {
+        Restaurant restaurant = find(restaurantId);
+        RestaurantAccess.checkManages(caller, restaurant);
+        restaurant.setStatus(request.getStatus());
+        restaurant.setUpdatedAt(LocalDateTime.now());
+
+        Restaurant saved = restaurantRepository.save(restaurant);
+        openRestaurantIndex.put(saved);
+        log.info("Restaurant {} is now {}", restaurantId, saved.getStatus());
+        return RestaurantResponse.of(saved);
+    }
+
+    private Restaurant find(String restaurantId) {
+        return restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new RestaurantNotFoundException(restaurantId));
+    }
+
+    /**
+     * Copies everything but the owner, which is set from the caller.
+     */
+    private static void apply(Restaurant restaurant, RestaurantRequest request) {
+        restaurant.setName(request.getName());
+        restaurant.setCuisine(request.getCuisine());
+        restaurant.setAddress(request.getAddress());
+        restaurant.setLocation(new GeoJsonPoint(request.getLongitude(), request.getLatitude()));
+        restaurant.setOperatingHours(request.getOperatingHours().stream()
+                .map(OperatingHoursRequest::toOperatingHours)
+                .toList());
+    }
+
+    private static NearbyRestaurantResponse toNearbyResponse(IndexedRestaurant restaurant, double distanceMeters) {
+        return NearbyRestaurantResponse.builder()
+                .id(restaurant.id())
+                .name(restaurant.name())
+                .cuisine(restaurant.cuisine())
+                .address(restaurant.address())
+                .latitude(restaurant.latitude())
+                .longitude(restaurant.longitude())
+                .distanceMeters(Math.round(distanceMeters))
+                .build();
+    }
+
+    private static NearbyRestaurantResponse toNearbyResponse(GeoResult<Restaurant> result) {
+        Restaurant restaurant = result.getContent();
+        return NearbyRestaurantResponse.builder()
+                .id(restaurant.getId())
+                .name(restaurant.getName())
+                .cuisine(restaurant.getCuisine())
+                .address(restaurant.getAddress())
+                .latitude(restaurant.getLocation().getY())
+                .longitude(restaurant.getLocation().getX())
+                .distanceMeters(Math.round(result.getDistance().in(Metrics.KILOMETERS).getValue() * 1000))
+                .build();
+    }
+}
@@ -0,0 +1,231 @@
+package com.microservices.restaurants.discovery;
+
+import com.microservices.geo.GeoHashGrid;
+import com.microservices.restaurants.entity.OperatingHours;
+import com.microservices.restaurants.entity.Restaurant;
+import com.microservices.restaurants.enums.RestaurantStatus;
+import com.microservices.restaurants.repository.RestaurantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Searches restaurants spread over two cities through the geohash cells, and checks the cells find the same
+ * restaurants as scanning them all.
+ */
+class OpenRestaurantIndexTest {
+    private static final Logger log = LoggerFactory.getLogger(OpenRestaurantIndexTest.class);
+    private static final int RESTAURANTS = 5_000;
+    private static final int BENCHMARK_RESTAURANTS = Integer.getInteger("discovery.benchmark.restaurants", 100_000);
+    private static final int RUNS = 200;
+    // Ho Chi Minh City and Hanoi
+    private static final double[][] CITIES = {{10.7769, 106.7009}, {21.0278, 105.8342}};
+    private static final LocalDateTime WEDNESDAY_NOON = LocalDateTime.of(2026, 10, 14, 12, 0);
+
+    private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+    private OpenRestaurantIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new OpenRestaurantIndex(restaurantRepository, new DiscoveryProperties());
+    }
+
+    @Test
+    void findsTheSameNearestOpenRestaurantsAsAScan() {
+        Random random = new Random(42);
+        List<Restaurant> restaurants = restaurants(random, RESTAURANTS);
+        load(restaurants);
+        List<IndexedRestaurant> all = indexed(restaurants);
+
+        for (double[] customer : customers(random)) {
+            assertThat(ids(index.nearby(customer[0], customer[1], 5_000, 20, WEDNESDAY_NOON)))
+                    .containsExactlyElementsOf(ids(scan(all, customer[0], customer[1], 5_000, 20)));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void findsNearestOpenRestaurantsFasterThanAScan() {
+        Random random = new Random(42);
+        List<Restaurant> restaurants = restaurants(random, BENCHMARK_RESTAURANTS);
+        long start = System.nanoTime();
+        load(restaurants);
+        log.info("Indexed {} restaurants in {} ms", BENCHMARK_RESTAURANTS, (System.nanoTime() - start) / 1_000_000);
+
+        List<IndexedRestaurant> all = indexed(restaurants);
+        double[][] customers = customers(random);
+        int[] next = {0};
+        long indexMicros = medianMicros(() -> {
+            double[] customer = customers[next[0]++ % RUNS];
+            return index.nearby(customer[0], customer[1], 5_000, 20, WEDNESDAY_NOON);
+        });
+        long scanMicros = medianMicros(() -> {
+            double[] customer = customers[next[0]++ % RUNS];
+            return scan(all, customer[0], customer[1], 5_000, 20);
+        });
+        log.info("20 nearest open of {} restaurants within 5 km, median of {} runs: geohash cells {} us, scan {} us",
+                BENCHMARK_RESTAURANTS, RUNS, indexMicros, scanMicros);
+
+        assertThat(indexMicros).isLessThan(scanMicros);
+    }
+
+    @Test
+    void leavesOutClosedRestaurantsAndOnesOutsideTheirHours() {
+        Restaurant open = restaurant("open", 10.7770, 106.7010);
+        Restaurant closed = restaurant("closed", 10.7771, 106.7011);
+        closed.setStatus(RestaurantStatus.CLOSED);
+        Restaurant lateNight = restaurant("late-night", 10.7772, 106.7012);
+        lateNight.setOperatingHours(List.of(new OperatingHours(DayOfWeek.WEDNESDAY, LocalTime.of(17, 0),
+                LocalTime.of(2, 0))));
+        List.of(open, closed, lateNight).forEach(index::put);
+
+        assertThat(ids(index.nearby(10.7769, 106.7009, 1_000, 10, WEDNESDAY_NOON))).containsExactly("open");
+        assertThat(ids(index.nearby(10.7769, 106.7009, 1_000, 10, LocalDateTime.of(2026, 10, 15, 1, 0))))
+                .containsExactly("open", "late-night");
+    }
+
+    @Test
+    void reindexesRestaurantsThatMoveOrChangeStatus() {
+        Restaurant restaurant = restaurant("moving", 10.7770, 106.7010);
+        index.put(restaurant);
+
+        Restaurant moved = restaurant("moving", 21.0278, 105.8342);
+        moved.setVersion(2L);
+        index.put(moved);
+        assertThat(index.nearby(10.7769, 106.7009, 5_000, 10, WEDNESDAY_NOON)).isEmpty();
+        assertThat(ids(index.nearby(21.0278, 105.8342, 5_000, 10, WEDNESDAY_NOON))).containsExactly("moving");
+
+        // A stale copy, as read by a reload that started before the move, does not undo it
+        index.put(restaurant);
+        assertThat(ids(index.nearby(21.0278, 105.8342, 5_000, 10, WEDNESDAY_NOON))).containsExactly("moving");
+
+        Restaurant closed = restaurant("moving", 21.0278, 105.8342);
+        closed.setVersion(3L);
+        closed.setStatus(RestaurantStatus.CLOSED);
+        index.put(closed);
+        assertThat(index.nearby(21.0278, 105.8342, 5_000, 10, WEDNESDAY_NOON)).isEmpty();
+    }
+
+    @Test
+    void reloadDropsRestaurantsGoneFromTheDatabase() {
+        Restaurant kept = restaurant("kept", 10.7770, 106.7010);
+        Restaurant gone = restaurant("gone", 10.7771, 106.7011);
+        when(restaurantRepository.streamAllBy()).thenAnswer(invocation -> List.of(kept, gone).stream());
+        index.reload();
+        assertThat(index.isLoaded()).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+
+        when(restaurantRepository.streamAllBy()).thenAnswer(invocation -> List.of(kept).stream());
+        index.reload();
+
+        assertThat(ids(index.nearby(10.7769, 106.7009, 1_000, 10, WEDNESDAY_NOON))).containsExactly("kept");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        index.put(restaurant("east", -17.7, 179.99));
+        index.put(restaurant("west", -17.7, -179.99));
+
+        assertThat(ids(index.nearby(-17.7, 179.999, 5_000, 10, WEDNESDAY_NOON)))
+                .containsExactlyInAnyOrder("east", "west");
+    }
+
+    private void load(List<Restaurant> restaurants) {
+        when(restaurantRepository.streamAllBy()).thenAnswer(invocation -> restaurants.stream());
+        index.reload();
+    }
+
+    private static List<IndexedRestaurant> indexed(List<Restaurant> restaurants) {
+        return restaurants.stream()
+                .map(restaurant -> IndexedRestaurant.of(restaurant, 0))
+                .toList();
+    }
+
+    /**
+     * Restaurants denser in the center of each city, within about 15 km of it. One in ten is closed and one in ten
+     * only opens in the evening.
+     */
+    private static List<Restaurant> restaurants(Random random, int count) {
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double[] city = CITIES[i % CITIES.length];
+            Restaurant restaurant = restaurant("r" + i, city[0] + random.nextGaussian() * 0.05,
+                    city[1] + random.nextGaussian() * 0.05);
+            if (i % 10 == 0) {
+                restaurant.setStatus(RestaurantStatus.CLOSED);
+            } else if (i % 10 == 1) {
+                restaurant.setOperatingHours(List.of(new OperatingHours(DayOfWeek.WEDNESDAY, LocalTime.of(17, 0),
+                        LocalTime.of(2, 0))));
+            }
+            restaurants.add(restaurant);
+        }
+        return restaurants;
+    }
+
+    private static double[][] customers(Random random) {
+        double[][] customers = new double[RUNS][];
+        for (int i = 0; i < RUNS; i++) {
+            double[] city = CITIES[i % CITIES.length];
+            customers[i] = new double[]{city[0] + random.nextGaussian() * 0.05, city[1] + random.nextGaussian() * 0.05};
+        }
+        return customers;
+    }
+
+    private static List<NearbyRestaurant> scan(List<IndexedRestaurant> all, double latitude, double longitude,
+                                               double radiusMeters, int limit) {
+        return all.stream()
+                .filter(restaurant -> restaurant.isOpenAt(WEDNESDAY_NOON))
+                .map(restaurant -> new NearbyRestaurant(restaurant, GeoHashGrid.distanceMeters(latitude, longitude,
+                        restaurant.latitude(), restaurant.longitude())))
+                .filter(nearby -> nearby.distanceMeters() <= radiusMeters)
+                .sorted(Comparator.comparingDouble(NearbyRestaurant::distanceMeters))
+                .limit(limit)
+                .toList();
+    }
+
+    private static long medianMicros(Supplier<?> search) {
+        for (int i = 0; i < 20; i++) {
+            search.get();
+        }
+        long[] micros = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            search.get();
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+
+    private static List<String> ids(List<NearbyRestaurant> nearby) {
+        return nearby.stream().map(restaurant -> restaurant.restaurant().id()).toList();
+    }
+
+    private static Restaurant restaurant(String id, double latitude, double longitude) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setName("Restaurant " + id);
+        restaurant.setLocation(new GeoJsonPoint(longitude, latitude));
+        restaurant.setStatus(RestaurantStatus.OPEN);
+        restaurant.setVersion(1L);
+        return restaurant;
+    }
+}
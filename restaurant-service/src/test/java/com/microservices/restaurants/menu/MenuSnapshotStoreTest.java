@@ -0,0 +1,207 @@
+package com.microservices.restaurants.menu;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.microservices.restaurants.dto.response.APIResponse;
+import com.microservices.restaurants.dto.response.MenuResponse;
+import com.microservices.restaurants.entity.Menu;
+import com.microservices.restaurants.entity.MenuItem;
+import com.microservices.restaurants.entity.MenuSection;
+import com.microservices.restaurants.repository.MenuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks a menu snapshot in each format and that an edit only serializes its section. The benchmark measures what
+ * serializing costs per request, per full snapshot and per edit of one section.
+ */
+class MenuSnapshotStoreTest {
+    private static final Logger log = LoggerFactory.getLogger(MenuSnapshotStoreTest.class);
+    private static final int SECTIONS = 20;
+    private static final int ITEMS_PER_SECTION = 30;
+    private static final int RUNS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final MenuRepository menuRepository = mock(MenuRepository.class);
+    private MenuProperties properties;
+    private MenuSnapshotBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MenuProperties();
+        builder = new MenuSnapshotBuilder(objectMapper, properties);
+    }
+
+    @Test
+    void snapshotIsSmallerOnTheWireAndEditsOnlySerializeTheirSection() throws IOException {
+        Menu menu = menu("r1", 3L);
+        MenuSnapshot snapshot = builder.build(menu, null);
+        byte[] perRequest = objectMapper.writeValueAsBytes(envelope(menu));
+
+        assertThat(objectMapper.readTree(snapshot.json())).isEqualTo(objectMapper.readTree(perRequest));
+        assertThat(gunzip(snapshot.gzippedJson())).isEqualTo(snapshot.json());
+        APIResponse<MenuResponse> decoded = CBORMapper.builder().findAndAddModules().build()
+                .readValue(snapshot.cbor(), new TypeReference<>() {
+                });
+        assertThat(decoded.getResult()).isEqualTo(MenuResponse.of(menu));
+        assertThat(snapshot.sectionsSerialized()).isEqualTo(SECTIONS);
+        assertThat(snapshot.gzippedJson().length).isLessThan(snapshot.json().length / 4);
+        assertThat(snapshot.cbor().length).isLessThan(snapshot.json().length);
+
+        Menu edited = menu("r1", 4L);
+        edited.getSections().get(7).getItems().getFirst().setPrice(new BigDecimal("99000"));
+        edited.getSections().get(7).setRevision(4L);
+        MenuSnapshot incremental = builder.build(edited, snapshot);
+
+        assertThat(incremental.sectionsSerialized()).isEqualTo(1);
+        assertThat(incremental.json()).isEqualTo(builder.build(edited, null).json());
+        assertThat(incremental.etag(MenuSnapshot.Format.JSON)).isNotEqualTo(snapshot.etag(MenuSnapshot.Format.JSON));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSerializingPerRequestAndPerSnapshot() throws IOException {
+        Menu menu = menu("r1", 3L);
+        MenuSnapshot snapshot = builder.build(menu, null);
+        Menu edited = menu("r1", 4L);
+        edited.getSections().get(7).setRevision(4L);
+        log.info("Menu of {} items: JSON {} bytes, gzipped JSON {} bytes, CBOR {} bytes",
+                SECTIONS * ITEMS_PER_SECTION, snapshot.json().length, snapshot.gzippedJson().length,
+                snapshot.cbor().length);
+
+        long perRequestMicros = medianMicros(() -> gzip(objectMapper.writeValueAsBytes(envelope(menu))));
+        long fullMicros = medianMicros(() -> builder.build(edited, null));
+        long incrementalMicros = medianMicros(() -> builder.build(edited, snapshot));
+        log.info("Serializing and gzipping per request {} us; snapshot of a new version {} us, of an edit of one "
+                + "section {} us; serving a snapshot 0 us", perRequestMicros, fullMicros, incrementalMicros);
+
+        assertThat(builder.build(edited, snapshot).sectionsSerialized()).isEqualTo(1);
+    }
+
+    @Test
+    void servesTheSnapshotUntilTheVersionChanges() {
+        properties.setVersionCheckInterval(Duration.ZERO);
+        MenuSnapshotStore store = new MenuSnapshotStore(menuRepository, builder, properties);
+        when(menuRepository.findVersionByRestaurantId("r1")).thenReturn(Optional.of(() -> 3L));
+        when(menuRepository.findById("r1")).thenReturn(Optional.of(menu("r1", 3L)));
+
+        MenuSnapshot first = store.get("r1");
+        MenuSnapshot second = store.get("r1");
+
+        assertThat(second).isSameAs(first);
+        verify(menuRepository, times(1)).findById("r1");
+
+        // Edited through another instance
+        when(menuRepository.findVersionByRestaurantId("r1")).thenReturn(Optional.of(() -> 4L));
+        when(menuRepository.findById("r1")).thenReturn(Optional.of(menu("r1", 4L)));
+
+        assertThat(store.get("r1").version()).isEqualTo(4L);
+        verify(menuRepository, times(2)).findById("r1");
+    }
+
+    @Test
+    void trustsTheSnapshotWithinTheCheckInterval() {
+        properties.setVersionCheckInterval(Duration.ofMinutes(1));
+        MenuSnapshotStore store = new MenuSnapshotStore(menuRepository, builder, properties);
+        store.update(menu("r1", 3L));
+
+        assertThat(store.get("r1").version()).isEqualTo(3L);
+        verify(menuRepository, never()).findVersionByRestaurantId("r1");
+    }
+
+    @Test
+    void keepsTheLaterVersion() {
+        MenuSnapshotStore store = new MenuSnapshotStore(menuRepository, builder, properties);
+
+        store.update(menu("r1", 5L));
+        MenuSnapshot stale = store.update(menu("r1", 4L));
+
+        assertThat(stale.version()).isEqualTo(5L);
+    }
+
+    @Test
+    void menuWithoutVersionIsNotFound() {
+        MenuSnapshotStore store = new MenuSnapshotStore(menuRepository, builder, properties);
+        when(menuRepository.findVersionByRestaurantId("r1")).thenReturn(Optional.empty());
+
+        assertThat(store.get("r1")).isNull();
+    }
+
+    private static APIResponse<MenuResponse> envelope(Menu menu) {
+        return APIResponse.<MenuResponse>builder().result(MenuResponse.of(menu)).build();
+    }
+
+    private static Menu menu(String restaurantId, long version) {
+        List<MenuSection> sections = new ArrayList<>();
+        for (int s = 0; s < SECTIONS; s++) {
+            List<MenuItem> items = new ArrayList<>();
+            for (int i = 0; i < ITEMS_PER_SECTION; i++) {
+                items.add(new MenuItem((long) s * ITEMS_PER_SECTION + i, "Dish " + s + "-" + i,
+                        "Slow-cooked broth with rice noodles, fresh herbs, lime and chili on the side",
+                        BigDecimal.valueOf(35_000 + i * 5_000L), i % 7 != 0));
+            }
+            sections.add(new MenuSection("section-" + s, "Section " + s, items, 1));
+        }
+        return new Menu(restaurantId, sections, version, LocalDateTime.of(2026, 10, 14, 12, 0));
+    }
+
+    private static long medianMicros(ThrowingSupplier work) throws IOException {
+        for (int i = 0; i < 50; i++) {
+            work.get();
+        }
+        long[] micros = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            work.get();
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        Object get() throws IOException;
+    }
+}
@@ -1,5 +1,13 @@
 echo "Building all BeeFood microservices..."
 
+# Shared libraries first, the services depend on them
+libraries=("libs/gateway-identity" "libs/geo")
+
+for library in "${libraries[@]}"; do
+    echo "Building $library..."
+    (cd "$library" && mvn clean install -DskipTests)
+done
+
 services=("discovery-service" "api-gateway" "user-service" "product-service" "restaurant-service" "order-service" "delivery-service" "notification-service")
 
 for service in "${services[@]}"; do
@@ -74,7 +74,7 @@ echo -e "${GREEN}PostgreSQL:${NC}"
 echo "  Host: localhost:5432"
 echo "  Username: admin"
 echo "  Password: admin123"
-echo "  Databases: user_service_db, product_service_db, order_service_db"
+echo "  Databases: user_service_db, product_service_db, order_service_db, notification_service_db"
 echo ""
 echo -e "${GREEN}MongoDB:${NC}"
 echo "  Host: localhost:27017"
@@ -1,7 +1,9 @@
 package com.microservices.users.entity;
 
 import com.microservices.users.enums.Role;
+import com.microservices.users.security.PrincipalCacheInvalidator;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 import jakarta.persistence.Id;
 import jakarta.persistence.GenerationType;
@@ -25,6 +27,7 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
+@EntityListeners(PrincipalCacheInvalidator.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,24 @@
+package com.microservices.users.exception;
+
+import com.microservices.users.dto.response.APIResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<APIResponse<?>> handleServiceOverloaded(ServiceOverloadedException ex) {
+        APIResponse<?> apiResponse = APIResponse.builder()
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(apiResponse);
+    }
+}
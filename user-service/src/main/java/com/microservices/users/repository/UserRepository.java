@@ -3,6 +3,9 @@ package com.microservices.users.repository;
 import com.microservices.users.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,4 +14,12 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Replaces the stored hash in place. Being a bulk update it bypasses the entity listeners, so the principal
+     * cache is not invalidated: re-hashing the same password changes neither the user's role nor credentials.
+     */
+    @Modifying
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePasswordHash(@Param("email") String email, @Param("password") String password);
+}
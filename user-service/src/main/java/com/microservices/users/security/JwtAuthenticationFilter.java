@@ -1,11 +1,13 @@
 package com.microservices.users.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,6 +18,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -24,6 +27,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    @Value("${app.security.stateless-principal:true}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -31,8 +39,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = extractJwtFromRequest(request);
 
-            if (jwt != null && tokenProvider.validateToken(jwt)) {
-                authenticateUser(jwt, request);
+            if (jwt != null) {
+                verify(jwt).ifPresent(claims -> authenticateUser(claims, request));
             }
         } catch (Exception ex) {
             log.error("Cannot authenticate user: {}", ex.getMessage());
@@ -42,9 +50,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private void authenticateUser(String jwt, HttpServletRequest request) {
-        String email = tokenProvider.getDataFromToken(jwt);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+    private Optional<Claims> verify(String jwt) {
+        // Tokens already verified and not yet expired skip the HMAC check entirely
+        Optional<Claims> cached = verifiedTokenCache.get(jwt);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Optional<Claims> claims = tokenProvider.verifyAndParse(jwt);
+        claims.ifPresent(verified -> verifiedTokenCache.put(jwt, verified));
+        return claims;
+    }
+
+    private void authenticateUser(Claims claims, HttpServletRequest request) {
+        String email = claims.getSubject();
+        UserDetails userDetails = resolvePrincipal(email, claims);
 
         UsernamePasswordAuthenticationToken authentication =
                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -54,6 +74,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         log.debug("Authenticated user: {}", email);
     }
 
+    private UserDetails resolvePrincipal(String email, Claims claims) {
+        UserDetailsImpl principal = principalCache.get(email);
+        if (principal != null) {
+            return principal;
+        }
+
+        // Claims are only trusted if the user has not been invalidated since the token was issued
+        if (statelessPrincipal && !principalCache.isIssuedBeforeInvalidation(email, claims.getIssuedAt())) {
+            principal = UserDetailsImpl.fromClaims(claims);
+        }
+        if (principal == null) {
+            // The password hash and entity are never needed past login, so keep them out of the cache
+            principal = ((UserDetailsImpl) userDetailsService.loadUserByUsername(email)).withoutCredentials();
+        }
+
+        principalCache.put(email, principal);
+        return principal;
+    }
+
     private String extractJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
 
@@ -64,11 +103,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = bearerToken.substring(7);
 
         // Validate JWT format (3 parts separated by dots)
-        if (token.split("\\.").length != 3) {
+        if (countSegmentSeparators(token) != 2) {
             log.warn("Invalid JWT token format");
             return null;
         }
 
         return token;
     }
+
+    private static int countSegmentSeparators(String token) {
+        int separators = 0;
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) == '.') {
+                separators++;
+            }
+        }
+        return separators;
+    }
 }
\ No newline at end of file
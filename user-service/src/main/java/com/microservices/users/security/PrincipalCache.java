@@ -0,0 +1,69 @@
+package com.microservices.users.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Bounded, TTL-evicting cache of authenticated principals keyed by email.
+ * <p>
+ * {@link #invalidate(String)} must be called whenever a user's role or credentials change. Besides dropping
+ * the cached principal, it remembers when the invalidation happened so that tokens issued before it are no
+ * longer trusted as a source of claims and are resolved against the database instead.
+ * <p>
+ * The markers are only bounded by time, one token lifetime, since evicting one early would make the tokens it
+ * covers trusted again. They are kept in epoch seconds, the precision of the tokens' {@code iat} claim.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+    private final Cache<String, UserDetailsImpl> principals;
+    // Epoch seconds of the last invalidation by email
+    private final Cache<String, Long> invalidatedAt;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.security.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${app.jwt.expiration}") long jwtExpirationInMs) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        // A token issued before an invalidation can live at most one token lifetime, so the marker can too
+        this.invalidatedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationInMs))
+                .build();
+    }
+
+    public UserDetailsImpl get(String email) {
+        return principals.getIfPresent(email);
+    }
+
+    public void put(String email, UserDetailsImpl principal) {
+        principals.put(email, principal);
+    }
+
+    /**
+     * Returns {@code true} if the user was invalidated after the token carrying these claims was issued. A token
+     * issued within the same second as the invalidation counts as issued before it.
+     */
+    public boolean isIssuedBeforeInvalidation(String email, Date issuedAt) {
+        Long invalidated = invalidatedAt.getIfPresent(email);
+        return invalidated != null && (issuedAt == null || issuedAt.toInstant().getEpochSecond() <= invalidated);
+    }
+
+    public void invalidate(String email) {
+        invalidatedAt.put(email, Instant.now().getEpochSecond());
+        principals.invalidate(email);
+        log.debug("Invalidated cached principal for user: {}", email);
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+}
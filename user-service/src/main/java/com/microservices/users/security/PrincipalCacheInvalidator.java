@@ -0,0 +1,43 @@
+package com.microservices.users.security;
+
+import com.microservices.users.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that drops cached principals whenever a user row changes,
+ * so role changes are picked up without waiting for the cache TTL.
+ * <p>
+ * The callbacks run when the change is flushed, before it is committed. A request resolving the same user in
+ * between still reads the old row and would put the old principal back, so within a transaction the principal is
+ * dropped once more after the commit. Only then is the change announced to the gateway.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalCacheInvalidator {
+    private final PrincipalCache principalCache;
+    private final ObjectProvider<TokenInvalidationPublisher> invalidationPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        String email = user.getEmail();
+        principalCache.invalidate(email);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidationPublisher.ifAvailable(publisher -> publisher.publish(email));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                principalCache.invalidate(email);
+                invalidationPublisher.ifAvailable(publisher -> publisher.publish(email));
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.microservices.users.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Announces invalidated users to the api-gateway, which caches verified tokens and must stop trusting the ones
+ * issued before a user's role or credentials changed.
+ * <p>
+ * Each invalidation is stored under its own key for one token lifetime, for gateway instances that were not
+ * listening when it was announced, and published on a channel. Redis is best effort: a failed announcement is only
+ * logged, and the gateway's token cache TTL bounds how long it keeps trusting the user's older tokens.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.security.invalidation-broadcast.enabled", havingValue = "true",
+        matchIfMissing = true)
+public class TokenInvalidationPublisher {
+    public static final String KEY_PREFIX = "auth:invalidated:";
+    public static final String CHANNEL = "auth:invalidations";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration markerTtl;
+
+    public TokenInvalidationPublisher(StringRedisTemplate redisTemplate,
+                                      @Value("${app.jwt.expiration}") long jwtExpirationInMs) {
+        this.redisTemplate = redisTemplate;
+        this.markerTtl = Duration.ofMillis(jwtExpirationInMs);
+    }
+
+    /**
+     * Publishes the invalidation as {@code <epoch seconds>:<email>}, the same precision as the tokens' {@code iat}.
+     */
+    public void publish(String email) {
+        String invalidatedAt = Long.toString(Instant.now().getEpochSecond());
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + email, invalidatedAt, markerTtl);
+            redisTemplate.convertAndSend(CHANNEL, invalidatedAt + ":" + email);
+        } catch (RuntimeException ex) {
+            log.warn("Could not announce the invalidation of {} to the gateway: {}", email, ex.toString());
+        }
+    }
+}
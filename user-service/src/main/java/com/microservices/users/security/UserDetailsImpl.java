@@ -1,11 +1,15 @@
 package com.microservices.users.security;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.microservices.users.entity.User;
 import com.microservices.users.enums.Role;
+import io.jsonwebtoken.Claims;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,12 +26,51 @@ public class UserDetailsImpl implements UserDetails {
     private String password;
     private Role role;
 
+    /**
+     * The entity this principal was loaded from, handed over to the login flow so it does not query the user again.
+     * Only set for principals built from the database.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user;
+
     public static UserDetailsImpl build(User user) {
         return UserDetailsImpl.builder()
                 .id(user.getId())
                 .email(user.getEmail())
                 .password(user.getPassword())
                 .role(user.getRole())
+                .user(user)
+                .build();
+    }
+
+    /**
+     * Returns a copy holding only identity and role, suitable for caching past authentication.
+     */
+    public UserDetailsImpl withoutCredentials() {
+        return UserDetailsImpl.builder()
+                .id(id)
+                .email(email)
+                .role(role)
+                .build();
+    }
+
+    /**
+     * Builds a principal from signed JWT claims without touching the database.
+     * Returns {@code null} for tokens issued before the id and role claims were added.
+     */
+    public static UserDetailsImpl fromClaims(Claims claims) {
+        Number id = claims.get(JwtTokenProvider.CLAIM_USER_ID, Number.class);
+        String role = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+        if (id == null || role == null) {
+            return null;
+        }
+
+        return UserDetailsImpl.builder()
+                .id(id.longValue())
+                .email(claims.getSubject())
+                .role(Role.valueOf(role))
                 .build();
     }
 
@@ -4,14 +4,16 @@ import com.microservices.users.entity.User;
 import com.microservices.users.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     @Override
@@ -22,4 +24,26 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Called by {@code DaoAuthenticationProvider} after a successful login when the stored hash is weaker
+     * than the configured work factor.
+     * <p>
+     * Runs in its own writable transaction, so it commits even when the login runs inside a read-only one. The
+     * token issued right after must stay trusted, so the hash is written without invalidating the principal.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        if (userRepository.updatePasswordHash(userDetails.getUsername(), newPassword) == 0) {
+            throw new UsernameNotFoundException("User not found with email: " + userDetails.getUsername());
+        }
+        UserDetailsImpl principal = (UserDetailsImpl) userDetails;
+        principal.setPassword(newPassword);
+        if (principal.getUser() != null) {
+            principal.getUser().setPassword(newPassword);
+        }
+
+        return principal;
+    }
+}
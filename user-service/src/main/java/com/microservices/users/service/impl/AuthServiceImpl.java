@@ -4,8 +4,8 @@ import com.microservices.users.dto.request.LoginRequest;
 import com.microservices.users.dto.response.LoginResponse;
 import com.microservices.users.entity.User;
 import com.microservices.users.mapper.UserMapper;
-import com.microservices.users.repository.UserRepository;
 import com.microservices.users.security.JwtTokenProvider;
+import com.microservices.users.security.UserDetailsImpl;
 import com.microservices.users.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,21 +13,17 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
-    private final UserRepository userRepository;
     private final JwtTokenProvider tokenProvider;
     private final UserMapper userMapper;
 
     @Override
-    @Transactional(readOnly = true)
     public LoginResponse login(LoginRequest loginRequest) {
         log.info("Login attempt for email: {}", loginRequest.getEmail());
 
@@ -42,12 +38,12 @@ public class AuthServiceImpl implements AuthService {
         // Step 2: Set authentication in SecurityContext
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // Step 3: Fetch user from database
-        User user = userRepository.findByEmail(loginRequest.getEmail())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + loginRequest.getEmail()));
+        // Step 3: Reuse the user loaded during authentication instead of querying it again
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        User user = userDetails.getUser();
 
         // Step 4: Generate JWT token
-        String jwt = tokenProvider.generateToken(user.getEmail());
+        String jwt = tokenProvider.generateToken(userDetails);
 
         log.info("Login successful for user: {}", user.getEmail());
 
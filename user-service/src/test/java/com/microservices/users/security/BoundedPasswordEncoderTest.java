@@ -0,0 +1,118 @@
+package com.microservices.users.security;
+
+import com.microservices.users.enums.Role;
+import com.microservices.users.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void matchesOnHashingExecutor() {
+        encoder = encoder(new BCryptPasswordEncoder(4), 1, 1, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("secret");
+
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        encoder = encoder(blockingEncoder(started), 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture.runAsync(() -> encoder.matches("running", "hash"));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture.runAsync(() -> encoder.matches("queued", "hash"));
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> encoder.matches("rejected", "hash"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void givesUpAfterWaitTimeout() {
+        encoder = encoder(blockingEncoder(new CountDownLatch(1)), 1, 1, Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> encoder.matches("slow", "hash"))
+                .isInstanceOf(ServiceOverloadedException.class);
+    }
+
+    @Test
+    void rehashesWeakerPasswordOnSuccessfulLogin() {
+        encoder = encoder(new BCryptPasswordEncoder(5), 1, 4, Duration.ofSeconds(5));
+        String weakHash = new BCryptPasswordEncoder(4).encode("secret");
+        AtomicReference<String> upgradedHash = new AtomicReference<>();
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsService(email -> UserDetailsImpl.builder()
+                .id(1L)
+                .email(email)
+                .password(weakHash)
+                .role(Role.USER)
+                .build());
+        provider.setUserDetailsPasswordService((user, newPassword) -> {
+            upgradedHash.set(newPassword);
+            return user;
+        });
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("user@beefood.com", "secret"));
+
+        assertThat(upgradedHash.get()).startsWith("$2a$05$");
+        assertThat(encoder.matches("secret", upgradedHash.get())).isTrue();
+    }
+
+    private PasswordEncoder blockingEncoder(CountDownLatch started) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+    }
+
+    private static BoundedPasswordEncoder encoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                                  Duration waitTimeout) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        return new BoundedPasswordEncoder(delegate, executor, waitTimeout);
+    }
+}
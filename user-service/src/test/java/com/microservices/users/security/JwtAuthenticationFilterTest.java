@@ -0,0 +1,165 @@
+package com.microservices.users.security;
+
+import com.microservices.users.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtAuthenticationFilterTest {
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilterTest.class);
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+    private static final long JWT_EXPIRATION_MS = 86_400_000L;
+    private static final int BENCHMARK_REQUESTS = 2_000;
+
+    private final AtomicInteger userLookups = new AtomicInteger();
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", (int) JWT_EXPIRATION_MS);
+        tokenProvider.init();
+        token = tokenProvider.generateToken(principal(Role.USER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessModeBuildsPrincipalFromClaimsWithoutLookup() throws Exception {
+        JwtAuthenticationFilter filter = filter(true, cache(Duration.ofMinutes(5)));
+
+        Authentication authentication = authenticate(filter);
+
+        assertThat(userLookups).hasValue(0);
+        assertThat(authentication.getPrincipal()).isInstanceOf(UserDetailsImpl.class);
+        UserDetailsImpl principal = (UserDetailsImpl) authentication.getPrincipal();
+        assertThat(principal.getId()).isEqualTo(42L);
+        assertThat(principal.getEmail()).isEqualTo("user@beefood.com");
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void invalidationForcesLookupForTokensIssuedBeforeIt() throws Exception {
+        PrincipalCache cache = cache(Duration.ofMinutes(5));
+        JwtAuthenticationFilter filter = filter(true, cache);
+        authenticate(filter);
+
+        cache.invalidate("user@beefood.com");
+        Authentication authentication = authenticate(filter);
+
+        assertThat(userLookups).hasValue(1);
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+        assertThat(((UserDetailsImpl) authentication.getPrincipal()).getPassword()).isNull();
+    }
+
+    @Test
+    void databaseModeCachesLookups() throws Exception {
+        JwtAuthenticationFilter filter = filter(false, cache(Duration.ofMinutes(5)));
+
+        authenticate(filter);
+        authenticate(filter);
+
+        assertThat(userLookups).hasValue(1);
+    }
+
+    @Test
+    void repeatedTokenSkipsSignatureCheck() throws Exception {
+        tokenProvider = spy(tokenProvider);
+        JwtAuthenticationFilter filter = filter(true, cache(Duration.ofMinutes(5)));
+
+        authenticate(filter);
+        Authentication authentication = authenticate(filter);
+
+        verify(tokenProvider, times(1)).verifyAndParse(anyString());
+        assertThat(authentication).isNotNull();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkFilterThroughput() throws Exception {
+        double before = throughput(filter(false, cache(Duration.ZERO)));
+        int lookupsBefore = userLookups.getAndSet(0);
+        double after = throughput(filter(true, cache(Duration.ofMinutes(5))));
+
+        log.info("JwtAuthenticationFilter: per-request lookup {} req/s ({} lookups), stateless {} req/s ({} lookups)",
+                Math.round(before), lookupsBefore, Math.round(after), userLookups.get());
+        assertThat(lookupsBefore).isGreaterThanOrEqualTo(BENCHMARK_REQUESTS);
+        assertThat(userLookups).hasValue(0);
+    }
+
+    private double throughput(JwtAuthenticationFilter filter) throws Exception {
+        for (int i = 0; i < BENCHMARK_REQUESTS / 10; i++) {
+            authenticate(filter);
+        }
+        userLookups.set(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_REQUESTS; i++) {
+            authenticate(filter);
+        }
+        return BENCHMARK_REQUESTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private JwtAuthenticationFilter filter(boolean statelessPrincipal, PrincipalCache cache) {
+        // Simulates the users table: one round trip per lookup, returning the user's current role
+        UserDetailsService userDetailsService = email -> {
+            userLookups.incrementAndGet();
+            LockSupport.parkNanos(200_000);
+            UserDetailsImpl principal = principal(Role.ADMIN);
+            principal.setPassword("$2a$10$hash");
+            return principal;
+        };
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(true, 10_000, new SimpleMeterRegistry());
+        JwtAuthenticationFilter filter =
+                new JwtAuthenticationFilter(tokenProvider, userDetailsService, cache, verifiedTokenCache);
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", statelessPrincipal);
+        return filter;
+    }
+
+    private static PrincipalCache cache(Duration ttl) {
+        return new PrincipalCache(10_000, ttl, JWT_EXPIRATION_MS);
+    }
+
+    private static UserDetailsImpl principal(Role role) {
+        return UserDetailsImpl.builder()
+                .id(42L)
+                .email("user@beefood.com")
+                .role(role)
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.microservices.users.security;
+
+import com.microservices.users.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProviderTest.class);
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+    private static final int BENCHMARK_TOKENS = 20_000;
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 86_400_000);
+        tokenProvider.init();
+        token = tokenProvider.generateToken(UserDetailsImpl.builder()
+                .id(7L)
+                .email("driver@beefood.com")
+                .role(Role.DELIVERY_PERSON)
+                .build());
+    }
+
+    @Test
+    void verifyAndParseReturnsClaimsOfValidToken() {
+        Optional<Claims> claims = tokenProvider.verifyAndParse(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("driver@beefood.com");
+        assertThat(claims.get().get(JwtTokenProvider.CLAIM_ROLE)).isEqualTo("DELIVERY_PERSON");
+    }
+
+    @Test
+    void verifyAndParseRejectsTamperedAndMalformedTokens() {
+        String tampered = token.substring(0, token.length() - 2) + "AA";
+
+        assertThat(tokenProvider.verifyAndParse(tampered)).isEmpty();
+        assertThat(tokenProvider.verifyAndParse("not.a.jwt")).isEmpty();
+        assertThat(tokenProvider.verifyAndParse("")).isEmpty();
+        assertThat(tokenProvider.verifyAndParse(null)).isEmpty();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSingleCoreVerification() {
+        // Previous behaviour: validateToken and getDataFromToken each built a parser and decoded the secret
+        double twoPass = tokensPerSecond(() -> {
+            Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+            return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+        });
+        double singlePass = tokensPerSecond(() -> tokenProvider.verifyAndParse(token).orElseThrow().getSubject());
+
+        log.info("JwtTokenProvider: two-pass {} tokens/s, verifyAndParse {} tokens/s",
+                Math.round(twoPass), Math.round(singlePass));
+        assertThat(singlePass).isPositive();
+    }
+
+    private static double tokensPerSecond(Supplier<String> verification) {
+        for (int i = 0; i < BENCHMARK_TOKENS / 4; i++) {
+            verification.get();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_TOKENS; i++) {
+            verification.get();
+        }
+        return BENCHMARK_TOKENS / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,104 @@
+package com.microservices.users.security;
+
+import com.microservices.users.entity.User;
+import com.microservices.users.enums.Role;
+import com.microservices.users.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PrincipalCache.class, UserDetailsServiceImpl.class})
+class PrincipalCacheInvalidatorTest {
+    private static final String EMAIL = "owner@beefood.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setFirstName("Bee");
+        user.setLastName("Food");
+        user.setEmail(EMAIL);
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        principalCache.invalidateAll();
+    }
+
+    @Test
+    void dropsAPrincipalCachedBeforeTheChangeWasCommitted() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User changed = userRepository.findById(user.getId()).orElseThrow();
+            changed.setRole(Role.RESTAURANT_OWNER);
+            userRepository.flush();
+            // A concurrent request still reads the committed row and caches the old role
+            principalCache.put(EMAIL, UserDetailsImpl.build(user));
+        });
+
+        assertThat(principalCache.get(EMAIL)).isNull();
+    }
+
+    @Test
+    void keepsWhatIsCachedWhenTheChangeIsRolledBack() {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User changed = userRepository.findById(user.getId()).orElseThrow();
+            changed.setRole(Role.RESTAURANT_OWNER);
+            userRepository.flush();
+            principalCache.put(EMAIL, principal);
+            status.setRollbackOnly();
+        });
+
+        assertThat(principalCache.get(EMAIL)).isSameAs(principal);
+    }
+
+    @Test
+    void rehashingThePasswordOnLoginKeepsTheIssuedTokenTrusted() {
+        // Other tests leave invalidation markers for EMAIL behind, so this one logs in as a fresh user
+        String email = "customer@beefood.com";
+        User customer = new User();
+        customer.setFirstName("Bee");
+        customer.setLastName("Customer");
+        customer.setEmail(email);
+        customer.setPassword("weak-hash");
+        customer.setRole(Role.USER);
+        UserDetailsImpl principal = UserDetailsImpl.build(userRepository.save(customer));
+
+        userDetailsService.updatePassword(principal, "rehashed");
+
+        assertThat(userRepository.findByEmail(email).orElseThrow().getPassword()).isEqualTo("rehashed");
+        assertThat(principal.getPassword()).isEqualTo("rehashed");
+        assertThat(principalCache.isIssuedBeforeInvalidation(email, new Date())).isFalse();
+    }
+}
@@ -0,0 +1,38 @@
+package com.microservices.users.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+    private static final long JWT_EXPIRATION_MS = 86_400_000L;
+
+    @Test
+    void keepsInvalidationsOfMoreUsersThanItCachesPrincipals() {
+        PrincipalCache cache = new PrincipalCache(10, Duration.ofMinutes(5), JWT_EXPIRATION_MS);
+        Date issuedAt = Date.from(Instant.now().minusSeconds(60));
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.invalidate("user" + i + "@beefood.com");
+        }
+
+        assertThat(cache.isIssuedBeforeInvalidation("user0@beefood.com", issuedAt)).isTrue();
+    }
+
+    @Test
+    void comparesTheTokenIssueTimeInSeconds() {
+        PrincipalCache cache = new PrincipalCache(10, Duration.ofMinutes(5), JWT_EXPIRATION_MS);
+
+        cache.invalidate("user@beefood.com");
+        Instant now = Instant.now();
+
+        // iat carries whole seconds: a token issued the same second may predate the invalidation
+        assertThat(cache.isIssuedBeforeInvalidation("user@beefood.com", Date.from(now.minusSeconds(1)))).isTrue();
+        assertThat(cache.isIssuedBeforeInvalidation("user@beefood.com", Date.from(now.plusSeconds(2)))).isFalse();
+        assertThat(cache.isIssuedBeforeInvalidation("other@beefood.com", Date.from(now.minusSeconds(1)))).isFalse();
+    }
+}
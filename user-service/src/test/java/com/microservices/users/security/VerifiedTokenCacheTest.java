@@ -0,0 +1,61 @@
+package com.microservices.users.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void returnsClaimsForVerifiedTokenAndRecordsHitsAndMisses() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, meterRegistry);
+        Claims claims = claimsExpiringIn(60_000);
+
+        assertThat(cache.get("a.b.c")).isEmpty();
+        cache.put("a.b.c", claims);
+
+        assertThat(cache.get("a.b.c")).containsSame(claims);
+        assertThat(cache.get("a.b.d")).isEmpty();
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotServeTokensPastTheirExpiry() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, meterRegistry);
+
+        cache.put("a.b.c", claimsExpiringIn(-1_000));
+
+        assertThat(cache.get("a.b.c")).isEmpty();
+    }
+
+    @Test
+    void disabledCacheNeverHits() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 100, meterRegistry);
+
+        cache.put("a.b.c", claimsExpiringIn(60_000));
+
+        assertThat(cache.get("a.b.c")).isEmpty();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static Claims claimsExpiringIn(long millis) {
+        return Jwts.claims()
+                .setSubject("user@beefood.com")
+                .setExpiration(new Date(System.currentTimeMillis() + millis));
+    }
+}
@@ -0,0 +1,100 @@
+package com.microservices.users.service.impl;
+
+import com.microservices.users.dto.request.LoginRequest;
+import com.microservices.users.dto.response.LoginResponse;
+import com.microservices.users.entity.User;
+import com.microservices.users.enums.Role;
+import com.microservices.users.mapper.UserMapperImpl;
+import com.microservices.users.repository.UserRepository;
+import com.microservices.users.security.JwtTokenProvider;
+import com.microservices.users.security.PrincipalCache;
+import com.microservices.users.security.UserDetailsServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AuthServiceImpl.class, UserDetailsServiceImpl.class, JwtTokenProvider.class, PrincipalCache.class,
+        UserMapperImpl.class, AuthServiceImplTest.AuthenticationConfig.class})
+class AuthServiceImplTest {
+    private static final PasswordEncoder PASSWORD_ENCODER = new BCryptPasswordEncoder(4);
+
+    @Autowired
+    private AuthServiceImpl authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setFirstName("Bee");
+        user.setLastName("Food");
+        user.setEmail("customer@beefood.com");
+        user.setPassword(PASSWORD_ENCODER.encode("secret"));
+        user.setRole(Role.USER);
+        userRepository.save(user);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void loginIssuesSingleQuery() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("customer@beefood.com");
+        request.setPassword("secret");
+
+        LoginResponse response = authService.login(request);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(response.getToken()).isNotBlank();
+        assertThat(response.getUser().getEmail()).isEqualTo("customer@beefood.com");
+        assertThat(response.getUser().getRole()).isEqualTo("USER");
+    }
+
+    @TestConfiguration
+    static class AuthenticationConfig {
+        @Bean
+        AuthenticationManager authenticationManager(UserDetailsServiceImpl userDetailsService) {
+            DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+            provider.setUserDetailsService(userDetailsService);
+            provider.setPasswordEncoder(PASSWORD_ENCODER);
+            provider.setUserDetailsPasswordService(userDetailsService);
+            return new ProviderManager(provider);
+        }
+    }
+}